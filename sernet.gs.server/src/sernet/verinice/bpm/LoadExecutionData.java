@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.hibernate.proxy.HibernateProxy;
+import org.jbpm.api.cmd.Command;
+import org.jbpm.api.cmd.Environment;
+import org.jbpm.api.model.Transition;
+import org.jbpm.pvm.internal.model.ActivityImpl;
+import org.jbpm.pvm.internal.model.ExecutionImpl;
+
+import sernet.gs.service.CollectionUtil;
+
+/**
+ * jBPM command which loads the process variables and the outcomes of many
+ * executions at once.
+ *
+ * The executions are loaded with their variables in one query per 1000
+ * executions. Parent executions (variable scopes) are loaded the same way.
+ * Outcomes are the names of the outgoing transitions of the current activity
+ * of an execution. They only depend on the process definition and the
+ * activity and are cached in a map passed by the caller.
+ */
+@SuppressWarnings("serial")
+public class LoadExecutionData implements Command<Map<String, LoadExecutionData.ExecutionData>> {
+
+    private static final Logger LOG = Logger.getLogger(LoadExecutionData.class);
+
+    private static final String HQL_EXECUTIONS_BY_ID = "select distinct execution "
+            + "from org.jbpm.pvm.internal.model.ExecutionImpl execution "
+            + "left join fetch execution.variables "
+            + "where execution.id in (:ids)"; //$NON-NLS-1$
+
+    private static final String HQL_EXECUTIONS_BY_DBID = "select distinct execution "
+            + "from org.jbpm.pvm.internal.model.ExecutionImpl execution "
+            + "left join fetch execution.variables "
+            + "where execution.dbid in (:ids)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final List<String> executionIds;
+
+    private final transient ConcurrentMap<String, Set<String>> outcomeCache;
+
+    /**
+     * @param executionIds
+     *            The ids of the executions
+     * @param outcomeCache
+     *            A cache for the outcomes with process definition id and
+     *            activity name as key
+     */
+    public LoadExecutionData(Collection<String> executionIds,
+            ConcurrentMap<String, Set<String>> outcomeCache) {
+        this.executionIds = new ArrayList<>(new HashSet<>(executionIds));
+        this.outcomeCache = outcomeCache;
+    }
+
+    @Override
+    public Map<String, ExecutionData> execute(Environment environment) {
+        Session session = environment.get(Session.class);
+        List<ExecutionImpl> executions = loadExecutions(session, HQL_EXECUTIONS_BY_ID,
+                executionIds);
+        loadParents(session, executions);
+        Map<String, ExecutionData> result = new HashMap<>(executions.size());
+        for (ExecutionImpl execution : executions) {
+            result.put(execution.getId(),
+                    new ExecutionData(execution.getVariables(), getOutcomes(execution)));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Data of " + result.size() + " executions loaded, cached outcomes: "
+                    + outcomeCache.size());
+        }
+        return result;
+    }
+
+    /**
+     * Loads the parent executions of the executions with their variables.
+     * Without this the variables of every parent are loaded by a single
+     * query.
+     */
+    private static void loadParents(Session session, List<ExecutionImpl> executions) {
+        List<ExecutionImpl> children = executions;
+        while (!children.isEmpty()) {
+            Set<Long> parentDbIds = new HashSet<>();
+            for (ExecutionImpl child : children) {
+                Object parent = child.getParentVariableScope();
+                if (parent instanceof HibernateProxy && !Hibernate.isInitialized(parent)) {
+                    parentDbIds.add((Long) ((HibernateProxy) parent)
+                            .getHibernateLazyInitializer().getIdentifier());
+                }
+            }
+            children = loadExecutions(session, HQL_EXECUTIONS_BY_DBID,
+                    new ArrayList<>(parentDbIds));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<ExecutionImpl> loadExecutions(Session session, String hql,
+            List<T> ids) {
+        List<ExecutionImpl> executions = new ArrayList<>(ids.size());
+        for (List<T> partition : CollectionUtil.partition(ids, MAX_IN_CLAUSE_SIZE)) {
+            Query query = session.createQuery(hql);
+            query.setParameterList("ids", partition);
+            executions.addAll(query.list());
+        }
+        return executions;
+    }
+
+    private Set<String> getOutcomes(ExecutionImpl execution) {
+        String key = execution.getProcessDefinitionId() + "#" + execution.getActivityName();
+        Set<String> outcomes = outcomeCache.get(key);
+        if (outcomes == null) {
+            outcomes = loadOutcomes(execution);
+            outcomeCache.putIfAbsent(key, outcomes);
+        }
+        return outcomes;
+    }
+
+    /**
+     * Returns the names of the outgoing transitions of the current activity
+     * like org.jbpm.pvm.internal.cmd.GetOutcomes does.
+     */
+    private static Set<String> loadOutcomes(ExecutionImpl execution) {
+        ActivityImpl activity = execution.getActivity();
+        if (activity == null) {
+            return Collections.emptySet();
+        }
+        List<? extends Transition> transitions = activity.getOutgoingTransitions();
+        if (transitions == null || transitions.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> outcomes = new HashSet<>(transitions.size());
+        for (Transition transition : transitions) {
+            outcomes.add(transition.getName());
+        }
+        return Collections.unmodifiableSet(outcomes);
+    }
+
+    /**
+     * The variables and outcomes of one execution.
+     */
+    public static final class ExecutionData {
+
+        private final Map<String, Object> variables;
+
+        private final Set<String> outcomes;
+
+        ExecutionData(Map<String, Object> variables, Set<String> outcomes) {
+            this.variables = variables;
+            this.outcomes = outcomes;
+        }
+
+        public Map<String, Object> getVariables() {
+            return variables;
+        }
+
+        public Set<String> getOutcomes() {
+            return outcomes;
+        }
+    }
+}
@@ -26,13 +26,19 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.log4j.Logger;
+import org.hibernate.Query;
+import org.hibernate.criterion.CriteriaSpecification;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
 import org.jbpm.api.Execution;
 import org.jbpm.api.ExecutionService;
 import org.jbpm.api.ManagementService;
@@ -42,9 +48,11 @@ import org.jbpm.pvm.internal.task.TaskImpl;
 import org.jbpm.pvm.internal.type.Variable;
 import org.springframework.remoting.httpinvoker.HttpInvokerProxyFactoryBean;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.ServerInitializer;
 import sernet.hui.common.VeriniceContext;
+import sernet.verinice.bpm.LoadExecutionData.ExecutionData;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
@@ -135,6 +143,23 @@ public class TaskService implements ITaskService {
 
     private static final String PROCESS_NAME_OF_TASK_WITH_RELEASE_PROCESS = "individual-task-release-process";
 
+    private static final String HQL_SCOPE_TITLES = "select elmt.dbId, props.propertyValue, elmt.uuid "
+            + "from CnATreeElement elmt " + "inner join elmt.entity as entity "
+            + "inner join entity.typedPropertyLists as propertyList "
+            + "inner join propertyList.properties as props " + "where elmt.dbId in (:scopeIds) "
+            + "and props.propertyType in (:titleProperties)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    /**
+     * Outcomes of tasks by process definition id and activity name, process
+     * definitions are never changed after deployment
+     */
+    private final ConcurrentMap<String, Set<String>> outcomeCache = new ConcurrentHashMap<>();
+
     private ProcessEngine processEngine;
 
     private IAuthService authService;
@@ -193,10 +218,40 @@ public class TaskService implements ITaskService {
         return doGetTaskList(parameter);
     }
 
+    @Override
+    public int getCurrentUserTaskCount(ITaskParameter parameter) {
+        parameter.setUsername(getAuthService().getUsername());
+        parameter.setAllUser(false);
+        return doGetTaskCount(parameter);
+    }
+
+    @Override
+    public int getTaskCount(ITaskParameter parameter) {
+        ServerInitializer.inheritVeriniceContextState();
+        return doGetTaskCount(parameter);
+    }
+
+    private int doGetTaskCount(ITaskParameter parameter) {
+        if (!parameter.getAllUser() && parameter.getUsername() == null) {
+            parameter.setUsername(getAuthService().getUsername());
+        }
+        if (!doSearch(parameter)) {
+            return 0;
+        }
+        Object[] queryElements = prepareSearchQuery(parameter);
+        List<?> paramList = (List<?>) queryElements[0];
+        String hql = "select count(*) " + queryElements[1]; //$NON-NLS-1$
+        List<?> result = getJbpmTaskDao().findByQuery(hql, paramList.toArray());
+        return (result.isEmpty() || result.get(0) == null) ? 0
+                : ((Number) result.get(0)).intValue();
+    }
+
     private List<ITask> doGetTaskList(ITaskParameter parameter) {
-        // Workaround for null index column (JBPM4_EXECUTION.PARENT_IDX_) for
-        // collection: org.jbpm.pvm.internal.model.ExecutionImpl.executions
-        getElementDao().executeCallback(ParentIdxFixCallback.getInstance());
+        if (parameter.getFirstResult() == null || parameter.getFirstResult() == 0) {
+            // Workaround for null index column (JBPM4_EXECUTION.PARENT_IDX_) for
+            // collection: org.jbpm.pvm.internal.model.ExecutionImpl.executions
+            getElementDao().executeCallback(ParentIdxFixCallback.getInstance());
+        }
 
         if (!parameter.getAllUser() && parameter.getUsername() == null) {
             parameter.setUsername(getAuthService().getUsername());
@@ -210,8 +265,7 @@ public class TaskService implements ITaskService {
             if (log.isDebugEnabled()) {
                 log.debug("getTaskList, hql: " + hql); //$NON-NLS-1$
             }
-            @SuppressWarnings("unchecked")
-            List<Object> jbpmTaskList = getJbpmTaskDao().findByQuery(hql, paramList.toArray());
+            List<?> jbpmTaskList = findTasks(hql, paramList, parameter);
             if (log.isDebugEnabled()) {
                 log.debug("getTaskList, number of tasks: " + jbpmTaskList.size()); //$NON-NLS-1$
             }
@@ -226,37 +280,82 @@ public class TaskService implements ITaskService {
         return taskList;
     }
 
+    private List<?> findTasks(String hql, final List<?> paramList, ITaskParameter parameter) {
+        if (parameter.getMaxResults() == null) {
+            return getJbpmTaskDao().findByQuery(hql, paramList.toArray());
+        }
+        // pages need a stable order
+        final String pagedHql = hql + "order by task.dbid"; //$NON-NLS-1$
+        final int firstResult = (parameter.getFirstResult() != null)
+                ? parameter.getFirstResult() : 0;
+        final int maxResults = parameter.getMaxResults();
+        return (List<?>) getElementDao().executeCallback(session -> {
+            Query query = session.createQuery(pagedHql);
+            for (int i = 0; i < paramList.size(); i++) {
+                query.setParameter(i, paramList.get(i));
+            }
+            query.setFirstResult(firstResult);
+            query.setMaxResults(maxResults);
+            return query.list();
+        });
+    }
+
     private List<ITask> populateTaskList(List<?> jbpmTaskList) {
-        List<ITask> taskList;
-        taskList = new ArrayList<>();
-        Task task = null;
-        for (Iterator<?> iterator = jbpmTaskList.iterator(); iterator.hasNext();) {
-            Object object = iterator.next();
+        List<Task> tasks = new ArrayList<>(jbpmTaskList.size());
+        for (Object object : jbpmTaskList) {
             if (object instanceof Task) {
-                task = (Task) object;
+                tasks.add((Task) object);
             }
             if (object instanceof Object[]) {
-                task = (Task) ((Object[]) object)[0];
+                tasks.add((Task) ((Object[]) object)[0]);
             }
-            if (task != null) {
-                try {
-                    ITask taskInfo = map(task);
-                    taskInfo.setOutcomes(getOutcomeList(task));
-                    taskList.add(taskInfo);
-                } catch (ElementNotFoundException enfe) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
-                                + enfe.getUuid());
-                    }
-                    // ignore task
+        }
+        Map<String, ExecutionData> executionDataMap = loadExecutionData(tasks);
+        List<Map<String, Object>> varMaps = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            ExecutionData executionData = executionDataMap.get(task.getExecutionId());
+            varMaps.add((executionData != null) ? executionData.getVariables()
+                    : loadVariables(task));
+        }
+        TaskElements taskElements = loadTaskElements(varMaps);
+
+        List<ITask> taskList = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            try {
+                ITask taskInfo = map(task, varMaps.get(i), taskElements);
+                ExecutionData executionData = executionDataMap.get(task.getExecutionId());
+                Set<String> outcomes = (executionData != null) ? executionData.getOutcomes()
+                        : getTaskService().getOutcomes(task.getId());
+                taskInfo.setOutcomes(getOutcomeList(outcomes));
+                taskList.add(taskInfo);
+            } catch (ElementNotFoundException enfe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
+                            + enfe.getUuid());
                 }
+                // ignore task
             }
         }
         return taskList;
     }
 
-    private List<KeyValue> getOutcomeList(Task task) {
-        Set<String> outcomeSet = getTaskService().getOutcomes(task.getId());
+    /**
+     * Loads the variables and outcomes of the executions of all tasks with
+     * one jBPM command.
+     */
+    private Map<String, ExecutionData> loadExecutionData(List<Task> tasks) {
+        Set<String> executionIds = new HashSet<>(tasks.size());
+        for (Task task : tasks) {
+            executionIds.add(task.getExecutionId());
+        }
+        Map<String, ExecutionData> executionDataMap = getProcessEngine()
+                .execute(new LoadExecutionData(executionIds, outcomeCache));
+        return (executionDataMap != null) ? executionDataMap
+                : Collections.<String, ExecutionData> emptyMap();
+    }
+
+    private List<KeyValue> getOutcomeList(Set<String> outcomeSet) {
         List<KeyValue> outcomeList = new ArrayList<>(outcomeSet.size());
         for (String id : outcomeSet) {
             if (!getTaskOutcomeBlacklist().contains(id)) {
@@ -402,7 +501,8 @@ public class TaskService implements ITaskService {
                 || (parameter.getRead() || parameter.getUnread()));
     }
 
-    private TaskInformation map(Task task) {
+    private TaskInformation map(Task task, Map<String, Object> varMap,
+            TaskElements taskElements) {
         TaskInformation taskInformation = new TaskInformation();
         taskInformation.setId(task.getId());
         taskInformation.setType(task.getName());
@@ -411,7 +511,6 @@ public class TaskService implements ITaskService {
 
         log.debug("map, setting read status..."); //$NON-NLS-1$
 
-        Map<String, Object> varMap = loadVariables(task);
         taskInformation.setName(loadTaskTitle(task.getName(), varMap));
         taskInformation.setDescription(loadTaskDescription(task.getName(), varMap));
 
@@ -428,8 +527,8 @@ public class TaskService implements ITaskService {
             taskInformation.setProperties((Set<String>) value);
         }
 
-        mapElement(taskInformation, varMap);
-        mapAudit(taskInformation, varMap);
+        mapElement(taskInformation, varMap, taskElements);
+        mapAudit(taskInformation, varMap, taskElements);
 
         if (log.isDebugEnabled()) {
             log.debug("map, loading type..."); //$NON-NLS-1$
@@ -491,7 +590,79 @@ public class TaskService implements ITaskService {
         return getExecutionService().getVariables(executionId, varNameSet);
     }
 
-    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap) {
+    /**
+     * Loads the elements and audits referenced by the process variables and
+     * the titles of the scopes of the elements with a few queries.
+     */
+    private TaskElements loadTaskElements(Collection<Map<String, Object>> varMaps) {
+        Set<String> uuids = new HashSet<>();
+        for (Map<String, Object> varMap : varMaps) {
+            addIfNotNull(uuids, (String) varMap.get(IGenericProcess.VAR_UUID));
+            addIfNotNull(uuids, (String) varMap.get(IIsaExecutionProcess.VAR_AUDIT_UUID));
+        }
+        TaskElements taskElements = new TaskElements();
+        RetrieveInfo ri = new RetrieveInfo();
+        ri.setProperties(true);
+        for (List<String> partition : CollectionUtil.partition(new ArrayList<>(uuids),
+                MAX_IN_CLAUSE_SIZE)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+            criteria.add(Restrictions.in("uuid", partition)); //$NON-NLS-1$
+            ri.configureCriteria(criteria);
+            criteria.setResultTransformer(CriteriaSpecification.DISTINCT_ROOT_ENTITY);
+            @SuppressWarnings("unchecked")
+            List<CnATreeElement> elements = getElementDao().findByCriteria(criteria);
+            for (CnATreeElement element : elements) {
+                taskElements.elementsByUuid.put(element.getUuid(), element);
+            }
+        }
+
+        Set<Integer> scopeIds = new HashSet<>();
+        for (Map<String, Object> varMap : varMaps) {
+            if (varMap.get(IIsaExecutionProcess.VAR_AUDIT_UUID) == null) {
+                CnATreeElement element = taskElements
+                        .getElement((String) varMap.get(IGenericProcess.VAR_UUID));
+                if (element != null && element.getScopeId() != null) {
+                    scopeIds.add(element.getScopeId());
+                }
+            }
+        }
+        loadScopeTitles(new ArrayList<>(scopeIds), taskElements);
+        if (log.isDebugEnabled()) {
+            log.debug("loadTaskElements, elements: " + taskElements.elementsByUuid.size() //$NON-NLS-1$
+                    + ", scopes: " + scopeIds.size()); //$NON-NLS-1$
+        }
+        return taskElements;
+    }
+
+    private void loadScopeTitles(List<Integer> scopeIds, TaskElements taskElements) {
+        Map<Integer, List<String[]>> rowsByScopeId = new HashMap<>(scopeIds.size());
+        for (List<Integer> partition : CollectionUtil.partition(scopeIds, MAX_IN_CLAUSE_SIZE)) {
+            List<?> rows = getElementDao().findByQuery(HQL_SCOPE_TITLES,
+                    new String[] { "scopeIds", "titleProperties" }, //$NON-NLS-1$ //$NON-NLS-2$
+                    new Object[] { partition,
+                            Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
+            for (Object result : rows) {
+                Object[] row = (Object[]) result;
+                rowsByScopeId.computeIfAbsent((Integer) row[0], id -> new ArrayList<>())
+                        .add(new String[] { (String) row[1], (String) row[2] });
+            }
+        }
+        for (Map.Entry<Integer, List<String[]>> entry : rowsByScopeId.entrySet()) {
+            // as before a title is only used if it is unique
+            if (entry.getValue().size() == 1) {
+                taskElements.scopeTitles.put(entry.getKey(), entry.getValue().get(0));
+            }
+        }
+    }
+
+    private static void addIfNotNull(Set<String> set, String value) {
+        if (value != null) {
+            set.add(value);
+        }
+    }
+
+    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap,
+            TaskElements taskElements) {
 
         log.debug("mapAudit, loading audit..."); //$NON-NLS-1$
 
@@ -499,18 +670,18 @@ public class TaskService implements ITaskService {
         String elementUuid = (String) varMap.get(IIsaExecutionProcess.VAR_UUID);
 
         if (uuidAudit != null) {// task references child of Audit
-            return handleAuditElement(taskInformation, uuidAudit);
+            return handleAuditElement(taskInformation, uuidAudit, taskElements);
         } else { // task references child of ITVerbund or Organization
-            return handleNonAuditElement(taskInformation, elementUuid);
+            return handleNonAuditElement(taskInformation, elementUuid, taskElements);
         }
     }
 
     private TaskInformation handleNonAuditElement(TaskInformation taskInformation,
-            String elementUuid) {
+            String elementUuid, TaskElements taskElements) {
 
-        String[] dbResult = getTitlefromDB(elementUuid);
-        String title = dbResult[0];
-        String uuid = dbResult[1];
+        String[] scopeTitle = taskElements.getScopeTitle(elementUuid);
+        String title = scopeTitle[0];
+        String uuid = scopeTitle[1];
 
         if (title == null || title.equals("")) {
             taskInformation.setGroupTitle(Messages.getString("TaskService.0")); //$NON-NLS-1$
@@ -522,12 +693,10 @@ public class TaskService implements ITaskService {
         return taskInformation;
     }
 
-    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit) {
-        CnATreeElement audit;
+    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit,
+            TaskElements taskElements) {
         taskInformation.setUuidGroup(uuidAudit);
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        audit = getElementDao().findByUuid(uuidAudit, ri);
+        CnATreeElement audit = taskElements.getElement(uuidAudit);
 
         if (audit != null) {
             taskInformation.setGroupTitle(audit.getTitle());
@@ -536,45 +705,8 @@ public class TaskService implements ITaskService {
         return taskInformation;
     }
 
-    private String[] getTitlefromDB(String elementUuid) {
-        String[] results = null;
-        String hql = "select props.propertyValue, elmt.uuid from CnATreeElement elmt "
-                + "inner join elmt.entity as entity "
-                + "inner join entity.typedPropertyLists as propertyList "
-                + "inner join propertyList.properties as props " + "where  elmt.dbId = ("
-                + "select scopeId from CnATreeElement element2 where element2.uuid = :uuid " + ") "
-                + "AND props.propertyType IN (:titleProperties)";
-        List hqlResult = getElementDao().findByQuery(hql,
-                new String[] { "uuid", "titleProperties" }, new Object[] { elementUuid,
-                        Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
-        if (hqlResult instanceof Collection && hqlResult.size() == 1) {
-            results = getValuesFromHQLResult(hqlResult);
-        }
-        if (results != null && results.length == 2 && results[0] != null && results[1] != null) {
-            return results;
-        } else {
-            return new String[] { "", "" };
-        }
-    }
-
-    private String[] getValuesFromHQLResult(List hqlResult) {
-        String[] results = new String[2];
-        if (hqlResult.get(0) instanceof Object[]) {
-            Object[] hqlResultArr = (Object[]) hqlResult.get(0);
-            if (hqlResultArr.length == 2) {
-                if (hqlResultArr[0] instanceof String) {
-                    results[0] = (String) hqlResultArr[0];
-                }
-                if (hqlResultArr[1] instanceof String) {
-                    results[1] = (String) hqlResultArr[1];
-                }
-            }
-        }
-        return results;
-    }
-
     private TaskInformation mapElement(TaskInformation taskInformation,
-            Map<String, Object> varMap) {
+            Map<String, Object> varMap, TaskElements taskElements) {
 
         String uuid = (String) varMap.get(IGenericProcess.VAR_UUID);
         taskInformation.setUuid(uuid);
@@ -584,9 +716,7 @@ public class TaskService implements ITaskService {
             return taskInformation;
         }
 
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        CnATreeElement element = getElementDao().findByUuid(uuid, ri);
+        CnATreeElement element = taskElements.getElement(uuid);
 
         if (element != null) {
             taskInformation.setElementTitle(element.getTitle());
@@ -998,7 +1128,37 @@ public class TaskService implements ITaskService {
         if (task == null) {
             return null;
         }
-        return map(task);
+        Map<String, Object> varMap = loadVariables(task);
+        return map(task, varMap, loadTaskElements(Collections.singletonList(varMap)));
+    }
+
+    /**
+     * The elements, audits and scope titles referenced by a list of tasks.
+     */
+    private static final class TaskElements {
+
+        private final Map<String, CnATreeElement> elementsByUuid = new HashMap<>();
+
+        /**
+         * Title and uuid of a scope by the db-id of the scope
+         */
+        private final Map<Integer, String[]> scopeTitles = new HashMap<>();
+
+        private CnATreeElement getElement(String uuid) {
+            return (uuid != null) ? elementsByUuid.get(uuid) : null;
+        }
+
+        private String[] getScopeTitle(String elementUuid) {
+            CnATreeElement element = getElement(elementUuid);
+            String[] scopeTitle = null;
+            if (element != null && element.getScopeId() != null) {
+                scopeTitle = scopeTitles.get(element.getScopeId());
+            }
+            if (scopeTitle != null && scopeTitle[0] != null && scopeTitle[1] != null) {
+                return scopeTitle;
+            }
+            return new String[] { "", "" };
+        }
     }
 
 }
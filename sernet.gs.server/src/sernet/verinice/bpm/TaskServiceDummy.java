@@ -56,6 +56,16 @@ public class TaskServiceDummy implements ITaskService {
         return Collections.emptyList();
     }
 
+    @Override
+    public int getCurrentUserTaskCount(ITaskParameter parameter) {
+        return 0;
+    }
+
+    @Override
+    public int getTaskCount(ITaskParameter parameter) {
+        return 0;
+    }
+
     @Override
     public void markAsRead(String taskId) {
     }
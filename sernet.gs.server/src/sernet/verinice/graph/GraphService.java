@@ -26,7 +26,6 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
@@ -135,7 +134,7 @@ public class GraphService implements IGraphService, Serializable {
 
     /**
      * Loads all vertices and adds them to the graph. An edge for each children
-     * is added if the child is part of the graph.
+     * is added if the child and the parent are part of the graph.
      */
     private Map<Integer, CnATreeElement> loadVerticesAndRelatives(VeriniceGraph graph,
             List<? extends IGraphElementLoader> loaderList) {
@@ -155,9 +154,14 @@ public class GraphService implements IGraphService, Serializable {
             }
             elementsByDBId.put(element.getDbId(), element);
         }
-        for (CnATreeElement parent : elementList) {
-            Set<CnATreeElement> children = parent.getChildren();
-            for (CnATreeElement child : children) {
+        // The parent id is used instead of parent.getChildren() to avoid lazy
+        // loading of the children. Elements loaded by a projection have no
+        // children at all.
+        for (CnATreeElement child : elementList) {
+            CnATreeElement parent = (child.getParentId() != null)
+                    ? elementsByDBId.get(child.getParentId())
+                    : null;
+            if (parent != null) {
                 createParentChildEdge(parent, child, graph, elementsByDBId);
             }
         }
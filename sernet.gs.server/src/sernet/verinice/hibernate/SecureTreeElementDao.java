@@ -18,6 +18,8 @@
 package sernet.verinice.hibernate;
 
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -26,7 +28,9 @@ import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
 import org.springframework.orm.hibernate3.HibernateCallback;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.SecurityException;
+import sernet.gs.service.WritePermissionCache;
 import sernet.verinice.interfaces.ApplicationRoles;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
@@ -45,6 +49,15 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
 
 	private final Logger log = Logger.getLogger(SecureTreeElementDao.class);
 
+    private static final String HQL_WRITABLE_IDS = "select distinct p.cnaTreeElement.dbId "
+            + "from Permission p where p.cnaTreeElement.dbId in (:dbIds) "
+            + "and p.role in (:roles) and p.writeAllowed = :writeAllowed"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
 	private IAuthService authService;
 	private IBaseDao<Configuration, Integer> configurationDao;
 	private IBaseDao<Permission, Integer> permissionDao;
@@ -160,9 +173,61 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         }
     }
 
+    /*
+     * @see
+     * sernet.verinice.interfaces.IBaseDao#prefetchRights(java.util.Collection)
+     */
+    @Override
+    public void prefetchRights(Collection<? extends Integer> ids) {
+        WritePermissionCache cache = WritePermissionCache.current();
+        if (cache == null || ids == null || ids.isEmpty() || !isPermissionHandlingNeeded()) {
+            return;
+        }
+        String username = getAuthService().getUsername();
+        String[] roleArray = getDynamicRoles(username);
+        if (roleArray != null && !hasAdminRole(roleArray)) {
+            loadWritePermissions(cache, ids, username, roleArray);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadWritePermissions(WritePermissionCache cache,
+            Collection<? extends Integer> ids, String username, final String[] roleArray) {
+        List<Integer> unknownIds = cache.getUnknownDbIds(username, ids);
+        for (final List<Integer> partition : CollectionUtil.partition(unknownIds,
+                MAX_IN_CLAUSE_SIZE)) {
+            List<Integer> writableIds = (List<Integer>) getPermissionDao()
+                    .executeCallback(session -> session.createQuery(HQL_WRITABLE_IDS)
+                            .setParameterList("dbIds", partition)
+                            .setParameterList("roles", roleArray)
+                            .setParameter("writeAllowed", Boolean.TRUE).list());
+            cache.putWriteAllowed(username, partition, writableIds);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Write permissions of " + unknownIds.size() + " elements loaded for user: "
+                    + username);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     protected void checkRightsForNonAdmin(Integer dbId, String username,
             String[] roleArray) {
+        WritePermissionCache cache = WritePermissionCache.current();
+        if (cache != null && dbId != null) {
+            Boolean writeAllowed = cache.isWriteAllowed(username, dbId);
+            if (writeAllowed == null) {
+                loadWritePermissions(cache, Collections.singletonList(dbId), username,
+                        roleArray);
+                writeAllowed = cache.isWriteAllowed(username, dbId);
+            }
+            if (!Boolean.TRUE.equals(writeAllowed)) {
+                final String message = "User: " + username
+                        + " has no right to write CnATreeElement with id: " + dbId;
+                log.warn(message);
+                throw new SecurityException(message);
+            }
+            return;
+        }
         String hql = createHql(roleArray);
 
         Object[] params = new Object[] { dbId, Boolean.TRUE };
@@ -294,9 +359,18 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
 		return false;
 	}
 
-	private String[] getDynamicRoles(String username) {
-		return getConfigurationService().getRoles(username);
-	}
+    private String[] getDynamicRoles(String username) {
+        WritePermissionCache cache = WritePermissionCache.current();
+        if (cache == null) {
+            return getConfigurationService().getRoles(username);
+        }
+        String[] roles = cache.getRoles(username);
+        if (roles == null) {
+            roles = getConfigurationService().getRoles(username);
+            cache.putRoles(username, roles);
+        }
+        return roles;
+    }
 
 	public void setAuthService(IAuthService authService) {
 		this.authService = authService;
@@ -18,11 +18,16 @@
 package sernet.verinice.hibernate;
 
 import java.io.Serializable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import sernet.gs.service.RetrieveInfo;
 import sernet.verinice.interfaces.IBaseDao;
@@ -34,6 +39,7 @@ import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.InheritLogger;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.IndexQueue;
 
 public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T, ID>
         implements IBaseDao<T, ID> {
@@ -43,6 +49,7 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
     private IElementSearchDao searchDao;
     private IJsonBuilder jsonBuilder;
     private IElementTitleCache titleCache;
+    private IndexQueue indexQueue;
 
     public TreeElementDao(Class<T> type) {
         super(type);
@@ -201,7 +208,9 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
 
     private void updateIndex(CnATreeElement element) {
         try {
-            if (getSearchDao() != null) {
+            if (getIndexQueue() != null) {
+                getIndexQueue().add(element);
+            } else if (getSearchDao() != null) {
                 IJsonBuilder builder = getJsonBuilder();
                 if (builder != null && builder.isIndexableElement(element)) {
                     getSearchDao().updateOrIndex(element.getUuid(), builder.getJson(element));
@@ -215,8 +224,9 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
 
     private void updateTitleCache(CnATreeElement element) {
         try {
-            if (getTitleCache() != null && element.isScope()) {
-                getTitleCache().update(element.getDbId(), element.getTitle());
+            if (getTitleCache() != null) {
+                String title = element.isScope() ? element.getTitle() : null;
+                updateTitleCacheAfterCommit(element.getDbId(), title);
             }
         } catch (Exception e) {
             String uuid = (element != null) ? element.getUuid() : null;
@@ -225,11 +235,77 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
     }
 
     protected void indexDelete(CnATreeElement element) {
-        if (getSearchDao() != null) {
+        if (getTitleCache() != null) {
+            updateTitleCacheAfterCommit(element.getDbId(), null);
+        }
+        if (getIndexQueue() != null) {
+            getIndexQueue().remove(element);
+        } else if (getSearchDao() != null) {
             getSearchDao().delete(element.getUuid());
         }
     }
 
+    /**
+     * Updates the title cache after the current transaction is committed, a
+     * rolled back transaction leaves the cache unchanged. The updates of a
+     * transaction are collected and applied by one synchronization, the last
+     * update of an element wins. Without an active transaction the cache is
+     * updated immediately.
+     *
+     * @param dbId
+     *            The db-id of a saved or deleted element
+     * @param title
+     *            The new title or null to remove the title from the cache
+     */
+    private void updateTitleCacheAfterCommit(Integer dbId, String title) {
+        IElementTitleCache titleCache = getTitleCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getTitleCacheBuffer(titleCache).put(dbId, title);
+        } else {
+            applyTitleUpdate(titleCache, dbId, title);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Integer, String> getTitleCacheBuffer(
+            final IElementTitleCache titleCache) {
+        Map<Integer, String> buffer = (Map<Integer, String>) TransactionSynchronizationManager
+                .getResource(titleCache);
+        if (buffer == null) {
+            final Map<Integer, String> newBuffer = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(titleCache, newBuffer);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(titleCache);
+                            if (status != TransactionSynchronization.STATUS_COMMITTED) {
+                                return;
+                            }
+                            for (Map.Entry<Integer, String> entry : newBuffer.entrySet()) {
+                                applyTitleUpdate(titleCache, entry.getKey(), entry.getValue());
+                            }
+                        }
+                    });
+            buffer = newBuffer;
+        }
+        return buffer;
+    }
+
+    private static void applyTitleUpdate(IElementTitleCache titleCache, Integer dbId,
+            String title) {
+        try {
+            if (title != null) {
+                titleCache.update(dbId, title);
+            } else {
+                titleCache.remove(dbId);
+            }
+        } catch (Exception e) {
+            LOG.error("Error while updating title cache, db-id: " + dbId, e);
+        }
+    }
+
     /**
      * Calls change listener methods on changed element. Causes changes in
      * protection level (schutzbedarf) to be propagated.
@@ -290,4 +366,17 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         this.titleCache = titleCache;
     }
 
+    public IndexQueue getIndexQueue() {
+        return indexQueue;
+    }
+
+    /**
+     * @param indexQueue
+     *            If set, changed elements are indexed by this queue instead of
+     *            updating the index directly
+     */
+    public void setIndexQueue(IndexQueue indexQueue) {
+        this.indexQueue = indexQueue;
+    }
+
 }
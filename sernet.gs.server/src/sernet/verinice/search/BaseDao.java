@@ -21,13 +21,18 @@ package sernet.verinice.search;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.log4j.Logger;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.MultiSearchRequestBuilder;
@@ -37,17 +42,24 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.search.SearchType;
 import org.elasticsearch.action.update.UpdateResponse;
 import org.elasticsearch.client.Client;
+import org.elasticsearch.common.settings.ImmutableSettings;
 import org.elasticsearch.index.engine.DocumentMissingException;
 import org.elasticsearch.index.query.AndFilterBuilder;
+import org.elasticsearch.index.query.FilterBuilder;
 import org.elasticsearch.index.query.FilterBuilders;
 import org.elasticsearch.index.query.MatchAllQueryBuilder;
 import org.elasticsearch.index.query.MatchQueryBuilder;
 import org.elasticsearch.index.query.MatchQueryBuilder.Operator;
+import org.elasticsearch.index.query.MultiMatchQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.query.TermFilterBuilder;
 import org.elasticsearch.index.query.TermsFilterBuilder;
 import org.elasticsearch.indices.IndexMissingException;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHitsBuilder;
 
+import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.verinice.interfaces.ApplicationRoles;
 import sernet.verinice.interfaces.IAuthService;
@@ -62,6 +74,10 @@ import sernet.verinice.model.search.VeriniceQuery;
 public abstract class BaseDao implements ISearchDao {
 
     private static final Logger LOG = Logger.getLogger(BaseDao.class);
+
+    private static final String SETTING_REFRESH_INTERVAL = "index.refresh_interval";
+    private static final String REFRESH_INTERVAL_DISABLED = "-1";
+    private static final String REFRESH_INTERVAL_DEFAULT = "1s";
     
     private ElasticsearchClientFactory clientFactory;
     
@@ -81,6 +97,10 @@ public abstract class BaseDao implements ISearchDao {
             ISearchService.ES_FIELD_SOURCE_ID,
             ISearchService.ES_FIELD_SCOPE_ID,
             ISearchService.ES_FIELD_PARENT_ID});
+
+    // search fields of all entity types of the HUI type factory they were
+    // created for, created again if the factory is replaced
+    private volatile SearchFields allSearchFields;
     
   
     /* (non-Javadoc)
@@ -128,6 +148,51 @@ public abstract class BaseDao implements ISearchDao {
         return response;
     }
     
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#bulkIndex(java.util.Map)
+     */
+    @Override
+    public BulkResponse bulkIndex(Map<String, String> jsonById) {
+        BulkRequestBuilder bulkRequest = getClient().prepareBulk();
+        for (Entry<String, String> entry : jsonById.entrySet()) {
+            bulkRequest.add(getClient().prepareIndex(getIndex(), getType(), entry.getKey())
+                    .setSource(entry.getValue()));
+        }
+        BulkResponse response = bulkRequest.execute().actionGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Bulk request executed, documents: " + jsonById.size() + ", runtime: "
+                    + response.getTookInMillis() + " ms");
+        }
+        return response;
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#disableRefresh()
+     */
+    @Override
+    public void disableRefresh() {
+        setRefreshInterval(REFRESH_INTERVAL_DISABLED);
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#enableRefresh()
+     */
+    @Override
+    public void enableRefresh() {
+        setRefreshInterval(REFRESH_INTERVAL_DEFAULT);
+        getClient().admin().indices().prepareRefresh(getIndex()).execute().actionGet();
+    }
+
+    private void setRefreshInterval(String interval) {
+        getClient().admin().indices().prepareUpdateSettings(getIndex())
+                .setSettings(ImmutableSettings.settingsBuilder()
+                        .put(SETTING_REFRESH_INTERVAL, interval))
+                .execute().actionGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Refresh interval of index " + getIndex() + " set to: " + interval);
+        }
+    }
+
     /* (non-Javadoc)
      * @see sernet.verinice.search.ISearchDao#delete(java.lang.String)
      */
@@ -202,6 +267,85 @@ public abstract class BaseDao implements ISearchDao {
     }
     
     
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#findGroupedByType(sernet.verinice.model.search.VeriniceQuery, java.lang.String)
+     */
+    @Override
+    public SearchResponse findGroupedByType(VeriniceQuery query, String typeId) {
+        long startTime = System.currentTimeMillis();
+        QueryBuilder queryBuilder;
+        if (query.isQueryEmpty()) {
+            queryBuilder = QueryBuilders.matchAllQuery();
+        } else {
+            queryBuilder = QueryBuilders.multiMatchQuery(query.getQuery(), getSearchFields(typeId))
+                    .type(MultiMatchQueryBuilder.Type.PHRASE);
+        }
+        AndFilterBuilder filter = createFilter(typeId, getAuthService().getUsername(), query,
+                isPermissionHandlingNeeded());
+        if (filter != null) {
+            // a post filter is not applied to aggregations
+            queryBuilder = QueryBuilders.filteredQuery(queryBuilder, filter);
+        }
+        TopHitsBuilder topHits = AggregationBuilders.topHits(AGGREGATION_HITS)
+                .setFrom(query.getOffset())
+                .setSize(Math.min(query.getLimit(), MAX_HITS_PER_TYPE))
+                .setHighlighterPreTags(Occurence.HTML_OPEN_TAG)
+                .setHighlighterPostTags(Occurence.HTML_CLOSING_TAG)
+                .setHighlighterRequireFieldMatch(true)
+                .addHighlightedField("*");
+        SearchResponse response = getClient().prepareSearch(getIndex()).setTypes(getType())
+                .setSearchType(SearchType.DFS_QUERY_THEN_FETCH)
+                .setQuery(queryBuilder)
+                .setSize(0)
+                .addAggregation(AggregationBuilders.terms(AGGREGATION_BY_TYPE)
+                        .field(ISearchService.ES_FIELD_ELEMENT_TYPE)
+                        .size(0)
+                        .subAggregation(topHits))
+                .execute()
+                .actionGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Time for executing findGroupedByType():\t" + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        return response;
+    }
+
+    /**
+     * Returns the property type ids of an entity type and the extra fields.
+     * If typeId is null the property type ids of all entity types are
+     * returned.
+     */
+    private String[] getSearchFields(String typeId) {
+        if (typeId != null) {
+            List<String> fields = new ArrayList<String>(Arrays.asList(
+                    HUITypeFactory.getInstance().getEntityType(typeId).getAllPropertyTypeIds()));
+            fields.addAll(EXTRA_FIELDS);
+            return fields.toArray(new String[fields.size()]);
+        }
+        HUITypeFactory typeFactory = HUITypeFactory.getInstance();
+        SearchFields fields = allSearchFields;
+        if (fields == null || fields.typeFactory != typeFactory) {
+            Set<String> fieldSet = new LinkedHashSet<String>();
+            for (EntityType type : typeFactory.getAllEntityTypes()) {
+                fieldSet.addAll(Arrays.asList(type.getAllPropertyTypeIds()));
+            }
+            fieldSet.addAll(EXTRA_FIELDS);
+            fields = new SearchFields(typeFactory,
+                    fieldSet.toArray(new String[fieldSet.size()]));
+            allSearchFields = fields;
+        }
+        return fields.fieldIds;
+    }
+
+    private static final class SearchFields {
+        private final HUITypeFactory typeFactory;
+        private final String[] fieldIds;
+
+        SearchFields(HUITypeFactory typeFactory, String[] fieldIds) {
+            this.typeFactory = typeFactory;
+            this.fieldIds = fieldIds;
+        }
+    }
+
     @Override
     public MultiSearchRequestBuilder prepareQueryWithAllFields(String typeId, VeriniceQuery query, String username){
         Map<String, String> map = new ConcurrentHashMap<String, String>();
@@ -262,23 +406,7 @@ public abstract class BaseDao implements ISearchDao {
             }
                    
             searchBuilder = HighlightFieldAdder.add(field, searchBuilder);
-            TermsFilterBuilder typeBuilder = FilterBuilders.inFilter(ISearchService.ES_FIELD_ELEMENT_TYPE, new String[]{typeId});
-            AndFilterBuilder andBuilder = FilterBuilders.andFilter(typeBuilder);
-            
-            if (permissionHandlingNeeded) {
-                andBuilder = andBuilder.add(createPermissionFilter(username));              
-                if (query.isScopeOnly()) { // scopeOnly is not needed if no
-                                           // permission handling is needed
-                    andBuilder = andBuilder.add(createScopeOnlyFilter(username));
-                }
-            }
-            
-            if(query.getScopeId() != -1){
-                // vermutlich besser als suchkriterium als als filter anwenden
-                andBuilder = andBuilder.add(createScopeIdFilter(query.getScopeId()));
-            }
-
-            searchBuilder = searchBuilder.setPostFilter(andBuilder);
+            searchBuilder = searchBuilder.setPostFilter(createFilter(typeId, username, query, permissionHandlingNeeded));
             
             searchBuilder = searchBuilder.setFrom(0);
             if(query.getLimit() > 0){
@@ -294,6 +422,34 @@ public abstract class BaseDao implements ISearchDao {
         return requestBuilder;
     }
 
+    /**
+     * Creates a filter for the type, the permissions and the scope of a query.
+     *
+     * @return The filter or null if nothing is filtered
+     */
+    private AndFilterBuilder createFilter(String typeId, String username, VeriniceQuery query, boolean permissionHandlingNeeded) {
+        List<FilterBuilder> filters = new ArrayList<FilterBuilder>();
+        if (typeId != null) {
+            TermsFilterBuilder typeBuilder = FilterBuilders.inFilter(ISearchService.ES_FIELD_ELEMENT_TYPE, new String[]{typeId});
+            filters.add(typeBuilder);
+        }
+        if (permissionHandlingNeeded) {
+            filters.add(createPermissionFilter(username));
+            if (query.isScopeOnly()) { // scopeOnly is not needed if no
+                                       // permission handling is needed
+                filters.add(createScopeOnlyFilter(username));
+            }
+        }
+        if(query.getScopeId() != -1){
+            // vermutlich besser als suchkriterium als als filter anwenden
+            filters.add(createScopeIdFilter(query.getScopeId()));
+        }
+        if (filters.isEmpty()) {
+            return null;
+        }
+        return FilterBuilders.andFilter(filters.toArray(new FilterBuilder[filters.size()]));
+    }
+
     private boolean isPermissionHandlingNeeded() {
         return getAuthService()!=null 
                 && getAuthService().isPermissionHandlingNeeded() 
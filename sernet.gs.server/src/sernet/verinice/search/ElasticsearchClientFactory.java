@@ -5,7 +5,9 @@ import java.io.InputStream;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.TreeMap;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.SystemUtils;
 import org.apache.log4j.Logger;
@@ -59,6 +61,7 @@ public class ElasticsearchClientFactory implements DisposableBean {
     private Node node = null;
     private Client client = null;
     private IDirectoryCreator directoryCreator;
+    private IndexState indexState;
 
     public void init() {
         if (node == null || node.isClosed()) {
@@ -87,13 +90,25 @@ public class ElasticsearchClientFactory implements DisposableBean {
     }
 
     private void configure() {
-        if (!client.admin().indices().prepareExists(ISearchDao.INDEX_NAME).execute().actionGet()
-                .isExists()) {
+        Builder analysisConf = getAnylysisConf();
+        String mapping = getMapping();
+        String mappingVersion = getMappingVersion(analysisConf, mapping);
+        boolean exists = client.admin().indices().prepareExists(ISearchDao.INDEX_NAME).execute()
+                .actionGet().isExists();
+        if (exists && indexState != null
+                && !mappingVersion.equals(indexState.getMappingVersion())) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Mapping of index " + ISearchDao.INDEX_NAME
+                        + " changed, deleting index...");
+            }
+            client.admin().indices().prepareDelete(ISearchDao.INDEX_NAME).execute().actionGet();
+            exists = false;
+        }
+        if (!exists) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Creating index " + ISearchDao.INDEX_NAME + "...");
             }
             try {
-                Builder analysisConf = getAnylysisConf();
                 if (LOG.isDebugEnabled()) {
                     Map<String, String> map = analysisConf.internalMap();
                     for (Entry<String, String> e : map.entrySet()) {
@@ -101,8 +116,11 @@ public class ElasticsearchClientFactory implements DisposableBean {
                     }
                 }
                 client.admin().indices().prepareCreate(ISearchDao.INDEX_NAME)
-                        .setSettings(analysisConf).addMapping(ElementDao.TYPE_NAME, getMapping())
+                        .setSettings(analysisConf).addMapping(ElementDao.TYPE_NAME, mapping)
                         .execute().actionGet();
+                if (indexState != null) {
+                    indexState.reset(mappingVersion);
+                }
             } catch (IndexAlreadyExistsException e) {
                 // https://github.com/elastic/elasticsearch/issues/8105
                 LOG.warn("Index " + ISearchDao.INDEX_NAME
@@ -113,6 +131,15 @@ public class ElasticsearchClientFactory implements DisposableBean {
         }
     }
 
+    /**
+     * Returns a hash of the analysis settings and the mapping. If the hash
+     * differs from the version stored in the {@link IndexState} the index is
+     * created again.
+     */
+    private static String getMappingVersion(Builder analysisConf, String mapping) {
+        return DigestUtils.md5Hex(new TreeMap<>(analysisConf.internalMap()).toString() + mapping);
+    }
+
     private Builder getAnylysisConf() {
         String configurationPath = getSearchAnalysisConfiguration(Locale.getDefault());
         if (!fileExists(configurationPath)) {
@@ -202,6 +229,14 @@ public class ElasticsearchClientFactory implements DisposableBean {
         this.directoryCreator = directoryCreator;
     }
 
+    public IndexState getIndexState() {
+        return indexState;
+    }
+
+    public void setIndexState(IndexState indexState) {
+        this.indexState = indexState;
+    }
+
     /**
      * sets platform dependent fs for storing the index see
      * https://www.elastic.co/guide/en/elasticsearch/reference/current/index-modules-store.html
@@ -22,6 +22,7 @@ package sernet.verinice.search;
 import java.util.Map;
 
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexResponse;
 import org.elasticsearch.action.search.MultiSearchRequestBuilder;
@@ -84,6 +85,28 @@ public class ElementDaoDummy implements IElementSearchDao {
         return null;
     }
 
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#bulkIndex(java.util.Map)
+     */
+    @Override
+    public BulkResponse bulkIndex(Map<String, String> jsonById) {
+        return null;
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#disableRefresh()
+     */
+    @Override
+    public void disableRefresh() {
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#enableRefresh()
+     */
+    @Override
+    public void enableRefresh() {
+    }
+
     /* (non-Javadoc)
      * @see sernet.verinice.search.ISearchDao#clear()
      */
@@ -179,6 +202,14 @@ public class ElementDaoDummy implements IElementSearchDao {
         return null;
     }
 
+    /* (non-Javadoc)
+     * @see sernet.verinice.search.ISearchDao#findGroupedByType(sernet.verinice.model.search.VeriniceQuery, java.lang.String)
+     */
+    @Override
+    public SearchResponse findGroupedByType(VeriniceQuery query, String typeId) {
+        return null;
+    }
+
     /* (non-Javadoc)
      * @see sernet.verinice.search.IElementSearchDao#findAndGroupByType(java.lang.String)
      */
@@ -23,6 +23,7 @@ package sernet.verinice.search;
 import java.util.Map;
 
 import org.elasticsearch.action.ActionResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.deletebyquery.DeleteByQueryResponse;
 import org.elasticsearch.action.index.IndexResponse;
@@ -42,6 +43,16 @@ public interface ISearchDao {
     static final String INDEX_NAME = "verinice";
     static final String PATTERN_IS_READ_ALLOWED = "^[\\w]+\\(r+.*\\)";
     static final String PATTERN_IS_WRITE_ALLOWED = "^[\\w]+\\(.*w+\\)";
+    static final String AGGREGATION_BY_TYPE = "byType";
+    static final String AGGREGATION_HITS = "hits";
+    /**
+     * The maximum number of hits returned for each element type by
+     * {@link #findGroupedByType(VeriniceQuery, String)}. The top hits of all
+     * buckets are loaded in a single response, the limit keeps its size
+     * bounded. More hits of a type are loaded with
+     * {@link VeriniceQuery#setOffset(int)}.
+     */
+    static final int MAX_HITS_PER_TYPE = 1000;
     
     public String getIndex();
     
@@ -55,6 +66,30 @@ public interface ISearchDao {
     
     public DeleteResponse delete(String id);
 
+    /**
+     * Indexes all documents of the map in a single bulk request. Existing
+     * documents with the same id are replaced. The index is not refreshed
+     * after the request.
+     *
+     * @param jsonById
+     *            Documents as JSON keyed by id
+     * @return The response of the bulk request, check
+     *         {@link BulkResponse#hasFailures()} for failed documents
+     */
+    public BulkResponse bulkIndex(Map<String, String> jsonById);
+
+    /**
+     * Disables the periodic refresh of the index. Call this before a bulk
+     * indexing run and {@link #enableRefresh()} afterwards.
+     */
+    public void disableRefresh();
+
+    /**
+     * Re-enables the periodic refresh of the index and refreshes the index
+     * once.
+     */
+    public void enableRefresh();
+
     public void clear();
     
     public SearchResponse findAll();
@@ -83,4 +118,21 @@ public interface ISearchDao {
      * @return
      */
     MultiSearchResponse find(String typeId, VeriniceQuery query);
+
+    /**
+     * Executes a query in a single request and groups the hits by the element
+     * type on the server side. The response contains a terms aggregation
+     * {@link #AGGREGATION_BY_TYPE} with one bucket per element type. The doc
+     * count of a bucket is the number of hits of the type, the top hits
+     * aggregation {@link #AGGREGATION_HITS} of a bucket contains at most
+     * {@link VeriniceQuery#getLimit()} and at most {@link #MAX_HITS_PER_TYPE}
+     * hits of the type starting at {@link VeriniceQuery#getOffset()}.
+     *
+     * @param query
+     *            A query
+     * @param typeId
+     *            An element type or null to search all types
+     * @return The response with the aggregations
+     */
+    SearchResponse findGroupedByType(VeriniceQuery query, String typeId);
 }
@@ -0,0 +1,625 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.gs.server.security.DummyAuthenticationRunnable;
+import sernet.gs.service.ServerInitializer;
+import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.search.IJsonBuilder;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Write-behind queue for index updates of changed elements.
+ *
+ * <p>
+ * The UUIDs of changed elements are collected per transaction and added to
+ * the queue after the transaction is committed. Repeated updates of the same
+ * element are coalesced into one entry. A background thread takes up to
+ * {@link #getBatchSize()} UUIDs from the queue, loads the current state of the
+ * elements and updates the index with one bulk request. Elements which no
+ * longer exist in the database are removed from the index.
+ * </p>
+ *
+ * <p>
+ * The queue holds at most {@link #getCapacity()} UUIDs. If the queue is full
+ * threads adding new UUIDs are blocked until the background thread has made
+ * room.
+ * </p>
+ *
+ * <p>
+ * Elements which could not be indexed are added to the queue again after a
+ * delay which doubles with every attempt, starting with
+ * {@link #getRetryDelay()}. An element is counted as failed after
+ * {@link #getMaxRetries()} unsuccessful retries.
+ * </p>
+ *
+ * <p>
+ * If an {@link IndexState} is set, its high-water mark is advanced when the
+ * queue is empty and no element waits for a retry after a flush without
+ * failures.
+ * </p>
+ *
+ * <p>
+ * If {@link #isAsync()} is false the queue is disabled and all elements are
+ * indexed immediately in the calling thread.
+ * </p>
+ */
+public class IndexQueue {
+
+    private static final Logger LOG = Logger.getLogger(IndexQueue.class);
+
+    private static final int DEFAULT_CAPACITY = 100000;
+    private static final int DEFAULT_BATCH_SIZE = 200;
+    private static final long DEFAULT_FLUSH_INTERVAL = 500L;
+    private static final int DEFAULT_MAX_RETRIES = 3;
+    private static final long DEFAULT_RETRY_DELAY = 1000L;
+    private static final long WAIT_FOR_SPACE_TIMEOUT = 100L;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 60L;
+
+    private IBaseDao<CnATreeElement, Integer> elementDao;
+    private ISearchDao searchDao;
+    private IJsonBuilder jsonBuilder;
+    private IndexState indexState;
+
+    private boolean async = true;
+    private int capacity = DEFAULT_CAPACITY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    /**
+     * Pending UUIDs in insertion order, the value is the time when the UUID
+     * was added to the queue.
+     */
+    private final LinkedHashMap<String, Long> pending = new LinkedHashMap<>();
+    /**
+     * UUIDs which failed and wait for a retry, in order of failure
+     */
+    private final LinkedHashMap<String, Retry> retries = new LinkedHashMap<>();
+    /**
+     * Number of failed attempts of UUIDs which failed at least once
+     */
+    private final Map<String, Integer> attempts = new HashMap<>();
+    private final Object lock = new Object();
+    private volatile boolean running = false;
+    private ScheduledExecutorService executor;
+
+    private final AtomicLong added = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong deleted = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastFlushLag = 0;
+
+    public void init() {
+        if (!async) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+                new CustomNamedThreadGroupFactory("index-queue"));
+        running = true;
+        executor.scheduleWithFixedDelay(new FlushRunnable(), flushInterval, flushInterval,
+                TimeUnit.MILLISECONDS);
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Index queue started, capacity: " + capacity + ", batch size: "
+                    + batchSize);
+        }
+    }
+
+    /**
+     * Stops the background thread after all pending elements are indexed.
+     */
+    public void destroy() throws InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        running = false;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+        // index what is left in the queue in the calling thread, do not wait
+        // for the delay of elements which failed before
+        requeueRetries(Long.MAX_VALUE);
+        flushAndAdvance();
+        int lost = getRetryDepth();
+        if (lost > 0) {
+            failed.addAndGet(lost);
+            LOG.error(lost + " elements from index queue were not indexed before shutdown");
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Index queue stopped, " + this);
+        }
+    }
+
+    /**
+     * Adds an element to the queue. If a transaction is active the element is
+     * added after the transaction is committed. If the transaction is rolled
+     * back the element is discarded.
+     *
+     * @param element
+     *            A changed or deleted element
+     */
+    public void add(CnATreeElement element) {
+        if (element == null) {
+            return;
+        }
+        if (!async) {
+            indexImmediately(element);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getTransactionBuffer().add(element.getUuid());
+        } else {
+            addAll(Collections.singleton(element.getUuid()));
+        }
+    }
+
+    /**
+     * Adds a deleted element to the queue. The element is removed from the
+     * index when the queue is flushed and the element is no longer found in
+     * the database.
+     *
+     * @param element
+     *            A deleted element
+     */
+    public void remove(CnATreeElement element) {
+        if (element == null) {
+            return;
+        }
+        if (!async) {
+            getSearchDao().delete(element.getUuid());
+            return;
+        }
+        add(element);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> getTransactionBuffer() {
+        Set<String> buffer = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (buffer == null) {
+            buffer = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, buffer);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new AddAfterCommitSynchronization(buffer));
+        }
+        return buffer;
+    }
+
+    private void indexImmediately(CnATreeElement element) {
+        if (getJsonBuilder().isIndexableElement(element)) {
+            getSearchDao().updateOrIndex(element.getUuid(), getJsonBuilder().getJson(element));
+        }
+    }
+
+    private void addAll(Collection<String> uuids) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (String uuid : uuids) {
+                if (pending.containsKey(uuid)) {
+                    coalesced.incrementAndGet();
+                    continue;
+                }
+                waitForSpace();
+                pending.put(uuid, now);
+                added.incrementAndGet();
+            }
+        }
+    }
+
+    private void waitForSpace() {
+        while (running && pending.size() >= capacity) {
+            try {
+                lock.wait(WAIT_FOR_SPACE_TIMEOUT);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Indexes all pending elements in the calling thread.
+     */
+    public void flush() {
+        requeueRetries(System.currentTimeMillis());
+        Map<String, Long> batch = takeBatch();
+        while (!batch.isEmpty()) {
+            indexBatch(batch);
+            batch = takeBatch();
+        }
+    }
+
+    private Map<String, Long> takeBatch() {
+        synchronized (lock) {
+            Map<String, Long> batch = new LinkedHashMap<>(Math.min(batchSize, pending.size()));
+            Iterator<Map.Entry<String, Long>> iterator = pending.entrySet().iterator();
+            while (iterator.hasNext() && batch.size() < batchSize) {
+                Map.Entry<String, Long> entry = iterator.next();
+                batch.put(entry.getKey(), entry.getValue());
+                iterator.remove();
+            }
+            lock.notifyAll();
+            return batch;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void indexBatch(Map<String, Long> batch) {
+        try {
+            List<CnATreeElement> elements = getElementDao()
+                    .findByCriteria(IndexThread.createLoadCriteria(batch.keySet()));
+            Map<String, String> jsonByUuid = new LinkedHashMap<>(elements.size());
+            Set<String> found = new HashSet<>(elements.size());
+            for (CnATreeElement element : elements) {
+                found.add(element.getUuid());
+                if (getJsonBuilder().isIndexableElement(element)) {
+                    jsonByUuid.put(element.getUuid(), getJsonBuilder().getJson(element));
+                }
+            }
+            if (!jsonByUuid.isEmpty()) {
+                handleResponse(getSearchDao().bulkIndex(jsonByUuid), batch);
+            }
+            deleteMissing(batch.keySet(), found);
+            lastFlushLag = System.currentTimeMillis() - batch.values().iterator().next();
+        } catch (Exception e) {
+            LOG.warn("Error while indexing " + batch.size() + " elements from index queue", e);
+            retryLater(batch);
+        }
+    }
+
+    private void handleResponse(BulkResponse response, Map<String, Long> batch) {
+        Map<String, Long> failedItems = new LinkedHashMap<>();
+        List<String> succeeded = new ArrayList<>(response.getItems().length);
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+                failedItems.put(item.getId(), batch.get(item.getId()));
+                LOG.warn("Indexing failed, uuid: " + item.getId() + ", reason: "
+                        + item.getFailureMessage());
+            } else {
+                succeeded.add(item.getId());
+                indexed.incrementAndGet();
+            }
+        }
+        synchronized (lock) {
+            attempts.keySet().removeAll(succeeded);
+        }
+        retryLater(failedItems);
+    }
+
+    /**
+     * Schedules a retry of failed UUIDs. UUIDs which used up all retries are
+     * counted as failed.
+     *
+     * @param failedItems
+     *            Failed UUIDs and the time when they were added to the queue
+     */
+    private void retryLater(Map<String, Long> failedItems) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            for (Map.Entry<String, Long> entry : failedItems.entrySet()) {
+                String uuid = entry.getKey();
+                int attempt = attempts.merge(uuid, 1, Integer::sum);
+                if (attempt > maxRetries) {
+                    attempts.remove(uuid);
+                    failed.incrementAndGet();
+                    LOG.error("Indexing failed after " + maxRetries + " retries, uuid: " + uuid);
+                    continue;
+                }
+                long added = entry.getValue() != null ? entry.getValue() : now;
+                long due = now + (retryDelay << (attempt - 1));
+                retries.put(uuid, new Retry(added, due));
+                retried.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Adds failed UUIDs to the queue whose retry is due.
+     *
+     * @param time
+     *            All retries due before or at this time are added
+     */
+    private void requeueRetries(long time) {
+        synchronized (lock) {
+            Iterator<Map.Entry<String, Retry>> iterator = retries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Retry> entry = iterator.next();
+                if (entry.getValue().due <= time) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue().added);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private void deleteMissing(Set<String> uuids, Set<String> found) {
+        List<String> missing = new ArrayList<>();
+        for (String uuid : uuids) {
+            if (!found.contains(uuid)) {
+                missing.add(uuid);
+            }
+        }
+        for (String uuid : missing) {
+            getSearchDao().delete(uuid);
+            deleted.incrementAndGet();
+        }
+        synchronized (lock) {
+            attempts.keySet().removeAll(missing);
+        }
+    }
+
+    /**
+     * @return The number of elements waiting to be indexed
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return The number of failed elements waiting for a retry
+     */
+    public int getRetryDepth() {
+        synchronized (lock) {
+            return retries.size();
+        }
+    }
+
+    /**
+     * @return The time in milliseconds the oldest element in the queue is
+     *         waiting to be indexed, 0 if the queue is empty
+     */
+    public long getLag() {
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            return System.currentTimeMillis() - pending.values().iterator().next();
+        }
+    }
+
+    /**
+     * @return The time in milliseconds the oldest element of the last indexed
+     *         batch has been waiting in the queue
+     */
+    public long getLastFlushLag() {
+        return lastFlushLag;
+    }
+
+    public long getAdded() {
+        return added.get();
+    }
+
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public long getDeleted() {
+        return deleted.get();
+    }
+
+    public long getRetried() {
+        return retried.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "depth: " + getQueueDepth() + ", lag: " + getLag() + " ms, added: " + getAdded()
+                + ", coalesced: " + getCoalesced() + ", indexed: " + getIndexed()
+                + ", deleted: " + getDeleted() + ", retried: " + getRetried()
+                + ", failed: " + getFailed();
+    }
+
+    /**
+     * Flushes the queue and advances the high-water mark of the index state
+     * to the start of the flush if the queue is empty, no element waits for a
+     * retry and no element failed.
+     */
+    private void flushAndAdvance() {
+        long flushStart = System.currentTimeMillis();
+        long failedBefore = getFailed();
+        if (getQueueDepth() > 0 || getRetryDepth() > 0) {
+            flush();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Index queue flushed, " + IndexQueue.this);
+            }
+        }
+        if (indexState == null) {
+            return;
+        }
+        if (getFailed() > failedBefore) {
+            indexState.failed();
+        } else if (getQueueDepth() == 0 && getRetryDepth() == 0) {
+            indexState.advance(flushStart);
+        }
+    }
+
+    private final class FlushRunnable extends DummyAuthenticationRunnable {
+        @Override
+        public void doRun() {
+            try {
+                if (getQueueDepth() > 0 || getRetryDepth() > 0) {
+                    ServerInitializer.inheritVeriniceContextState();
+                }
+                flushAndAdvance();
+            } catch (Exception e) {
+                // never throw, this would cancel the scheduled execution
+                LOG.error("Error while flushing index queue", e);
+            }
+        }
+    }
+
+    private static final class Retry {
+
+        /**
+         * Time when the UUID was added to the queue the first time
+         */
+        private final long added;
+
+        /**
+         * Time when the UUID is added to the queue again
+         */
+        private final long due;
+
+        private Retry(long added, long due) {
+            this.added = added;
+            this.due = due;
+        }
+    }
+
+    private final class AddAfterCommitSynchronization extends TransactionSynchronizationAdapter {
+
+        private final Set<String> buffer;
+
+        private AddAfterCommitSynchronization(Set<String> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(IndexQueue.this);
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                addAll(buffer);
+            }
+        }
+    }
+
+    public IBaseDao<CnATreeElement, Integer> getElementDao() {
+        return elementDao;
+    }
+
+    public void setElementDao(IBaseDao<CnATreeElement, Integer> elementDao) {
+        this.elementDao = elementDao;
+    }
+
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public IJsonBuilder getJsonBuilder() {
+        return jsonBuilder;
+    }
+
+    public void setJsonBuilder(IJsonBuilder jsonBuilder) {
+        this.jsonBuilder = jsonBuilder;
+    }
+
+    public IndexState getIndexState() {
+        return indexState;
+    }
+
+    public void setIndexState(IndexState indexState) {
+        this.indexState = indexState;
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    public void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * @param retryDelay
+     *            Delay in milliseconds before the first retry of a failed
+     *            element, the delay doubles with every further retry
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+}
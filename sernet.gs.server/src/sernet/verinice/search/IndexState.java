@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.IDirectoryCreator;
+
+/**
+ * The persistent state of the search index. The state is stored in a
+ * properties file in the root directory of the index and contains:
+ *
+ * <ul>
+ * <li>The version of the mapping and analysis configuration the index was
+ * created with. If the version changes the index is created again.</li>
+ * <li>A high-water mark: all changes of elements made before this time are
+ * in the index. On startup only elements changed after the mark are
+ * indexed.</li>
+ * </ul>
+ *
+ * The mark is set at the end of a successful indexing run and advanced by
+ * the {@link IndexQueue} after successful flushes. The mark is not advanced
+ * while an indexing run is active and after the first failed update of the
+ * index, the next startup repeats the indexing from the last mark.
+ */
+public class IndexState {
+
+    private static final Logger LOG = Logger.getLogger(IndexState.class);
+
+    private static final String FILE_NAME = "index-state.properties"; //$NON-NLS-1$
+    private static final String PROP_MAPPING_VERSION = "mapping.version"; //$NON-NLS-1$
+    private static final String PROP_INDEXED_UNTIL = "indexed.until"; //$NON-NLS-1$
+
+    private static final long DEFAULT_SAVE_INTERVAL = 60000L;
+
+    private IDirectoryCreator directoryCreator;
+
+    /**
+     * Minimum time in milliseconds between two saves of an advanced mark
+     */
+    private long saveInterval = DEFAULT_SAVE_INTERVAL;
+
+    private Properties properties;
+    private boolean indexingActive = false;
+    private boolean failed = false;
+    private long lastSave = 0;
+
+    /**
+     * @return The version of the mapping of the index or null if unknown
+     */
+    public synchronized String getMappingVersion() {
+        return getProperties().getProperty(PROP_MAPPING_VERSION);
+    }
+
+    /**
+     * @return The high-water mark in milliseconds or null if there is no
+     *         complete index
+     */
+    public synchronized Long getIndexedUntil() {
+        String value = getProperties().getProperty(PROP_INDEXED_UNTIL);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("Invalid high-water mark in index state: " + value); //$NON-NLS-1$
+            return null;
+        }
+    }
+
+    /**
+     * Resets the state after the index was created. The index contains no
+     * elements, the mark is removed.
+     *
+     * @param mappingVersion
+     *            The version of the mapping of the new index
+     */
+    public synchronized void reset(String mappingVersion) {
+        getProperties().setProperty(PROP_MAPPING_VERSION, mappingVersion);
+        getProperties().remove(PROP_INDEXED_UNTIL);
+        save();
+    }
+
+    /**
+     * Called before an indexing run is started. The mark is not advanced
+     * until {@link #finishIndexing(long, boolean)} is called.
+     *
+     * @param fullIndexing
+     *            True if all elements are indexed, the mark is removed in this
+     *            case
+     */
+    public synchronized void startIndexing(boolean fullIndexing) {
+        indexingActive = true;
+        if (fullIndexing && getProperties().remove(PROP_INDEXED_UNTIL) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Called after an indexing run is finished.
+     *
+     * @param indexingStart
+     *            The start time of the run in milliseconds
+     * @param successful
+     *            True if all elements were indexed
+     */
+    public synchronized void finishIndexing(long indexingStart, boolean successful) {
+        indexingActive = false;
+        if (successful && !failed) {
+            setIndexedUntil(indexingStart);
+            save();
+        } else {
+            failed = true;
+        }
+    }
+
+    /**
+     * Advances the mark if no indexing run is active and no update of the
+     * index failed. The mark is saved at most once per save interval.
+     *
+     * @param time
+     *            All changes made before this time are in the index
+     */
+    public synchronized void advance(long time) {
+        if (indexingActive || failed) {
+            return;
+        }
+        Long indexedUntil = getIndexedUntil();
+        if (indexedUntil == null || indexedUntil >= time) {
+            return;
+        }
+        setIndexedUntil(time);
+        if (time - lastSave >= saveInterval) {
+            save();
+        }
+    }
+
+    /**
+     * Called if an update of the index failed. The mark is not advanced
+     * anymore.
+     */
+    public synchronized void failed() {
+        failed = true;
+    }
+
+    /**
+     * Saves the current mark, call this on shutdown.
+     */
+    public synchronized void destroy() {
+        if (properties != null) {
+            save();
+        }
+    }
+
+    private void setIndexedUntil(long time) {
+        getProperties().setProperty(PROP_INDEXED_UNTIL, String.valueOf(time));
+    }
+
+    private Properties getProperties() {
+        if (properties == null) {
+            properties = load();
+        }
+        return properties;
+    }
+
+    private Properties load() {
+        Properties loaded = new Properties();
+        Path path = getPath();
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                loaded.load(in);
+            } catch (IOException e) {
+                LOG.error("Error while reading index state: " + path, e); //$NON-NLS-1$
+            }
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Index state loaded: " + loaded); //$NON-NLS-1$
+        }
+        return loaded;
+    }
+
+    private void save() {
+        Path path = getPath();
+        Path temp = Paths.get(path.toString() + ".tmp"); //$NON-NLS-1$
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                getProperties().store(out, "verinice search index state"); //$NON-NLS-1$
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            lastSave = System.currentTimeMillis();
+        } catch (IOException e) {
+            LOG.error("Error while saving index state: " + path, e); //$NON-NLS-1$
+        }
+    }
+
+    private Path getPath() {
+        return new File(getDirectoryCreator().create(), FILE_NAME).toPath();
+    }
+
+    public IDirectoryCreator getDirectoryCreator() {
+        return directoryCreator;
+    }
+
+    public void setDirectoryCreator(IDirectoryCreator directoryCreator) {
+        this.directoryCreator = directoryCreator;
+    }
+
+    public long getSaveInterval() {
+        return saveInterval;
+    }
+
+    public void setSaveInterval(long saveInterval) {
+        this.saveInterval = saveInterval;
+    }
+}
@@ -20,8 +20,14 @@
 package sernet.verinice.search;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.apache.log4j.Logger;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.hibernate.FetchMode;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
@@ -38,48 +44,115 @@ import sernet.verinice.model.common.CnATreeElement;
  */
 public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementDetails>> {
 
+    private static final Logger LOG = Logger.getLogger(IndexThread.class);
+
     private IBaseDao<CnATreeElement, Integer> elementDao;
     private ISearchDao searchDao;
     private ISearchService searchService;
     private List<String> uuids;
     private IJsonBuilder jsonBuilder;
     private boolean logIndexedElementDetails = false;
+    private boolean bulkIndexing = false;
+    private IndexingStatistic statistic;
 
     /*
      * @see sernet.verinice.search.DummyAuthenticatorCallable#doCall()
      */
     @Override
     public List<IndexedElementDetails> doCall() {
-        String json = null;
-
         ServerInitializer.inheritVeriniceContextState();
         List<CnATreeElement> elements = loadElements();
         List<IndexedElementDetails> result = logIndexedElementDetails
                 ? new ArrayList<>(elements.size())
                 : null;
-        for (CnATreeElement cnATreeElement : elements) {
-            json = getJsonBuilder().getJson(cnATreeElement);
+        if (bulkIndexing) {
+            indexInBulk(elements, result);
+        } else {
+            indexOneByOne(elements, result);
+        }
+        return result;
+    }
 
+    private void indexOneByOne(List<CnATreeElement> elements,
+            List<IndexedElementDetails> result) {
+        for (CnATreeElement cnATreeElement : elements) {
+            String json = getJsonBuilder().getJson(cnATreeElement);
             if (json != null) {
                 getSearchDao().updateOrIndex(cnATreeElement.getUuid(), json);
-                if (logIndexedElementDetails) {
-                    result.add(new IndexedElementDetails(cnATreeElement.getUuid(),
-                            cnATreeElement.getTitle()));
+                addIndexedElement(cnATreeElement, result);
+                if (statistic != null) {
+                    statistic.addIndexed(1);
                 }
             }
         }
+    }
 
-        return result;
+    private void indexInBulk(List<CnATreeElement> elements, List<IndexedElementDetails> result) {
+        Map<String, String> jsonByUuid = new LinkedHashMap<>(elements.size());
+        Map<String, CnATreeElement> elementByUuid = new LinkedHashMap<>(elements.size());
+        for (CnATreeElement cnATreeElement : elements) {
+            String json = getJsonBuilder().getJson(cnATreeElement);
+            if (json != null) {
+                jsonByUuid.put(cnATreeElement.getUuid(), json);
+                elementByUuid.put(cnATreeElement.getUuid(), cnATreeElement);
+            }
+        }
+        if (jsonByUuid.isEmpty()) {
+            return;
+        }
+        BulkResponse response;
+        try {
+            response = getSearchDao().bulkIndex(jsonByUuid);
+        } catch (RuntimeException e) {
+            if (statistic != null) {
+                statistic.addFailedChunk(jsonByUuid.size());
+            }
+            throw e;
+        }
+        int failed = 0;
+        for (BulkItemResponse item : response.getItems()) {
+            if (item.isFailed()) {
+                failed++;
+                LOG.error("Indexing failed, uuid: " + item.getId() + ", reason: "
+                        + item.getFailureMessage());
+            } else {
+                addIndexedElement(elementByUuid.get(item.getId()), result);
+            }
+        }
+        if (statistic != null) {
+            statistic.addIndexed((long) jsonByUuid.size() - failed);
+            if (failed > 0) {
+                statistic.addFailedChunk(failed);
+            }
+        }
+        if (failed > 0) {
+            LOG.warn("Bulk request failed for " + failed + " of " + jsonByUuid.size()
+                    + " documents.");
+        }
+    }
+
+    private void addIndexedElement(CnATreeElement element, List<IndexedElementDetails> result) {
+        if (logIndexedElementDetails && element != null) {
+            result.add(new IndexedElementDetails(element.getUuid(), element.getTitle()));
+        }
     }
 
     private List<CnATreeElement> loadElements() {
+        return getElementDao().findByCriteria(createLoadCriteria(uuids));
+    }
+
+    /**
+     * @return A criteria to load elements with all data needed to create the
+     *         JSON document of the index
+     */
+    static DetachedCriteria createLoadCriteria(Collection<String> uuids) {
         DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
         criteria.add(Restrictions.in("uuid", uuids));
         criteria.setFetchMode("permissions", FetchMode.JOIN);
         criteria.setFetchMode("entity", FetchMode.JOIN);
         criteria.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
         criteria.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
-        return getElementDao().findByCriteria(criteria);
+        return criteria;
     }
 
     public void setUuids(List<String> uuids) {
@@ -123,4 +196,17 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
 
     }
 
+    /**
+     * @param bulkIndexing
+     *            If true all elements of this thread are indexed with one bulk
+     *            request without refreshing the index
+     */
+    public void setBulkIndexing(boolean bulkIndexing) {
+        this.bulkIndexing = bulkIndexing;
+    }
+
+    public void setStatistic(IndexingStatistic statistic) {
+        this.statistic = statistic;
+    }
+
 }
@@ -21,7 +21,11 @@ package sernet.verinice.search;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -33,6 +37,7 @@ import org.elasticsearch.common.collect.Lists;
 import org.springframework.beans.factory.ObjectFactory;
 
 import sernet.gs.server.security.DummyAuthenticationRunnable;
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.ServerInitializer;
 import sernet.gs.service.TimeFormatter;
 import sernet.verinice.concurrency.ClosableCompletionService;
@@ -40,10 +45,8 @@ import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
 import sernet.verinice.concurrency.TrackableCompletionService;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IElementTitleCache;
-import sernet.verinice.model.bp.elements.ItNetwork;
-import sernet.verinice.model.bsi.ITVerbund;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
-import sernet.verinice.model.iso27k.Organization;
 
 /**
  * Creates Elasticsearch index for verinice.
@@ -57,20 +60,76 @@ public class Indexer {
 
     private static final String HQL_LOAD_UUIDS = "select e.uuid from CnATreeElement e";
 
+    private static final String HQL_LOAD_CHANGED_UUIDS = "select e.uuid from CnATreeElement e "
+            + "left join e.entity as entity "
+            + "where entity.changedAt >= ? or entity.createdAt >= ?";
+
+    private static final String HQL_LOAD_LOGGED_UUIDS = "select distinct c.uuid "
+            + "from ChangeLogEntry c where c.changetime >= ? and c.change <> ?";
+
+    private static final String HQL_LOAD_DELETED_UUIDS = "select distinct c.uuid "
+            + "from ChangeLogEntry c where c.changetime >= ? and c.change = ?";
+
+    private static final String HQL_LOAD_EXISTING_UUIDS = "select e.uuid from CnATreeElement e "
+            + "where e.uuid in (:uuids)";
+
     private static final int INDEXING_CHUNK_SIZE = 50;
 
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    /**
+     * Default safety margin for the high-water mark: 10 minutes
+     */
+    private static final long DEFAULT_SAFETY_MARGIN = 600000L;
+
+    private static final int DEFAULT_BULK_SIZE = 500;
+
     private IBaseDao<CnATreeElement, Integer> elementDao;
 
+    private ISearchDao searchDao;
+
     private IElementTitleCache titleCache;
 
+    private IndexState indexState;
+
+    /**
+     * Elements changed up to this time in milliseconds before the high-water
+     * mark are indexed again on startup. The margin covers transactions which
+     * were committed after the mark was advanced.
+     */
+    private long safetyMargin = DEFAULT_SAFETY_MARGIN;
+
     private long indexingStart;
 
+    private IndexingStatistic statistic;
+
+    /**
+     * If true elements are indexed with bulk requests and the refresh of the
+     * index is disabled while indexing.
+     */
+    private boolean bulkIndexing = true;
+
+    /**
+     * Number of elements in one bulk request, used if {@link #bulkIndexing}
+     * is true
+     */
+    private int bulkSize = DEFAULT_BULK_SIZE;
+
     /**
      * Factory to create {@link IndexThread} instances configured in
      * veriniceserver-search-base.xml
      */
     private ObjectFactory indexThreadFactory;
 
+    /**
+     * True while the periodic refresh of the index is disabled by a bulk
+     * indexing run
+     */
+    private volatile boolean refreshDisabled = false;
+
     /**
      * Creates an index in an non blocking way, means this method creates all
      * necessary index threads and returns immediately. It gives no guarantee
@@ -90,31 +149,69 @@ public class Indexer {
      *
      */
     public void nonBlockingIndexing() {
-        runIndexingThread();
+        runIndexingThread(null);
+    }
+
+    /**
+     * Updates the index on startup in a non blocking way. If the
+     * {@link IndexState} contains a high-water mark only the elements
+     * changed, created or deleted since the mark are indexed. Otherwise all
+     * elements are indexed, e.g. if the index was created with a new mapping.
+     */
+    public void nonBlockingStartupIndexing() {
+        Long indexedUntil = (indexState != null) ? indexState.getIndexedUntil() : null;
+        if (indexedUntil == null) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("No complete index found, indexing all elements...");
+            }
+            runIndexingThread(null);
+        } else {
+            Date changedSince = new Date(indexedUntil - safetyMargin);
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Index is complete until " + new Date(indexedUntil)
+                        + ", indexing elements changed since " + changedSince + "...");
+            }
+            runIndexingThread(changedSince);
+        }
     }
 
-    private void runIndexingThread() {
-        DummyAuthenticationRunnable dummyAuthenticationRunnable = new DummyAuthenticationRunnableExtension();
+    private void runIndexingThread(Date changedSince) {
+        DummyAuthenticationRunnable dummyAuthenticationRunnable = new DummyAuthenticationRunnableExtension(
+                changedSince);
         ThreadFactory threadFactory = new CustomNamedThreadGroupFactory("index");
         ExecutorService exeService = Executors.newSingleThreadExecutor(threadFactory);
         exeService.execute(dummyAuthenticationRunnable);
         exeService.shutdown();
     }
 
+    /**
+     * @param changedSince
+     *            Index only elements changed since this date or all elements
+     *            if null
+     */
     private ClosableCompletionService<List<IndexedElementDetails>> doIndex(
-            boolean logIndexedElementDetails) {
+            boolean logIndexedElementDetails, Date changedSince) {
 
         indexingStart = System.currentTimeMillis();
+        statistic = new IndexingStatistic();
+        if (indexState != null) {
+            indexState.startIndexing(changedSince == null);
+        }
 
         ClosableCompletionService<List<IndexedElementDetails>> completionService = TrackableCompletionService
                 .newInstance();
-        List<String> allUuids = geAllCnATreeElementUUIDS();
+        List<String> allUuids = (changedSince == null) ? geAllCnATreeElementUUIDS()
+                : getChangedUuids(changedSince);
 
         if (LOG.isInfoEnabled()) {
             LOG.info("Elements: " + allUuids.size() + ", start indexing...");
         }
 
-        getTitleCache().load(ITVerbund.TYPE_ID_HIBERNATE, Organization.TYPE_ID, ItNetwork.TYPE_ID);
+        getTitleCache().load();
+        if (bulkIndexing) {
+            refreshDisabled = true;
+            getSearchDao().disableRefresh();
+        }
         Collection<IndexThread> indexThreads = createIndexThreadsByUuids(allUuids,
                 logIndexedElementDetails);
 
@@ -140,27 +237,107 @@ public class Indexer {
         return allUuids;
     }
 
-    private void logNonBlockingIndexingTermination(
+    /**
+     * Returns the UUIDs of all elements changed or created since a date.
+     * Elements deleted since the date are removed from the index.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> getChangedUuids(Date changedSince) {
+        ServerInitializer.inheritVeriniceContextState();
+        Set<String> uuids = new LinkedHashSet<>(getElementDao()
+                .findByQuery(HQL_LOAD_CHANGED_UUIDS, new Object[] { changedSince, changedSince }));
+        uuids.addAll(getElementDao().findByQuery(HQL_LOAD_LOGGED_UUIDS,
+                new Object[] { changedSince, ChangeLogEntry.TYPE_DELETE }));
+        uuids.remove(null);
+        List<String> deletedUuids = getElementDao().findByQuery(HQL_LOAD_DELETED_UUIDS,
+                new Object[] { changedSince, ChangeLogEntry.TYPE_DELETE });
+        removeDeletedElements(deletedUuids);
+        return new ArrayList<>(uuids);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeDeletedElements(List<String> deletedUuids) {
+        Set<String> candidates = new HashSet<>(deletedUuids);
+        candidates.remove(null);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        for (List<String> partition : CollectionUtil.partition(new ArrayList<>(candidates),
+                MAX_IN_CLAUSE_SIZE)) {
+            candidates.removeAll(getElementDao().findByQuery(HQL_LOAD_EXISTING_UUIDS,
+                    new String[] { "uuids" }, new Object[] { partition }));
+        }
+        for (String uuid : candidates) {
+            getSearchDao().delete(uuid);
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Deleted elements removed from index: " + candidates.size());
+        }
+    }
+
+    private void finishNonBlockingIndexing(
             final ClosableCompletionService<List<IndexedElementDetails>> completionService,
             boolean logIndexedElementDetails) {
-        if (LOG.isInfoEnabled()) {
-            ExecutorService executor = Executors.newFixedThreadPool(1);
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    ServerInitializer.inheritVeriniceContextState();
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                ServerInitializer.inheritVeriniceContextState();
+                try {
                     awaitIndexingTermination(completionService, logIndexedElementDetails);
-                    printIndexingTimeConsumption();
+                } finally {
+                    finishIndexing();
                 }
-            });
-            executor.shutdown();
+            }
+        });
+        executor.shutdown();
+    }
+
+    private void finishIndexing() {
+        boolean successful = false;
+        try {
+            enableRefresh();
+            successful = statistic.getFailed() == 0;
+        } finally {
+            if (indexState != null) {
+                indexState.finishIndexing(indexingStart, successful);
+            }
+            printIndexingTimeConsumption();
+        }
+    }
+
+    private void abortIndexing() {
+        try {
+            enableRefresh();
+        } finally {
+            if (indexState != null) {
+                indexState.finishIndexing(indexingStart, false);
+            }
+        }
+    }
+
+    /**
+     * Enables the periodic refresh of the index if it was disabled by this
+     * indexer. Called on every exit path of an indexing run.
+     */
+    private void enableRefresh() {
+        if (refreshDisabled) {
+            refreshDisabled = false;
+            getSearchDao().enableRefresh();
         }
     }
 
     private void printIndexingTimeConsumption() {
-        long end = System.currentTimeMillis();
-        long ms = end - indexingStart;
-        LOG.info("Index created, runtime: " + TimeFormatter.getHumanRedableTime(ms));
+        if (LOG.isInfoEnabled()) {
+            long end = System.currentTimeMillis();
+            long ms = end - indexingStart;
+            LOG.info("Index created, runtime: " + TimeFormatter.getHumanRedableTime(ms) + ", "
+                    + statistic);
+        }
+        if (statistic.getFailed() > 0) {
+            LOG.warn("Indexing failed for " + statistic.getFailed() + " elements in "
+                    + statistic.getFailedChunks() + " chunks, see log for details.");
+        }
     }
 
     /**
@@ -182,6 +359,7 @@ public class Indexer {
         try {
             doBlockingIndexing();
         } catch (Exception e) {
+            abortIndexing();
             LOG.error("blocking indexing failed: " + e.getLocalizedMessage(), e);
         }
     }
@@ -191,13 +369,13 @@ public class Indexer {
         ServerInitializer.inheritVeriniceContextState();
         boolean logIndexedElementDetails = LOG.isDebugEnabled();
         ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
-                logIndexedElementDetails);
+                logIndexedElementDetails, null);
 
         // This call causes the blocking since it takes every completed task
         // from the executor queue.
         awaitIndexingTermination(completionService, logIndexedElementDetails);
 
-        printIndexingTimeConsumption();
+        finishIndexing();
     }
 
     private static void awaitIndexingTermination(
@@ -227,26 +405,37 @@ public class Indexer {
 
     private Collection<IndexThread> createIndexThreadsByUuids(List<String> allUuids,
             boolean logIndexedElementDetails) {
-        List<List<String>> chunks = Lists.partition(allUuids, INDEXING_CHUNK_SIZE);
+        int chunkSize = bulkIndexing ? bulkSize : INDEXING_CHUNK_SIZE;
+        List<List<String>> chunks = Lists.partition(allUuids, chunkSize);
         Collection<IndexThread> indexThreads = new ArrayList<>(chunks.size());
         for (List<String> chunk : chunks) {
             IndexThread indexThread = (IndexThread) indexThreadFactory.getObject();
             indexThread.setUuids(chunk);
             indexThread.setReturnIndexedElementDetails(logIndexedElementDetails);
+            indexThread.setBulkIndexing(bulkIndexing);
+            indexThread.setStatistic(statistic);
             indexThreads.add(indexThread);
         }
         return indexThreads;
     }
 
     private final class DummyAuthenticationRunnableExtension extends DummyAuthenticationRunnable {
+
+        private final Date changedSince;
+
+        private DummyAuthenticationRunnableExtension(Date changedSince) {
+            this.changedSince = changedSince;
+        }
+
         @Override
         public void doRun() {
             try {
                 boolean logIndexedElementDetails = LOG.isDebugEnabled();
                 ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
-                        logIndexedElementDetails);
-                logNonBlockingIndexingTermination(completionService, logIndexedElementDetails);
+                        logIndexedElementDetails, changedSince);
+                finishNonBlockingIndexing(completionService, logIndexedElementDetails);
             } catch (Exception e) {
+                abortIndexing();
                 LOG.error("Error while indexing elements.", e);
             }
         }
@@ -268,6 +457,30 @@ public class Indexer {
         this.elementDao = elementDao;
     }
 
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public boolean isBulkIndexing() {
+        return bulkIndexing;
+    }
+
+    public void setBulkIndexing(boolean bulkIndexing) {
+        this.bulkIndexing = bulkIndexing;
+    }
+
+    public int getBulkSize() {
+        return bulkSize;
+    }
+
+    public void setBulkSize(int bulkSize) {
+        this.bulkSize = bulkSize;
+    }
+
     public IElementTitleCache getTitleCache() {
         return titleCache;
     }
@@ -275,4 +488,20 @@ public class Indexer {
     public void setTitleCache(IElementTitleCache titleCache) {
         this.titleCache = titleCache;
     }
+
+    public IndexState getIndexState() {
+        return indexState;
+    }
+
+    public void setIndexState(IndexState indexState) {
+        this.indexState = indexState;
+    }
+
+    public long getSafetyMargin() {
+        return safetyMargin;
+    }
+
+    public void setSafetyMargin(long safetyMargin) {
+        this.safetyMargin = safetyMargin;
+    }
 }
@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread safe counters of an indexing run. One instance is shared by all
+ * {@link IndexThread}s of a run created by {@link Indexer}.
+ */
+public final class IndexingStatistic {
+
+    private final long start = System.currentTimeMillis();
+    private final AtomicLong indexed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong failedChunks = new AtomicLong();
+
+    public void addIndexed(long number) {
+        indexed.addAndGet(number);
+    }
+
+    public void addFailedChunk(long failedDocuments) {
+        failed.addAndGet(failedDocuments);
+        failedChunks.incrementAndGet();
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getFailedChunks() {
+        return failedChunks.get();
+    }
+
+    public long getRuntime() {
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * @return The number of successfully indexed documents per second
+     */
+    public double getThroughput() {
+        long runtime = Math.max(getRuntime(), 1);
+        return getIndexed() * 1000.0 / runtime;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("indexed: %d, failed: %d (in %d chunks), throughput: %.1f docs/s",
+                getIndexed(), getFailed(), getFailedChunks(), getThroughput());
+    }
+}
@@ -30,19 +30,16 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 
 import sernet.gs.service.Retriever;
-import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.EntityReadView;
 import sernet.hui.common.connect.EntityType;
-import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyOption;
+import sernet.hui.common.connect.PropertySlotLayout;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.IElementTitleCache;
 import sernet.verinice.interfaces.search.IJsonBuilder;
 import sernet.verinice.interfaces.search.ISearchService;
-import sernet.verinice.model.bp.elements.ItNetwork;
-import sernet.verinice.model.bsi.ITVerbund;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
-import sernet.verinice.model.iso27k.Organization;
 
 /**
  * Creates JSON documents for indexing in ElasticSearch
@@ -82,11 +79,8 @@ public class JsonBuilder implements IJsonBuilder {
             title = getTitleCache().get(element.getScopeId());
         }
         if (title == null) {
-            LOG.warn("Scope title not found in cache for element: " + element.getUuid() + ", type: "
-                    + element.getTypeId() + ". Loading all scope titles now...");
-            getTitleCache().load(ITVerbund.TYPE_ID_HIBERNATE, Organization.TYPE_ID,
-                    ItNetwork.TYPE_ID);
-            title = getTitleCache().get(element.getScopeId());
+            LOG.warn("Scope title not found for element: " + element.getUuid() + ", type: "
+                    + element.getTypeId() + ", scope db-id: " + element.getScopeId());
         }
         return title;
     }
@@ -127,10 +121,9 @@ public class JsonBuilder implements IJsonBuilder {
 
         addPermissions(builder, element);
 
-        if (element.getEntity() != null && element.getEntityType() != null
-                && entityType.getAllPropertyTypeIds() != null) {
-            builder = addProperties(builder, entityType.getAllPropertyTypeIds(),
-                    element.getEntity());
+        if (element.getEntity() != null && entityType != null) {
+            builder = addProperties(builder,
+                    element.getEntity().createReadView(entityType.getSlotLayout()));
         }
         return builder.endObject().string();
     }
@@ -160,26 +153,26 @@ public class JsonBuilder implements IJsonBuilder {
         builder.endArray();
     }
 
-    private XContentBuilder addProperties(XContentBuilder builder, String[] propertyTypeIds,
-            Entity e) throws IOException {
-        HUITypeFactory factory = HUITypeFactory.getInstance();
-        for (String propertyTypeId : propertyTypeIds) {
-            PropertyType propertyType = factory.getPropertyType(e.getEntityType(), propertyTypeId);
+    private XContentBuilder addProperties(XContentBuilder builder, EntityReadView view)
+            throws IOException {
+        PropertySlotLayout layout = view.getLayout();
+        for (int slot = 0; slot < layout.size(); slot++) {
+            PropertyType propertyType = layout.getPropertyType(slot);
             // reference types are ignored (VN-1204)
             if (!propertyType.isReference()) {
-                builder.field(propertyTypeId, mapPropertyString(e, propertyType));
+                builder.field(propertyType.getId(), mapPropertyString(view, slot, propertyType));
             }
         }
         return builder;
     }
 
-    private String mapPropertyString(Entity e, PropertyType pType) {
-        String value = e.getPropertyValue(pType.getId());
+    private String mapPropertyString(EntityReadView view, int slot, PropertyType pType) {
+        String value = view.getPropertyValue(slot);
         String mappedValue = "";
         if (StringUtils.isEmpty(value)) {
             mappedValue = getNullValue();
         } else if (pType.isDate()) {
-            mappedValue = mapDateProperty(e.getRawPropertyValue(pType.getId()));
+            mappedValue = mapDateProperty(view.getRawPropertyValue(slot));
         } else if (pType.isSingleSelect() || pType.isMultiselect()) {
             mappedValue = mapMultiSelectProperty(value, pType);
         } else if (pType.isNumericSelect()) {
@@ -17,8 +17,11 @@
  ******************************************************************************/
 package sernet.verinice.server.vna;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.Hashtable;
 import java.util.Map;
 
@@ -26,7 +29,7 @@ import javax.activation.DataHandler;
 import javax.jws.WebService;
 import javax.jws.soap.SOAPBinding;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
 import sernet.verinice.interfaces.CommandException;
@@ -85,22 +88,29 @@ public class VnaServiceImpl implements VnaService {
     protected void doImport(Vna request, Response response) throws IOException, CommandException, SyncParameterException {
         if(request!=null && request.getData()!=null) {        
             DataHandler handler = request.getData();
-            InputStream is = handler.getInputStream();
-            byte[] bytes = IOUtils.toByteArray(is);
-            
-            String message = "File recieved: " + request.getName() + ", type: " + request.getType().toString() + ", size: " + bytes.length + " bytes.";
-            if (LOG.isInfoEnabled()) {
-                LOG.info(message);
-            }             
-            response.getMessage().add(message);
-            SyncParameter parameter = getParameterForRequest(request);
-            SyncCommand command = doImport(parameter, bytes);
-            createResponse(command, response);
+            // the file is streamed to a temporary file instead of loading
+            // it into memory
+            File file = File.createTempFile("vna-service-", ".tmp");
+            try {
+                try (InputStream is = handler.getInputStream()) {
+                    Files.copy(is, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                String message = "File recieved: " + request.getName() + ", type: " + request.getType().toString() + ", size: " + file.length() + " bytes.";
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(message);
+                }             
+                response.getMessage().add(message);
+                SyncParameter parameter = getParameterForRequest(request);
+                SyncCommand command = doImport(parameter, file.getPath());
+                createResponse(command, response);
+            } finally {
+                FileUtils.deleteQuietly(file);
+            }
         }
     }
 
-    private SyncCommand doImport(SyncParameter parameter, byte[] fileData) throws CommandException {
-        SyncCommand command = new SyncCommand(parameter, fileData); 
+    private SyncCommand doImport(SyncParameter parameter, String path) throws CommandException {
+        SyncCommand command = new SyncCommand(parameter, path); 
         return getCommandService().executeCommand(command);
     }
     
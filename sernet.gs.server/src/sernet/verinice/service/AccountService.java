@@ -53,11 +53,13 @@ import sernet.verinice.interfaces.IRightsServerHandler;
 import sernet.verinice.interfaces.IRightsService;
 import sernet.verinice.model.bp.elements.BpPerson;
 import sernet.verinice.model.bsi.Person;
+import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
 import sernet.verinice.model.common.accountgroup.AccountGroup;
 import sernet.verinice.model.common.configuration.Configuration;
 import sernet.verinice.model.iso27k.PersonIso;
 import sernet.verinice.service.account.AccountSearchParameterFactory;
+import sernet.verinice.service.commands.ReadAclUpdater;
 
 /**
  * Service to find, remove and add new accounts and account groups. This service
@@ -72,6 +74,10 @@ public class AccountService implements IAccountService, Serializable {
 
     private static final Logger LOG = Logger.getLogger(AccountService.class);
 
+    private static final String HQL_RESET_READ_ACLS = "update CnATreeElement "
+            + "set readAclId = null where dbId in (select p.cnaTreeElement.dbId "
+            + "from Permission p where p.role = ?)"; //$NON-NLS-1$
+
     private static final String HQL_SELECT_VISIBLE_PERSONS = "select p.cnaTreeElement.dbId from Permission p where"
             + " p.cnaTreeElement.objectType in ('" + Person.TYPE_ID + "','" + PersonIso.TYPE_ID
             + "','" + BpPerson.TYPE_ID + "') and p.role in (:roles)";
@@ -87,6 +93,8 @@ public class AccountService implements IAccountService, Serializable {
 
     private IBaseDao<Permission, Serializable> permissionDao;
 
+    private IBaseDao<CnATreeElement, Serializable> elementDao;
+
     private final Set<String> standardGroups = new HashSet<>(
             Arrays.asList(ADMINDEFAULTGROUPNAME, ADMINLOCALDEFAULTGROUPNAME,
                     ADMINSCOPEDEFAULTGROUPNAME, USERDEFAULTGROUPNAME, USERSCOPEDEFAULTGROUPNAME));
@@ -335,21 +343,41 @@ public class AccountService implements IAccountService, Serializable {
     @Override
     public void deletePermissions(String role) {
         ServerInitializer.inheritVeriniceContextState();
+        resetReadAcls(role);
         String hqlQuery = "delete Permission where role = ?";
         String[] params = new String[] { role };
         getPermissionDao().updateByQuery(hqlQuery, params);
+        updateReadAcls();
         rightsServerHandler.discardData();
     }
 
     @Override
     public void updatePermissions(String newRole, String oldRole) {
         ServerInitializer.inheritVeriniceContextState();
+        resetReadAcls(oldRole);
         String hqlQuery = "update Permission set role = ? where role = ?";
         String[] params = new String[] { newRole, oldRole };
         getPermissionDao().updateByQuery(hqlQuery, params);
+        updateReadAcls();
         rightsServerHandler.discardData();
     }
 
+    /**
+     * Removes the read ACL of all elements with a permission for a role. The
+     * read access to elements without a read ACL is checked against the
+     * permission table until {@link #updateReadAcls()} is called.
+     */
+    private void resetReadAcls(String role) {
+        getPermissionDao().updateByQuery(HQL_RESET_READ_ACLS, new String[] { role });
+    }
+
+    private void updateReadAcls() {
+        int numberOfElements = new ReadAclUpdater(getElementDao()).updateMissing();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Read ACL updated for " + numberOfElements + " elements");
+        }
+    }
+
     public IAuthService getAuthService() {
         return authService;
     }
@@ -412,6 +440,14 @@ public class AccountService implements IAccountService, Serializable {
         this.permissionDao = permissionDao;
     }
 
+    public IBaseDao<CnATreeElement, Serializable> getElementDao() {
+        return elementDao;
+    }
+
+    public void setElementDao(IBaseDao<CnATreeElement, Serializable> elementDao) {
+        this.elementDao = elementDao;
+    }
+
     @Override
     public long countConnectObjectsForGroup(String groupName) {
         ServerInitializer.inheritVeriniceContextState();
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.ServerInitializer;
+import sernet.hui.common.VeriniceContext;
+import sernet.verinice.interfaces.ChangeEvents;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IChangeEventService;
+import sernet.verinice.interfaces.ICommandService;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.service.commands.task.LoadReadableElementIds;
+
+/**
+ * Holds the last published changes in a ring buffer and lets clients wait for
+ * new changes (long polling), see {@link IChangeEventService}.
+ *
+ * The number of clients waiting at the same time is limited to keep threads
+ * of the servlet container available for commands. If the limit is reached
+ * the service returns immediately and sets the busy flag of the result.
+ *
+ * Changes of elements the user is not allowed to read are removed from the
+ * result before it is returned.
+ */
+public class ChangeEventService implements IChangeEventService {
+
+    private static final Logger LOG = Logger.getLogger(ChangeEventService.class);
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_TIMEOUT = 20000;
+    public static final int DEFAULT_MAX_WAITING_CLIENTS = 100;
+
+    private final String serverId = UUID.randomUUID().toString();
+
+    private final Object lock = new Object();
+
+    private ChangeLogEntry[] buffer = new ChangeLogEntry[DEFAULT_CAPACITY];
+
+    /**
+     * Sequence number of the last published change, the change with sequence
+     * number n is stored at index n % buffer.length
+     */
+    private long lastSequence = 0;
+
+    private int waitingClients = 0;
+
+    // injected by spring
+    private long timeout = DEFAULT_TIMEOUT;
+
+    private int maxWaitingClients = DEFAULT_MAX_WAITING_CLIENTS;
+
+    private ICommandService commandService;
+
+    /**
+     * Publishes changes and wakes up all waiting clients.
+     *
+     * @param entries
+     *            Changes which are committed to the database
+     */
+    public void publish(List<ChangeLogEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (ChangeLogEntry entry : entries) {
+                lastSequence++;
+                buffer[(int) (lastSequence % buffer.length)] = entry;
+            }
+            lock.notifyAll();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(entries.size() + " change(s) published, last sequence: " + lastSequence);
+        }
+    }
+
+    @Override
+    public ChangeEvents getChangeEvents(String clientServerId, long clientSequence,
+            String stationId) {
+        long sequence;
+        boolean complete;
+        boolean busy = false;
+        List<ChangeLogEntry> entries;
+        synchronized (lock) {
+            if (!serverId.equals(clientServerId) || clientSequence < 0
+                    || clientSequence > lastSequence) {
+                // unknown client state, the client has to catch up
+                return new ChangeEvents(serverId, lastSequence, false, false, null);
+            }
+            if (clientSequence == lastSequence) {
+                if (waitingClients < maxWaitingClients) {
+                    waitForChanges(clientSequence);
+                } else {
+                    busy = true;
+                }
+            }
+            sequence = lastSequence;
+            complete = lastSequence - clientSequence <= buffer.length;
+            entries = complete ? getEntries(clientSequence, stationId)
+                    : Collections.<ChangeLogEntry> emptyList();
+        }
+        // read access is checked with a database query, do not hold the lock
+        return new ChangeEvents(serverId, sequence, complete, busy, filterReadable(entries));
+    }
+
+    private void waitForChanges(long clientSequence) {
+        waitingClients++;
+        try {
+            long end = System.currentTimeMillis() + timeout;
+            long remaining = timeout;
+            while (clientSequence == lastSequence && remaining > 0) {
+                lock.wait(remaining);
+                remaining = end - System.currentTimeMillis();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            waitingClients--;
+        }
+    }
+
+    private List<ChangeLogEntry> getEntries(long clientSequence, String stationId) {
+        List<ChangeLogEntry> entries = new ArrayList<>((int) (lastSequence - clientSequence));
+        for (long sequence = clientSequence + 1; sequence <= lastSequence; sequence++) {
+            ChangeLogEntry entry = buffer[(int) (sequence % buffer.length)];
+            if (stationId == null || !stationId.equals(entry.getStationId())) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private List<ChangeLogEntry> filterReadable(List<ChangeLogEntry> entries) {
+        Set<Integer> dbIds = new HashSet<>();
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getElementId() != null) {
+                dbIds.add(entry.getElementId());
+            }
+        }
+        if (dbIds.isEmpty()) {
+            return entries;
+        }
+        Set<Integer> readableIds = loadReadableIds(dbIds);
+        List<ChangeLogEntry> readableEntries = new ArrayList<>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getElementId() == null || readableIds.contains(entry.getElementId())) {
+                readableEntries.add(entry);
+            }
+        }
+        return readableEntries;
+    }
+
+    /**
+     * Returns the db-ids of the elements the current user is allowed to read.
+     * If the check fails no element is readable.
+     *
+     * @param dbIds
+     *            Db-ids of changed elements
+     * @return The readable db-ids
+     */
+    protected Set<Integer> loadReadableIds(Set<Integer> dbIds) {
+        try {
+            LoadReadableElementIds command = new LoadReadableElementIds(dbIds);
+            command = getCommandService().executeCommand(command);
+            return command.getReadableIds();
+        } catch (CommandException e) {
+            LOG.error("Error while checking read access of changed elements", e);
+            return Collections.emptySet();
+        }
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @param timeout
+     *            Maximum time in milliseconds a client waits for changes
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    public int getMaxWaitingClients() {
+        return maxWaitingClients;
+    }
+
+    public void setMaxWaitingClients(int maxWaitingClients) {
+        this.maxWaitingClients = maxWaitingClients;
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * @param capacity
+     *            Number of changes held in memory
+     */
+    public void setCapacity(int capacity) {
+        synchronized (lock) {
+            buffer = new ChangeLogEntry[capacity];
+            lastSequence = 0;
+        }
+    }
+
+    public ICommandService getCommandService() {
+        if (commandService == null) {
+            ServerInitializer.inheritVeriniceContextState();
+            commandService = (ICommandService) VeriniceContext
+                    .get(VeriniceContext.COMMAND_SERVICE);
+        }
+        return commandService;
+    }
+
+    public void setCommandService(ICommandService commandService) {
+        this.commandService = commandService;
+    }
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.log4j.Logger;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.gs.service.WritePermissionCache;
 import sernet.verinice.interfaces.ApplicationRoles;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IAuthService;
@@ -127,6 +128,7 @@ public class ConfigurationService implements IConfigurationService {
         } finally {
             writeLock.unlock();
         }   
+        WritePermissionCache.invalidate();
     }
 
     /* (non-Javadoc)
@@ -174,6 +176,7 @@ public class ConfigurationService implements IConfigurationService {
         } finally {
             writeLock.unlock();
         }
+        WritePermissionCache.invalidate();
     }
 
     /* (non-Javadoc)
@@ -327,6 +330,20 @@ public class ConfigurationService implements IConfigurationService {
     }
 
     public Set<String> loadRoles() throws CommandException {
+        WritePermissionCache cache = WritePermissionCache.current();
+        if (cache == null) {
+            return loadRolesOfCurrentUser();
+        }
+        String username = getAuthService().getUsername();
+        Set<String> roles = cache.getConfigurationRoles(username);
+        if (roles == null) {
+            roles = loadRolesOfCurrentUser();
+            cache.putConfigurationRoles(username, roles);
+        }
+        return roles;
+    }
+
+    private Set<String> loadRolesOfCurrentUser() throws CommandException {
         LoadCurrentUserConfiguration lcuc = new LoadCurrentUserConfiguration();
         lcuc = getCommandService().executeCommand(lcuc);
         Configuration c = lcuc.getConfiguration();
@@ -19,78 +19,341 @@
  ******************************************************************************/
 package sernet.verinice.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
-import org.springframework.security.context.SecurityContext;
-import org.springframework.security.context.SecurityContextHolder;
 
-import sernet.gs.server.security.DummyAuthentication;
-import sernet.hui.common.VeriniceContext;
-import sernet.verinice.interfaces.CommandException;
+import sernet.gs.service.CollectionUtil;
 import sernet.verinice.interfaces.IBaseDao;
-import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IElementTitleCache;
+import sernet.verinice.interfaces.graph.ElementProjectionQuery;
+import sernet.verinice.model.bp.elements.ItNetwork;
+import sernet.verinice.model.bsi.ITVerbund;
 import sernet.verinice.model.common.CnATreeElement;
-import sernet.verinice.service.commands.LoadElementTitles;
+import sernet.verinice.model.iso27k.Organization;
 
 /**
+ * A title cache for elements of all types which can be read and written
+ * concurrently without locking.
+ *
+ * Titles are loaded with an {@link ElementProjectionQuery} which selects only
+ * the element columns and the property rows instead of hydrating Hibernate
+ * entities. If several threads miss the same element at the same time, the
+ * title is loaded only once by the first thread, the other threads wait for
+ * its result. Saved elements are updated or removed by the DAO.
+ *
+ * The cache holds at most {@link #getMaxSize()} titles. If a title is added
+ * to a full cache, the least recently used titles are evicted until the cache
+ * is filled to three quarters. Evicted titles are loaded again on the next
+ * miss. Only one thread evicts at a time, other threads do not wait for it.
+ *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 public class ElementTitleCache implements IElementTitleCache {
 
     private static final Logger LOG = Logger.getLogger(ElementTitleCache.class);
-    
-    private HashMap<Integer, String> titleMap = new HashMap<Integer, String>();
-    private LoadElementTitles loadScopeTitlesCommand;
-    private ICommandService commandService;
-    
-    /* (non-Javadoc)
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final int DEFAULT_MAX_SIZE = 100000;
+
+    private static final String[] DEFAULT_TYPE_IDS = new String[] { ITVerbund.TYPE_ID_HIBERNATE,
+            Organization.TYPE_ID, ItNetwork.TYPE_ID };
+
+    private final ConcurrentMap<Integer, CachedTitle> titleMap = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every access, the last value is stored in the accessed
+     * title to find the least recently used titles
+     */
+    private final AtomicLong accessCounter = new AtomicLong();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    private final ConcurrentMap<Integer, CompletableFuture<String>> pendingLoads
+            = new ConcurrentHashMap<>();
+
+    private IBaseDao<CnATreeElement, Integer> elementDao;
+
+    private String[] typeIds = DEFAULT_TYPE_IDS;
+
+    private int maxSize = DEFAULT_MAX_SIZE;
+
+    /*
+     * (non-Javadoc)
+     * 
      * @see sernet.verinice.interfaces.IElementTitleCache#get(java.lang.Integer)
      */
     @Override
     public String get(Integer dbId) {
-        return titleMap.get(dbId);
+        if (dbId == null) {
+            return null;
+        }
+        String title = getCached(dbId);
+        if (title != null) {
+            return title;
+        }
+        return get(Collections.singletonList(dbId)).get(dbId);
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * sernet.verinice.interfaces.IElementTitleCache#get(java.util.Collection)
+     */
+    @Override
+    public Map<Integer, String> get(Collection<Integer> dbIds) {
+        Map<Integer, String> titles = new HashMap<>(dbIds.size());
+        Map<Integer, CompletableFuture<String>> ownLoads = new HashMap<>();
+        Map<Integer, CompletableFuture<String>> otherLoads = new HashMap<>();
+        for (Integer dbId : dbIds) {
+            if (dbId == null || titles.containsKey(dbId) || ownLoads.containsKey(dbId)) {
+                continue;
+            }
+            String title = getCached(dbId);
+            if (title != null) {
+                titles.put(dbId, title);
+                continue;
+            }
+            CompletableFuture<String> future = new CompletableFuture<>();
+            CompletableFuture<String> pending = pendingLoads.putIfAbsent(dbId, future);
+            if (pending == null) {
+                ownLoads.put(dbId, future);
+            } else {
+                otherLoads.put(dbId, pending);
+            }
+        }
+        if (!ownLoads.isEmpty()) {
+            loadMissingTitles(ownLoads);
+            evictIfFull();
+        }
+        addTitles(titles, ownLoads);
+        addTitles(titles, otherLoads);
+        return titles;
+    }
+
+    private void loadMissingTitles(Map<Integer, CompletableFuture<String>> loads) {
+        Map<Integer, String> loadedTitles = Collections.emptyMap();
+        try {
+            loadedTitles = loadTitlesById(new ArrayList<>(loads.keySet()));
+        } catch (RuntimeException e) {
+            LOG.error("Error while loading titles", e);
+        } finally {
+            for (Map.Entry<Integer, CompletableFuture<String>> entry : loads.entrySet()) {
+                Integer dbId = entry.getKey();
+                CompletableFuture<String> future = entry.getValue();
+                String title = loadedTitles.get(dbId);
+                // the title is not cached if it was removed while loading
+                if (title != null && pendingLoads.get(dbId) == future) {
+                    CachedTitle cachedTitle = titleMap.putIfAbsent(dbId, newCachedTitle(title));
+                    title = (cachedTitle != null) ? cachedTitle.title : title;
+                }
+                pendingLoads.remove(dbId, future);
+                future.complete(title);
+            }
+        }
+    }
+
+    private String getCached(Integer dbId) {
+        CachedTitle cachedTitle = titleMap.get(dbId);
+        if (cachedTitle == null) {
+            return null;
+        }
+        cachedTitle.lastAccess = accessCounter.incrementAndGet();
+        return cachedTitle.title;
+    }
+
+    private CachedTitle newCachedTitle(String title) {
+        return new CachedTitle(title, accessCounter.incrementAndGet());
+    }
+
+    /**
+     * Evicts the least recently used titles if the cache is full. Returns
+     * immediately if another thread is evicting.
+     */
+    private void evictIfFull() {
+        if (titleMap.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            int numberToEvict = titleMap.size() - (maxSize - maxSize / 4);
+            if (numberToEvict <= 0) {
+                return;
+            }
+            List<Map.Entry<Integer, CachedTitle>> entries = new ArrayList<>(titleMap.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            for (Map.Entry<Integer, CachedTitle> entry : entries.subList(0,
+                    Math.min(numberToEvict, entries.size()))) {
+                titleMap.remove(entry.getKey(), entry.getValue());
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(numberToEvict + " titles evicted, cache size: " + titleMap.size());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static void addTitles(Map<Integer, String> titles,
+            Map<Integer, CompletableFuture<String>> loads) {
+        for (Map.Entry<Integer, CompletableFuture<String>> entry : loads.entrySet()) {
+            String title = entry.getValue().join();
+            if (title != null) {
+                titles.put(entry.getKey(), title);
+            }
+        }
+    }
+
+    private Map<Integer, String> loadTitlesById(List<Integer> dbIds) {
+        Map<Integer, String> titles = new HashMap<>(dbIds.size());
+        for (List<Integer> partition : CollectionUtil.partition(dbIds, MAX_IN_CLAUSE_SIZE)) {
+            titles.putAll(loadTitles("dbId", partition.toArray()));
+        }
+        return titles;
     }
-    
-    /* (non-Javadoc)
-     * @see sernet.verinice.interfaces.IElementTitleCache#load(java.lang.String[])
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * sernet.verinice.interfaces.IElementTitleCache#load(java.lang.String[])
      */
     @Override
     public void load(String... typeIds) {
-        try {    
-            loadScopeTitlesCommand = getCommandService().executeCommand(loadScopeTitlesCommand);
-            titleMap.putAll(loadScopeTitlesCommand.getElements());
-        } catch (CommandException e) {
+        String[] types = (typeIds != null && typeIds.length > 0) ? typeIds : this.typeIds;
+        try {
+            Map<Integer, String> titles = loadTitles("objectType", types);
+            // titles in the cache are kept up to date by update and remove
+            for (Map.Entry<Integer, String> entry : titles.entrySet()) {
+                titleMap.putIfAbsent(entry.getKey(), newCachedTitle(entry.getValue()));
+            }
+            evictIfFull();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(titles.size() + " titles loaded, cache size: " + titleMap.size());
+            }
+        } catch (RuntimeException e) {
             LOG.error("Error while loading titles", e);
-        }     
+        }
     }
-    
-    /* (non-Javadoc)
-     * @see sernet.verinice.interfaces.IElementTitleCache#update(java.lang.Integer, java.lang.String)
+
+    /**
+     * Loads the titles of all elements matching a restriction from the
+     * database.
+     *
+     * @param property
+     *            A property path of a CnATreeElement, e.g. "dbId"
+     * @param values
+     *            The allowed values of the property
+     * @return A map with the database ids of the elements as keys and their
+     *         titles as values
+     */
+    protected Map<Integer, String> loadTitles(String property, Object[] values) {
+        List<CnATreeElement> elements = new ElementProjectionQuery(getElementDao())
+                .load(Collections.singletonMap(property, values));
+        Map<Integer, String> titles = new HashMap<>(elements.size());
+        for (CnATreeElement element : elements) {
+            try {
+                String title = element.getTitle();
+                if (title != null) {
+                    titles.put(element.getDbId(), title);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Can not get title of element: " + element.getUuid() + ", type: "
+                        + element.getTypeId(), e);
+            }
+        }
+        return titles;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * sernet.verinice.interfaces.IElementTitleCache#update(java.lang.Integer,
+     * java.lang.String)
      */
     @Override
     public String update(Integer dbId, String title) {
-        return titleMap.put(dbId, title);
+        if (dbId == null) {
+            return null;
+        }
+        CachedTitle oldTitle;
+        if (title == null) {
+            oldTitle = titleMap.remove(dbId);
+        } else {
+            oldTitle = titleMap.put(dbId, newCachedTitle(title));
+            evictIfFull();
+        }
+        return (oldTitle != null) ? oldTitle.title : null;
     }
 
-    public LoadElementTitles getLoadScopeTitlesCommand() {
-        return loadScopeTitlesCommand;
+    /*
+     * (non-Javadoc)
+     * 
+     * @see
+     * sernet.verinice.interfaces.IElementTitleCache#remove(java.lang.Integer)
+     */
+    @Override
+    public void remove(Integer dbId) {
+        if (dbId != null) {
+            pendingLoads.remove(dbId);
+            titleMap.remove(dbId);
+        }
     }
 
-    public void setLoadScopeTitlesCommand(LoadElementTitles loadScopeTitlesCommand) {
-        this.loadScopeTitlesCommand = loadScopeTitlesCommand;
+    public IBaseDao<CnATreeElement, Integer> getElementDao() {
+        return elementDao;
     }
 
-    protected ICommandService getCommandService() {
-        if(commandService==null) {
-            commandService = (ICommandService) VeriniceContext.get(VeriniceContext.COMMAND_SERVICE);
-        }
-        return commandService;
+    public void setElementDao(IBaseDao<CnATreeElement, Integer> elementDao) {
+        this.elementDao = elementDao;
     }
 
-    public void setCommandService(ICommandService commandService) {
-        this.commandService = commandService;
+    public String[] getTypeIds() {
+        return typeIds.clone();
+    }
+
+    public void setTypeIds(String[] typeIds) {
+        this.typeIds = (typeIds != null) ? typeIds.clone() : DEFAULT_TYPE_IDS;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize
+     *            Maximum number of titles held in memory
+     */
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    private static final class CachedTitle {
+
+        private final String title;
+
+        private volatile long lastAccess;
+
+        private CachedTitle(String title, long lastAccess) {
+            this.title = title;
+            this.lastAccess = lastAccess;
+        }
     }
 
 }
@@ -20,6 +20,9 @@ package sernet.verinice.service;
 
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -30,7 +33,10 @@ import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.security.AccessDeniedException;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import sernet.gs.service.WritePermissionCache;
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.ApplicationRoles;
 import sernet.verinice.interfaces.CommandException;
@@ -38,6 +44,7 @@ import sernet.verinice.interfaces.ElementChange;
 import sernet.verinice.interfaces.IAuthAwareCommand;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.ICachedCommand;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.interfaces.ICommand;
 import sernet.verinice.interfaces.ICommandService;
@@ -52,6 +59,8 @@ import sernet.verinice.interfaces.ldap.ILdapService;
 import sernet.verinice.model.bsi.BSIModel;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.commands.CommandResultCache;
+import sernet.verinice.service.commands.ExecuteCommandBatch;
 import sernet.verinice.service.commands.UsernameExistsRuntimeException;
 import sernet.verinice.service.sync.VnaSchemaVersion;
 
@@ -67,6 +76,12 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 	
 	private static final Logger log = Logger.getLogger(HibernateCommandService.class);
 
+	/**
+	 * Number of commands executed by the current thread, nested commands are
+	 * executed by other commands. Batches of commands are not counted.
+	 */
+	private static final ThreadLocal<int[]> commandDepth = ThreadLocal.withInitial(() -> new int[1]);
+
 	// injected by spring
 	private DAOFactory daoFactory;
 	
@@ -86,6 +101,10 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 	
 	private IRightsServerHandler rightsServerHandler;
 	
+	private ChangeEventService changeEventService;
+	
+	private CommandResultCache commandResultCache;
+	
 	IBaseDao<BSIModel, Serializable> dao;
 	
 	private VnaSchemaVersion vnaSchemaVersion;
@@ -119,9 +138,33 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 		if (log.isDebugEnabled()) {
             log.debug("Service executing command: " + command.getClass().getSimpleName() + " / user: " + username); 
 		}
-		    
+		
+		// roles and write permissions are cached until the outermost
+		// command is finished
+		WritePermissionCache.begin();
+		boolean counted = !(command instanceof ExecuteCommandBatch);
+		if (counted) {
+			commandDepth.get()[0]++;
+		}
 		try {
             checkRightsForAction(command, username);
+
+            // results of outermost commands are cached, nested commands
+            // need managed entities of the current session
+            boolean cacheable = commandResultCache != null && counted
+                    && commandDepth.get()[0] == 1 && command instanceof ICachedCommand;
+            String cacheKey = null;
+            long cacheVersion = 0;
+            if (cacheable) {
+                cacheKey = CommandResultCache.createKey(getCacheContext(username),
+                        (ICachedCommand) command);
+                Object cachedResult = commandResultCache.get(cacheKey);
+                if (cachedResult != null) {
+                    ((ICachedCommand) command).injectCacheResult(cachedResult);
+                    return command;
+                }
+                cacheVersion = commandResultCache.getVersion();
+            }
 		    
 			// inject service and database access:
 			command.setDaoFactory(daoFactory);
@@ -160,6 +203,12 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 			
 			disableFilter(getBsiModelDao());
 			
+			if (cacheable) {
+			    ICachedCommand cachedCommand = (ICachedCommand) command;
+			    commandResultCache.put(cacheKey, cachedCommand.getCacheableResult(),
+			            cachedCommand.getCacheScopeIds(), cacheVersion);
+			}
+			
 			// log changes:
 			if (command instanceof IChangeLoggingCommand) {
 				log((IChangeLoggingCommand) command);
@@ -179,10 +228,29 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 			// TODO ak kein exception handler -> initialization must have gone wrong, abort application completely?
 			if (exceptionHandler != null)
 				exceptionHandler.handle(e);
+		} finally {
+			if (counted) {
+				commandDepth.get()[0]--;
+			}
+			WritePermissionCache.end();
 		}
 		return command;
 	}
 
+	/**
+	 * Returns the user name and the sorted roles of the user. Cached command
+	 * results are only shared by users with the same name and roles.
+	 */
+	private String getCacheContext(String username) {
+	    String[] roles = getAuthService().getRoles();
+	    if (roles == null) {
+	        return username;
+	    }
+	    String[] sortedRoles = roles.clone();
+	    Arrays.sort(sortedRoles);
+	    return username + Arrays.toString(sortedRoles);
+	}
+
     /**
      * Check if the given command is allowed to execute by the given user as
      * defined in the authorization configuration see {@link XmlRightsService}
@@ -233,6 +301,7 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
     
     private void log(IChangeLoggingCommand notifyCommand) {
 		List<ElementChange> elementChanges = notifyCommand.getChanges();
+		List<ChangeLogEntry> logEntries = new ArrayList<ChangeLogEntry>(elementChanges.size());
 		for (ElementChange changedElement : elementChanges) {
 			
 			// save reference to element, if it has not been deleted:
@@ -247,6 +316,42 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 					notifyCommand.getStationId(),
 					changedElement.getTime());
 			log(logEntry, referencedElement);
+			logEntries.add(logEntry);
+		}
+		publish(logEntries);
+	}
+
+	/**
+	 * Publishes the change log entries to the change event service and
+	 * invalidates cached command results after the transaction is committed.
+	 * Clients must not see changes which are rolled back.
+	 */
+	private void publish(final List<ChangeLogEntry> logEntries) {
+		if ((changeEventService == null && commandResultCache == null) || logEntries.isEmpty()) {
+			return;
+		}
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCommit() {
+					publishCommitted(logEntries);
+				}
+			});
+		} else {
+			publishCommitted(logEntries);
+		}
+	}
+
+	private void publishCommitted(List<ChangeLogEntry> logEntries) {
+		if (commandResultCache != null) {
+			Set<Integer> scopeIds = new HashSet<>();
+			for (ChangeLogEntry logEntry : logEntries) {
+				scopeIds.add(logEntry.getScopeId());
+			}
+			commandResultCache.invalidate(scopeIds);
+		}
+		if (changeEventService != null) {
+			changeEventService.publish(logEntries);
 		}
 	}
 
@@ -356,6 +461,16 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
     }
 
 
+    public CommandResultCache getCommandResultCache() {
+        return commandResultCache;
+    }
+
+
+    public void setCommandResultCache(CommandResultCache commandResultCache) {
+        this.commandResultCache = commandResultCache;
+    }
+
+
     /**
      * 
      */
@@ -432,6 +547,14 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
         this.vnaSchemaVersion = vnaSchemaVersion;
     }
 
+    public ChangeEventService getChangeEventService() {
+        return changeEventService;
+    }
+
+    public void setChangeEventService(ChangeEventService changeEventService) {
+        this.changeEventService = changeEventService;
+    }
+
     public void setCommandActionIds(Map<Class<? extends ICommand>, Set<String>> commandActionIds) {
         this.commandActionIds = commandActionIds;
     }
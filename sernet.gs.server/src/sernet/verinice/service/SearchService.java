@@ -17,19 +17,17 @@
  ******************************************************************************/
 package sernet.verinice.service;
 
-import java.util.List;
 import java.util.Map.Entry;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import javax.annotation.Resource;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
-import org.elasticsearch.action.search.MultiSearchResponse;
-import org.elasticsearch.action.search.MultiSearchResponse.Item;
+import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.common.text.Text;
 import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.tophits.TopHits;
 import org.elasticsearch.search.highlight.HighlightField;
 
 import sernet.gs.service.ServerInitializer;
@@ -47,6 +45,7 @@ import sernet.verinice.model.search.VeriniceSearchResult;
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.ISearchDao;
 import sernet.verinice.search.Indexer;
 
 public class SearchService implements ISearchService {
@@ -82,9 +81,12 @@ public class SearchService implements ISearchService {
     }
 
     /**
-     * Uses the es querybuilder API to build a query that could be parameterized
-     * to search on given fields only, and adding filters for rights management
-     * and type-filtered results.
+     * Executes a single query for all element types or the given type. The
+     * hits are grouped by element type on the server side, see
+     * {@link ISearchDao#findGroupedByType(VeriniceQuery, String)}. Every
+     * table of the result contains the number of hits of the type and at most
+     * {@link VeriniceQuery#getLimit()} and {@link ISearchDao#MAX_HITS_PER_TYPE}
+     * rows.
      *
      * @see sernet.verinice.interfaces.search.ISearchService#query(sernet.verinice.model.search.VeriniceQuery,
      *      java.lang.String)
@@ -93,44 +95,42 @@ public class SearchService implements ISearchService {
     public VeriniceSearchResult query(VeriniceQuery query, String elementTypeId) {
         long startTime = System.currentTimeMillis();
         ServerInitializer.inheritVeriniceContextState();
+        String typeId = StringUtils.isNotEmpty(elementTypeId) ? elementTypeId : null;
         VeriniceSearchResult results = new VeriniceSearchResult();
-        if (StringUtils.isNotEmpty(elementTypeId)) {
-            results.addVeriniceSearchTable(processSearchResponse(elementTypeId,
-                    searchDao.find(elementTypeId, query), query.getLimit()));
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Time for executing query( " + query.getQuery() + ", " + elementTypeId
-                        + "):\t" + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
-            }
-        } else {
-            for (EntityType type : HUITypeFactory.getInstance().getAllEntityTypes()) {
-                results.addVeriniceSearchTable(processSearchResponse(type.getId(),
-                        searchDao.find(type.getId(), query), query.getLimit()));
-            }
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Time for executing query( " + query.getQuery() + ", <allTypeIds>):\t"
-                        + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
+        SearchResponse response = searchDao.findGroupedByType(query, typeId);
+        if (response != null && response.getAggregations() != null) {
+            int limit = Math.min(query.getLimit(), ISearchDao.MAX_HITS_PER_TYPE);
+            Terms byType = response.getAggregations().get(ISearchDao.AGGREGATION_BY_TYPE);
+            for (Terms.Bucket bucket : byType.getBuckets()) {
+                VeriniceSearchResultTable table = processBucket(bucket, limit);
+                if (table != null) {
+                    results.addVeriniceSearchTable(table);
+                }
             }
         }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Time for executing query( " + query.getQuery() + ", "
+                    + ((typeId != null) ? typeId : "<allTypeIds>") + "):\t"
+                    + (System.currentTimeMillis() - startTime) + " ms");
+        }
         return results;
     }
 
-    private String getEntityName(String typeID) {
-        ServerInitializer.inheritVeriniceContextState();
-        return HUITypeFactory.getInstance().getEntityType(typeID).getName();
-    }
-
-    private VeriniceSearchResultTable processSearchResponse(String elementTypeId,
-            MultiSearchResponse msr, int limit) {
-        long startTime = System.currentTimeMillis();
-        List<SearchHit> hitList = createHitList(msr, limit);
-        String identifier = "";
+    private VeriniceSearchResultTable processBucket(Terms.Bucket bucket, int limit) {
+        String elementTypeId = bucket.getKey();
+        EntityType entityType = HUITypeFactory.getInstance().getEntityType(elementTypeId);
+        if (entityType == null) {
+            LOG.warn("Element type of search hits not found: " + elementTypeId);
+            return null;
+        }
         VeriniceSearchResultTable results = new VeriniceSearchResultTable(elementTypeId,
-                getEntityName(elementTypeId), getPropertyIds(elementTypeId));
+                entityType.getName(), entityType.getAllPropertyTypeIds());
         results.setLimit(limit);
-        for (SearchHit hit : hitList) {
-            identifier = hit.getId();
-            Occurence occurence = createOccurence(elementTypeId, hit);
-            VeriniceSearchResultRow result = new VeriniceSearchResultRow(results, identifier,
+        results.setTotalHits(bucket.getDocCount());
+        TopHits topHits = bucket.getAggregations().get(ISearchDao.AGGREGATION_HITS);
+        for (SearchHit hit : topHits.getHits().getHits()) {
+            Occurence occurence = createOccurence(entityType, hit);
+            VeriniceSearchResultRow result = new VeriniceSearchResultRow(results, hit.getId(),
                     occurence);
 
             for (Entry<String, Object> e : hit.getSource().entrySet()) {
@@ -139,23 +139,18 @@ public class SearchService implements ISearchService {
                 }
             }
             results.addVeriniceSearchResultRow(result);
-
-        }
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("Time for executing processSearchResponse:\t"
-                    + ((System.currentTimeMillis() - startTime) / 1000) + " seconds");
         }
         return results;
     }
 
-    private Occurence createOccurence(String elementTypeId, SearchHit hit) {
+    private Occurence createOccurence(EntityType entityType, SearchHit hit) {
         Occurence occurence = new Occurence();
         for (Entry<String, HighlightField> entry : hit.getHighlightFields().entrySet()) {
 
             String fieldName = entry.getKey();
             boolean translateFieldName = !ES_FIELD_TITLE.equals(fieldName);
             if (translateFieldName) {
-                fieldName = getHuiTranslation(entry.getKey(), elementTypeId);
+                fieldName = getHuiTranslation(entry.getKey(), entityType);
             }
 
             for (Text textFragment : entry.getValue().fragments()) {
@@ -165,36 +160,15 @@ public class SearchService implements ISearchService {
         return occurence;
     }
 
-    private List<SearchHit> createHitList(MultiSearchResponse msr, int limit) {
-
-        Stream<Item> nonEmptyResponses = Stream.of(msr.getResponses()).filter(item -> item != null
-                && item.getResponse() != null && item.getResponse().getHits() != null);
-
-        Stream<SearchHit> hits = nonEmptyResponses
-                .flatMap(item -> Stream.of(item.getResponse().getHits().getHits()));
-
-        if (limit > 0) {
-            hits = hits.limit(limit);
+    private String getHuiTranslation(String id, EntityType entityType) {
+        PropertyType type = entityType.getPropertyType(id);
+        if (type != null) {
+            return type.getName();
         }
-        return hits.collect(Collectors.toList());
-    }
-
-    private String getHuiTranslation(String id, String entityType) {
-        for (PropertyType type : HUITypeFactory.getInstance().getEntityType(entityType)
-                .getAllPropertyTypes()) {
-            if (type.getId().equals(id)) {
-                return type.getName();
-            }
-        }
-        LOG.warn("No i18n found for id:\t" + id + "\t of type:\t" + entityType);
+        LOG.warn("No i18n found for id:\t" + id + "\t of type:\t" + entityType.getId());
         return id;
     }
 
-    private String[] getPropertyIds(String typeID) {
-        ServerInitializer.inheritVeriniceContextState();
-        return HUITypeFactory.getInstance().getEntityType(typeID).getAllPropertyTypeIds();
-    }
-
     /*
      * @see sernet.verinice.interfaces.search.ISearchService#index()
      */
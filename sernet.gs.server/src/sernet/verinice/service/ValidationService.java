@@ -21,42 +21,65 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
-import org.hibernate.Hibernate;
+import org.hibernate.Session;
 import org.hibernate.criterion.Criterion;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 
 import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
-import sernet.gs.service.Retriever;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.gs.service.ServerInitializer;
+import sernet.hui.common.VeriniceContext;
 import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.EntityReadView;
 import sernet.hui.common.connect.EntityType;
+import sernet.hui.common.connect.EntityTypeValidator;
 import sernet.hui.common.connect.HUITypeFactory;
-import sernet.hui.common.connect.Property;
 import sernet.hui.common.connect.PropertyGroup;
 import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.graph.ElementProjectionQuery;
 import sernet.verinice.interfaces.validation.IValidationService;
 import sernet.verinice.model.bsi.IBSIStrukturKategorie;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.validation.CnAValidation;
 import sernet.verinice.service.commands.LoadElementByUuid;
 import sernet.verinice.service.commands.LoadSubtreeIds;
-import sernet.verinice.service.commands.crud.LoadScopeElementsById;
 
+/**
+ * Creates and deletes the validations of elements.
+ * 
+ * Single elements, scopes and subtrees are validated with the same
+ * {@link EntityTypeValidator} semantics: A hint fails if its rule fails for
+ * at least one value of the property.
+ * 
+ * The validations of a scope or a subtree are created in bulk mode: The
+ * validation rules of every entity type are compiled once to an
+ * {@link EntityTypeValidator}. The existing validations are loaded with a few
+ * queries and the elements are loaded in partitions with their properties
+ * only. The elements of a partition are validated in parallel. Finally all
+ * deleted validations are removed by a few bulk deletes and the new and
+ * updated validations are written with one session, Hibernate sends the
+ * statements of a flush in JDBC batches (see hibernate.jdbc.batch_size).
+ */
 public class ValidationService implements IValidationService {
 
     private static final Logger log = Logger.getLogger(ValidationService.class);
@@ -68,6 +91,30 @@ public class ValidationService implements IValidationService {
     // values from CnAValidation.hbm.xml
     private static final int MAXLENGTH_DBSTRING = 250;
 
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    /**
+     * Number of written validations after which the session is flushed
+     */
+    private static final int FLUSH_SIZE = 1000;
+
+    /**
+     * Number of work units per thread of the pool, more units than threads
+     * balance the load if the elements have different numbers of properties
+     */
+    private static final int UNITS_PER_THREAD = 4;
+
+    private static final String HQL_ELEMENT_IDS_OF_SCOPE = "select elmt.dbId "
+            + "from CnATreeElement elmt where elmt.scopeId = ?"; //$NON-NLS-1$
+
+    private static final String HQL_DELETE_VALIDATIONS = "delete from CnAValidation "
+            + "where dbId in (:dbIds)"; //$NON-NLS-1$
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
     private HUITypeFactory huiTypeFactory;
 
     /*
@@ -91,51 +138,26 @@ public class ValidationService implements IValidationService {
 
     protected void createValidationForSingleElement(CnATreeElement element, EntityType entityType,
             List<CnAValidation> existingValidationsForElement) {
-        HashMap<PropertyType, List<String>> hintsOfFailedValidationsMap = new HashMap<>();
-        for (Object pElement : entityType.getAllPropertyTypes()) {
-            if (pElement instanceof PropertyType) {
-                updateValueMap(hintsOfFailedValidationsMap, (PropertyType) pElement, element,
-                        existingValidationsForElement);
-            } else if (pElement instanceof PropertyGroup) {
-                PropertyGroup pGroup = (PropertyGroup) pElement;
-                for (PropertyType pType : pGroup.getPropertyTypes()) {
-                    updateValueMap(hintsOfFailedValidationsMap, pType, element,
-                            existingValidationsForElement);
-                }
-            }
-        }
-
-        Map<String, List<CnAValidation>> existingValidationsByPropertyType = existingValidationsForElement
-                .stream().collect(Collectors.groupingBy(CnAValidation::getPropertyId));
-        for (Entry<PropertyType, List<String>> entry : hintsOfFailedValidationsMap.entrySet()) {
-            String propertyType = entry.getKey().getId();
-            List<CnAValidation> existingValidationsForPropertyType = existingValidationsByPropertyType
-                    .getOrDefault(propertyType, Collections.emptyList());
-            for (String hint : entry.getValue()) {
-                boolean validationExists = existingValidationsForPropertyType.stream()
-                        .anyMatch(validation -> validation.getHintId().equals(hint));
-                if (!validationExists) {
-                    createCnAValidationObject(element, entry, hint);
-                }
-            }
+        ValidationChanges changes = new ValidationChanges();
+        validateElement(element, new EntityTypeValidator(entityType),
+                existingValidationsForElement, changes);
+        saveChanges(changes);
+        if (log.isDebugEnabled()) {
+            log.debug("Validated element: " + element.getTitle() + ", created: "
+                    + changes.created.size() + ", deleted: " + changes.deleted.size());
         }
     }
 
-    private void createCnAValidationObject(CnATreeElement elmt,
-            Entry<PropertyType, List<String>> entry, String hint) {
+    private static CnAValidation newValidation(CnATreeElement elmt, String propertyId,
+            String hint, String title) {
         CnAValidation validation = new CnAValidation();
         validation.setElmtDbId(elmt.getDbId());
-        validation
-                .setPropertyId(StringUtils.abbreviate(entry.getKey().getId(), MAXLENGTH_DBSTRING));
-        validation.setHintId(StringUtils.abbreviate(hint, MAXLENGTH_DBSTRING));
-        validation.setElmtTitle(StringUtils.abbreviate(elmt.getTitle(), MAXLENGTH_DBSTRING));
+        validation.setPropertyId(propertyId);
+        validation.setHintId(hint);
+        validation.setElmtTitle(title);
         validation.setScopeId(elmt.getScopeId());
         validation.setElementType(StringUtils.abbreviate(elmt.getTypeId(), MAXLENGTH_DBSTRING));
-        getCnaValidationDAO().saveOrUpdate(validation);
-        if (log.isDebugEnabled()) {
-            log.debug("Created Validation for : " + elmt.getTitle() + "(" + entry.getKey().getId()
-                    + ")\tHint:\t" + hint);
-        }
+        return validation;
     }
 
     /*
@@ -250,6 +272,15 @@ public class ValidationService implements IValidationService {
         this.huiTypeFactory = huiTypeFactory;
     }
 
+    /**
+     * Sets the number of threads which validate the elements of a scope or
+     * subtree. Default is the number of available processors, 1 validates
+     * the elements in the calling thread.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     /*
      * @see
      * sernet.verinice.interfaces.validation.IValidationService#deleteValidation
@@ -273,83 +304,6 @@ public class ValidationService implements IValidationService {
         return deleteValidation(validation);
     }
 
-    private List<String> getInvalidPropertyHints(PropertyType type, CnATreeElement elmt,
-            List<CnAValidation> existingValidationsForType) {
-        ArrayList<String> hintsOfFailedValidations = new ArrayList<>();
-        List<Property> savedProperties = elmt.getEntity().getProperties(type.getId())
-                .getProperties();
-        // iterate(validate) all existing properties
-        for (Property savedProp : savedProperties) {
-            hintsOfFailedValidations
-                    .addAll(processValidationMap(type.validate(savedProp.getPropertyValue(), null),
-                            elmt, type, existingValidationsForType));
-        }
-        // no property exists yet
-        if (savedProperties.isEmpty()) {
-            hintsOfFailedValidations.addAll(processValidationMap(type.validate(null, null), elmt,
-                    type, existingValidationsForType));
-        }
-        return hintsOfFailedValidations;
-    }
-
-    private List<String> processValidationMap(Map<String, Boolean> validationMap,
-            CnATreeElement elmt, PropertyType type,
-            List<CnAValidation> existingValidationsForType) {
-        ArrayList<String> hintsOfFailedValidations = new ArrayList<>(validationMap.size());
-        for (Entry<String, Boolean> entry : validationMap.entrySet()) {
-            Optional<CnAValidation> existingValidation = existingValidationsForType.stream()
-                    .filter(validation -> validation.getHintId().equals(entry.getKey())).findAny();
-            boolean validationExists = existingValidation.isPresent();
-
-            boolean elmtIsValid = entry.getValue().booleanValue();
-            if (!elmtIsValid) {
-                if (!validationExists) {
-                    hintsOfFailedValidations.add(entry.getKey());
-                    if (log.isDebugEnabled()) {
-                        log.debug("Validation:\t(" + type.getId() + ", " + entry.getValue() + ", "
-                                + entry.getKey() + ") created");
-                    }
-                } else {
-                    updateValidations(elmt.getScopeId(), elmt.getDbId(), elmt.getTitle());
-                }
-            } else if (validationExists) { // validation
-                                           // condition is
-                                           // fulfilled
-                deleteValidation(existingValidation.get());
-                existingValidationsForType.remove(existingValidation.get());
-                if (log.isDebugEnabled()) {
-                    log.debug("Validation:\t(" + type.getId() + ", " + entry.getValue() + ", "
-                            + entry.getKey() + ") deleted");
-                }
-            }
-        }
-        // if validation for type exists, but map is empty (no validators
-        // defined)
-        // ===> delete existing validations for type
-        if (validationMap.isEmpty()) { // no negative validations exist
-            for (CnAValidation validation : existingValidationsForType) {
-                deleteValidation(validation);
-            }
-        }
-        return hintsOfFailedValidations;
-    }
-
-    private void updateValueMap(Map<PropertyType, List<String>> map, PropertyType type,
-            CnATreeElement elmt, List<CnAValidation> existingValidationsForElement) {
-        List<CnAValidation> existingValidationsForType = existingValidationsForElement.stream()
-                .filter(validation -> validation.getPropertyId().equals(type.getId()))
-                .collect(Collectors.toCollection(ArrayList::new));
-
-        List<String> invalidHints = getInvalidPropertyHints(type, elmt, existingValidationsForType);
-        if (map.containsKey(type)) {
-            List<String> listWithNewValues = map.get(type);
-            listWithNewValues.addAll(invalidHints);
-            map.put(type, listWithNewValues);
-        } else {
-            map.put(type, invalidHints);
-        }
-    }
-
     /*
      * @see
      * sernet.verinice.interfaces.validation.IValidationService#deleteValidation
@@ -397,44 +351,230 @@ public class ValidationService implements IValidationService {
      * @see sernet.verinice.interfaces.validation.IValidationService#
      * createValidationsForScope(sernet.verinice.model.common.CnATreeElement)
      */
+    @SuppressWarnings("unchecked")
     @Override
     public void createValidationsForScope(Integer scope) throws CommandException {
         ServerInitializer.inheritVeriniceContextState();
-        LoadScopeElementsById command = new LoadScopeElementsById(scope);
-        command = getCommandService().executeCommand(command);
-        List<CnATreeElement> elementsToValidate = new ArrayList<>();
-
-        for (CnATreeElement elmt : command.getResults()) {
-            // IBSIStrukturKategorie does not have any fields to validate
-            if (!(elmt instanceof IBSIStrukturKategorie)) {
-                elementsToValidate.add(elmt);
-            }
-        }
-        for (CnATreeElement elmt : elementsToValidate) {
-            createValidationForSingleElement(elmt);
+        long time = System.currentTimeMillis();
+        List<Integer> dbIds = getCnaTreeElementDAO().findByQuery(HQL_ELEMENT_IDS_OF_SCOPE,
+                new Object[] { scope });
+        Map<Integer, List<CnAValidation>> existingValidations = getValidations(scope).stream()
+                .collect(Collectors.groupingBy(CnAValidation::getElmtDbId));
+        ValidationChanges changes = validateElements(dbIds, existingValidations);
+        saveChanges(changes);
+        if (log.isInfoEnabled()) {
+            log.info("Validations of scope " + scope + " created, " + changes
+                    + ", runtime: " + (System.currentTimeMillis() - time) + " ms");
         }
     }
 
     @Override
     public void createValidationsForSubTree(CnATreeElement elmt) throws CommandException {
         ServerInitializer.inheritVeriniceContextState();
-        if (Hibernate.isInitialized(elmt) || !elmt.isChildrenLoaded()) {
-            elmt = Retriever.retrieveElement(elmt, new RetrieveInfo().setChildren(true)
-                    .setChildrenProperties(true).setProperties(true));
-            elmt.setChildrenLoaded(true);
-        }
-        createValidationForSingleElement(elmt);
-        for (CnATreeElement child : elmt.getChildren()) {
-            if (child.getScopeId() == null) {
-                LoadElementByUuid<CnATreeElement> childReloader = new LoadElementByUuid<>(
-                        child.getUuid());
-                childReloader = getCommandService().executeCommand(childReloader);
-                child = childReloader.getElement();
+        long time = System.currentTimeMillis();
+        LoadSubtreeIds loadSubtreeIdsCommand = new LoadSubtreeIds(elmt);
+        loadSubtreeIdsCommand = getCommandService().executeCommand(loadSubtreeIdsCommand);
+        List<Integer> dbIds = new ArrayList<>(loadSubtreeIdsCommand.getDbIdsOfSubtree());
+        List<CnAValidation> validations = new ArrayList<>();
+        for (List<Integer> partition : CollectionUtil.partition(dbIds, MAX_IN_CLAUSE_SIZE)) {
+            validations.addAll(loadValidationsByElementIds(partition));
+        }
+        Map<Integer, List<CnAValidation>> existingValidations = validations.stream()
+                .collect(Collectors.groupingBy(CnAValidation::getElmtDbId));
+        ValidationChanges changes = validateElements(dbIds, existingValidations);
+        saveChanges(changes);
+        if (log.isInfoEnabled()) {
+            log.info("Validations of subtree " + elmt.getDbId() + " created, " + changes
+                    + ", runtime: " + (System.currentTimeMillis() - time) + " ms");
+        }
+    }
+
+    /**
+     * Validates the elements with the given db-ids and compares the result
+     * with the existing validations. The elements are loaded in partitions,
+     * the elements of a partition are validated in parallel.
+     * 
+     * @param dbIds
+     *            The db-ids of the elements
+     * @param existingValidations
+     *            The existing validations of the elements by element db-id
+     * @return The validations to create, update and delete
+     */
+    private ValidationChanges validateElements(List<Integer> dbIds,
+            Map<Integer, List<CnAValidation>> existingValidations) {
+        ElementProjectionQuery query = new ElementProjectionQuery(getCnaTreeElementDAO());
+        Map<String, EntityTypeValidator> validators = new HashMap<>();
+        ValidationChanges changes = new ValidationChanges();
+        ForkJoinPool pool = (parallelism > 1) ? new ForkJoinPool(parallelism) : null;
+        try {
+            for (List<Integer> partition : CollectionUtil.partition(dbIds,
+                    MAX_IN_CLAUSE_SIZE)) {
+                Map<String, Object[]> restrictions = Collections.singletonMap("dbId",
+                        partition.toArray());
+                List<CnATreeElement> elementsToValidate = new ArrayList<>(partition.size());
+                for (CnATreeElement element : query.load(restrictions)) {
+                    // IBSIStrukturKategorie does not have any fields to
+                    // validate
+                    if (!(element instanceof IBSIStrukturKategorie)
+                            && getValidator(validators, element.getTypeId()) != null) {
+                        elementsToValidate.add(element);
+                    }
+                }
+                validatePartition(pool, elementsToValidate, validators, existingValidations,
+                        changes);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+        }
+        return changes;
+    }
+
+    private EntityTypeValidator getValidator(Map<String, EntityTypeValidator> validators,
+            String typeId) {
+        return validators.computeIfAbsent(typeId, id -> {
+            EntityType entityType = getHuiTypeFactory().getEntityType(id);
+            return (entityType != null) ? new EntityTypeValidator(entityType) : null;
+        });
+    }
+
+    private static void validatePartition(ForkJoinPool pool, List<CnATreeElement> elements,
+            Map<String, EntityTypeValidator> validators,
+            Map<Integer, List<CnAValidation>> existingValidations, ValidationChanges changes) {
+        if (pool == null || elements.size() < 2) {
+            validateChunk(elements, validators, existingValidations, changes);
+            return;
+        }
+        int numberOfTasks = pool.getParallelism() * UNITS_PER_THREAD;
+        int chunkSize = Math.max(1, (elements.size() + numberOfTasks - 1) / numberOfTasks);
+        final VeriniceContext.State state = VeriniceContext.getState();
+        try {
+            List<Future<ValidationChanges>> futures = new ArrayList<>();
+            for (final List<CnATreeElement> chunk : CollectionUtil.partition(elements,
+                    chunkSize)) {
+                Callable<ValidationChanges> task = () -> {
+                    VeriniceContext.setState(state);
+                    ValidationChanges chunkChanges = new ValidationChanges();
+                    validateChunk(chunk, validators, existingValidations, chunkChanges);
+                    return chunkChanges;
+                };
+                futures.add(pool.submit(task));
+            }
+            for (Future<ValidationChanges> future : futures) {
+                changes.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeCommandException("Validation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeCommandException("Error while validating elements", e.getCause());
+        }
+    }
+
+    private static void validateChunk(List<CnATreeElement> elements,
+            Map<String, EntityTypeValidator> validators,
+            Map<Integer, List<CnAValidation>> existingValidations, ValidationChanges changes) {
+        for (CnATreeElement element : elements) {
+            validateElement(element, validators.get(element.getTypeId()),
+                    existingValidations.getOrDefault(element.getDbId(),
+                            Collections.emptyList()),
+                    changes);
+        }
+    }
+
+    /**
+     * Compares the failed rules of an element with its existing validations.
+     * Validations of failed rules are created if they do not exist. Existing
+     * validations of property types of the entity type are deleted if the
+     * rule is fulfilled or if the rule was removed from the property type.
+     * Validations of property types which are not defined for the entity
+     * type are kept. The titles of the remaining validations are updated.
+     */
+    private static void validateElement(CnATreeElement element, EntityTypeValidator validator,
+            List<CnAValidation> existingValidations, ValidationChanges changes) {
+        EntityReadView view = element.getEntity().createReadView(validator.getLayout());
+        Map<String, Set<String>> failedHints = new HashMap<>();
+        for (Entry<String, Set<String>> entry : validator.validate(view).entrySet()) {
+            failedHints.put(StringUtils.abbreviate(entry.getKey(), MAXLENGTH_DBSTRING),
+                    entry.getValue().stream()
+                            .map(hint -> StringUtils.abbreviate(hint, MAXLENGTH_DBSTRING))
+                            .collect(Collectors.toCollection(LinkedHashSet::new)));
+        }
+        String title = StringUtils.abbreviate(element.getTitle(), MAXLENGTH_DBSTRING);
+        for (CnAValidation validation : existingValidations) {
+            Set<String> hints = failedHints.get(validation.getPropertyId());
+            if (hints != null && hints.remove(validation.getHintId())) {
+                if (!Objects.equals(title, validation.getElmtTitle())) {
+                    validation.setElmtTitle(title);
+                    changes.updated.add(validation);
+                }
+            } else if (validator.isDefined(validation.getPropertyId())) {
+                changes.deleted.add(validation);
+            }
+        }
+        for (Entry<String, Set<String>> entry : failedHints.entrySet()) {
+            for (String hint : entry.getValue()) {
+                changes.created.add(newValidation(element, entry.getKey(), hint, title));
             }
-            createValidationsForSubTree(child);
         }
     }
 
+    /**
+     * Deletes, updates and creates validations. The validations are deleted
+     * by bulk deletes. New and updated validations are written in one
+     * session, Hibernate sends the statements of a flush in JDBC batches.
+     * The session of the element DAO is used, because the validation DAO
+     * does not execute callbacks.
+     */
+    private void saveChanges(final ValidationChanges changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        final List<Integer> deletedIds = changes.deleted.stream().map(CnAValidation::getDbId)
+                .collect(Collectors.toList());
+        getCnaTreeElementDAO().executeCallback(session -> {
+            for (List<Integer> partition : CollectionUtil.partition(deletedIds,
+                    MAX_IN_CLAUSE_SIZE)) {
+                session.createQuery(HQL_DELETE_VALIDATIONS).setParameterList("dbIds", partition)
+                        .executeUpdate();
+            }
+            List<CnAValidation> written = new ArrayList<>(FLUSH_SIZE);
+            for (CnAValidation validation : changes.updated) {
+                session.update(validation);
+                written.add(validation);
+                if (written.size() >= FLUSH_SIZE) {
+                    flush(session, written);
+                }
+            }
+            for (CnAValidation validation : changes.created) {
+                session.save(validation);
+                written.add(validation);
+                if (written.size() >= FLUSH_SIZE) {
+                    flush(session, written);
+                }
+            }
+            flush(session, written);
+            return null;
+        });
+    }
+
+    /**
+     * Flushes the session and evicts the written validations. Other objects
+     * of the session are not evicted, the session may be bound to a
+     * transaction of the caller.
+     */
+    private static void flush(Session session, List<CnAValidation> written) {
+        session.flush();
+        for (CnAValidation validation : written) {
+            session.evict(validation);
+        }
+        written.clear();
+    }
+
     /*
      * @see
      * sernet.verinice.interfaces.validation.IValidationService#updateValidation
@@ -571,11 +711,15 @@ public class ValidationService implements IValidationService {
         return getCnaTreeElementDAO().findByCriteria(criteria);
     }
 
-    @SuppressWarnings("unchecked")
     private List<CnAValidation> loadValidations(List<CnATreeElement> elements) {
+        return loadValidationsByElementIds(
+                elements.stream().map(CnATreeElement::getDbId).collect(Collectors.toSet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CnAValidation> loadValidationsByElementIds(Collection<Integer> dbIds) {
         DetachedCriteria criteria = DetachedCriteria.forClass(CnAValidation.class);
-        criteria.add(Restrictions.in("elmtDbId",
-                elements.stream().map(CnATreeElement::getDbId).collect(Collectors.toSet())));
+        criteria.add(Restrictions.in("elmtDbId", dbIds));
         return getCnaValidationDAO().findByCriteria(criteria);
     }
 
@@ -592,6 +736,32 @@ public class ValidationService implements IValidationService {
         createValidationsForSubTree(elementLoader.getElement());
     }
 
+    /**
+     * The validations to create, update and delete
+     */
+    private static final class ValidationChanges {
+
+        private final List<CnAValidation> created = new ArrayList<>();
+        private final List<CnAValidation> updated = new ArrayList<>();
+        private final List<CnAValidation> deleted = new ArrayList<>();
+
+        private void addAll(ValidationChanges changes) {
+            created.addAll(changes.created);
+            updated.addAll(changes.updated);
+            deleted.addAll(changes.deleted);
+        }
+
+        private boolean isEmpty() {
+            return created.isEmpty() && updated.isEmpty() && deleted.isEmpty();
+        }
+
+        @Override
+        public String toString() {
+            return "created: " + created.size() + ", updated: " + updated.size() + ", deleted: "
+                    + deleted.size();
+        }
+    }
+
     private static Criterion createScopeIdRestriction(Integer scopeId) {
         return Restrictions.eq("scopeId", scopeId);
     }
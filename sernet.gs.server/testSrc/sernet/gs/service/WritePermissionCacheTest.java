@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class WritePermissionCacheTest {
+
+    private static final String USER = "user";
+
+    @After
+    public void tearDown() {
+        while (WritePermissionCache.current() != null) {
+            WritePermissionCache.end();
+        }
+    }
+
+    @Test
+    public void testNoCacheOutsideOfCommand() {
+        assertNull(WritePermissionCache.current());
+        // must not fail without a cache
+        WritePermissionCache.invalidate();
+        WritePermissionCache.end();
+        assertNull(WritePermissionCache.current());
+    }
+
+    @Test
+    public void testNestedCommandsShareCache() {
+        WritePermissionCache.begin();
+        WritePermissionCache outer = WritePermissionCache.current();
+        assertNotNull(outer);
+        WritePermissionCache.begin();
+        assertSame(outer, WritePermissionCache.current());
+        WritePermissionCache.end();
+        assertSame(outer, WritePermissionCache.current());
+        WritePermissionCache.end();
+        assertNull(WritePermissionCache.current());
+    }
+
+    @Test
+    public void testWriteAllowed() {
+        WritePermissionCache.begin();
+        WritePermissionCache cache = WritePermissionCache.current();
+        assertEquals(new HashSet<>(Arrays.asList(1, 2, 3)),
+                new HashSet<>(cache.getUnknownDbIds(USER, Arrays.asList(1, 2, 3))));
+
+        cache.putWriteAllowed(USER, Arrays.asList(1, 2), Collections.singletonList(2));
+        assertEquals(Boolean.FALSE, cache.isWriteAllowed(USER, 1));
+        assertEquals(Boolean.TRUE, cache.isWriteAllowed(USER, 2));
+        assertNull(cache.isWriteAllowed(USER, 3));
+        assertNull(cache.isWriteAllowed("other-user", 2));
+        assertEquals(Collections.singleton(3),
+                new HashSet<>(cache.getUnknownDbIds(USER, Arrays.asList(1, 2, 3, null))));
+    }
+
+    @Test
+    public void testInvalidate() {
+        WritePermissionCache.begin();
+        WritePermissionCache cache = WritePermissionCache.current();
+        cache.putRoles(USER, new String[] { "role" });
+        cache.putConfigurationRoles(USER, Collections.singleton("role"));
+        cache.putWriteAllowed(USER, Collections.singletonList(1), Collections.singletonList(1));
+
+        WritePermissionCache.invalidate();
+
+        assertNull(cache.getRoles(USER));
+        assertNull(cache.getConfigurationRoles(USER));
+        assertNull(cache.isWriteAllowed(USER, 1));
+        assertTrue(cache.getUnknownDbIds(USER, Collections.singletonList(1)).contains(1));
+    }
+}
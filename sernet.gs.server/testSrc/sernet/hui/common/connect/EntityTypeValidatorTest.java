@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.hui.common.rules.NotEmpty;
+import sernet.hui.common.rules.RegExRule;
+
+/**
+ * Tests the evaluation of compiled validation rules by the
+ * {@link EntityTypeValidator}.
+ */
+public class EntityTypeValidatorTest {
+
+    private static final String TYPE_ID = "test_type";
+    private static final String PROP_NAME = "test_type_name";
+    private static final String PROP_LEVEL = "test_type_level";
+    private static final String PROP_DESCRIPTION = "test_type_description";
+    private static final String HINT_NAME = "Name is empty";
+    private static final String HINT_LEVEL = "Level is not between 0 and 5";
+
+    private EntityType entityType;
+    private PropertyType name;
+    private PropertyType level;
+
+    @Before
+    public void setUp() {
+        entityType = new EntityType();
+        entityType.setId(TYPE_ID);
+        name = createPropertyType(PROP_NAME);
+        NotEmpty notEmpty = new NotEmpty();
+        notEmpty.init(null, HINT_NAME);
+        name.addValidator(notEmpty);
+        level = createPropertyType(PROP_LEVEL);
+        RegExRule regExRule = new RegExRule();
+        regExRule.init(new String[] { "[0-5]" }, HINT_LEVEL);
+        level.addValidator(regExRule);
+        entityType.addPropertyType(name);
+        entityType.addPropertyType(level);
+        entityType.addPropertyType(createPropertyType(PROP_DESCRIPTION));
+    }
+
+    @Test
+    public void testMissingProperties() {
+        Map<String, Set<String>> failedHints = validate(new Entity(TYPE_ID));
+        assertEquals(2, failedHints.size());
+        assertEquals(Collections.singleton(HINT_NAME), failedHints.get(PROP_NAME));
+        assertEquals(Collections.singleton(HINT_LEVEL), failedHints.get(PROP_LEVEL));
+    }
+
+    @Test
+    public void testValidProperties() {
+        Entity entity = new Entity(TYPE_ID);
+        entity.createNewProperty(name, "Server");
+        entity.createNewProperty(level, "3");
+        assertTrue(validate(entity).isEmpty());
+    }
+
+    @Test
+    public void testOneInvalidValue() {
+        Entity entity = new Entity(TYPE_ID);
+        entity.createNewProperty(name, "Server");
+        entity.createNewProperty(level, "3");
+        entity.createNewProperty(level, "9");
+        Map<String, Set<String>> failedHints = validate(entity);
+        assertEquals(1, failedHints.size());
+        assertEquals(Collections.singleton(HINT_LEVEL), failedHints.get(PROP_LEVEL));
+    }
+
+    @Test
+    public void testIsDefined() {
+        EntityTypeValidator validator = new EntityTypeValidator(entityType);
+        assertTrue(validator.isDefined(PROP_DESCRIPTION));
+        assertFalse(validator.isDefined("unknown_property"));
+    }
+
+    private Map<String, Set<String>> validate(Entity entity) {
+        EntityTypeValidator validator = new EntityTypeValidator(entityType);
+        return validator.validate(entity.createReadView(validator.getLayout()));
+    }
+
+    private static PropertyType createPropertyType(String id) {
+        PropertyType propertyType = new PropertyType();
+        propertyType.setId(id);
+        return propertyType;
+    }
+}
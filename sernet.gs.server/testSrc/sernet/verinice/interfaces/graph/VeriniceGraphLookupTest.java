@@ -0,0 +1,242 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.junit.Test;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Tests the lookup methods of {@link AbstractVeriniceGraph} and compares the
+ * runtime of the indexed lookups with a linear scan of the vertex set on a
+ * synthetic graph.
+ */
+public class VeriniceGraphLookupTest {
+
+    private static final Logger LOG = Logger.getLogger(VeriniceGraphLookupTest.class);
+
+    private static final int NUMBER_OF_VERTICES = 100000;
+    private static final int NUMBER_OF_LOOKUPS = 200;
+
+    @Test
+    public void testGetElementByUuidAndDbId() {
+        VeriniceGraph graph = new DirectedVeriniceGraph();
+        ElementA a = createElementA(1);
+        ElementB b = createElementB(2);
+        graph.addVertex(a);
+        graph.addVertex(b);
+
+        assertSame(a, graph.getElement(a.getUuid()));
+        assertSame(b, graph.getElement(b.getUuid()));
+        assertSame(a, graph.getElement(1));
+        assertSame(b, graph.getElement(2));
+        assertNull(graph.getElement("unknown"));
+        assertNull(graph.getElement(3));
+        assertNull(graph.getElement((String) null));
+        assertNull(graph.getElement((Integer) null));
+    }
+
+    @Test
+    public void testGetElementsByTypeIdAndClass() {
+        VeriniceGraph graph = new UndirectedVeriniceGraph();
+        for (int i = 0; i < 10; i++) {
+            graph.addVertex(i % 2 == 0 ? createElementA(i) : createElementB(i));
+        }
+
+        assertEquals(5, graph.getElements(ElementA.TYPE_ID).size());
+        assertEquals(5, graph.getElements(ElementB.class).size());
+        assertTrue(graph.getElements("unknown").isEmpty());
+        assertTrue(graph.getElements((String) null).isEmpty());
+        assertTrue(graph.getElements(CnATreeElement.class).isEmpty());
+
+        // returned sets are copies which can be changed by the caller
+        graph.getElements(ElementA.TYPE_ID).clear();
+        assertEquals(5, graph.getElements(ElementA.TYPE_ID).size());
+    }
+
+    @Test
+    public void testAddVertexTwice() {
+        VeriniceGraph graph = new DirectedVeriniceGraph();
+        ElementA a = createElementA(1);
+        graph.addVertex(a);
+        graph.addVertex(a);
+
+        assertEquals(1, graph.getElements().size());
+        assertEquals(1, graph.getElements(ElementA.TYPE_ID).size());
+    }
+
+    @Test
+    public void testVertexAddedToUnderlyingGraph() {
+        VeriniceGraph graph = new DirectedVeriniceGraph();
+        graph.addVertex(createElementA(1));
+        ElementB b = createElementB(2);
+        graph.getGraph().addVertex(b);
+
+        assertSame(b, graph.getElement(2));
+        assertEquals(1, graph.getElements(ElementB.TYPE_ID).size());
+    }
+
+    @Test
+    public void testRemoveVertex() {
+        VeriniceGraph graph = new UndirectedVeriniceGraph();
+        ElementA a = createElementA(1);
+        ElementB b = createElementB(2);
+        graph.addVertex(a);
+        graph.addVertex(b);
+        graph.removeVertex(a);
+        graph.removeVertex(a);
+
+        assertNull(graph.getElement(a.getUuid()));
+        assertNull(graph.getElement(1));
+        assertTrue(graph.getElements(ElementA.TYPE_ID).isEmpty());
+        assertSame(b, graph.getElement(2));
+        assertEquals(1, graph.getElements().size());
+    }
+
+    @Test
+    public void testVertexReplacedInUnderlyingGraph() {
+        VeriniceGraph graph = new DirectedVeriniceGraph();
+        ElementA a = createElementA(1);
+        graph.addVertex(a);
+        graph.addVertex(createElementB(2));
+        graph.getGraph().removeVertex(a);
+        graph.getGraph().addVertex(createElementB(3));
+
+        assertNull(graph.getElement(a.getUuid()));
+        assertNull(graph.getElement(1));
+        assertTrue(graph.getElements(ElementA.TYPE_ID).isEmpty());
+        assertEquals(2, graph.getElements(ElementB.TYPE_ID).size());
+        assertEquals(3, graph.getElement(3).getDbId().intValue());
+    }
+
+    @Test
+    public void compareIndexedLookupWithLinearScan() {
+        VeriniceGraph graph = new DirectedVeriniceGraph();
+        String[] uuids = new String[NUMBER_OF_VERTICES];
+        for (int i = 0; i < NUMBER_OF_VERTICES; i++) {
+            CnATreeElement element = i % 2 == 0 ? createElementA(i) : createElementB(i);
+            uuids[i] = element.getUuid();
+            graph.addVertex(element);
+        }
+        int step = NUMBER_OF_VERTICES / NUMBER_OF_LOOKUPS;
+
+        long start = System.nanoTime();
+        int foundByScan = 0;
+        for (int i = 0; i < NUMBER_OF_VERTICES; i += step) {
+            if (scanByUuid(graph, uuids[i]) != null) {
+                foundByScan++;
+            }
+            if (scanByDbId(graph, i) != null) {
+                foundByScan++;
+            }
+        }
+        long scanTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int foundByIndex = 0;
+        for (int i = 0; i < NUMBER_OF_VERTICES; i += step) {
+            if (graph.getElement(uuids[i]) != null) {
+                foundByIndex++;
+            }
+            if (graph.getElement(i) != null) {
+                foundByIndex++;
+            }
+        }
+        long indexTime = System.nanoTime() - start;
+
+        assertEquals(foundByScan, foundByIndex);
+        assertEquals(scanByTypeId(graph, ElementA.TYPE_ID),
+                graph.getElements(ElementA.TYPE_ID));
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Vertices: " + NUMBER_OF_VERTICES + ", lookups: " + foundByIndex
+                    + ", linear scan: " + scanTime / 1000000 + " ms, indexed: "
+                    + indexTime / 1000000 + " ms");
+        }
+    }
+
+    private static CnATreeElement scanByUuid(VeriniceGraph graph, String uuid) {
+        for (CnATreeElement element : graph.getElements()) {
+            if (uuid.equals(element.getUuid())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static CnATreeElement scanByDbId(VeriniceGraph graph, Integer dbId) {
+        for (CnATreeElement element : graph.getElements()) {
+            if (dbId.equals(element.getDbId())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static Set<CnATreeElement> scanByTypeId(VeriniceGraph graph, String typeId) {
+        Set<CnATreeElement> elements = new HashSet<>();
+        for (CnATreeElement element : graph.getElements()) {
+            if (typeId.equals(element.getTypeId())) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    private static ElementA createElementA(int dbId) {
+        ElementA element = new ElementA();
+        element.setDbId(dbId);
+        return element;
+    }
+
+    private static ElementB createElementB(int dbId) {
+        ElementB element = new ElementB();
+        element.setDbId(dbId);
+        return element;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ElementA extends CnATreeElement {
+        static final String TYPE_ID = "test-element-a";
+
+        @Override
+        public String getTypeId() {
+            return TYPE_ID;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ElementB extends CnATreeElement {
+        static final String TYPE_ID = "test-element-b";
+
+        @Override
+        public String getTypeId() {
+            return TYPE_ID;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexResponse;
+import org.hibernate.criterion.DetachedCriteria;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.search.IJsonBuilder;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Tests the retries of failed elements in {@link IndexQueue}.
+ */
+public class IndexQueueTest {
+
+    private static final String UUID = "4f1a1b6e-0c1d-4e5f-9a7b-3c2d1e0f9a8b";
+
+    private IndexQueue queue;
+    private ISearchDao searchDao;
+    private CnATreeElement element;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        element = new CnATreeElement() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getTypeId() {
+                return "test-element";
+            }
+        };
+        element.setUuid(UUID);
+
+        IBaseDao<CnATreeElement, Integer> elementDao = mock(IBaseDao.class);
+        when(elementDao.findByCriteria(any(DetachedCriteria.class)))
+                .thenReturn(Collections.singletonList(element));
+        IJsonBuilder jsonBuilder = mock(IJsonBuilder.class);
+        when(jsonBuilder.isIndexableElement(element)).thenReturn(true);
+        when(jsonBuilder.getJson(element)).thenReturn("{}");
+        searchDao = mock(ISearchDao.class);
+
+        queue = new IndexQueue();
+        queue.setElementDao(elementDao);
+        queue.setJsonBuilder(jsonBuilder);
+        queue.setSearchDao(searchDao);
+        queue.setMaxRetries(2);
+        queue.setRetryDelay(0);
+    }
+
+    @Test
+    public void testFailedElementIsRetried() {
+        when(searchDao.bulkIndex(anyMapOf(String.class, String.class)))
+                .thenReturn(createResponse(true), createResponse(false));
+        queue.add(element);
+        queue.flush();
+        assertEquals(0, queue.getIndexed());
+        assertEquals(1, queue.getRetried());
+        assertEquals(1, queue.getRetryDepth());
+
+        queue.flush();
+        assertEquals(1, queue.getIndexed());
+        assertEquals(0, queue.getRetryDepth());
+        assertEquals(0, queue.getFailed());
+    }
+
+    @Test
+    public void testElementFailsAfterMaxRetries() {
+        when(searchDao.bulkIndex(anyMapOf(String.class, String.class)))
+                .thenReturn(createResponse(true));
+        queue.add(element);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, queue.getFailed());
+            queue.flush();
+        }
+        assertEquals(2, queue.getRetried());
+        assertEquals(0, queue.getRetryDepth());
+        assertEquals(1, queue.getFailed());
+        assertEquals(0, queue.getIndexed());
+    }
+
+    private static BulkResponse createResponse(boolean failed) {
+        BulkItemResponse item;
+        if (failed) {
+            item = new BulkItemResponse(0, "index", new BulkItemResponse.Failure("index",
+                    "element", UUID, new IllegalStateException("test failure")));
+        } else {
+            item = new BulkItemResponse(0, "index",
+                    new IndexResponse("index", "element", UUID, 1, true));
+        }
+        return new BulkResponse(new BulkItemResponse[] { item }, 1);
+    }
+}
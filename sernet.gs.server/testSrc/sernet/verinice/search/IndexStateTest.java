@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.IDirectoryCreator;
+
+/**
+ * Tests the high-water mark of {@link IndexState}.
+ */
+public class IndexStateTest {
+
+    private static final String MAPPING_VERSION = "1a2b3c";
+
+    private File directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("index-state-test").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testMarkIsSetAfterSuccessfulIndexing() {
+        IndexState state = createState();
+        state.reset(MAPPING_VERSION);
+        assertNull(state.getIndexedUntil());
+
+        state.startIndexing(true);
+        state.advance(50L);
+        assertNull(state.getIndexedUntil());
+        state.finishIndexing(100L, true);
+        assertEquals(Long.valueOf(100L), state.getIndexedUntil());
+
+        IndexState loaded = createState();
+        assertEquals(MAPPING_VERSION, loaded.getMappingVersion());
+        assertEquals(Long.valueOf(100L), loaded.getIndexedUntil());
+    }
+
+    @Test
+    public void testMarkIsAdvancedByQueue() {
+        IndexState state = createState();
+        state.reset(MAPPING_VERSION);
+        state.startIndexing(true);
+        state.finishIndexing(100L, true);
+
+        state.advance(200L);
+        assertEquals(Long.valueOf(200L), state.getIndexedUntil());
+        state.advance(150L);
+        assertEquals(Long.valueOf(200L), state.getIndexedUntil());
+
+        state.startIndexing(false);
+        state.advance(300L);
+        assertEquals(Long.valueOf(200L), state.getIndexedUntil());
+        state.finishIndexing(250L, true);
+        assertEquals(Long.valueOf(250L), state.getIndexedUntil());
+
+        state.destroy();
+        assertEquals(Long.valueOf(250L), createState().getIndexedUntil());
+    }
+
+    @Test
+    public void testMarkIsFrozenAfterFailure() {
+        IndexState state = createState();
+        state.reset(MAPPING_VERSION);
+        state.startIndexing(true);
+        state.finishIndexing(100L, true);
+
+        state.failed();
+        state.advance(200L);
+        assertEquals(Long.valueOf(100L), state.getIndexedUntil());
+    }
+
+    @Test
+    public void testFullIndexingRemovesMark() {
+        IndexState state = createState();
+        state.reset(MAPPING_VERSION);
+        state.startIndexing(true);
+        state.finishIndexing(100L, true);
+
+        state.startIndexing(true);
+        assertNull(createState().getIndexedUntil());
+        state.finishIndexing(200L, false);
+        assertNull(createState().getIndexedUntil());
+    }
+
+    private IndexState createState() {
+        IndexState state = new IndexState();
+        state.setDirectoryCreator(new IDirectoryCreator() {
+            @Override
+            public String create() {
+                return directory.getAbsolutePath();
+            }
+
+            @Override
+            public String create(String subDirectory) {
+                return new File(directory, subDirectory).getAbsolutePath();
+            }
+        });
+        return state;
+    }
+}
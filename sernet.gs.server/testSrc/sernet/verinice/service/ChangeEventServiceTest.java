@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.ChangeEvents;
+import sernet.verinice.interfaces.IChangeEventService;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Tests the sequence numbers, catch up, long polling and read access check of
+ * {@link ChangeEventService}.
+ */
+public class ChangeEventServiceTest {
+
+    private static final String STATION_A = "station-a";
+    private static final String STATION_B = "station-b";
+
+    private ChangeEventService service;
+
+    /**
+     * Db-ids of the elements the user is allowed to read, all if null
+     */
+    private Set<Integer> readableIds;
+
+    @Before
+    public void setUp() {
+        readableIds = null;
+        service = new ChangeEventService() {
+            @Override
+            protected Set<Integer> loadReadableIds(Set<Integer> dbIds) {
+                Set<Integer> result = new HashSet<>(dbIds);
+                if (readableIds != null) {
+                    result.retainAll(readableIds);
+                }
+                return result;
+            }
+        };
+        service.setCapacity(4);
+        service.setTimeout(100);
+    }
+
+    @Test
+    public void testUnknownClientIsNotComplete() {
+        ChangeEvents events = service.getChangeEvents(null, IChangeEventService.NO_SEQUENCE,
+                STATION_A);
+        assertFalse(events.isComplete());
+        assertEquals(service.getServerId(), events.getServerId());
+        assertEquals(0, events.getLastSequence());
+
+        events = service.getChangeEvents("unknown-server", 0, STATION_A);
+        assertFalse(events.isComplete());
+    }
+
+    @Test
+    public void testChangesOfOtherStations() {
+        service.publish(Arrays.asList(createEntry(1, STATION_A), createEntry(2, STATION_B)));
+        ChangeEvents events = service.getChangeEvents(service.getServerId(), 0, STATION_A);
+        assertTrue(events.isComplete());
+        assertEquals(2, events.getLastSequence());
+        assertEquals(1, events.getEntries().size());
+        assertEquals(Integer.valueOf(2), events.getEntries().get(0).getElementId());
+
+        service.publish(Collections.singletonList(createEntry(3, STATION_B)));
+        events = service.getChangeEvents(service.getServerId(), 2, STATION_A);
+        assertEquals(3, events.getLastSequence());
+        assertEquals(1, events.getEntries().size());
+        assertEquals(Integer.valueOf(3), events.getEntries().get(0).getElementId());
+    }
+
+    @Test
+    public void testTimeoutWithoutChanges() {
+        long start = System.currentTimeMillis();
+        ChangeEvents events = service.getChangeEvents(service.getServerId(), 0, STATION_A);
+        assertTrue(System.currentTimeMillis() - start >= 90);
+        assertTrue(events.isComplete());
+        assertTrue(events.getEntries().isEmpty());
+        assertEquals(0, events.getLastSequence());
+    }
+
+    @Test
+    public void testBufferOverflowIsNotComplete() {
+        for (int i = 1; i <= 5; i++) {
+            service.publish(Collections.singletonList(createEntry(i, STATION_B)));
+        }
+        ChangeEvents events = service.getChangeEvents(service.getServerId(), 0, STATION_A);
+        assertFalse(events.isComplete());
+        assertEquals(5, events.getLastSequence());
+
+        events = service.getChangeEvents(service.getServerId(), 1, STATION_A);
+        assertTrue(events.isComplete());
+        assertEquals(4, events.getEntries().size());
+    }
+
+    @Test
+    public void testWaitingClientIsNotified() throws Exception {
+        service.setTimeout(10000);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ChangeEvents> future = executor.submit(
+                    () -> service.getChangeEvents(service.getServerId(), 0, STATION_A));
+            Thread.sleep(100);
+            long start = System.currentTimeMillis();
+            service.publish(Collections.singletonList(createEntry(1, STATION_B)));
+            ChangeEvents events = future.get();
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertEquals(1, events.getEntries().size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBusyIfTooManyClientsAreWaiting() {
+        service.setMaxWaitingClients(0);
+        ChangeEvents events = service.getChangeEvents(service.getServerId(), 0, STATION_A);
+        assertTrue(events.isBusy());
+        assertTrue(events.isComplete());
+    }
+
+    @Test
+    public void testChangesOfUnreadableElementsAreRemoved() {
+        readableIds = new HashSet<>(Arrays.asList(1, 3));
+        service.publish(Arrays.asList(createEntry(1, STATION_B), createEntry(2, STATION_B),
+                createEntry(3, STATION_B)));
+        ChangeEvents events = service.getChangeEvents(service.getServerId(), 0, STATION_A);
+        assertEquals(3, events.getLastSequence());
+        assertEquals(2, events.getEntries().size());
+        assertEquals(Integer.valueOf(1), events.getEntries().get(0).getElementId());
+        assertEquals(Integer.valueOf(3), events.getEntries().get(1).getElementId());
+    }
+
+    private static ChangeLogEntry createEntry(int dbId, String stationId) {
+        CnATreeElement element = new CnATreeElement() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String getTypeId() {
+                return "test-element";
+            }
+        };
+        element.setDbId(dbId);
+        return new ChangeLogEntry(element, ChangeLogEntry.TYPE_UPDATE, "user", stationId,
+                new Date());
+    }
+}
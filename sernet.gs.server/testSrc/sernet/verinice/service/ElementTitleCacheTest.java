@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * Tests the caching, the eviction and the single-flight loading of
+ * {@link ElementTitleCache} with a stub instead of the database query.
+ */
+public class ElementTitleCacheTest {
+
+    private static final int NUMBER_OF_THREADS = 8;
+
+    @Test
+    public void testLoadOnMiss() {
+        StubTitleCache cache = new StubTitleCache();
+        assertEquals("Element 1", cache.get(1));
+        assertEquals("Element 1", cache.get(1));
+        assertNull(cache.get(StubTitleCache.MISSING_DB_ID));
+        assertNull(cache.get((Integer) null));
+        assertEquals(2, cache.loads.get());
+    }
+
+    @Test
+    public void testBulkGetLoadsMissesWithOneQuery() {
+        StubTitleCache cache = new StubTitleCache();
+        cache.get(1);
+        Map<Integer, String> titles = cache.get(
+                Arrays.asList(1, 2, 3, 3, null, StubTitleCache.MISSING_DB_ID));
+        assertEquals(3, titles.size());
+        assertEquals("Element 3", titles.get(3));
+        assertEquals(2, cache.loads.get());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        StubTitleCache cache = new StubTitleCache();
+        assertEquals("Element 1", cache.get(1));
+        assertEquals("Element 1", cache.update(1, "Changed"));
+        assertEquals("Changed", cache.get(1));
+        cache.remove(1);
+        assertEquals("Element 1", cache.get(1));
+        assertEquals(2, cache.loads.get());
+    }
+
+    @Test
+    public void testLoadByType() {
+        StubTitleCache cache = new StubTitleCache();
+        cache.load();
+        assertEquals("Element 1", cache.get(1));
+        assertEquals(1, cache.loads.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTitlesAreEvicted() {
+        StubTitleCache cache = new StubTitleCache();
+        cache.setMaxSize(4);
+        for (int dbId = 1; dbId <= 4; dbId++) {
+            cache.get(dbId);
+        }
+        cache.get(1);
+        assertEquals(4, cache.loads.get());
+        // the cache is full, titles 2 and 3 are evicted
+        cache.get(5);
+        assertEquals(5, cache.loads.get());
+        cache.get(Arrays.asList(1, 4, 5));
+        assertEquals(5, cache.loads.get());
+        assertEquals("Element 2", cache.get(2));
+        assertEquals(6, cache.loads.get());
+    }
+
+    @Test
+    public void testConcurrentMissesAreLoadedOnce() throws Exception {
+        final StubTitleCache cache = new StubTitleCache();
+        cache.block = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < NUMBER_OF_THREADS; i++) {
+                results.add(executor.submit(() -> cache.get(1)));
+            }
+            assertEquals(true, cache.started.await(10, TimeUnit.SECONDS));
+            // give the other threads time to miss the title
+            Thread.sleep(100);
+            cache.block.countDown();
+            for (Future<String> result : results) {
+                assertEquals("Element 1", result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, cache.loads.get());
+    }
+
+    private static final class StubTitleCache extends ElementTitleCache {
+
+        static final int MISSING_DB_ID = 42;
+
+        final AtomicInteger loads = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile CountDownLatch block;
+
+        @Override
+        protected Map<Integer, String> loadTitles(String property, Object[] values) {
+            loads.incrementAndGet();
+            started.countDown();
+            if (block != null) {
+                try {
+                    block.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Map<Integer, String> titles = new HashMap<>();
+            if ("objectType".equals(property)) {
+                titles.put(1, "Element 1");
+                titles.put(2, "Element 2");
+                return titles;
+            }
+            for (Object value : values) {
+                Integer dbId = (Integer) value;
+                if (dbId != MISSING_DB_ID) {
+                    titles.put(dbId, "Element " + dbId);
+                }
+            }
+            return titles;
+        }
+    }
+}
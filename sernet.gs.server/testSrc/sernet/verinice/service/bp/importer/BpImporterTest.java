@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.bp.importer;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.bp.elements.BpRequirement;
+import sernet.verinice.model.bp.elements.BpThreat;
+import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Link;
+
+/**
+ * Tests that {@link BpImporter} saves the links of the compendium with the
+ * link DAO.
+ */
+public class BpImporterTest {
+
+    private static final String REL_REQUIREMENT_THREAT = "rel_bp_requirement_bp_threat";
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLinksAreSavedWithLinkDao() {
+        CnATreeElement requirement = createElement(BpRequirement.class, 1);
+        CnATreeElement threat = createElement(BpThreat.class, 2);
+        CnATreeElement otherThreat = createElement(BpThreat.class, 3);
+        List<Link> links = Arrays.asList(
+                new Link(requirement, threat, REL_REQUIREMENT_THREAT),
+                new Link(requirement, otherThreat, REL_REQUIREMENT_THREAT),
+                // duplicate
+                new Link(requirement, threat, REL_REQUIREMENT_THREAT),
+                // element not found
+                new Link(requirement, null, REL_REQUIREMENT_THREAT));
+        IBaseDao<CnALink, Serializable> linkDao = mock(IBaseDao.class);
+
+        assertEquals(2, BpImporter.persistLinks(linkDao, links));
+
+        ArgumentCaptor<CnALink> savedLinks = ArgumentCaptor.forClass(CnALink.class);
+        verify(linkDao, times(2)).merge(savedLinks.capture(), eq(true));
+        verify(linkDao, never()).executeCallback(any());
+        assertEquals(new CnALink.Id(1, 2, REL_REQUIREMENT_THREAT),
+                savedLinks.getAllValues().get(0).getId());
+        assertEquals(new CnALink.Id(1, 3, REL_REQUIREMENT_THREAT),
+                savedLinks.getAllValues().get(1).getId());
+    }
+
+    private static CnATreeElement createElement(Class<? extends CnATreeElement> type,
+            Integer dbId) {
+        CnATreeElement element = mock(type);
+        when(element.getDbId()).thenReturn(dbId);
+        return element;
+    }
+}
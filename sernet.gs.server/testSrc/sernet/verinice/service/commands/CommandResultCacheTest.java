@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ICachedCommand;
+
+/**
+ * Tests the hit and miss counting, the eviction and the invalidation of the
+ * {@link CommandResultCache}.
+ */
+public class CommandResultCacheTest {
+
+    private static final String CONTEXT = "admin:ROLE_ADMIN";
+
+    private CommandResultCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new CommandResultCache();
+        cache.setMaxEntries(3);
+    }
+
+    @Test
+    public void testHitAndMiss() {
+        String key = CommandResultCache.createKey(CONTEXT, new TestCommand("a"));
+        assertNull(cache.get(key));
+        Object result = new Object();
+        assertTrue(cache.put(key, result, Collections.singleton(1), cache.getVersion()));
+        assertSame(result, cache.get(key));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testKeyContainsContext() {
+        TestCommand command = new TestCommand("a");
+        cache.put(CommandResultCache.createKey(CONTEXT, command), new Object(), null,
+                cache.getVersion());
+        assertNull(cache.get(CommandResultCache.createKey("user:ROLE_USER", command)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntryIsEvicted() {
+        long version = cache.getVersion();
+        cache.put("a", "a", null, version);
+        cache.put("b", "b", null, version);
+        cache.put("c", "c", null, version);
+        cache.get("a");
+        cache.put("d", "d", null, version);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("b"));
+        assertEquals("a", cache.get("a"));
+        assertEquals("d", cache.get("d"));
+    }
+
+    @Test
+    public void testInvalidateScopes() {
+        long version = cache.getVersion();
+        cache.put("scope1", "1", Collections.singleton(1), version);
+        cache.put("scope2", "2", Collections.singleton(2), version);
+        cache.put("allScopes", "all", null, version);
+        cache.invalidate(Arrays.asList(1));
+        assertNull(cache.get("scope1"));
+        assertNull(cache.get("allScopes"));
+        assertEquals("2", cache.get("scope2"));
+        assertEquals(2, cache.getInvalidations());
+    }
+
+    @Test
+    public void testInvalidateUnknownScope() {
+        cache.put("scope1", "1", Collections.singleton(1), cache.getVersion());
+        cache.invalidate(Arrays.asList(2, null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testResultIsNotStoredAfterInvalidation() {
+        long version = cache.getVersion();
+        cache.invalidate(Collections.singleton(1));
+        assertFalse(cache.put("a", "a", Collections.singleton(2), version));
+        assertTrue(cache.put("a", "a", Collections.singleton(2), cache.getVersion()));
+    }
+
+    @Test
+    public void testTimeToLive() throws InterruptedException {
+        cache.setTimeToLive(1);
+        cache.put("a", "a", null, cache.getVersion());
+        Thread.sleep(5);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDisabledCache() {
+        cache.setMaxEntries(0);
+        assertFalse(cache.put("a", "a", null, cache.getVersion()));
+        assertNull(cache.get("a"));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class TestCommand extends GenericCommand implements ICachedCommand {
+
+        private final String id;
+
+        private TestCommand(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void execute() {
+            // not used in this test
+        }
+
+        @Override
+        public String getCacheID() {
+            return id;
+        }
+
+        @Override
+        public void injectCacheResult(Object result) {
+            // not used in this test
+        }
+
+        @Override
+        public Object getCacheableResult() {
+            return null;
+        }
+    }
+}
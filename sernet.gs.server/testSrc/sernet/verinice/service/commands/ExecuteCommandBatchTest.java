@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import sernet.hui.common.VeriniceContext;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.ICommand;
+import sernet.verinice.interfaces.ICommandService;
+import sernet.verinice.service.sync.VnaSchemaVersion;
+
+/**
+ * Tests {@link ExecuteCommandBatch} with a command service which executes
+ * commands without a database.
+ */
+public class ExecuteCommandBatchTest {
+
+    @Test
+    public void testSequentialBatch() throws CommandException {
+        StubCommandService commandService = new StubCommandService();
+        List<EchoCommand> commands = createCommands(10);
+        ExecuteCommandBatch batch = commandService
+                .executeCommand(new ExecuteCommandBatch(commands));
+        assertEquals(10, batch.getCommands().size());
+        for (int i = 0; i < commands.size(); i++) {
+            EchoCommand command = (EchoCommand) batch.getCommands().get(i);
+            assertSame(commands.get(i), command);
+            assertEquals(i * 2, command.getResult());
+        }
+        // the batch and its commands
+        assertEquals(11, commandService.executions.get());
+    }
+
+    @Test
+    public void testParallelBatch() throws CommandException {
+        StubCommandService commandService = new StubCommandService();
+        VeriniceContext.State previousState = VeriniceContext.getState();
+        VeriniceContext.State state = new VeriniceContext.State();
+        Map<String, Object> map = new HashMap<>();
+        map.put(VeriniceContext.COMMAND_SERVICE, commandService);
+        state.setMap(map);
+        VeriniceContext.setState(state);
+        try {
+            List<EchoCommand> commands = createCommands(100);
+            ExecuteCommandBatch batch = commandService
+                    .executeCommand(new ExecuteCommandBatch(commands, true));
+            for (int i = 0; i < commands.size(); i++) {
+                assertEquals(i * 2, ((EchoCommand) batch.getCommands().get(i)).getResult());
+            }
+            assertEquals(101, commandService.executions.get());
+        } finally {
+            VeriniceContext.setState(previousState);
+        }
+    }
+
+    @Test
+    public void testParallelBatchesShareLimit() throws Exception {
+        final StubCommandService commandService = new StubCommandService();
+        VeriniceContext.State previousState = VeriniceContext.getState();
+        VeriniceContext.State state = new VeriniceContext.State();
+        Map<String, Object> map = new HashMap<>();
+        map.put(VeriniceContext.COMMAND_SERVICE, commandService);
+        state.setMap(map);
+        VeriniceContext.setState(state);
+        try {
+            int numberOfBatches = 4;
+            ExecutorService requests = Executors.newFixedThreadPool(numberOfBatches);
+            try {
+                List<Future<ExecuteCommandBatch>> batches = new ArrayList<>();
+                for (int i = 0; i < numberOfBatches; i++) {
+                    final List<EchoCommand> commands = createCommands(20);
+                    commands.forEach(command -> command.sleep = true);
+                    batches.add(requests.submit(() -> commandService
+                            .executeCommand(new ExecuteCommandBatch(commands, true))));
+                }
+                for (Future<ExecuteCommandBatch> batch : batches) {
+                    assertEquals(20, batch.get().getCommands().size());
+                }
+            } finally {
+                requests.shutdownNow();
+            }
+            int maxRunning = commandService.maxRunning.get();
+            assertTrue(maxRunning <= ExecuteCommandBatch.MAX_PARALLEL_COMMANDS);
+        } finally {
+            VeriniceContext.setState(previousState);
+        }
+    }
+
+    @Test
+    public void testExecuteInBatches() throws CommandException {
+        StubCommandService commandService = new StubCommandService();
+        int numberOfCommands = ExecuteCommandBatch.MAX_BATCH_SIZE * 2 + 1;
+        List<EchoCommand> commands = createCommands(numberOfCommands);
+        List<EchoCommand> executedCommands = ExecuteCommandBatch.execute(commandService,
+                commands, false);
+        assertEquals(numberOfCommands, executedCommands.size());
+        assertEquals(numberOfCommands - 1,
+                executedCommands.get(numberOfCommands - 1).getResult() / 2);
+        // two batches and one single command
+        assertEquals(3, commandService.requests.get());
+        assertTrue(ExecuteCommandBatch
+                .execute(commandService, Collections.<EchoCommand> emptyList(), false)
+                .isEmpty());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testFailingCommandFailsBatch() throws CommandException {
+        StubCommandService commandService = new StubCommandService();
+        List<EchoCommand> commands = createCommands(3);
+        commands.get(1).fail = true;
+        commandService.executeCommand(new ExecuteCommandBatch(commands));
+    }
+
+    private static List<EchoCommand> createCommands(int number) {
+        List<EchoCommand> commands = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            commands.add(new EchoCommand(i));
+        }
+        return commands;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class EchoCommand extends GenericCommand {
+
+        private final int value;
+        private int result;
+        private boolean fail;
+        private boolean sleep;
+
+        EchoCommand(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public void execute() {
+            if (fail) {
+                throw new IllegalStateException("Command failed");
+            }
+            if (sleep) {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            result = value * 2;
+        }
+
+        int getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Executes commands in the calling thread, a command which is not called
+     * by another command counts as a request.
+     */
+    private static final class StubCommandService implements ICommandService {
+
+        final AtomicInteger executions = new AtomicInteger();
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        private final ThreadLocal<Integer> depth = ThreadLocal.withInitial(() -> 0);
+
+        @Override
+        public <T extends ICommand> T executeCommand(T command) throws CommandException {
+            if (depth.get() == 0) {
+                requests.incrementAndGet();
+            }
+            executions.incrementAndGet();
+            depth.set(depth.get() + 1);
+            boolean echo = command instanceof EchoCommand;
+            if (echo) {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            }
+            try {
+                command.setCommandService(this);
+                command.execute();
+                return command;
+            } finally {
+                if (echo) {
+                    running.decrementAndGet();
+                }
+                depth.set(depth.get() - 1);
+            }
+        }
+
+        @Override
+        public void configureFilter(IBaseDao dao) {
+        }
+
+        @Override
+        public void disableFilter(IBaseDao dao) {
+        }
+
+        @Override
+        public void discardUserData() {
+        }
+
+        @Override
+        public Properties getProperties() {
+            return new Properties();
+        }
+
+        @Override
+        public VnaSchemaVersion getVnaSchemaVersion() {
+            return null;
+        }
+    }
+}
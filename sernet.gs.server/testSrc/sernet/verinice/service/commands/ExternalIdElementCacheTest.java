@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Resource;
+
+import org.hibernate.Hibernate;
+import org.junit.Test;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.test.helper.vnaimport.BeforeEachVNAImportHelper;
+
+/**
+ * Tests that {@link ExternalIdElementCache} loads the elements of an import
+ * with their children, links and parent and returns elements added during
+ * the import.
+ */
+public class ExternalIdElementCacheTest extends BeforeEachVNAImportHelper {
+
+    private static final String VNA_FILE = "/sernet/verinice/service/test/cnalink-relation.vna";
+
+    private static final String SOURCE_ID = "434455";
+
+    private static final String ASSET_GROUP_EXT_ID = "ENTITY_1180311";
+    private static final String ASSET_EXT_ID = "ENTITY_1180358";
+    private static final String CONTROL_EXT_ID = "ENTITY_1180452";
+    private static final String NEW_EXT_ID = "ENTITY_NEW";
+
+    private static final List<String> EXT_IDS = Arrays.asList(ASSET_GROUP_EXT_ID, ASSET_EXT_ID,
+            CONTROL_EXT_ID, NEW_EXT_ID);
+
+    @Resource(name = "cnaTreeElementDao")
+    private IBaseDao<CnATreeElement, Serializable> dao;
+
+    @Test
+    public void testElementsAreLoadedWithAssociations() {
+        ExternalIdElementCache cache = createCache();
+
+        CnATreeElement assetGroup = cache.get(ASSET_GROUP_EXT_ID);
+        assertNotNull(assetGroup);
+        assertTrue(Hibernate.isInitialized(assetGroup.getChildren()));
+        assertEquals(2, assetGroup.getChildren().size());
+        assertTrue(Hibernate.isInitialized(assetGroup.getParent()));
+
+        CnATreeElement asset = cache.get(ASSET_EXT_ID);
+        assertNotNull(asset);
+        assertTrue(Hibernate.isInitialized(asset.getLinksDown()));
+        assertTrue(Hibernate.isInitialized(asset.getLinksUp()));
+        assertEquals(2, asset.getLinksDown().size());
+        assertEquals(0, asset.getLinksUp().size());
+        assertEquals(assetGroup.getDbId(), asset.getParent().getDbId());
+
+        CnATreeElement control = cache.get(CONTROL_EXT_ID);
+        assertNotNull(control);
+        assertEquals(1, control.getLinksDown().size());
+        assertEquals(3, control.getLinksUp().size());
+
+        assertNull(cache.get(NEW_EXT_ID));
+    }
+
+    @Test
+    public void testAddedElementIsReturned() {
+        ExternalIdElementCache cache = createCache();
+        CnATreeElement asset = cache.get(ASSET_EXT_ID);
+        assertNull(cache.get(NEW_EXT_ID));
+
+        cache.add(NEW_EXT_ID, asset);
+        assertSame(asset, cache.get(NEW_EXT_ID));
+        cache.clear();
+        assertEquals(asset.getDbId(), cache.get(NEW_EXT_ID).getDbId());
+    }
+
+    @Test(expected = RuntimeCommandException.class)
+    public void testAddedElementWithExistingExtIdIsDuplicate() {
+        ExternalIdElementCache cache = createCache();
+        cache.add(ASSET_EXT_ID, cache.get(CONTROL_EXT_ID));
+        cache.get(ASSET_EXT_ID);
+    }
+
+    private ExternalIdElementCache createCache() {
+        ExternalIdElementCache cache = new ExternalIdElementCache(dao, SOURCE_ID, 2);
+        cache.loadIds(EXT_IDS);
+        cache.loadIds(Collections.singletonList(CONTROL_EXT_ID));
+        return cache;
+    }
+
+    @Override
+    protected String getFilePath() {
+        return getClass().getResource(VNA_FILE).getPath();
+    }
+
+    @Override
+    protected SyncParameter getSyncParameter() throws SyncParameterException {
+        return new SyncParameter(true, true, true, false,
+                SyncParameter.EXPORT_FORMAT_VERINICE_ARCHIV);
+    }
+}
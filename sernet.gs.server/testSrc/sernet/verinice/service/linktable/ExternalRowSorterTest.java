@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests the in-memory sort and the merge of sorted runs of
+ * {@link ExternalRowSorter}. Both must return the same order as a sort of the
+ * complete table with the {@link RowComparator}.
+ */
+public class ExternalRowSorterTest {
+
+    private static final int NUMBER_OF_ROWS = 5000;
+    private static final int NUMBER_OF_COLUMNS = 4;
+
+    @Test
+    public void testSortInMemory() {
+        List<List<String>> table = createTable();
+        try (ExternalRowSorter sorter = new ExternalRowSorter(NUMBER_OF_COLUMNS,
+                ExternalRowSorter.MEMORY_BUDGET_DEFAULT)) {
+            List<List<String>> sorted = sort(sorter, table);
+            assertEquals(0, sorter.getNumberOfRuns());
+            assertEquals(expectedOrder(table), sorted);
+        }
+    }
+
+    @Test
+    public void testSortWithRuns() {
+        List<List<String>> table = createTable();
+        try (ExternalRowSorter sorter = new ExternalRowSorter(NUMBER_OF_COLUMNS, 16 * 1024)) {
+            List<List<String>> sorted = sort(sorter, table);
+            assertTrue("No sorted runs written", sorter.getNumberOfRuns() > 1);
+            assertEquals(NUMBER_OF_ROWS, sorter.getNumberOfRows());
+            assertEquals(expectedOrder(table), sorted);
+        }
+    }
+
+    @Test
+    public void testEqualValuesAreShared() {
+        try (ExternalRowSorter sorter = new ExternalRowSorter(1,
+                ExternalRowSorter.MEMORY_BUDGET_DEFAULT)) {
+            sorter.add(new String[] { new String("value") });
+            sorter.add(new String[] { new String("value") });
+            List<List<String>> sorted = new ArrayList<>();
+            sorter.writeSortedRows(sorted::add);
+            assertSame(sorted.get(0).get(0), sorted.get(1).get(0));
+        }
+    }
+
+    private static List<List<String>> sort(ExternalRowSorter sorter, List<List<String>> table) {
+        for (List<String> row : table) {
+            sorter.add(row.toArray(new String[row.size()]));
+        }
+        List<List<String>> sorted = new ArrayList<>();
+        sorter.writeSortedRows(sorted::add);
+        return sorted;
+    }
+
+    private static List<List<String>> expectedOrder(List<List<String>> table) {
+        List<List<String>> expected = new ArrayList<>(table);
+        expected.sort(new RowComparator());
+        return expected;
+    }
+
+    private static List<List<String>> createTable() {
+        Random random = new Random(42);
+        List<List<String>> table = new ArrayList<>(NUMBER_OF_ROWS);
+        for (int i = 0; i < NUMBER_OF_ROWS; i++) {
+            String[] row = new String[NUMBER_OF_COLUMNS];
+            for (int j = 0; j < NUMBER_OF_COLUMNS; j++) {
+                int value = random.nextInt(100);
+                row[j] = (value < 5) ? null : "Element " + value; //$NON-NLS-1$
+            }
+            table.add(Arrays.asList(row));
+        }
+        return table;
+    }
+}
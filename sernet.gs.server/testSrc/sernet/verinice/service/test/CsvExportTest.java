@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -38,6 +39,7 @@ import net._01001111.text.LoremIpsum;
 import sernet.gs.service.VeriniceCharset;
 import sernet.verinice.service.csv.CsvExport;
 import sernet.verinice.service.csv.CsvExportException;
+import sernet.verinice.service.csv.CsvRowWriter;
 import sernet.verinice.service.csv.ICsvExport;
 
 /**
@@ -76,6 +78,26 @@ public class CsvExportTest {
         checkExportFile(table);
     }
 
+    @Test
+    public void testRowWriter() throws CsvExportException, FileNotFoundException, IOException {
+        ICsvExport exporter = new CsvExport();
+        exporter.setFilePath(getFilePath());
+        exporter.setSeperator(SEMICOLON);
+        exporter.setCharset(VeriniceCharset.CHARSET_DEFAULT);
+        List<String[]> table = createRandomTable();
+        try (CsvRowWriter writer = exporter.createRowWriter()) {
+            for (String[] row : table) {
+                if (row.length % 2 == 0) {
+                    writer.writeRow(Arrays.asList(row));
+                } else {
+                    writer.writeRow(row);
+                }
+            }
+            assertEquals(table.size(), writer.getNumberOfRows());
+        }
+        checkExportFile(table);
+    }
+
     private void checkExportFile(List<String[]> table) throws FileNotFoundException, IOException {
         File exportFile = new File(getFilePath());
         assertTrue("Export file does not exists", exportFile.exists());
@@ -22,13 +22,18 @@ package sernet.verinice.service.test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
 
 import org.apache.log4j.Logger;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.client.Client;
 import org.hamcrest.CoreMatchers;
 import org.junit.After;
 import org.junit.Test;
@@ -45,6 +50,7 @@ import sernet.verinice.model.search.VeriniceQuery;
 import sernet.verinice.model.search.VeriniceSearchResult;
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
+import sernet.verinice.search.BaseDao;
 import sernet.verinice.search.IElementSearchDao;
 import sernet.verinice.search.Indexer;
 import sernet.verinice.service.commands.SyncParameter;
@@ -178,6 +184,69 @@ public class ElasticsearchTest extends BeforeEachVNAImportHelper {
                 element.getValueFromResultString(propertyId), JUnitMatchers.containsString(phrase));
     }
 
+    @Test
+    public void findAllTypesAndPage() {
+        searchIndexer.blockingIndexing();
+        VeriniceQuery query = new VeriniceQuery(VeriniceQuery.EMPTY_QUERY, 1);
+        VeriniceSearchResult result = searchService.query(query, null);
+
+        assertThat("No element found", result.getHits(),
+                CoreMatchers.not(CoreMatchers.equalTo(0)));
+        for (VeriniceSearchResultTable table : result.getAllVeriniceSearchTables()) {
+            assertEquals("Limit of type " + table.getEntityTypeId() + " ignored", 1,
+                    table.getRows().size());
+            assertTrue(table.getTotalHits() >= 1);
+            if (table.getTotalHits() > 1) {
+                String firstUuid = getUuid(table.getRows().iterator().next());
+                query.setOffset(1);
+                VeriniceSearchResultTable nextPage = searchService
+                        .query(query, table.getEntityTypeId())
+                        .getVeriniceSearchObject(table.getEntityTypeId());
+                assertEquals(1, nextPage.getRows().size());
+                assertEquals(table.getTotalHits(), nextPage.getTotalHits());
+                assertThat(getUuid(nextPage.getRows().iterator().next()),
+                        CoreMatchers.not(CoreMatchers.equalTo(firstUuid)));
+                query.setOffset(0);
+            }
+        }
+    }
+
+    @Test
+    public void bulkIndexingEqualsSingleIndexing() {
+        List<String> uuids = elementDao.findByQuery("select e.uuid from CnATreeElement e",
+                new String[] {});
+        boolean bulkIndexing = searchIndexer.isBulkIndexing();
+        try {
+            searchIndexer.setBulkIndexing(false);
+            searchIndexer.blockingIndexing();
+            Map<String, Map<String, Object>> singleDocuments = loadDocuments(uuids);
+            searchDao.clear();
+
+            searchIndexer.setBulkIndexing(true);
+            searchIndexer.blockingIndexing();
+            Map<String, Map<String, Object>> bulkDocuments = loadDocuments(uuids);
+
+            assertEquals("Number of documents differs", uuids.size(), singleDocuments.size());
+            assertEquals(singleDocuments, bulkDocuments);
+        } finally {
+            searchIndexer.setBulkIndexing(bulkIndexing);
+        }
+    }
+
+    private Map<String, Map<String, Object>> loadDocuments(List<String> uuids) {
+        Client client = ((BaseDao) searchDao).getClient();
+        Map<String, Map<String, Object>> documents = new HashMap<>(uuids.size());
+        for (String uuid : uuids) {
+            GetResponse response = client
+                    .prepareGet(searchDao.getIndex(), searchDao.getType(), uuid).execute()
+                    .actionGet();
+            if (response.isExists()) {
+                documents.put(uuid, response.getSourceAsMap());
+            }
+        }
+        return documents;
+    }
+
     @After
     public void tearDown() throws CommandException {
         searchDao.clear();
@@ -30,8 +30,10 @@ import org.junit.Test;
 
 import sernet.gs.service.ServerInitializer;
 import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.EntityReadView;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.Property;
+import sernet.hui.common.connect.PropertySlotLayout;
 import sernet.snutils.AssertException;
 import sernet.snutils.FormInputParser;
 import sernet.verinice.model.iso27k.Asset;
@@ -45,6 +47,7 @@ import sernet.verinice.model.iso27k.Audit;
  */
 public class EntityTest extends ContextConfiguration {
 
+    private final static String PROP_PROCESS_BCM_TIME1 = "process_bcm_time1";
     private final static String[] PROP_VALUES_USER = new String[] {
             sernet.verinice.model.iso27k.Process.PROP_VALUE_USER_1,
             sernet.verinice.model.iso27k.Process.PROP_VALUE_USER_2,
@@ -110,4 +113,36 @@ public class EntityTest extends ContextConfiguration {
         assertEquals(valueMessages, returnValue);
     }
 
+    /**
+     * Tests that an EntityReadView returns the same values as the methods of
+     * class Entity.
+     */
+    @Test
+    public void testReadView() {
+        ServerInitializer.inheritVeriniceContextState();
+        Entity entityProcess = new Entity(sernet.verinice.model.iso27k.Process.TYPE_ID);
+        entityProcess.setPropertyValue(sernet.verinice.model.iso27k.Process.PROP_USER,
+                StringUtils.join(PROP_VALUES_USER, ","));
+        entityProcess.createNewProperty(sernet.verinice.model.iso27k.Process.PROP_NAME,
+                "Payroll");
+        entityProcess.createNewProperty(PROP_PROCESS_BCM_TIME1, "2");
+
+        EntityReadView view = entityProcess.createReadView();
+        PropertySlotLayout layout = view.getLayout();
+        for (int slot = 0; slot < layout.size(); slot++) {
+            String propertyTypeId = layout.getPropertyType(slot).getId();
+            assertEquals(entityProcess.getPropertyValue(propertyTypeId),
+                    view.getPropertyValue(slot));
+            assertEquals(entityProcess.getRawPropertyValue(propertyTypeId),
+                    view.getRawPropertyValue(slot));
+        }
+        assertEquals(2, view.getNumericPropertyValue(PROP_PROCESS_BCM_TIME1));
+        assertEquals(0, view.getNumericPropertyValue("unknown_property"));
+        assertEquals("", view.getPropertyValue("unknown_property"));
+
+        // the view is a snapshot
+        entityProcess.createNewProperty(sernet.verinice.model.iso27k.Process.PROP_ABBR, "P1");
+        assertEquals("", view.getPropertyValue(sernet.verinice.model.iso27k.Process.PROP_ABBR));
+    }
+
 }
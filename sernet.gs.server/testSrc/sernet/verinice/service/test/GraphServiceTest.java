@@ -19,6 +19,9 @@
  ******************************************************************************/
 package sernet.verinice.service.test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
@@ -129,9 +132,38 @@ public class GraphServiceTest extends BeforeAllVNAImportHelper {
         assertTrue("Number od links targets is not 3", targets.size() == 3);
     }
 
+    @Test
+    public void testLoadRelationsByProjection() throws Exception {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        String[] typeIds = new String[] { Asset.TYPE_ID, Control.TYPE_ID,
+                IncidentScenario.TYPE_ID, Vulnerability.TYPE_ID, Threat.TYPE_ID };
+        VeriniceGraph graph = createGraph(org.getDbId(), typeIds, null);
+        VeriniceGraph projectionGraph = createGraph(org.getDbId(), typeIds, null,
+                new String[] { IncidentScenario.PROP_NAME });
+
+        assertEquals(graph.getElements().size(), projectionGraph.getElements().size());
+        assertEquals(graph.getGraph().edgeSet().size(),
+                projectionGraph.getGraph().edgeSet().size());
+
+        Set<CnATreeElement> isList = projectionGraph.getElements(IncidentScenario.TYPE_ID);
+        IncidentScenario is = findByTitle(isList, WIRETAPPING_TITLE);
+        assertNotNull(is);
+        assertTrue("Number od links targets is not 14",
+                projectionGraph.getLinkTargets(is).size() == 14);
+        assertNull(is.getEntity().getProperties(IncidentScenario.PROP_ABBR).getProperty(0));
+    }
+
     private VeriniceGraph createGraph(Integer scopeId, String[] typeIds, String[] relationsTypeIds)
             throws CommandException {
+        return createGraph(scopeId, typeIds, relationsTypeIds, null);
+    }
+
+    private VeriniceGraph createGraph(Integer scopeId, String[] typeIds, String[] relationsTypeIds,
+            String[] propertyTypeIds) throws CommandException {
         IGraphElementLoader loader = new GraphElementLoader();
+        if (propertyTypeIds != null) {
+            loader.setPropertyTypeIds(propertyTypeIds);
+        }
         if (typeIds != null) {
             loader.setTypeIds(typeIds);
         }
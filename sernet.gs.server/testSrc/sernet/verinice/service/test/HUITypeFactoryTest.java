@@ -20,6 +20,7 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.io.File;
@@ -42,6 +43,7 @@ import org.junit.Test;
 import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.HuiRelation;
+import sernet.hui.common.connect.PropertyGroup;
 import sernet.hui.common.connect.PropertyType;
 import sernet.snutils.DBException;
 
@@ -251,6 +253,33 @@ public class HUITypeFactoryTest extends CommandServiceProvider {
         }
     }
 
+    /**
+     * Tests that the lookup tables of the factory contain the same relations
+     * and property types as the entity types.
+     */
+    @Test
+    public void testLookupTables() {
+        for (String toTypeID : huiTypeFactory.getAllTypeIds()) {
+            Set<HuiRelation> relations = new HashSet<>();
+            for (EntityType type : huiTypeFactory.getAllEntityTypes()) {
+                relations.addAll(type.getPossibleRelations(toTypeID));
+            }
+            assertEquals(relations, huiTypeFactory.getPossibleRelationsTo(toTypeID));
+        }
+        assertTrue(huiTypeFactory.getPossibleRelationsTo("unknown_type").isEmpty());
+        assertNull(huiTypeFactory.getRelation("unknown_relation"));
+
+        for (EntityType type : huiTypeFactory.getAllEntityTypes()) {
+            for (PropertyGroup group : type.getPropertyGroups()) {
+                for (PropertyType propertyType : group.getPropertyTypes()) {
+                    assertEquals(group.getPropertyType(propertyType.getId()),
+                            type.getPropertyType(propertyType.getId()));
+                }
+            }
+            assertNull(type.getPropertyType("unknown_property"));
+        }
+    }
+
     private int getRandomInteger(int min, int max) {
 
         if (LOG.isDebugEnabled()) {
@@ -182,6 +182,32 @@ public class LinkTableServiceTest extends BeforeAllVNAImportHelper {
 
     }
 
+    @Test
+    public void testParallelEqualsSequentialTable() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        LinkTableConfiguration.Builder builder = new LinkTableConfiguration.Builder();
+        builder.addScopeId(org.getScopeId());
+        for (String path : COLUMN_PATHES) {
+            builder.addColumnPath(path);
+        }
+        LinkTableConfiguration configuration = builder.build();
+
+        GraphLinkedTableCreator sequentialCreator = new GraphLinkedTableCreator();
+        sequentialCreator.setParallelism(1);
+        service.setLinkTableCreator(sequentialCreator);
+        List<List<String>> sequentialTable = service.createTable(configuration);
+
+        GraphLinkedTableCreator parallelCreator = new GraphLinkedTableCreator();
+        parallelCreator.setParallelism(4);
+        // forces sorted runs in temporary files
+        parallelCreator.setSortMemoryBudget(1024);
+        service.setLinkTableCreator(parallelCreator);
+        List<List<String>> parallelTable = service.createTable(configuration);
+
+        assertTrue("Table is empty", sequentialTable.size() > 1);
+        assertEquals(sequentialTable, parallelTable);
+    }
+
     @Test
     public void testCreateWithVltFile() throws CommandException, IOException {
         CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+import org.apache.log4j.Logger;
+import org.hibernate.SQLQuery;
+import org.junit.Test;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.service.commands.LoadElementByUuid;
+import sernet.verinice.service.commands.ReadAclUpdater;
+import sernet.verinice.service.commands.UpdatePermissions;
+
+/**
+ * Tests the read ACLs maintained by UpdatePermissions and compares the runtime
+ * of the read ACL lookup of the userAccessReadFilter with the correlated
+ * subquery on the permission table on a generated dataset.
+ */
+@TransactionConfiguration(transactionManager = "txManager", defaultRollback = true)
+@Transactional
+public class ReadAclFilterTest extends CommandServiceProvider {
+
+    private static final Logger LOG = Logger.getLogger(ReadAclFilterTest.class);
+
+    private static final String SQL_PERMISSION_SUBQUERY = "select e.dbid from cnatreeelement e "
+            + "where e.scope_id = :scopeId and exists (select p.dbid from permission p "
+            + "where p.cte_id = e.dbid and p.role in (:roles) and p.readAllowed = :readAllowed)";
+
+    private static final String SQL_READ_ACL = "select e.dbid from cnatreeelement e "
+            + "where e.scope_id = :scopeId and e.read_acl_id in (select r.acl_id "
+            + "from read_acl_role r where r.role in (:roles))";
+
+    private static final String SQL_MISSING_ACL = "select e.dbid from cnatreeelement e "
+            + "where e.scope_id = :scopeId and e.read_acl_id is null";
+
+    private static final int NUMBER_OF_ROLES = 40;
+    private static final int ELEMENTS_PER_GROUP = 20;
+    private static final int ROLES_PER_USER = 5;
+    private static final int NUMBER_OF_USERS = 10;
+    private static final int REPEAT = 20;
+
+    @Resource(name = "cnaTreeElementDao")
+    private IBaseDao<CnATreeElement, Serializable> elementDao;
+
+    @Test
+    public void testUpdateMissing() throws CommandException {
+        Organization organization = createOrganization();
+        createElementsInGroups(organization, 2);
+        Integer scopeId = organization.getDbId();
+        int numberOfMissing = findDbIds(SQL_MISSING_ACL, scopeId, null).size();
+
+        assertTrue(new ReadAclUpdater(elementDao).updateMissing() >= numberOfMissing);
+        assertTrue("Elements without read ACL found",
+                findDbIds(SQL_MISSING_ACL, scopeId, null).isEmpty());
+    }
+
+    @Test
+    public void compareReadAclWithPermissionSubquery() throws CommandException {
+        Random random = new Random(42);
+        Organization organization = createOrganization();
+        List<String> uuids = createElementsInGroups(organization, ELEMENTS_PER_GROUP);
+        uuids.add(organization.getUuid());
+        for (String uuid : uuids) {
+            updatePermissions(uuid, random);
+        }
+        // change the permissions of some elements twice
+        for (int i = 0; i < uuids.size(); i += 3) {
+            updatePermissions(uuids.get(i), random);
+        }
+        Integer scopeId = organization.getDbId();
+        assertTrue("Elements without read ACL found",
+                findDbIds(SQL_MISSING_ACL, scopeId, null).isEmpty());
+
+        long subqueryTime = 0;
+        long readAclTime = 0;
+        for (int user = 0; user < NUMBER_OF_USERS; user++) {
+            List<String> roles = createRoles(random, ROLES_PER_USER);
+            Set<Integer> bySubquery = null;
+            Set<Integer> byReadAcl = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < REPEAT; i++) {
+                bySubquery = findDbIds(SQL_PERMISSION_SUBQUERY, scopeId, roles);
+            }
+            subqueryTime += System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < REPEAT; i++) {
+                byReadAcl = findDbIds(SQL_READ_ACL, scopeId, roles);
+            }
+            readAclTime += System.nanoTime() - start;
+            assertEquals("Visible elements differ for roles: " + roles, bySubquery, byReadAcl);
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Elements: " + uuids.size() + ", roles: " + NUMBER_OF_ROLES + ", users: "
+                    + NUMBER_OF_USERS + ", permission subquery: " + subqueryTime / 1000000
+                    + " ms, read ACL: " + readAclTime / 1000000 + " ms");
+        }
+    }
+
+    private void updatePermissions(String uuid, Random random) throws CommandException {
+        CnATreeElement element = commandService
+                .executeCommand(new LoadElementByUuid<>(uuid)).getElement();
+        assertNotNull(element);
+        Set<Permission> permissions = new HashSet<>();
+        for (String role : createRoles(random, 1 + random.nextInt(3))) {
+            permissions.add(Permission.createPermission(element, role, true, random.nextBoolean()));
+        }
+        // permission without read access
+        permissions.add(Permission.createPermission(element, createRole(random), false, true));
+        commandService.executeCommand(new UpdatePermissions(uuid, permissions, false, true));
+    }
+
+    private static List<String> createRoles(Random random, int number) {
+        List<String> roles = new ArrayList<>(number);
+        for (int i = 0; i < number; i++) {
+            roles.add(createRole(random));
+        }
+        return roles;
+    }
+
+    private static String createRole(Random random) {
+        return "role-" + random.nextInt(NUMBER_OF_ROLES);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> findDbIds(final String sql, final Integer scopeId,
+            final List<String> roles) {
+        List<Number> dbIds = (List<Number>) elementDao.executeCallback(session -> {
+            SQLQuery query = session.createSQLQuery(sql);
+            query.setInteger("scopeId", scopeId);
+            if (roles != null) {
+                query.setParameterList("roles", roles);
+            }
+            if (sql.contains(":readAllowed")) {
+                query.setBoolean("readAllowed", true);
+            }
+            return query.list();
+        });
+        Set<Integer> result = new HashSet<>(dbIds.size());
+        for (Number dbId : dbIds) {
+            result.add(dbId.intValue());
+        }
+        return result;
+    }
+}
@@ -19,6 +19,12 @@ package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
@@ -27,13 +33,23 @@ import org.junit.After;
 import org.junit.Test;
 
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.graph.Edge;
+import sernet.verinice.interfaces.graph.GraphElementLoader;
+import sernet.verinice.interfaces.graph.IGraphService;
+import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.model.iso27k.Control;
 import sernet.verinice.model.iso27k.IncidentScenario;
 import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.model.iso27k.Threat;
+import sernet.verinice.model.iso27k.Vulnerability;
 import sernet.verinice.service.commands.SyncParameter;
 import sernet.verinice.service.commands.SyncParameterException;
 import sernet.verinice.service.risk.RiskAnalysisConfiguration;
+import sernet.verinice.service.risk.RiskAnalysisJob;
 import sernet.verinice.service.risk.RiskAnalysisService;
 import sernet.verinice.service.test.helper.vnaimport.BeforeEachVNAImportHelper;
 
@@ -48,9 +64,38 @@ public class RiskAnalysisServiceTest extends BeforeEachVNAImportHelper {
     private static final String EXT_ID_ORGANIZATION = "3107a3aa-efdc-49d7-bddd-7fc7e581bbbb";
     private static final String EXT_ID_ASSET = "fce4e1c2-039c-4b0d-8709-1a7347765a57";
 
+    private static final String[] ASSET_RISK_PROPERTIES = new String[] {
+            Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS,
+            Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS,
+            Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS, Asset.ASSET_RISK_C,
+            Asset.ASSET_CONTROLRISK_C, Asset.ASSET_PLANCONTROLRISK_C,
+            Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C, Asset.ASSET_INTEGRITY_WITH_CONTROLS,
+            Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS,
+            Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS, Asset.ASSET_RISK_I,
+            Asset.ASSET_CONTROLRISK_I, Asset.ASSET_PLANCONTROLRISK_I,
+            Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I, Asset.ASSET_AVAILABILITY_WITH_CONTROLS,
+            Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS,
+            Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS, Asset.ASSET_RISK_A,
+            Asset.ASSET_CONTROLRISK_A, Asset.ASSET_PLANCONTROLRISK_A,
+            Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A };
+
+    private static final String[] SCENARIO_RISK_PROPERTIES = new String[] {
+            IncidentScenario.PROP_SCENARIO_PROBABILITY,
+            IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
+            IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
+            IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS };
+
+    private static final int INVALID_VALUE = 99;
+
     @Resource(name = "riskAnalysisService")
     RiskAnalysisService riskAnalysisService;
 
+    @Resource(name = "graphService")
+    IGraphService graphService;
+
+    @Resource(name = "cnaLinkDao")
+    IBaseDao<CnALink, Serializable> cnaLinkDao;
+
     @Override
     @After
     public void tearDown() throws CommandException {
@@ -73,6 +118,96 @@ public class RiskAnalysisServiceTest extends BeforeEachVNAImportHelper {
         }
     }
 
+    @Test
+    public void testParallelEqualsSequentialRiskAnalysis() throws CommandException {
+        Organization org = (Organization) loadElement(SOURCE_ID, EXT_ID_ORGANIZATION);
+        VeriniceGraph graph = loadGraph(org.getDbId());
+
+        RiskAnalysisJob job = new RiskAnalysisJob(graph, cnaLinkDao);
+        job.setParallelism(1);
+        job.runRiskAnalysis();
+        Map<String, List<Integer>> sequentialValues = getRiskValues(graph);
+
+        setInvalidRiskValues(graph);
+        job = new RiskAnalysisJob(graph, cnaLinkDao);
+        job.setParallelism(4);
+        job.runRiskAnalysis();
+        assertEquals(sequentialValues, getRiskValues(graph));
+
+        Asset asset = getAsset(graph, EXT_ID_ASSET);
+        checkRiskValues(asset);
+        for (Edge edge : graph.getEdgesByElementType(asset, IncidentScenario.TYPE_ID)) {
+            if (IncidentScenario.REL_INCSCEN_ASSET.equals(edge.getType())) {
+                checkRiskValues(edge);
+            }
+        }
+    }
+
+    private static Asset getAsset(VeriniceGraph graph, String extId) {
+        for (Asset asset : graph.getElements(Asset.class)) {
+            if (SOURCE_ID.equals(asset.getSourceId()) && extId.equals(asset.getExtId())) {
+                return asset;
+            }
+        }
+        throw new AssertionError("Asset not found in graph, ext-id: " + extId);
+    }
+
+    private VeriniceGraph loadGraph(Integer scopeId) {
+        GraphElementLoader loader = new GraphElementLoader();
+        loader.setScopeIds(new Integer[] { scopeId });
+        loader.setTypeIds(new String[] { Asset.TYPE_ID, IncidentScenario.TYPE_ID, Control.TYPE_ID,
+                Threat.TYPE_ID, Vulnerability.TYPE_ID });
+        return graphService.create(Collections.singletonList(loader));
+    }
+
+    private Map<String, List<Integer>> getRiskValues(VeriniceGraph graph) {
+        Map<String, List<Integer>> values = new HashMap<>();
+        for (CnATreeElement asset : graph.getElements(Asset.TYPE_ID)) {
+            values.put(asset.getUuid(), getNumericValues(asset, ASSET_RISK_PROPERTIES));
+        }
+        for (CnATreeElement scenario : graph.getElements(IncidentScenario.TYPE_ID)) {
+            values.put(scenario.getUuid(), getNumericValues(scenario, SCENARIO_RISK_PROPERTIES));
+            for (Edge edge : graph.getEdgesByElementType(scenario, Asset.TYPE_ID)) {
+                values.put(scenario.getUuid() + "->" + edge.getTarget().getUuid(),
+                        Arrays.asList(edge.getRiskConfidentiality(),
+                                edge.getRiskConfidentialityWithControls(),
+                                edge.getRiskIntegrity(), edge.getRiskIntegrityWithControls(),
+                                edge.getRiskAvailability(),
+                                edge.getRiskAvailabilityWithControls()));
+            }
+        }
+        return values;
+    }
+
+    private static List<Integer> getNumericValues(CnATreeElement element, String[] properties) {
+        Integer[] values = new Integer[properties.length];
+        for (int i = 0; i < properties.length; i++) {
+            values[i] = element.getNumericProperty(properties[i]);
+        }
+        return Arrays.asList(values);
+    }
+
+    private void setInvalidRiskValues(VeriniceGraph graph) {
+        for (CnATreeElement asset : graph.getElements(Asset.TYPE_ID)) {
+            for (String property : ASSET_RISK_PROPERTIES) {
+                asset.setNumericProperty(property, INVALID_VALUE);
+            }
+        }
+        for (CnATreeElement scenario : graph.getElements(IncidentScenario.TYPE_ID)) {
+            for (String property : SCENARIO_RISK_PROPERTIES) {
+                scenario.setNumericProperty(property, INVALID_VALUE);
+            }
+            for (Edge edge : graph.getEdgesByElementType(scenario, Asset.TYPE_ID)) {
+                edge.setRiskConfidentiality(INVALID_VALUE);
+                edge.setRiskConfidentialityWithControls(INVALID_VALUE);
+                edge.setRiskIntegrity(INVALID_VALUE);
+                edge.setRiskIntegrityWithControls(INVALID_VALUE);
+                edge.setRiskAvailability(INVALID_VALUE);
+                edge.setRiskAvailabilityWithControls(INVALID_VALUE);
+            }
+        }
+    }
+
     public void checkRiskValues(Asset asset) {
         assertEquals(1, asset.getNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS));
         assertEquals(2,
@@ -111,6 +246,15 @@ public class RiskAnalysisServiceTest extends BeforeEachVNAImportHelper {
         assertEquals(Integer.valueOf(6), link.getRiskAvailabilityWithControls());
     }
 
+    public void checkRiskValues(Edge edge) {
+        assertEquals(Integer.valueOf(7), edge.getRiskConfidentiality());
+        assertEquals(Integer.valueOf(6), edge.getRiskConfidentialityWithControls());
+        assertEquals(Integer.valueOf(6), edge.getRiskIntegrity());
+        assertEquals(Integer.valueOf(5), edge.getRiskIntegrityWithControls());
+        assertEquals(Integer.valueOf(7), edge.getRiskAvailability());
+        assertEquals(Integer.valueOf(6), edge.getRiskAvailabilityWithControls());
+    }
+
     @Override
     protected String getFilePath() {
         return this.getClass().getResource(VNA_FILENAME).getPath();
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import javax.xml.bind.JAXB;
+
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.sync.SyncRequest;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.service.sync.ISyncDataHandler;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.VeriniceArchive;
+
+/**
+ * Tests that {@link SyncDataReader} and {@link VeriniceArchive#getSyncData()}
+ * read the same objects and links from a verinice archive as the JAXB
+ * unmarshaller.
+ */
+public class SyncDataReaderTest {
+
+    static final String[] VNA_FILES = { "IT_Network.vna", "Export_Test.vna",
+            "GraphServiceTest.vna", "cnalink-one-to-many-relations.vna" };
+
+    @Test
+    public void testReadSyncData() throws IOException, CommandException {
+        for (String vnaFile : VNA_FILES) {
+            VeriniceArchive archive = createArchive(vnaFile);
+            try {
+                SyncRequest header = archive.createSyncDataReader().readHeader();
+                SyncData syncData = JAXB
+                        .unmarshal(archive.getVeriniceXmlFile(), SyncRequest.class)
+                        .getSyncData();
+
+                assertEquals(archive.getSourceId(), header.getSourceId());
+                assertEquals(archive.getSyncMapping().getMapObjectType().size(),
+                        header.getSyncMapping().getMapObjectType().size());
+
+                TreeBuilder treeBuilder = new TreeBuilder();
+                SyncDataReader reader = archive.createSyncDataReader();
+                reader.read(treeBuilder);
+
+                assertTrue(treeBuilder.objectsFinished);
+                assertObjectsEquals(syncData.getSyncObject(), treeBuilder.roots);
+                assertObjectsEquals(syncData.getSyncObject(),
+                        archive.getSyncData().getSyncObject());
+                assertEquals(syncData.getSyncLink().size(),
+                        archive.getSyncData().getSyncLink().size());
+                assertEquals(syncData.getSyncLink().size(), treeBuilder.links.size());
+                assertEquals(syncData.getSyncLink().size(), reader.getNumberOfLinks());
+                for (int i = 0; i < treeBuilder.links.size(); i++) {
+                    SyncLink expected = syncData.getSyncLink().get(i);
+                    SyncLink actual = treeBuilder.links.get(i);
+                    assertEquals(expected.getDependant(), actual.getDependant());
+                    assertEquals(expected.getDependency(), actual.getDependency());
+                    assertEquals(expected.getRelationId(), actual.getRelationId());
+                    assertEquals(expected.getComment(), actual.getComment());
+                }
+            } finally {
+                archive.clear();
+            }
+        }
+    }
+
+    static VeriniceArchive createArchive(String vnaFile) throws IOException {
+        try (InputStream in = SyncDataReaderTest.class.getResourceAsStream(vnaFile)) {
+            return new VeriniceArchive(in);
+        }
+    }
+
+    static void assertObjectsEquals(List<SyncObject> expected, List<SyncObject> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            SyncObject expectedObject = expected.get(i);
+            SyncObject actualObject = actual.get(i);
+            assertEquals(expectedObject.getExtId(), actualObject.getExtId());
+            assertEquals(expectedObject.getExtObjectType(), actualObject.getExtObjectType());
+            assertEquals(expectedObject.getIcon(), actualObject.getIcon());
+            assertAttributesEquals(expectedObject.getSyncAttribute(),
+                    actualObject.getSyncAttribute());
+            assertEquals(expectedObject.getFile().size(), actualObject.getFile().size());
+            for (int j = 0; j < expectedObject.getFile().size(); j++) {
+                SyncFile expectedFile = expectedObject.getFile().get(j);
+                SyncFile actualFile = actualObject.getFile().get(j);
+                assertEquals(expectedFile.getExtId(), actualFile.getExtId());
+                assertEquals(expectedFile.getFile(), actualFile.getFile());
+                assertAttributesEquals(expectedFile.getSyncAttribute(),
+                        actualFile.getSyncAttribute());
+            }
+            assertObjectsEquals(expectedObject.getChildren(), actualObject.getChildren());
+        }
+    }
+
+    private static void assertAttributesEquals(List<SyncAttribute> expected,
+            List<SyncAttribute> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getName(), actual.get(i).getName());
+            assertEquals(expected.get(i).getValue(), actual.get(i).getValue());
+            assertEquals(expected.get(i).getLimitedLicense(), actual.get(i).getLimitedLicense());
+            assertEquals(expected.get(i).getLicenseContentId(),
+                    actual.get(i).getLicenseContentId());
+        }
+    }
+
+    /**
+     * Rebuilds the object tree from the objects passed by the reader.
+     */
+    private static class TreeBuilder implements ISyncDataHandler {
+
+        private final List<SyncObject> roots = new ArrayList<>();
+        private final List<SyncLink> links = new ArrayList<>();
+        private final Deque<SyncObject> path = new ArrayDeque<>();
+        private boolean objectsFinished = false;
+
+        @Override
+        public void startObject(SyncObject syncObject) {
+            assertTrue(syncObject.getChildren().isEmpty());
+            assertTrue(syncObject.getFile().isEmpty());
+            if (path.isEmpty()) {
+                roots.add(syncObject);
+            } else {
+                path.peek().getChildren().add(syncObject);
+            }
+            path.push(syncObject);
+        }
+
+        @Override
+        public void endObject(SyncObject syncObject) {
+            assertTrue(path.pop() == syncObject);
+        }
+
+        @Override
+        public void endObjects() {
+            assertTrue(path.isEmpty());
+            objectsFinished = true;
+        }
+
+        @Override
+        public void handleLink(SyncLink syncLink) {
+            assertTrue(objectsFinished);
+            links.add(syncLink);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.sync.SyncRequest;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.service.sync.SyncDataReader;
+import sernet.verinice.service.sync.SyncDataWriter;
+import sernet.verinice.service.sync.VeriniceArchive;
+
+/**
+ * Tests that a sync request written by {@link SyncDataWriter} contains the same
+ * objects and links as the request read by {@link SyncDataReader}.
+ */
+public class SyncDataWriterTest {
+
+    @Test
+    public void testWriteSyncData() throws IOException, CommandException, JAXBException {
+        for (String vnaFile : SyncDataReaderTest.VNA_FILES) {
+            VeriniceArchive archive = SyncDataReaderTest.createArchive(vnaFile);
+            File xmlFile = File.createTempFile("SyncDataWriterTest", ".xml");
+            try {
+                SyncDataReader reader = archive.createSyncDataReader();
+                SyncRequest header = reader.readHeader();
+                SyncDataWriter writer;
+                try (OutputStream out = new FileOutputStream(xmlFile)) {
+                    writer = new SyncDataWriter(out);
+                    writer.startRequest(header.getSourceId());
+                    reader.read(writer);
+                    writer.endRequest(header.getSyncMapping(), header.getSyncVnaSchemaVersion());
+                }
+
+                SyncRequest written = (SyncRequest) JAXBContext.newInstance(SyncRequest.class)
+                        .createUnmarshaller().unmarshal(xmlFile);
+                SyncData syncData = archive.getSyncData();
+
+                assertEquals(archive.getSourceId(), written.getSourceId());
+                assertEquals(archive.getSyncMapping().getMapObjectType().size(),
+                        written.getSyncMapping().getMapObjectType().size());
+                assertEquals(reader.getNumberOfObjects(), writer.getNumberOfObjects());
+                SyncDataReaderTest.assertObjectsEquals(syncData.getSyncObject(),
+                        written.getSyncData().getSyncObject());
+                assertEquals(syncData.getSyncLink().size(), writer.getNumberOfLinks());
+                for (int i = 0; i < syncData.getSyncLink().size(); i++) {
+                    SyncLink expected = syncData.getSyncLink().get(i);
+                    SyncLink actual = written.getSyncData().getSyncLink().get(i);
+                    assertEquals(expected.getDependant(), actual.getDependant());
+                    assertEquals(expected.getDependency(), actual.getDependency());
+                    assertEquals(expected.getRelationId(), actual.getRelationId());
+                    assertEquals(expected.getComment(), actual.getComment());
+                }
+            } finally {
+                FileUtils.deleteQuietly(xmlFile);
+                archive.clear();
+            }
+        }
+    }
+}
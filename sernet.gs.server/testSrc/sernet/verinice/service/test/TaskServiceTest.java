@@ -213,6 +213,46 @@ public class TaskServiceTest extends CommandServiceProvider {
         assertEquals("Size of task list is not 2", 2, taskListCheck.size());
     }
 
+    @Test
+    public void testSearchPaged() {
+        ITaskParameter searchParameter = new TaskParameter();
+        searchParameter.setProcessKey(IIndividualProcess.KEY);
+        searchParameter.setAllUser(true);
+        searchParameter.setMaxResults(NUMBER_OF_ASSETS / 2 + 1);
+        searchParameter.setFirstResult(0);
+        List<ITask> firstPage = taskService.getTaskList(searchParameter);
+        assertEquals("Size of first page is not " + (NUMBER_OF_ASSETS / 2 + 1),
+                NUMBER_OF_ASSETS / 2 + 1, firstPage.size());
+
+        searchParameter.setFirstResult(NUMBER_OF_ASSETS / 2 + 1);
+        List<ITask> secondPage = taskService.getTaskList(searchParameter);
+        assertEquals("Size of second page is not " + (NUMBER_OF_ASSETS / 2 - 1),
+                NUMBER_OF_ASSETS / 2 - 1, secondPage.size());
+
+        Set<String> taskIds = new HashSet<String>();
+        for (ITask task : firstPage) {
+            taskIds.add(task.getId());
+            assertTrue("Task has no outcomes: " + task.getId(), !task.getOutcomes().isEmpty());
+        }
+        for (ITask task : secondPage) {
+            assertTrue("Task is part of two pages: " + task.getId(), taskIds.add(task.getId()));
+        }
+        assertEquals(NUMBER_OF_ASSETS, taskIds.size());
+
+        searchParameter.setFirstResult(NUMBER_OF_ASSETS);
+        assertTrue(taskService.getTaskList(searchParameter).isEmpty());
+    }
+
+    @Test
+    public void testTaskCount() {
+        ITaskParameter searchParameter = new TaskParameter();
+        searchParameter.setProcessKey(IIndividualProcess.KEY);
+        searchParameter.setAllUser(true);
+        assertEquals(NUMBER_OF_ASSETS, taskService.getTaskCount(searchParameter));
+        assertEquals(taskService.getTaskList(searchParameter).size(),
+                taskService.getTaskCount(searchParameter));
+    }
+
     private List<ITask> getTaskListForPerson(String login) {
         ITaskParameter searchParameter = new TaskParameter();
         searchParameter.setUsername(login);
@@ -21,9 +21,12 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Resource;
 
@@ -71,6 +74,9 @@ public class ValidationServiceTest extends AbstractModernizedBaseProtection {
     
     @Resource(name="huiTypeFactory")
     private HUITypeFactory huiTypeFactory;
+
+    @Resource(name="cnaValidationDAO")
+    private IBaseDao<CnAValidation, Long> validationDao;
     
     @Test
     public void createAndDeleteSubTreeValidations() throws CommandException{
@@ -160,6 +166,64 @@ public class ValidationServiceTest extends AbstractModernizedBaseProtection {
         
     }
 
+    @Test
+    public void createScopeValidations() throws Exception {
+        Organization org = createOrganization();
+        assertNotNull(org);
+        String uuid = createInOrganisation(org, SamtTopic.class, 1).iterator().next();
+        CnATreeElement topic = loadElementByUuid(uuid);
+        assertNotNull(topic);
+        validationService.createValidationsForScope(org.getDbId());
+        assertEquals(3, getSingleElementValidations(topic).size());
+        // validating the scope again does not create validations twice
+        validationService.createValidationsForScope(org.getDbId());
+        assertEquals(3, getSingleElementValidations(topic).size());
+        deleteElement(org);
+    }
+
+    @Test
+    public void scopeAndSingleElementValidationsAreEqual() throws Exception {
+        Organization org = createOrganization();
+        assertNotNull(org);
+        String uuid = createInOrganisation(org, SamtTopic.class, 1).iterator().next();
+        CnATreeElement topic = loadElementByUuid(uuid);
+        assertNotNull(topic);
+        validationService.createValidationsForScope(org.getDbId());
+        Set<String> scopeValidations = toPropertyHintKeys(getSingleElementValidations(topic));
+
+        validationService.deleteValidations(topic.getScopeId(), topic.getDbId());
+        assertTrue(getSingleElementValidations(topic).isEmpty());
+        validationService.createValidationForSingleElement(topic);
+        assertEquals(scopeValidations, toPropertyHintKeys(getSingleElementValidations(topic)));
+        deleteElement(org);
+    }
+
+    @Test
+    public void deleteValidationsOfRemovedRules() throws Exception {
+        Organization org = createOrganization();
+        assertNotNull(org);
+        String uuid = createInOrganisation(org, SamtTopic.class, 1).iterator().next();
+        CnATreeElement topic = loadElementByUuid(uuid);
+        assertNotNull(topic);
+        validationService.createValidationsForScope(org.getDbId());
+        Set<String> hints = toPropertyHintKeys(getSingleElementValidations(topic));
+
+        CnAValidation removedRule = new CnAValidation();
+        removedRule.setElmtDbId(topic.getDbId());
+        removedRule.setScopeId(topic.getScopeId());
+        removedRule.setElementType(topic.getTypeId());
+        removedRule.setElmtTitle(topic.getTitle());
+        removedRule.setPropertyId(SamtTopic.PROP_MATURITY);
+        removedRule.setHintId("removed_rule_hint");
+        validationDao.saveOrUpdate(removedRule);
+        validationDao.flush();
+        assertEquals(hints.size() + 1, getSingleElementValidations(topic).size());
+
+        validationService.createValidationForSingleElement(topic);
+        assertEquals(hints, toPropertyHintKeys(getSingleElementValidations(topic)));
+        deleteElement(org);
+    }
+
     @Test
     // VN-2736
     public void resolveValidationIssuesForRequiredMultiSelectProperty() throws Exception {
@@ -288,5 +352,15 @@ public class ValidationServiceTest extends AbstractModernizedBaseProtection {
         element.setChildren(elementWithChildren.getChildren());
         return element;
     }
-    
+
+    /**
+     * @return The property type id and hint id of every validation
+     */
+    private static Set<String> toPropertyHintKeys(List<CnAValidation> validations) {
+        Set<String> keys = new HashSet<>();
+        for (CnAValidation validation : validations) {
+            keys.add(validation.getPropertyId() + ":" + validation.getHintId());
+        }
+        return keys;
+    }
 }
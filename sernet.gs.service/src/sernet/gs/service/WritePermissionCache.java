@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the roles of users and the write permissions of elements while a
+ * command is executed. The cache is bound to the thread which executes the
+ * command. HibernateCommandService calls {@link #begin()} before and
+ * {@link #end()} after the execution of a command. Commands executed by other
+ * commands share the cache of the outermost command.
+ *
+ * Call {@link #invalidate()} after permissions or roles were changed.
+ * Outside of a command {@link #current()} returns null and the permissions
+ * are checked in the database.
+ */
+public final class WritePermissionCache {
+
+    private static final ThreadLocal<WritePermissionCache> CURRENT = new ThreadLocal<>();
+
+    private int depth = 0;
+
+    private final Map<String, String[]> rolesByUser = new HashMap<>();
+
+    private final Map<String, Set<String>> configurationRolesByUser = new HashMap<>();
+
+    private final Map<String, Map<Integer, Boolean>> writeAllowedByUser = new HashMap<>();
+
+    private WritePermissionCache() {
+        super();
+    }
+
+    /**
+     * Binds a cache to the current thread or increments the nesting level of
+     * the cache if one is bound already.
+     */
+    public static void begin() {
+        WritePermissionCache cache = CURRENT.get();
+        if (cache == null) {
+            cache = new WritePermissionCache();
+            CURRENT.set(cache);
+        }
+        cache.depth++;
+    }
+
+    /**
+     * Decrements the nesting level of the cache of the current thread and
+     * removes the cache when the outermost command is finished.
+     */
+    public static void end() {
+        WritePermissionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.depth--;
+            if (cache.depth <= 0) {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * @return The cache of the current thread or null if no command is
+     *         executed by the current thread
+     */
+    public static WritePermissionCache current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Discards all cached roles and permissions of the current thread.
+     */
+    public static void invalidate() {
+        WritePermissionCache cache = CURRENT.get();
+        if (cache != null) {
+            cache.rolesByUser.clear();
+            cache.configurationRolesByUser.clear();
+            cache.writeAllowedByUser.clear();
+        }
+    }
+
+    /**
+     * @return The cached roles (including application roles) of a user or
+     *         null if the roles are not cached
+     */
+    public String[] getRoles(String username) {
+        return rolesByUser.get(username);
+    }
+
+    public void putRoles(String username, String[] roles) {
+        if (roles != null) {
+            rolesByUser.put(username, roles);
+        }
+    }
+
+    /**
+     * @return The cached roles of the configuration of a user or null if the
+     *         roles are not cached
+     */
+    public Set<String> getConfigurationRoles(String username) {
+        return configurationRolesByUser.get(username);
+    }
+
+    public void putConfigurationRoles(String username, Set<String> roles) {
+        if (roles != null) {
+            configurationRolesByUser.put(username, roles);
+        }
+    }
+
+    /**
+     * @return True if the user has write permission for the element, false if
+     *         not and null if the permission is not cached
+     */
+    public Boolean isWriteAllowed(String username, Integer dbId) {
+        Map<Integer, Boolean> writeAllowed = writeAllowedByUser.get(username);
+        return (writeAllowed != null) ? writeAllowed.get(dbId) : null;
+    }
+
+    /**
+     * @return The db-ids of the elements whose write permission is not cached
+     *         for the user
+     */
+    public List<Integer> getUnknownDbIds(String username, Collection<? extends Integer> dbIds) {
+        Map<Integer, Boolean> writeAllowed = writeAllowedByUser.get(username);
+        Set<Integer> unknownDbIds = new HashSet<>(dbIds.size());
+        for (Integer dbId : dbIds) {
+            if (dbId != null && (writeAllowed == null || !writeAllowed.containsKey(dbId))) {
+                unknownDbIds.add(dbId);
+            }
+        }
+        return new ArrayList<>(unknownDbIds);
+    }
+
+    /**
+     * @param username
+     *            A user name
+     * @param dbIds
+     *            The db-ids of the checked elements
+     * @param writableDbIds
+     *            The db-ids of the checked elements the user has write
+     *            permission for
+     */
+    public void putWriteAllowed(String username, Collection<Integer> dbIds,
+            Collection<Integer> writableDbIds) {
+        Map<Integer, Boolean> writeAllowed = writeAllowedByUser.computeIfAbsent(username,
+                user -> new HashMap<>());
+        for (Integer dbId : dbIds) {
+            writeAllowed.put(dbId, Boolean.FALSE);
+        }
+        for (Integer dbId : writableDbIds) {
+            writeAllowed.put(dbId, Boolean.TRUE);
+        }
+    }
+}
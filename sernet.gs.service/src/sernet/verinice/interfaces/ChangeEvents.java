@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import sernet.verinice.model.common.ChangeLogEntry;
+
+/**
+ * The result of {@link IChangeEventService#getChangeEvents(String, long, String)}.
+ *
+ * The entries contain only the ids, the class and the change type of the
+ * changed elements. Clients load the changed elements by themselves.
+ */
+@SuppressWarnings("serial")
+public class ChangeEvents implements Serializable {
+
+    private final String serverId;
+
+    private final long lastSequence;
+
+    private final boolean complete;
+
+    private final boolean busy;
+
+    private final Date serverTime;
+
+    private final List<ChangeLogEntry> entries;
+
+    /**
+     * @param serverId
+     *            The id of the server which created the sequence numbers
+     * @param lastSequence
+     *            The sequence number of the last published change
+     * @param complete
+     *            false if changes may be missing between the sequence number
+     *            of the client and the first entry
+     * @param busy
+     *            true if the server did not wait for changes because too many
+     *            clients are waiting
+     * @param entries
+     *            The changes
+     */
+    public ChangeEvents(String serverId, long lastSequence, boolean complete, boolean busy,
+            List<ChangeLogEntry> entries) {
+        this.serverId = serverId;
+        this.lastSequence = lastSequence;
+        this.complete = complete;
+        this.busy = busy;
+        this.serverTime = new Date();
+        this.entries = (entries != null) ? new ArrayList<>(entries)
+                : Collections.<ChangeLogEntry> emptyList();
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public boolean isBusy() {
+        return busy;
+    }
+
+    /**
+     * @return The time on the server when the result was created
+     */
+    public Date getServerTime() {
+        return (Date) serverTime.clone();
+    }
+
+    public List<ChangeLogEntry> getEntries() {
+        return entries;
+    }
+}
@@ -18,6 +18,7 @@
 package sernet.verinice.interfaces;
 
 import java.io.Serializable;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.orm.hibernate3.HibernateCallback;
@@ -60,6 +61,15 @@ public interface IBaseDao<T, ID extends Serializable> extends IDao<T, ID> {
     default void checkRights(ID id, ID scopeId) {
     }
 
+    /**
+     * Loads the write permissions of the calling user for the elements with
+     * the given IDs in a few queries. Subsequent calls of the checkRights
+     * methods for these elements in the same command do not query the
+     * database.
+     */
+    default void prefetchRights(Collection<? extends ID> ids) {
+    }
+
     /**
      * Checks if the user calling the function has write permissions for the
      * given entity.
@@ -17,6 +17,7 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
+import java.util.Set;
 
 /**
  *
@@ -30,6 +31,18 @@ public interface ICachedCommand extends ICommand {
     public Object getCacheableResult();
     
     public ICommandService getCommandService();
+
+    /**
+     * Returns the db-ids of the scopes the cacheable result depends on. The
+     * cached result is removed if an element of one of the scopes is changed.
+     * This method is called after the command is executed.
+     * 
+     * @return The db-ids of the scopes or null if the result depends on all
+     *         scopes
+     */
+    default Set<Integer> getCacheScopeIds() {
+        return null;
+    }
     
 
 }
@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+/**
+ * Pushes the changes of elements from the server to rich clients.
+ *
+ * Every change which is logged in the change log by the command service is
+ * published to this service after the transaction is committed. Each change
+ * gets a sequence number. Clients ask for the changes after the last sequence
+ * number they have seen. If there are no new changes the call blocks on the
+ * server until a change is published or a timeout is reached (long polling).
+ * This avoids that every client queries the change log table periodically.
+ *
+ * The changes are held in a bounded buffer in memory. If a client asks for a
+ * sequence number which is no longer in the buffer (or if the server was
+ * restarted), {@link ChangeEvents#isComplete()} is false and the client must
+ * catch up by reading the change log table.
+ */
+public interface IChangeEventService {
+
+    /**
+     * Sequence number to request the current sequence number of the server
+     * without any changes.
+     */
+    long NO_SEQUENCE = -1;
+
+    /**
+     * Returns the changes published after the change with the given sequence
+     * number. Changes made by the client with the given station id are not
+     * returned. Blocks until a change is available or the timeout of the
+     * service is reached.
+     *
+     * @param serverId
+     *            The id of the server returned by the last call or null
+     * @param lastSequence
+     *            The last sequence number seen by the client or
+     *            {@link #NO_SEQUENCE}
+     * @param stationId
+     *            The station id of the client
+     * @return The changes after lastSequence
+     */
+    ChangeEvents getChangeEvents(String serverId, long lastSequence, String stationId);
+}
@@ -17,6 +17,8 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
+import java.util.Collection;
+import java.util.List;
 
 /**
  *
@@ -28,6 +30,21 @@ public interface ICommandCacheClient extends ICommandService {
      * @param command
      */
     public ICommand executeCachableCommand(ICommand command) throws CommandException;
+
+    /**
+     * Executes several independent commands. Results of cached commands are
+     * taken from the cache, all other commands are sent to the server in
+     * batches.
+     * 
+     * @param commands
+     *            The commands to execute
+     * @param parallel
+     *            If true the server executes the commands of a batch in
+     *            parallel
+     * @return The executed commands in the order they were passed
+     */
+    public <T extends ICommand> List<T> executeCommands(List<T> commands, boolean parallel)
+            throws CommandException;
     
     /**
      * 
@@ -36,6 +53,15 @@ public interface ICommandCacheClient extends ICommandService {
     public boolean isEnabled();
     
     public void resetCache();
+
+    /**
+     * Removes all cached results depending on one of the given scopes.
+     * 
+     * @param scopeIds
+     *            The db-ids of changed scopes, if null or if it contains null
+     *            all cached results are removed
+     */
+    public void invalidate(Collection<Integer> scopeIds);
     
     public void setUseCache(boolean useCache);
 
@@ -19,12 +19,52 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
+import java.util.Collection;
+import java.util.Map;
+
 /**
+ * A cache for the titles of elements which can be used concurrently by
+ * several threads. Titles which are not cached are loaded on first access.
+ *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 public interface IElementTitleCache {
 
-    void load(String...typeIds);
+    /**
+     * Loads the titles of all elements of the given types into the cache.
+     *
+     * @param typeIds
+     *            Type ids of elements, if no type id is passed the titles of
+     *            the default types (scopes) are loaded
+     */
+    void load(String... typeIds);
+
+    /**
+     * @param dbId
+     *            The database id of an element
+     * @return The title of the element or null if no element exists
+     */
     String get(Integer dbId);
+
+    /**
+     * Returns the titles of several elements. Titles which are not cached are
+     * loaded with one query.
+     *
+     * @param dbIds
+     *            Database ids of elements
+     * @return A map with the database ids of existing elements as keys and
+     *         their titles as values
+     */
+    Map<Integer, String> get(Collection<Integer> dbIds);
+
     String update(Integer dbId, String title);
+
+    /**
+     * Removes the title of an element from the cache. The title is loaded
+     * again on next access.
+     *
+     * @param dbId
+     *            The database id of an element
+     */
+    void remove(Integer dbId);
 }
@@ -77,4 +77,22 @@ public interface ITaskParameter extends Serializable {
     public void setBlacklist(Set<String> blacklist);
     
     public Set<String> getBlacklist();
+
+    /**
+     * @return The index of the first task of a page or null
+     */
+    Integer getFirstResult();
+
+    void setFirstResult(Integer firstResult);
+
+    /**
+     * @return The maximum number of tasks of a page or null to load all
+     *         tasks. Pages are created before tasks without accessible
+     *         elements are removed, a page may contain less tasks or no
+     *         tasks at all. Use ITaskService#getTaskCount to find the number
+     *         of pages.
+     */
+    Integer getMaxResults();
+
+    void setMaxResults(Integer maxResults);
 }
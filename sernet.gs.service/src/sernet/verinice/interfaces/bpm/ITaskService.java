@@ -72,6 +72,20 @@ public interface ITaskService {
      * 
      */
     List<ITask> getTaskList(ITaskParameter parameter);
+
+    /**
+     * Returns the number of tasks of the current user before tasks without
+     * accessible elements are removed. Use this number to load the task list
+     * in pages, see {@link ITaskParameter#getMaxResults()}.
+     */
+    int getCurrentUserTaskCount(ITaskParameter parameter);
+
+    /**
+     * Returns the number of tasks before tasks without accessible elements
+     * are removed. Use this number to load the task list in pages, see
+     * {@link ITaskParameter#getMaxResults()}.
+     */
+    int getTaskCount(ITaskParameter parameter);
     
     /**
      * Returns uuids of all elements which are related to a task.
@@ -19,7 +19,9 @@
  ******************************************************************************/
 package sernet.verinice.interfaces.graph;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
@@ -37,6 +39,32 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
 
     protected final Logger log = Logger.getLogger(getClass());
 
+    /**
+     * Lookup tables of the vertices, maintained in {@link #addVertex} and
+     * {@link #removeVertex}. The tables are rebuilt if the number of vertices
+     * differs from the number of indexed vertices, e.g. after deserialization,
+     * or if a lookup finds an element which was removed from the underlying
+     * graph directly. Lookups are thread safe as long as no vertices are added
+     * or removed concurrently.
+     */
+    private transient volatile VertexIndex index;
+
+    @Override
+    public void addVertex(CnATreeElement element) {
+        VertexIndex currentIndex = getIndex();
+        if (getGraph().addVertex(element)) {
+            currentIndex.add(element);
+        }
+    }
+
+    @Override
+    public void removeVertex(CnATreeElement element) {
+        VertexIndex currentIndex = getIndex();
+        if (getGraph().removeVertex(element)) {
+            currentIndex.remove(element);
+        }
+    }
+
     @Override
     public void addEdge(Edge edge) {
         getGraph().addEdge(edge.getSource(), edge.getTarget(), edge);
@@ -49,71 +77,86 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
 
     @Override
     public Set<CnATreeElement> getElements(String typeId) {
-        Set<CnATreeElement> elements = new HashSet<CnATreeElement>();
-        Set<CnATreeElement> allElements = getElements();
-
-        if (typeId == null || allElements == null) {
-            return elements;
+        if (typeId == null) {
+            return new HashSet<>();
         }
-
-        for (CnATreeElement element : allElements) {
-            if (typeId.equals(element.getTypeId())) {
-                elements.add(element);
-            }
+        Set<CnATreeElement> elements = getIndex().byTypeId.get(typeId);
+        if (!containsAll(elements)) {
+            elements = rebuildIndex().byTypeId.get(typeId);
         }
-        return elements;
+        return copyOf(elements);
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> Set<T> getElements(Class<T> clazz) {
-        Set<T> elements = new HashSet<T>();
-        Set<CnATreeElement> allElements = getElements();
+        Set<CnATreeElement> elements = getIndex().byClass.get(clazz);
+        if (!containsAll(elements)) {
+            elements = rebuildIndex().byClass.get(clazz);
+        }
+        return (Set<T>) copyOf(elements);
+    }
 
-        for (CnATreeElement element : allElements) {
-            if (element.getClass().equals(clazz)) {
+    /**
+     * @return false if an indexed element was removed from the underlying
+     *         graph directly
+     */
+    private boolean containsAll(Set<CnATreeElement> elements) {
+        return elements == null || getGraph().vertexSet().containsAll(elements);
+    }
 
-                elements.add((T) element);
-            }
+    private static Set<CnATreeElement> copyOf(Set<CnATreeElement> elements) {
+        if (elements == null) {
+            return new HashSet<>();
         }
-
-        return elements;
+        return new HashSet<>(elements);
     }
 
     @Override
     public CnATreeElement getElement(String uuid) {
-        CnATreeElement result = null;
-        Set<CnATreeElement> allElements = getElements();
-        if (uuid == null || allElements == null) {
-            return result;
+        if (uuid == null) {
+            return null;
         }
-
-        for (CnATreeElement element : allElements) {
-            if (uuid.equals(element.getUuid())) {
-                result = element;
-                break;
-            }
+        CnATreeElement element = getIndex().byUuid.get(uuid);
+        if (element != null && !getGraph().containsVertex(element)) {
+            // removed from the underlying graph directly
+            element = rebuildIndex().byUuid.get(uuid);
         }
-
-        return result;
+        return element;
     }
 
     @Override
     public CnATreeElement getElement(Integer dbId) {
-        CnATreeElement result = null;
-        Set<CnATreeElement> allElements = getElements();
-        if (dbId == null || allElements == null) {
-            return result;
+        if (dbId == null) {
+            return null;
+        }
+        CnATreeElement element = getIndex().byDbId.get(dbId);
+        if (element != null && !getGraph().containsVertex(element)) {
+            // removed from the underlying graph directly
+            element = rebuildIndex().byDbId.get(dbId);
         }
+        return element;
+    }
 
-        for (CnATreeElement element : allElements) {
-            if (dbId.equals(element.getDbId())) {
-                result = element;
-                break;
-            }
+    /**
+     * Returns the index of the vertices. The index is rebuilt if the number
+     * of vertices differs from the number of indexed vertices.
+     */
+    private VertexIndex getIndex() {
+        VertexIndex currentIndex = index;
+        if (currentIndex == null || currentIndex.size != getGraph().vertexSet().size()) {
+            currentIndex = rebuildIndex();
         }
+        return currentIndex;
+    }
 
-        return result;
+    private VertexIndex rebuildIndex() {
+        VertexIndex newIndex = new VertexIndex();
+        for (CnATreeElement element : getGraph().vertexSet()) {
+            newIndex.add(element);
+        }
+        index = newIndex;
+        return newIndex;
     }
 
     @Override
@@ -242,4 +285,65 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
 
         return elements;
     }
+
+    /**
+     * Hash indexes of the vertices by UUID, database id, type id and class.
+     */
+    private static final class VertexIndex {
+
+        private final Map<String, CnATreeElement> byUuid = new HashMap<>();
+        private final Map<Integer, CnATreeElement> byDbId = new HashMap<>();
+        private final Map<String, Set<CnATreeElement>> byTypeId = new HashMap<>();
+        private final Map<Class<?>, Set<CnATreeElement>> byClass = new HashMap<>();
+        private int size = 0;
+
+        private void add(CnATreeElement element) {
+            size++;
+            if (element.getUuid() != null && !byUuid.containsKey(element.getUuid())) {
+                byUuid.put(element.getUuid(), element);
+            }
+            if (element.getDbId() != null && !byDbId.containsKey(element.getDbId())) {
+                byDbId.put(element.getDbId(), element);
+            }
+            if (element.getTypeId() != null) {
+                addToSet(byTypeId, element.getTypeId(), element);
+            }
+            addToSet(byClass, element.getClass(), element);
+        }
+
+        private void remove(CnATreeElement element) {
+            size--;
+            if (element.getUuid() != null && byUuid.get(element.getUuid()) == element) {
+                byUuid.remove(element.getUuid());
+            }
+            if (element.getDbId() != null && byDbId.get(element.getDbId()) == element) {
+                byDbId.remove(element.getDbId());
+            }
+            if (element.getTypeId() != null) {
+                removeFromSet(byTypeId, element.getTypeId(), element);
+            }
+            removeFromSet(byClass, element.getClass(), element);
+        }
+
+        private static <K> void addToSet(Map<K, Set<CnATreeElement>> map, K key,
+                CnATreeElement element) {
+            Set<CnATreeElement> elements = map.get(key);
+            if (elements == null) {
+                elements = new HashSet<>();
+                map.put(key, elements);
+            }
+            elements.add(element);
+        }
+
+        private static <K> void removeFromSet(Map<K, Set<CnATreeElement>> map, K key,
+                CnATreeElement element) {
+            Set<CnATreeElement> elements = map.get(key);
+            if (elements != null) {
+                elements.remove(element);
+                if (elements.isEmpty()) {
+                    map.remove(key);
+                }
+            }
+        }
+    }
 }
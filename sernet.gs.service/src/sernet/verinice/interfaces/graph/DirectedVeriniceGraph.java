@@ -43,11 +43,6 @@ public class DirectedVeriniceGraph extends AbstractVeriniceGraph {
         directedGraph = new DirectedMultigraph<>(Edge.class);
     }
 
-    @Override
-    public void addVertex(CnATreeElement element) {
-        directedGraph.addVertex(element);
-    }
-
     @Override
     public Graph<CnATreeElement, Edge> getGraph() {
         return directedGraph;
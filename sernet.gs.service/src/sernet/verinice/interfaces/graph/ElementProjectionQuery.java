@@ -0,0 +1,257 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.hui.common.connect.Entity;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.bsi.risikoanalyse.RisikoMassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.commands.CnATypeMapper;
+
+/**
+ * Loads lightweight elements for a {@link VeriniceGraph} from flat HQL
+ * projections instead of hydrating complete Hibernate entities.
+ *
+ * The first query selects the columns of the element table (db-id, uuid, type,
+ * parent-id, scope-id, ext-id, source-id). The second query selects only the
+ * property rows of the requested property types or all property rows if the
+ * query is created with {@link #ElementProjectionQuery(IBaseDao)}. The elements returned by
+ * this class are transient objects. Their entities contain only the requested
+ * properties. Parent, children and links of the elements are not set, use
+ * {@link CnATreeElement#getParentId()} to find the parent of an element.
+ */
+public class ElementProjectionQuery {
+
+    private static final Logger LOG = Logger.getLogger(ElementProjectionQuery.class);
+
+    private static final String HQL_ELEMENTS = "select elmt.dbId, elmt.uuid, elmt.objectType, "
+            + "elmt.parentId, elmt.scopeId, elmt.extId, elmt.sourceId, entity.entityType "
+            + "from CnATreeElement elmt left join elmt.entity as entity"; //$NON-NLS-1$
+
+    private static final String HQL_PROPERTIES = "select elmt.dbId, props.propertyType, "
+            + "props.propertyValue, index(props) from CnATreeElement elmt "
+            + "join elmt.entity as entity "
+            + "join entity.typedPropertyLists as propertyList "
+            + "join propertyList.properties as props "
+            + "where elmt.dbId in (:dbIds) "
+            + "and props.propertyType in (:propertyTypeIds)"; //$NON-NLS-1$
+
+    private static final String HQL_ALL_PROPERTIES = "select elmt.dbId, props.propertyType, "
+            + "props.propertyValue, index(props) from CnATreeElement elmt "
+            + "join elmt.entity as entity "
+            + "join entity.typedPropertyLists as propertyList "
+            + "join propertyList.properties as props "
+            + "where elmt.dbId in (:dbIds)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final int COLUMN_DB_ID = 0;
+    private static final int COLUMN_UUID = 1;
+    private static final int COLUMN_OBJECT_TYPE = 2;
+    private static final int COLUMN_PARENT_ID = 3;
+    private static final int COLUMN_SCOPE_ID = 4;
+    private static final int COLUMN_EXT_ID = 5;
+    private static final int COLUMN_SOURCE_ID = 6;
+    private static final int COLUMN_ENTITY_TYPE = 7;
+
+    private static final int COLUMN_PROPERTY_TYPE = 1;
+    private static final int COLUMN_PROPERTY_VALUE = 2;
+    private static final int COLUMN_PROPERTY_INDEX = 3;
+
+    private final IBaseDao<CnATreeElement, ? extends Serializable> dao;
+
+    private final String[] propertyTypeIds;
+
+    private final boolean allProperties;
+
+    /**
+     * Creates a query which loads all properties of the elements, e.g. to
+     * compute the titles of elements of different types.
+     *
+     * @param dao
+     *            A DAO to execute the queries
+     */
+    public ElementProjectionQuery(IBaseDao<CnATreeElement, ? extends Serializable> dao) {
+        this.dao = dao;
+        this.propertyTypeIds = new String[0];
+        this.allProperties = true;
+    }
+
+    /**
+     * @param dao
+     *            A DAO to execute the queries
+     * @param propertyTypeIds
+     *            The property type ids which are loaded for every element
+     */
+    public ElementProjectionQuery(IBaseDao<CnATreeElement, ? extends Serializable> dao,
+            String[] propertyTypeIds) {
+        this.dao = dao;
+        this.propertyTypeIds = (propertyTypeIds != null) ? propertyTypeIds.clone()
+                : new String[0];
+        this.allProperties = false;
+    }
+
+    /**
+     * Loads the elements matching all restrictions.
+     *
+     * @param restrictions
+     *            A map with a property path of a CnATreeElement as key (e.g.
+     *            "scopeId" or "uuid") and the allowed values of the property
+     * @return A list of lightweight elements
+     * @throws IllegalStateException
+     *             If an element of an unknown type is found
+     */
+    public List<CnATreeElement> load(Map<String, Object[]> restrictions) {
+        Map<Integer, CnATreeElement> elementsByDbId = loadElements(restrictions);
+        if (!elementsByDbId.isEmpty() && (allProperties || propertyTypeIds.length > 0)) {
+            loadProperties(elementsByDbId);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(elementsByDbId.size() + " elements loaded with properties: "
+                    + (allProperties ? "all" : Arrays.toString(propertyTypeIds)));
+        }
+        return new ArrayList<>(elementsByDbId.values());
+    }
+
+    private Map<Integer, CnATreeElement> loadElements(final Map<String, Object[]> restrictions) {
+        StringBuilder hql = new StringBuilder(HQL_ELEMENTS);
+        final Map<String, Object[]> parameters = new HashMap<>();
+        int i = 0;
+        for (Map.Entry<String, Object[]> restriction : restrictions.entrySet()) {
+            String parameter = "p" + i;
+            hql.append((i == 0) ? " where " : " and ");
+            hql.append("elmt.").append(restriction.getKey()).append(" in (:").append(parameter)
+                    .append(")");
+            parameters.put(parameter, restriction.getValue());
+            i++;
+        }
+        final String query = hql.toString();
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = (List<Object[]>) dao.executeCallback(session -> {
+            Query hqlQuery = session.createQuery(query);
+            for (Map.Entry<String, Object[]> parameter : parameters.entrySet()) {
+                hqlQuery.setParameterList(parameter.getKey(), parameter.getValue());
+            }
+            return hqlQuery.list();
+        });
+        Map<Integer, CnATreeElement> elementsByDbId = new LinkedHashMap<>(rows.size());
+        for (Object[] row : rows) {
+            CnATreeElement element = createElement(row);
+            elementsByDbId.put(element.getDbId(), element);
+        }
+        return elementsByDbId;
+    }
+
+    private void loadProperties(Map<Integer, CnATreeElement> elementsByDbId) {
+        Map<Integer, List<Object[]>> propertiesByDbId = new HashMap<>(elementsByDbId.size());
+        List<Integer> dbIds = new ArrayList<>(elementsByDbId.keySet());
+        for (List<Integer> partition : CollectionUtil.partition(dbIds, MAX_IN_CLAUSE_SIZE)) {
+            for (Object[] row : loadPropertyRows(partition)) {
+                propertiesByDbId.computeIfAbsent((Integer) row[COLUMN_DB_ID],
+                        dbId -> new ArrayList<>()).add(row);
+            }
+        }
+        Comparator<Object[]> byIndex = Comparator
+                .comparing(row -> (Integer) row[COLUMN_PROPERTY_INDEX]);
+        for (Map.Entry<Integer, List<Object[]>> entry : propertiesByDbId.entrySet()) {
+            Entity entity = elementsByDbId.get(entry.getKey()).getEntity();
+            List<Object[]> rows = entry.getValue();
+            Collections.sort(rows, byIndex);
+            for (Object[] row : rows) {
+                entity.createNewProperty((String) row[COLUMN_PROPERTY_TYPE],
+                        (String) row[COLUMN_PROPERTY_VALUE]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Collection<Object[]> loadPropertyRows(final List<Integer> dbIds) {
+        return (Collection<Object[]>) dao.executeCallback(session -> {
+            Query hqlQuery = session
+                    .createQuery(allProperties ? HQL_ALL_PROPERTIES : HQL_PROPERTIES);
+            hqlQuery.setParameterList("dbIds", dbIds);
+            if (!allProperties) {
+                hqlQuery.setParameterList("propertyTypeIds", propertyTypeIds);
+            }
+            return hqlQuery.list();
+        });
+    }
+
+    /**
+     * @throws IllegalStateException
+     *             If no element class is found for the type of the row, the
+     *             element is not dropped silently since callers would miss it
+     *             e.g. in link tables of reports
+     */
+    private static CnATreeElement createElement(Object[] row) {
+        String objectType = (String) row[COLUMN_OBJECT_TYPE];
+        String typeId = (String) row[COLUMN_ENTITY_TYPE];
+        try {
+            CnATreeElement element = newInstance(getElementClass(objectType, typeId));
+            element.setDbId((Integer) row[COLUMN_DB_ID]);
+            element.setUuid((String) row[COLUMN_UUID]);
+            element.setObjectType(objectType);
+            element.setParentId((Integer) row[COLUMN_PARENT_ID]);
+            element.setScopeId((Integer) row[COLUMN_SCOPE_ID]);
+            element.setExtId((String) row[COLUMN_EXT_ID]);
+            element.setSourceId((String) row[COLUMN_SOURCE_ID]);
+            element.setEntity(new Entity(element.getTypeId()));
+            return element;
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not create element of type: " + objectType
+                    + ", db-id: " + row[COLUMN_DB_ID], e);
+        }
+    }
+
+    private static Class<? extends CnATreeElement> getElementClass(String objectType,
+            String typeId) {
+        if (RisikoMassnahmenUmsetzung.HIBERNATE_TYPE_ID.equals(objectType)) {
+            return RisikoMassnahmenUmsetzung.class;
+        }
+        return CnATypeMapper.getClassFromTypeId((typeId != null) ? typeId : objectType);
+    }
+
+    private static CnATreeElement newInstance(Class<? extends CnATreeElement> elementClass)
+            throws ReflectiveOperationException {
+        Constructor<? extends CnATreeElement> constructor = elementClass
+                .getDeclaredConstructor();
+        constructor.setAccessible(true);
+        return constructor.newInstance();
+    }
+}
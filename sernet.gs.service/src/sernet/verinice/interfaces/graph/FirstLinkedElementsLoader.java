@@ -19,6 +19,7 @@
  ******************************************************************************/
 package sernet.verinice.interfaces.graph;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -29,6 +30,7 @@ import org.hibernate.SQLQuery;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.verinice.model.common.CnATreeElement;
 
 /**
@@ -40,6 +42,8 @@ public final class FirstLinkedElementsLoader extends GraphElementLoader {
 
     private static final long serialVersionUID = -6378519669050966133L;
 
+    private static final int MAX_UUIDS_PER_QUERY = 1000;
+
     @Override
     public List<CnATreeElement> loadElements() {
         if (ArrayUtils.isEmpty(getScopeIds())) {
@@ -48,7 +52,28 @@ public final class FirstLinkedElementsLoader extends GraphElementLoader {
                             + getScopeIds());
         }
 
-        return getObjects(getLinkedObjectsOutsideOfScope());
+        Collection<String> uuidToLoad = getLinkedObjectsOutsideOfScope();
+        if (isProjection()) {
+            return getObjectsByProjection(uuidToLoad);
+        }
+        return getObjects(uuidToLoad);
+    }
+
+    /**
+     * Loads lightweight elements for all the uuids in the uuidToLoad
+     * collection.
+     */
+    private List<CnATreeElement> getObjectsByProjection(Collection<String> uuidToLoad) {
+        if (uuidToLoad == null || uuidToLoad.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<CnATreeElement> elementList = new ArrayList<>(uuidToLoad.size());
+        for (List<String> partition : CollectionUtil.partition(new ArrayList<>(uuidToLoad),
+                MAX_UUIDS_PER_QUERY)) {
+            elementList.addAll(createProjectionQuery()
+                    .load(Collections.singletonMap("uuid", partition.toArray())));
+        }
+        return elementList;
     }
 
     /**
@@ -21,8 +21,10 @@ package sernet.verinice.interfaces.graph;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
@@ -53,6 +55,8 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
     private String[] hibernateTypeIds;
     
     private IElementFilter elementFilter;
+
+    private String[] propertyTypeIds;
     
     private transient IBaseDao<CnATreeElement, ? extends Serializable> cnaTreeElementDao;
 
@@ -61,6 +65,9 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
      */
     @Override
     public List<CnATreeElement> loadElements() {
+        if (isProjection()) {
+            return loadElementsByProjection();
+        }
         DetachedCriteria crit = createDefaultCriteria();
         if (getScopeIds() != null && getScopeIds().length > 0) {
             crit.add(Restrictions.in("scopeId", getScopeIds()));
@@ -77,6 +84,26 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         return elementList;
     }
     
+    private List<CnATreeElement> loadElementsByProjection() {
+        Map<String, Object[]> restrictions = new LinkedHashMap<>();
+        if (getScopeIds() != null && getScopeIds().length > 0) {
+            restrictions.put("scopeId", getScopeIds());
+        }
+        if (getTypeIds() != null && getTypeIds().length > 0) {
+            restrictions.put("objectType", getTypeIds());
+        }
+        List<CnATreeElement> elementList = createProjectionQuery().load(restrictions);
+        elementList = filterElements(elementList);
+        if (LOG.isInfoEnabled()) {
+            LOG.info(elementList.size() + " relevant objects found by projection");
+        }
+        return elementList;
+    }
+
+    protected ElementProjectionQuery createProjectionQuery() {
+        return new ElementProjectionQuery(getCnaTreeElementDao(), getPropertyTypeIds());
+    }
+
     private List<CnATreeElement> filterElements(List<CnATreeElement> elementList) {
         if(getElementFilter()==null) {
             return elementList;
@@ -150,6 +177,23 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         this.elementFilter = elementFilter;
     }
     
+    public String[] getPropertyTypeIds() {
+        return (propertyTypeIds != null) ? propertyTypeIds.clone() : null;
+    }
+
+    @Override
+    public void setPropertyTypeIds(String... propertyTypeIds) {
+        this.propertyTypeIds = (propertyTypeIds != null) ? propertyTypeIds.clone() : null;
+    }
+
+    /**
+     * @return true if lightweight elements are loaded by a projection
+     * @see #setPropertyTypeIds(String...)
+     */
+    public boolean isProjection() {
+        return propertyTypeIds != null;
+    }
+
     public IBaseDao<CnATreeElement, ? extends Serializable> getCnaTreeElementDao() {
         return cnaTreeElementDao;
     }
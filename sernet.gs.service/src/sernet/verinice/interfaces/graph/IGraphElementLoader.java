@@ -66,6 +66,20 @@ public interface IGraphElementLoader extends Serializable {
      * @param elementFilter An element filter
      */
     void setElementFilter(IElementFilter elementFilter);
+
+    /**
+     * If this parameter is set the elements are not loaded as complete
+     * Hibernate entities. Lightweight elements are created from a projection
+     * of the element table and the property rows of the given property types.
+     * Entities of the elements contain only these properties.
+     * 
+     * Parent, children and links of lightweight elements are not set.
+     * 
+     * @param propertyTypeIds
+     *            Property type ids such as Asset.PROP_NAME, an empty array
+     *            loads no properties at all
+     */
+    void setPropertyTypeIds(String... propertyTypeIds);
     
     void setCnaTreeElementDao(IBaseDao<CnATreeElement, ? extends Serializable> cnaTreeElementDao);
     
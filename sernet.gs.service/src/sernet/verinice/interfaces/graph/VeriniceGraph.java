@@ -33,6 +33,14 @@ public interface VeriniceGraph {
 
     void addVertex(CnATreeElement element);
 
+    /**
+     * Removes an element and all its edges
+     *
+     * @param element
+     *            The element to remove
+     */
+    void removeVertex(CnATreeElement element);
+
     void addEdge(Edge edge);
 
     /**
@@ -17,23 +17,46 @@
  ******************************************************************************/
 package sernet.verinice.model.bp.risk.configuration;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * Simple short-lived cache for risk configurations. There is no invalidation
- * done and the class is *not* thread-safe.
+ * done. The cache can be used by several threads, e.g. by the parallel
+ * traversals of a link table.
  */
 public class RiskConfigurationCache {
 
-    private final Map<Integer, RiskConfiguration> cache = new HashMap<>();
+    private final Map<Integer, RiskConfiguration> cache = new ConcurrentHashMap<>();
 
     public RiskConfiguration findRiskConfiguration(Integer scopeId) {
+        if (scopeId == null) {
+            return null;
+        }
         return cache.get(scopeId);
     }
 
     public void putRiskConfiguration(Integer scopeId, RiskConfiguration riskConfiguration) {
-        cache.put(scopeId, riskConfiguration);
+        if (scopeId != null && riskConfiguration != null) {
+            cache.put(scopeId, riskConfiguration);
+        }
+    }
+
+    /**
+     * Returns the risk configuration of a scope from the cache. If it is not
+     * cached it is loaded and cached. A configuration is loaded only once
+     * even if several threads request it at the same time.
+     *
+     * @param scopeId
+     *            The db-id of a scope, not null
+     * @param loader
+     *            Loads the configuration of a scope
+     * @return The risk configuration of the scope
+     */
+    public RiskConfiguration getRiskConfiguration(Integer scopeId,
+            Function<Integer, RiskConfiguration> loader) {
+        return cache.computeIfAbsent(scopeId, loader);
     }
 
 }
@@ -44,6 +44,8 @@ public class TaskParameter implements ITaskParameter, Serializable {
     private String processKey;
     private String taskId;
     private Set<String> blacklist;
+    private Integer firstResult;
+    private Integer maxResults;
     
     public TaskParameter() {
         super();
@@ -175,5 +177,25 @@ public class TaskParameter implements ITaskParameter, Serializable {
         this.blacklist = blacklist;
     }
 
+    @Override
+    public Integer getFirstResult() {
+        return firstResult;
+    }
+
+    @Override
+    public void setFirstResult(Integer firstResult) {
+        this.firstResult = firstResult;
+    }
+
+    @Override
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public void setMaxResults(Integer maxResults) {
+        this.maxResults = maxResults;
+    }
+
 
 }
@@ -64,6 +64,11 @@ public class ChangeLogEntry implements Serializable, Comparable<ChangeLogEntry>,
 	private String username;
 	private String uuid;
 
+	/**
+	 * Db-id of the scope of the changed element, not persisted
+	 */
+	private Integer scopeId;
+
 	/**
 	 * Session ID to identify changes made by a particular client during its
 	 * lifetime. Static value is initialized on client and used in commands that
@@ -110,6 +115,7 @@ public class ChangeLogEntry implements Serializable, Comparable<ChangeLogEntry>,
 
 		this.elementId = element.getDbId();
 		this.uuid = element.getUuid();
+		this.scopeId = element.getScopeId();
 		this.elementClass = element.getClass().getName();
 		this.change = change;
 		this.username = username;
@@ -202,6 +208,18 @@ public class ChangeLogEntry implements Serializable, Comparable<ChangeLogEntry>,
         this.uuid = uuid;
     }
 
+    /**
+     * @return The db-id of the scope of the changed element or null if the
+     *         entry was read from the database
+     */
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    public void setScopeId(Integer scopeId) {
+        this.scopeId = scopeId;
+    }
+
     /* (non-Javadoc)
      * @see java.lang.Comparable#compareTo(java.lang.Object)
      */
@@ -100,6 +100,8 @@ public abstract class CnATreeElement implements Serializable, IBSIModelListener,
 
     private String sourceId;
 
+    private Integer readAclId;
+
     private String objectType;
 
     private String iconPath;
@@ -359,6 +361,22 @@ public abstract class CnATreeElement implements Serializable, IBSIModelListener,
         this.scopeId = scopeId;
     }
 
+    /**
+     * @return The db-id of the {@link ReadAcl} of this element or null if the
+     *         read ACL of this element was not computed yet
+     */
+    public Integer getReadAclId() {
+        return readAclId;
+    }
+
+    /**
+     * The read ACL is maintained by ReadAclUpdater only. Hibernate never
+     * writes this value.
+     */
+    public void setReadAclId(Integer readAclId) {
+        this.readAclId = readAclId;
+    }
+
     public String getObjectType() {
         return objectType;
     }
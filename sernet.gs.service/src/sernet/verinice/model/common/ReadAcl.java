@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * A set of roles with read permission. All elements whose permissions grant
+ * read access to exactly the same roles share one ReadAcl. The db-id of the
+ * ReadAcl of an element is stored in column read_acl_id of table
+ * cnatreeelement.
+ *
+ * The userAccessReadFilter checks the roles of the current user against the
+ * small table read_acl_role instead of the permission table. The key of a
+ * ReadAcl is a SHA-256 hash of the sorted role names.
+ */
+@SuppressWarnings("serial")
+public class ReadAcl implements Serializable {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private Integer dbId;
+
+    private String aclKey;
+
+    private Set<String> roles = new HashSet<>();
+
+    protected ReadAcl() {
+        // Constructor for Hibernate - does intentionally nothing.
+    }
+
+    public ReadAcl(Collection<String> roles) {
+        this.roles = new HashSet<>(roles);
+        this.aclKey = createKey(roles);
+    }
+
+    /**
+     * @param permissions
+     *            The permissions of an element, may be null
+     * @return The sorted names of the roles with read permission
+     */
+    public static SortedSet<String> getReadRoles(Collection<Permission> permissions) {
+        SortedSet<String> roles = new TreeSet<>();
+        if (permissions != null) {
+            for (Permission permission : permissions) {
+                if (permission.isReadAllowed()) {
+                    roles.add(permission.getRole());
+                }
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * @param roles
+     *            The names of roles with read permission
+     * @return The key of the ReadAcl for the roles
+     */
+    public static String createKey(Collection<String> roles) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            for (String role : new TreeSet<>(roles)) {
+                digest.update(role.getBytes(StandardCharsets.UTF_8));
+                // role names never contain a line feed
+                digest.update((byte) '\n');
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    public Integer getDbId() {
+        return dbId;
+    }
+
+    public void setDbId(Integer dbId) {
+        this.dbId = dbId;
+    }
+
+    public String getAclKey() {
+        return aclKey;
+    }
+
+    public void setAclKey(String aclKey) {
+        this.aclKey = aclKey;
+    }
+
+    public Set<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(Set<String> roles) {
+        this.roles = roles;
+    }
+}
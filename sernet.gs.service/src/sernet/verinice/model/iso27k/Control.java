@@ -23,6 +23,7 @@ import java.util.Collection;
 import java.util.Date;
 
 import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.EntityReadView;
 import sernet.hui.common.connect.IAbbreviatedElement;
 import sernet.hui.common.connect.ITaggableElement;
 import sernet.hui.common.connect.Property;
@@ -201,6 +202,27 @@ public class Control extends CnATreeElement
     }
 
 
+	/**
+	 * @param view A read view of the entity of a control
+	 * @return The implementation state of a control
+	 * @see #getImplementation(Entity)
+	 */
+	public static String getImplementation(EntityReadView view) {
+	    String value = view.getFirstRawValue(view.getLayout().getSlot(PROP_IMPL));
+	    if (value == null || value.isEmpty()) {
+	        return IMPLEMENTED_NOTEDITED;
+	    }
+	    return value;
+	}
+
+	public static boolean isImplemented(EntityReadView view) {
+	    return getImplementation(view).equals(IMPLEMENTED_YES);
+	}
+
+	public static boolean isPlanned(EntityReadView view) {
+	    return !getImplementation(view).equals(IMPLEMENTED_NA);
+	}
+
 	public static boolean isImplemented(Entity entity) {
 	    return getImplementation(entity).equals(IMPLEMENTED_YES);
 	}
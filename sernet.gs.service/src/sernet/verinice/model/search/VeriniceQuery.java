@@ -39,6 +39,8 @@ public class VeriniceQuery implements Serializable{
 
     private int limit = 0;
 
+    private int offset = 0;
+
     private String query = EMPTY_QUERY;
     
     private int scopeId = -1;
@@ -85,6 +87,18 @@ public class VeriniceQuery implements Serializable{
         this.limit = limit;
     }
 
+    /**
+     * The number of hits of an element type which are skipped. Use this to
+     * page through the hits of a single element type.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    public void setOffset(int offset) {
+        this.offset = (offset > 0) ? offset : 0;
+    }
+
     public String getQuery() {
         return escapeQuery(query);
     }
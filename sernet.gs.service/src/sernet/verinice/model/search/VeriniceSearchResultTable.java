@@ -49,6 +49,8 @@ public class VeriniceSearchResultTable implements Serializable {
 
     private int limit = 0;
 
+    private long totalHits = -1;
+
     private String[] propertyTypeIds;
 
     /**
@@ -178,6 +180,19 @@ public class VeriniceSearchResultTable implements Serializable {
         this.parent = parent;
     }
 
+    /**
+     * @return The number of elements of the type matching the query, this
+     *         may be more than the number of rows of this table or -1 if the
+     *         number is not known
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public void setTotalHits(long totalHits) {
+        this.totalHits = totalHits;
+    }
+
     public int getLimit() {
         return limit;
     }
@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.text.DateFormat;
@@ -16,6 +17,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -24,6 +26,10 @@ import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,6 +48,8 @@ import ITBP2VNA.generated.module.ElementalthreatRef;
 import ITBP2VNA.generated.module.Requirement;
 import ITBP2VNA.generated.module.RequirementRef;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IAuthService;
+import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.model.bp.IBpGroup;
@@ -58,12 +66,13 @@ import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Link;
+import sernet.verinice.model.common.Permission;
 import sernet.verinice.service.bp.LoadBpModel;
 import sernet.verinice.service.bp.exceptions.CreateBPElementException;
 import sernet.verinice.service.bp.importer.html.HtmlHelper;
-import sernet.verinice.service.commands.CreateElement;
+import sernet.verinice.service.commands.CnATypeMapper;
 import sernet.verinice.service.commands.CreateITNetwork;
-import sernet.verinice.service.commands.CreateMultipleLinks;
+import sernet.verinice.service.commands.ReadAclUpdater;
 import sernet.verinice.service.commands.UpdateElement;
 
 /*******************************************************************************
@@ -90,6 +99,11 @@ import sernet.verinice.service.commands.UpdateElement;
  * this class transform the "New ITBP Compendium", first released in February of
  * 2018 to a vna-file, for the usage with verinice
  *
+ * The import runs in three stages: The XML files are parsed in parallel, the
+ * element tree is created in memory and finally all elements and links are
+ * saved in one flush of the Hibernate session with JDBC batching. The duration
+ * of every stage is logged.
+ *
  * @author Sebastian Hagedorn sh[at]sernet.de
  *
  */
@@ -116,6 +130,7 @@ public class BpImporter {
 
     ICommandService commandService;
     IDAOFactory daoFactory;
+    IAuthService authService;
 
     private static final String SUBDIRECTORY_MODULES = "bausteine";
     private static final String SUBDIRECTORY_THREATS = "elementare_gefaehrdungen_1";
@@ -131,6 +146,10 @@ public class BpImporter {
     private Map<String, BpRequirement> addedReqs = new HashMap<>();
     private Map<String, BpRequirementGroup> addedModules = new HashMap<>();
 
+    // new elements in order of creation, parents are created before children
+    private List<CnATreeElement> newElements = new ArrayList<>();
+    private List<Link> newLinks = new ArrayList<>();
+
     public BpImporter(String xmlRoot) {
         this.xmlRootDirectory = xmlRoot;
     }
@@ -154,6 +173,7 @@ public class BpImporter {
 
         ImportData importData = parseContent(rootDir);
         ImportMetadata importMetadata = parseMetadataFiles(rootDir);
+        long parsingReady = System.currentTimeMillis();
 
         LOG.debug("Successfully parsed modules:\t" + importData.modules.size());
         LOG.debug("Successfully parsed threats:\t" + importData.threats.size());
@@ -161,7 +181,7 @@ public class BpImporter {
                 + importData.implementationHints.size());
 
         long veryBeginning = System.currentTimeMillis();
-        ItNetwork rootNetwork = prepareITNetwork(importMetadata);
+        prepareITNetwork(importMetadata);
         long itnetworkReady = System.currentTimeMillis();
         LOG.debug("ITNetwork prepared, took :\t"
                 + (itnetworkReady - veryBeginning) / MILLIS_PER_SECOND);
@@ -190,10 +210,59 @@ public class BpImporter {
         long safeguardsReady = System.currentTimeMillis();
         LOG.debug(
                 "Safeguards ready, took:\t" + (safeguardsReady - modulesReady) / MILLIS_PER_SECOND);
-        updateElement(rootNetwork);
-        LOG.debug("ItNetwork updated");
-        LOG.debug("Import finished, took:\t"
-                + (System.currentTimeMillis() - startImport) / MILLIS_PER_SECOND);
+        persistElements();
+        long importReady = System.currentTimeMillis();
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Import of release " + importMetadata.release + " finished, elements: "
+                    + newElements.size() + ", links: " + newLinks.size() + ", parsing: "
+                    + (parsingReady - startImport) + " ms, element tree: "
+                    + (safeguardsReady - parsingReady) + " ms, saving: "
+                    + (importReady - safeguardsReady) + " ms, total: "
+                    + (importReady - startImport) + " ms");
+        }
+    }
+
+    /**
+     * Saves the elements and links created in memory. The inserts are sent to
+     * the database with JDBC batching when the session is flushed.
+     */
+    private void persistElements() {
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory()
+                .getDAO(CnATreeElement.class);
+        for (CnATreeElement element : newElements) {
+            dao.saveOrUpdate(element);
+        }
+        persistLinks(getDaoFactory().getDAO(CnALink.class), newLinks);
+        dao.flush();
+        if (getAuthService().isPermissionHandlingNeeded()) {
+            new ReadAclUpdater(dao).update(newElements);
+        }
+    }
+
+    /**
+     * Saves links with the link DAO like
+     * {@link sernet.verinice.service.commands.CreateMultipleLinks} does, the
+     * DAO notifies the dependency of every link about the change. Duplicate
+     * links and links with a missing element are ignored.
+     *
+     * @return The number of saved links
+     */
+    static int persistLinks(IBaseDao<CnALink, Serializable> linkDao, List<Link> links) {
+        Map<CnALink.Id, Link> linksById = new LinkedHashMap<>(links.size());
+        for (Link link : links) {
+            if (link.getFrom() == null || link.getTo() == null) {
+                LOG.warn("Link is ignored, element not found, link type: "
+                        + link.getRelationId());
+            } else {
+                linksById.putIfAbsent(new CnALink.Id(link.getFrom().getDbId(),
+                        link.getTo().getDbId(), link.getRelationId()), link);
+            }
+        }
+        for (Link link : linksById.values()) {
+            linkDao.merge(new CnALink(link.getFrom(), link.getTo(), link.getRelationId(),
+                    link.getComment()), true);
+        }
+        return linksById.size();
     }
 
     /**
@@ -204,7 +273,8 @@ public class BpImporter {
      *
      * When subdirectories are found, the parsing of the BSI-XML takes place,
      * the three Sets, passed as parameter, will be filled with the Java-Objects
-     * representing the XML-Files
+     * representing the XML-Files. The files are parsed in parallel, files which
+     * can not be parsed are logged and ignored.
      */
     private static ImportData parseContent(File rootDir) {
 
@@ -213,16 +283,49 @@ public class BpImporter {
         File implHintDir = rootDir.toPath().resolve(SUBDIRECTORY_IMPL_HINTS).toFile();
 
         ITBPParser itbpParser = ITBPParser.getInstance();
-        Set<Document> modules = getXMLFiles(moduleDir).stream().map(itbpParser::parseModule)
-                .collect(Collectors.toSet());
-        Set<ITBP2VNA.generated.threat.Document> threats = getXMLFiles(threatDir).stream()
-                .map(itbpParser::parseThreat).collect(Collectors.toSet());
-        Set<ITBP2VNA.generated.implementationhint.Document> implementationHints = getXMLFiles(
-                implHintDir).stream().map(itbpParser::parseImplementationHint)
-                        .collect(Collectors.toSet());
+        ExecutorService parserExecutor = Executors
+                .newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<Document>> modules = parseFiles(parserExecutor, getXMLFiles(moduleDir),
+                    itbpParser::parseModule);
+            List<Future<ITBP2VNA.generated.threat.Document>> threats = parseFiles(
+                    parserExecutor, getXMLFiles(threatDir), itbpParser::parseThreat);
+            List<Future<ITBP2VNA.generated.implementationhint.Document>> implementationHints = parseFiles(
+                    parserExecutor, getXMLFiles(implHintDir),
+                    itbpParser::parseImplementationHint);
+            return new ImportData(getDocuments(modules), getDocuments(threats),
+                    getDocuments(implementationHints));
+        } finally {
+            parserExecutor.shutdownNow();
+        }
 
-        return new ImportData(modules, threats, implementationHints);
+    }
 
+    private static <T> List<Future<T>> parseFiles(ExecutorService executor, List<File> files,
+            Function<File, T> parser) {
+        List<Future<T>> documents = new ArrayList<>(files.size());
+        for (File file : files) {
+            documents.add(executor.submit(() -> parser.apply(file)));
+        }
+        return documents;
+    }
+
+    private static <T> Set<T> getDocuments(List<Future<T>> futures) {
+        Set<T> documents = new HashSet<>(futures.size());
+        for (Future<T> future : futures) {
+            try {
+                T document = future.get();
+                if (document != null) {
+                    documents.add(document);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Parsing of XML files interrupted", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Error while parsing XML files", e.getCause());
+            }
+        }
+        return documents;
     }
 
     /**
@@ -435,20 +538,15 @@ public class BpImporter {
         for (CnATreeElement child : systemSafeguardGroup.getChildren()) {
             if (SafeguardGroup.TYPE_ID.equals(child.getTypeId())) {
                 subGroups.add((SafeguardGroup) child);
-                updateElement(child);
             }
         }
 
         for (CnATreeElement child : processSafeguardGroup.getChildren()) {
             if (SafeguardGroup.TYPE_ID.equals(child.getTypeId())) {
                 subGroups.add((SafeguardGroup) child);
-                updateElement(child);
             }
         }
 
-        updateElement(processSafeguardGroup);
-        updateElement(systemSafeguardGroup);
-
         for (ITBP2VNA.generated.implementationhint.Document bsiSafeguard : implementationHints) {
             SafeguardGroup safeGuardParent = null;
             for (SafeguardGroup candidate : subGroups) {
@@ -551,25 +649,29 @@ public class BpImporter {
     }
 
     /**
-     * simply creates a {@link CnATreeElement}
+     * simply creates a {@link CnATreeElement} in memory, the element is saved
+     * by {@link #persistElements()}
      */
     private CnATreeElement createElement(String typeId, CnATreeElement parent, String title,
             String releasePropertyId, String release) throws CreateBPElementException {
-        CreateElement<CnATreeElement> command = new CreateElement<CnATreeElement>(parent, typeId,
-                title) {
-            private static final long serialVersionUID = 8513409513498160007L;
-
-            @Override
-            protected CnATreeElement saveElement() {
-                if (release != null) {
-                    element.setSimpleProperty(releasePropertyId, release);
-                }
-                return super.saveElement();
-            }
-        };
         try {
-            return getCommandService().executeCommand(command).getNewElement();
-        } catch (CommandException e) {
+            Class<CnATreeElement> clazz = CnATypeMapper.getClassFromTypeId(typeId);
+            CnATreeElement element = clazz.getConstructor(CnATreeElement.class)
+                    .newInstance(parent);
+            element.setTitel(title);
+            if (release != null) {
+                element.setSimpleProperty(releasePropertyId, release);
+            }
+            if (getAuthService().isPermissionHandlingNeeded()) {
+                element.setPermissions(
+                        Permission.clonePermissionSet(element, parent.getPermissions()));
+            }
+            element.getEntity().trackCreation(getAuthService().getUsername());
+            parent.addChild(element);
+            element.setParentAndScope(parent);
+            newElements.add(element);
+            return element;
+        } catch (ReflectiveOperationException e) {
             throw new CreateBPElementException(e, "Error creating BP-Element:\t" + title
                     + " in container:\t" + parent.getTitle() + " of type " + typeId + " failed");
         }
@@ -644,7 +746,7 @@ public class BpImporter {
      * create links between {@link BpThreat} and related {@link BpRequirement}
      * like they are defined in the given {@link Document}
      */
-    private void linkElementalThreats(Document bsiModule) throws CreateBPElementException {
+    private void linkElementalThreats(Document bsiModule) {
         List<Link> linkList = new ArrayList<>();
         for (RequirementRef reqRef : bsiModule.getCrossreferences().getRequirementRef()) {
             String reqIdentifier = reqRef.getIdentifier();
@@ -661,12 +763,7 @@ public class BpImporter {
                 }
             }
         }
-        CreateMultipleLinks linkCommand = new CreateMultipleLinks(linkList);
-        try {
-            getCommandService().executeCommand(linkCommand);
-        } catch (CommandException e) {
-            throw new CreateBPElementException(e, "Error creating links");
-        }
+        newLinks.addAll(linkList);
     }
 
     /**
@@ -717,7 +814,6 @@ public class BpImporter {
                 if (StringUtils.isNotEmpty(plainDescription)) {
                     veriniceThreat.setObjectBrowserDescription(plainDescription);
                 }
-                veriniceThreat = (BpThreat) updateElement(veriniceThreat);
                 addedThreats.put(bsiThreat.getIdentifier(), veriniceThreat);
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Threat : \t" + veriniceThreat.getTitle() + " created");
@@ -824,12 +920,7 @@ public class BpImporter {
             }
         }
 
-        CreateMultipleLinks linkCommand = new CreateMultipleLinks(links);
-        try {
-            getCommandService().executeCommand(linkCommand);
-        } catch (CommandException e) {
-            throw new CreateBPElementException(e, "Error creating links for safeguards");
-        }
+        newLinks.addAll(links);
     }
 
     /**
@@ -843,12 +934,11 @@ public class BpImporter {
         if (parent != null) {
             Safeguard safeguard = (Safeguard) createElement(Safeguard.TYPE_ID, parent,
                     bsiSafeguard.getTitle(), Safeguard.PROP_RELEASE, importMetadata.release);
-            updateElement(safeguard);
             safeguard = setSafeguardProperties(bsiSafeguard, qualifier, lastChange, safeguard);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Safeguard : \t" + safeguard.getTitle() + "created ");
             }
-            return (Safeguard) updateElement(safeguard);
+            return safeguard;
         }
         return null;
     }
@@ -938,7 +1028,6 @@ public class BpImporter {
                             moduleParent, moduleTitle, SafeguardGroup.PROP_RELEASE,
                             importMetadata.release);
                     safeguardParent.setIdentifier(moduleIdentifier);
-                    safeguardParent = (SafeguardGroup) updateElement(safeguardParent);
                 }
             }
         }
@@ -1061,7 +1150,7 @@ public class BpImporter {
             veriniceRequirement.setSecurityLevel(level);
 
             addedReqs.put(bsiRequirement.getIdentifier(), veriniceRequirement);
-            return (BpRequirement) updateElement(veriniceRequirement);
+            return veriniceRequirement;
         } else {
             return addedReqs.get(bsiRequirement.getIdentifier());
         }
@@ -1152,6 +1241,22 @@ public class BpImporter {
         this.commandService = commandService;
     }
 
+    public IAuthService getAuthService() {
+        return authService;
+    }
+
+    public void setAuthService(IAuthService authService) {
+        this.authService = authService;
+    }
+
+    /**
+     * @return all elements created by the import, parents are created before
+     *         their children
+     */
+    public List<CnATreeElement> getNewElements() {
+        return newElements;
+    }
+
     /**
      * @return the daoFactory
      */
@@ -1,10 +1,11 @@
 package sernet.verinice.service.bp.importer;
 
 import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
 
 import org.apache.log4j.Logger;
 
@@ -31,6 +32,11 @@ import ITBP2VNA.generated.module.Document;
  ******************************************************************************/
 
 /**
+ * Parses the XML documents of the ITBP compendium.
+ *
+ * The parser can be used by several threads. A JAXBContext is created once for
+ * every document class, unmarshallers are created for every document.
+ *
  * @author Sebastian Hagedorn sh[at]sernet.de
  *
  */
@@ -38,73 +44,50 @@ public final class ITBPParser {
 
     private static final Logger LOG = Logger.getLogger(ITBPParser.class);
 
-    private static ITBPParser instance;
+    private static final ITBPParser instance = new ITBPParser();
+
+    private final ConcurrentMap<Class<?>, JAXBContext> contextsByClass = new ConcurrentHashMap<>();
 
     private ITBPParser() {
     }
 
     public Document parseModule(File moduleXMLFile) {
-
-        Document moduleDocument = null;
-
-        try {
-
-            JAXBContext context = JAXBContext.newInstance(Document.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            moduleDocument = (Document) unmarshaller.unmarshal(moduleXMLFile);
-
-        } catch (JAXBException e) {
-            logParseException(moduleXMLFile, e);
-        }
-
-        return moduleDocument;
-
+        return unmarshal(moduleXMLFile, Document.class);
     }
 
     public ITBP2VNA.generated.threat.Document parseThreat(File threatXMLFile) {
-
-        ITBP2VNA.generated.threat.Document threadDocument = null;
-
-        try {
-
-            JAXBContext context = JAXBContext.newInstance(ITBP2VNA.generated.threat.Document.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            threadDocument = (ITBP2VNA.generated.threat.Document) unmarshaller
-                    .unmarshal(threatXMLFile);
-
-        } catch (JAXBException e) {
-            logParseException(threatXMLFile, e);
-        }
-
-        return threadDocument;
-
+        return unmarshal(threatXMLFile, ITBP2VNA.generated.threat.Document.class);
     }
 
     public ITBP2VNA.generated.implementationhint.Document parseImplementationHint(
             File implHintXMLFile) {
+        return unmarshal(implHintXMLFile,
+                ITBP2VNA.generated.implementationhint.Document.class);
+    }
 
-        ITBP2VNA.generated.implementationhint.Document implHintDocument = null;
-
+    private <T> T unmarshal(File xmlFile, Class<T> documentClass) {
         try {
-
-            JAXBContext context = JAXBContext
-                    .newInstance(ITBP2VNA.generated.implementationhint.Document.class);
-            Unmarshaller unmarshaller = context.createUnmarshaller();
-            implHintDocument = (ITBP2VNA.generated.implementationhint.Document) unmarshaller
-                    .unmarshal(implHintXMLFile);
-
+            return documentClass
+                    .cast(getContext(documentClass).createUnmarshaller().unmarshal(xmlFile));
         } catch (JAXBException e) {
-            logParseException(implHintXMLFile, e);
+            logParseException(xmlFile, e);
+            return null;
         }
+    }
 
-        return implHintDocument;
-
+    private JAXBContext getContext(Class<?> documentClass) throws JAXBException {
+        JAXBContext context = contextsByClass.get(documentClass);
+        if (context == null) {
+            context = JAXBContext.newInstance(documentClass);
+            JAXBContext existingContext = contextsByClass.putIfAbsent(documentClass, context);
+            if (existingContext != null) {
+                context = existingContext;
+            }
+        }
+        return context;
     }
 
     public static ITBPParser getInstance() {
-        if (instance == null) {
-            instance = new ITBPParser();
-        }
         return instance;
     }
 
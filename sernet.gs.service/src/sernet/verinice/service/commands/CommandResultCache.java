@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.ICachedCommand;
+
+/**
+ * A size bounded cache for the results of {@link ICachedCommand}s. The cache
+ * is used on the server by the command service and on the client by the
+ * command cache client.
+ *
+ * The key of an entry is the cache id of a command and a context, e.g. the
+ * user name and roles of the executing user. Every entry depends on a set of
+ * scopes returned by {@link ICachedCommand#getCacheScopeIds()}. If an element
+ * of a scope is changed, {@link #invalidate(Collection)} removes all entries
+ * depending on this scope and all entries without a set of scopes. If the
+ * cache contains more than the maximum number of entries, the least recently
+ * used entry is removed.
+ *
+ * A result is only stored if the cache was not invalidated while the command
+ * was executed, see {@link #getVersion()}. Cached results are shared by all
+ * callers and must not be changed.
+ */
+public class CommandResultCache {
+
+    private static final Logger LOG = Logger.getLogger(CommandResultCache.class);
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final Object lock = new Object();
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long version = 0;
+
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    private long timeToLive = 0;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    private long invalidations = 0;
+
+    /**
+     * @param context
+     *            A context of the command execution, e.g. the user name and
+     *            roles
+     * @param command
+     *            A command
+     * @return The key of the command result in this cache
+     */
+    public static String createKey(String context, ICachedCommand command) {
+        return ((context != null) ? context : "") + KEY_SEPARATOR + command.getCacheID();
+    }
+
+    /**
+     * @param key
+     *            A key created by {@link #createKey(String, ICachedCommand)}
+     * @return The cached result or null if there is no valid result
+     */
+    public Object get(String key) {
+        synchronized (lock) {
+            Entry entry = entries.get(key);
+            if (entry != null && isExpired(entry)) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.result;
+        }
+    }
+
+    /**
+     * Returns the version of the cache which is increased by every
+     * invalidation. Get the version before the command is executed and pass
+     * it to {@link #put(String, Object, Set, long)}.
+     */
+    public long getVersion() {
+        synchronized (lock) {
+            return version;
+        }
+    }
+
+    /**
+     * Stores the result of a command if the cache was not invalidated since
+     * the given version.
+     *
+     * @param key
+     *            A key created by {@link #createKey(String, ICachedCommand)}
+     * @param result
+     *            The result of the command
+     * @param scopeIds
+     *            The db-ids of the scopes the result depends on or null if
+     *            the result depends on all scopes
+     * @param versionBeforeExecution
+     *            The version of the cache before the command was executed
+     * @return true if the result was stored
+     */
+    public boolean put(String key, Object result, Set<Integer> scopeIds,
+            long versionBeforeExecution) {
+        if (result == null || maxEntries <= 0) {
+            return false;
+        }
+        Set<Integer> scopes = (scopeIds != null) ? new HashSet<>(scopeIds) : null;
+        synchronized (lock) {
+            if (version != versionBeforeExecution) {
+                return false;
+            }
+            entries.put(key, new Entry(result, scopes, System.currentTimeMillis()));
+            evict();
+            return true;
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions++;
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return timeToLive > 0 && System.currentTimeMillis() - entry.created > timeToLive;
+    }
+
+    /**
+     * Removes all entries depending on one of the given scopes and all
+     * entries which depend on all scopes.
+     *
+     * @param scopeIds
+     *            The db-ids of changed scopes, if null or if it contains null
+     *            all entries are removed
+     */
+    public void invalidate(Collection<Integer> scopeIds) {
+        if (scopeIds == null || scopeIds.contains(null)) {
+            invalidateAll();
+            return;
+        }
+        if (scopeIds.isEmpty()) {
+            return;
+        }
+        int removed = 0;
+        synchronized (lock) {
+            version++;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Set<Integer> scopes = iterator.next().scopeIds;
+                if (scopes == null || !Collections.disjoint(scopes, scopeIds)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+            invalidations += removed;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(removed + " cached result(s) invalidated, changed scopes: " + scopeIds);
+        }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        synchronized (lock) {
+            version++;
+            invalidations += entries.size();
+            entries.clear();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("All cached results invalidated");
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        synchronized (lock) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (lock) {
+            return misses;
+        }
+    }
+
+    public long getEvictions() {
+        synchronized (lock) {
+            return evictions;
+        }
+    }
+
+    public long getInvalidations() {
+        synchronized (lock) {
+            return invalidations;
+        }
+    }
+
+    /**
+     * @return The ratio of hits to all requests or 0 if there was no request
+     */
+    public double getHitRatio() {
+        synchronized (lock) {
+            long requests = hits + misses;
+            return (requests > 0) ? (double) hits / requests : 0;
+        }
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * @param maxEntries
+     *            Maximum number of cached results, 0 disables the cache
+     */
+    public void setMaxEntries(int maxEntries) {
+        synchronized (lock) {
+            this.maxEntries = maxEntries;
+            evict();
+        }
+    }
+
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    /**
+     * @param timeToLive
+     *            Maximum age of a cached result in milliseconds, 0 if the
+     *            age is not limited
+     */
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return "CommandResultCache [size=" + entries.size() + ", maxEntries=" + maxEntries
+                    + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions
+                    + ", invalidations=" + invalidations + "]";
+        }
+    }
+
+    private static final class Entry {
+        private final Object result;
+        private final Set<Integer> scopeIds;
+        private final long created;
+
+        private Entry(Object result, Set<Integer> scopeIds, long created) {
+            this.result = result;
+            this.scopeIds = scopeIds;
+            this.created = created;
+        }
+    }
+}
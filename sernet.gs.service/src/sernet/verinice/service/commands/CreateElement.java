@@ -146,6 +146,9 @@ public class CreateElement<T extends CnATreeElement> extends ChangeLoggingComman
             Optional.ofNullable(element).map(CnATreeElement::getEntity)
                     .ifPresent(entity -> entity.trackCreation(getAuthService().getUsername()));
             element = saveElement();
+            if (authService.isPermissionHandlingNeeded() && element != null) {
+                updateReadAcls(element);
+            }
         } catch (Exception e) {
             LOG.error("Error while creating element", e);
             throw new RuntimeCommandException(e);
@@ -181,6 +184,13 @@ public class CreateElement<T extends CnATreeElement> extends ChangeLoggingComman
         return element;
     }
 
+    private void updateReadAcls(CnATreeElement newElement) {
+        List<CnATreeElement> elements = new ArrayList<>(newElement.getChildren().size() + 1);
+        elements.add(newElement);
+        elements.addAll(newElement.getChildren());
+        new ReadAclUpdater(getContainerDAO()).update(elements);
+    }
+
     private void setScopeOfScope(CnATreeElement orgOrItVerbund) {
         orgOrItVerbund.setScopeId(orgOrItVerbund.getDbId());
         for (CnATreeElement child : orgOrItVerbund.getChildren()) {
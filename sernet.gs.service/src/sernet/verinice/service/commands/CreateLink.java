@@ -18,14 +18,17 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
 import sernet.gs.service.LinkValidator;
 import sernet.gs.service.RetrieveInfo;
-import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ChangeLoggingCommand;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.RelationNotDefinedException;
@@ -39,7 +42,8 @@ import sernet.verinice.model.common.RelationNotDefinedException;
  * 
  * @param <T>
  */
-public class CreateLink<U extends CnATreeElement, V extends CnATreeElement> extends GenericCommand {
+public class CreateLink<U extends CnATreeElement, V extends CnATreeElement>
+        extends ChangeLoggingCommand {
 
     private static final Logger logger = Logger.getLogger(CreateLink.class);
 
@@ -51,6 +55,7 @@ public class CreateLink<U extends CnATreeElement, V extends CnATreeElement> exte
     private String relationId;
     private String comment;
     private final boolean retrieveLinkedElementProperties;
+    private String stationId;
 
     public CreateLink(String dependantUuid, String dependencyUuid) {
         this(dependantUuid, dependencyUuid, "", "");
@@ -88,6 +93,7 @@ public class CreateLink<U extends CnATreeElement, V extends CnATreeElement> exte
         this.relationId = relationId;
         this.comment = comment;
         this.retrieveLinkedElementProperties = true;
+        this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     public CreateLink(U dependant, V dependancy, String relationId, String comment,
@@ -97,6 +103,7 @@ public class CreateLink<U extends CnATreeElement, V extends CnATreeElement> exte
         this.relationId = relationId;
         this.comment = comment;
         this.retrieveLinkedElementProperties = retrieveLinkedElementProperties;
+        this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     @Override
@@ -171,4 +178,33 @@ public class CreateLink<U extends CnATreeElement, V extends CnATreeElement> exte
         return link;
     }
 
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getChangeType()
+     */
+    @Override
+    public int getChangeType() {
+        return ChangeLogEntry.TYPE_UPDATE;
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getChangedElements()
+     */
+    @Override
+    public List<CnATreeElement> getChangedElements() {
+        List<CnATreeElement> result = new ArrayList<>(2);
+        if (link != null) {
+            result.add(dependant);
+            result.add(dependency);
+        }
+        return result;
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getStationId()
+     */
+    @Override
+    public String getStationId() {
+        return stationId;
+    }
+
 }
@@ -20,13 +20,17 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import sernet.gs.service.RetrieveInfo;
-import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ChangeLoggingCommand;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Link;
@@ -34,7 +38,7 @@ import sernet.verinice.model.common.Link;
 /**
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
-public class CreateMultipleLinks extends GenericCommand {
+public class CreateMultipleLinks extends ChangeLoggingCommand {
 
     private static final Logger log = Logger.getLogger(CreateMultipleLinks.class);
 
@@ -42,17 +46,21 @@ public class CreateMultipleLinks extends GenericCommand {
     private transient IBaseDao<CnATreeElement, Serializable> dao;
     private transient IBaseDao<CnALink, Serializable> linkDao;
     private boolean retrieve;
+    private String stationId;
+    private Set<CnATreeElement> changedElements = new LinkedHashSet<>();
     
     public CreateMultipleLinks(List<Link> linkList) {
         super();
         this.linkList = linkList;
         this.retrieve = false;
+        this.stationId = ChangeLogEntry.STATION_ID;
     }
     
     public CreateMultipleLinks(List<Link> linkList, boolean retrieve) {
         super();
         this.linkList = linkList;
         this.retrieve = retrieve;
+        this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     /* (non-Javadoc)
@@ -65,6 +73,14 @@ public class CreateMultipleLinks extends GenericCommand {
         }
         linkList = null;
     }
+
+    /*
+     * @see sernet.verinice.interfaces.GenericCommand#clear()
+     */
+    @Override
+    public void clear() {
+        changedElements.clear();
+    }
     
     private void createLink(Link link) {
         try {
@@ -89,6 +105,8 @@ public class CreateMultipleLinks extends GenericCommand {
             CnALink cnaLink = new CnALink(dependant, dependency, link.getRelationId(), link.getComment());
 
             getLinkDao().merge(cnaLink, true);
+            changedElements.add(dependant);
+            changedElements.add(dependency);
         } catch (RuntimeException e) {
             log.error("RuntimeException while creating link.", e);
             throw e;
@@ -98,6 +116,30 @@ public class CreateMultipleLinks extends GenericCommand {
         }
     }
     
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getChangeType()
+     */
+    @Override
+    public int getChangeType() {
+        return ChangeLogEntry.TYPE_UPDATE;
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getChangedElements()
+     */
+    @Override
+    public List<CnATreeElement> getChangedElements() {
+        return new ArrayList<>(changedElements);
+    }
+
+    /*
+     * @see sernet.verinice.interfaces.IChangeLoggingCommand#getStationId()
+     */
+    @Override
+    public String getStationId() {
+        return stationId;
+    }
+
     public boolean isRetrieve() {
         return retrieve;
     }
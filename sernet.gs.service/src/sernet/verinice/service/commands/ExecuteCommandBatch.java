@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.hui.common.VeriniceContext;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ICommand;
+import sernet.verinice.interfaces.ICommandService;
+
+/**
+ * Executes several independent commands with one call of the command
+ * service. A remote client sends all commands in one request, the server
+ * authenticates the request and opens a transaction only once.
+ *
+ * By default the commands are executed one after another in the transaction
+ * and session of this command. If parallel execution is requested, every
+ * command is executed in its own transaction by a thread of a pool which is
+ * created for this batch. The threads of the pool inherit the security
+ * context of the calling thread. All parallel batches of a server share
+ * {@link #MAX_PARALLEL_COMMANDS} permits, a command waits for a permit
+ * before it opens its transaction. The number of database connections used
+ * by parallel batches is bounded, regardless of the number of concurrent
+ * requests.
+ *
+ * If one of the commands fails, the batch fails. Use
+ * {@link #execute(ICommandService, List, boolean)} to execute a list of any
+ * size in batches of {@link #MAX_BATCH_SIZE} commands.
+ */
+@SuppressWarnings("serial")
+public class ExecuteCommandBatch extends GenericCommand {
+
+    private static final Logger LOG = Logger.getLogger(ExecuteCommandBatch.class);
+
+    /**
+     * Maximum number of commands sent in one batch by
+     * {@link #execute(ICommandService, List, boolean)}
+     */
+    public static final int MAX_BATCH_SIZE = 500;
+
+    /**
+     * Maximum number of commands executed at the same time by all parallel
+     * batches
+     */
+    public static final int MAX_PARALLEL_COMMANDS = Runtime.getRuntime()
+            .availableProcessors();
+
+    private static final Semaphore PARALLEL_COMMAND_PERMITS = new Semaphore(
+            MAX_PARALLEL_COMMANDS, true);
+
+    private ArrayList<ICommand> commands;
+
+    private boolean parallel;
+
+    /**
+     * @param commands
+     *            The commands to execute
+     */
+    public ExecuteCommandBatch(List<? extends ICommand> commands) {
+        this(commands, false);
+    }
+
+    /**
+     * @param commands
+     *            The commands to execute
+     * @param parallel
+     *            If true the commands are executed in parallel, each in its
+     *            own transaction
+     */
+    public ExecuteCommandBatch(List<? extends ICommand> commands, boolean parallel) {
+        super();
+        this.commands = new ArrayList<>(commands);
+        this.parallel = parallel;
+    }
+
+    /*
+     * (non-Javadoc)
+     * 
+     * @see sernet.verinice.interfaces.ICommand#execute()
+     */
+    @Override
+    public void execute() {
+        long time = System.currentTimeMillis();
+        if (parallel && commands.size() > 1) {
+            executeParallel();
+        } else {
+            executeSequential();
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(commands.size() + " commands executed in batch, parallel: " + parallel
+                    + ", runtime: " + (System.currentTimeMillis() - time) + " ms");
+        }
+    }
+
+    private void executeSequential() {
+        try {
+            for (int i = 0; i < commands.size(); i++) {
+                commands.set(i, getCommandService().executeCommand(commands.get(i)));
+            }
+        } catch (CommandException e) {
+            throw new RuntimeCommandException("Error while executing command batch", e);
+        }
+    }
+
+    private void executeParallel() {
+        // the transactional service, the injected one joins the transaction
+        // of this command
+        final ICommandService commandService = (ICommandService) VeriniceContext
+                .get(VeriniceContext.COMMAND_SERVICE);
+        int numberOfThreads = Math.min(commands.size(), MAX_PARALLEL_COMMANDS);
+        // threads are created by this thread and inherit its security context
+        ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+        try {
+            List<Future<ICommand>> futures = new ArrayList<>(commands.size());
+            for (final ICommand command : commands) {
+                Callable<ICommand> task = () -> executeWithPermit(commandService, command);
+                futures.add(executor.submit(task));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                commands.set(i, futures.get(i).get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeCommandException("Command batch interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeCommandException("Error while executing command batch",
+                    e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ICommand executeWithPermit(ICommandService commandService,
+            ICommand command) throws CommandException, InterruptedException {
+        PARALLEL_COMMAND_PERMITS.acquire();
+        try {
+            return commandService.executeCommand(command);
+        } finally {
+            PARALLEL_COMMAND_PERMITS.release();
+        }
+    }
+
+    /**
+     * @return The executed commands in the order they were passed
+     */
+    public List<ICommand> getCommands() {
+        return Collections.unmodifiableList(commands);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Executes commands in batches of {@link #MAX_BATCH_SIZE} commands.
+     *
+     * @param commandService
+     *            A local or remote command service
+     * @param commands
+     *            The commands to execute
+     * @param parallel
+     *            If true the commands of a batch are executed in parallel
+     * @return The executed commands in the order they were passed
+     * @throws CommandException
+     *             If a batch fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends ICommand> List<T> execute(ICommandService commandService,
+            List<T> commands, boolean parallel) throws CommandException {
+        List<T> executedCommands = new ArrayList<>(commands.size());
+        for (List<T> partition : CollectionUtil.partition(commands, MAX_BATCH_SIZE)) {
+            if (partition.size() == 1) {
+                executedCommands.add(commandService.executeCommand(partition.get(0)));
+            } else {
+                ExecuteCommandBatch batch = commandService
+                        .executeCommand(new ExecuteCommandBatch(partition, parallel));
+                for (ICommand command : batch.getCommands()) {
+                    executedCommands.add((T) command);
+                }
+            }
+        }
+        return executedCommands;
+    }
+}
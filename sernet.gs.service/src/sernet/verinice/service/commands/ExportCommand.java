@@ -19,9 +19,12 @@
 
 package sernet.verinice.service.commands;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -32,26 +35,29 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
-import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.mapping.SyncMapping;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
-import de.sernet.sync.sync.SyncRequest;
 import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.Statistics;
 import net.sf.ehcache.Status;
-import sernet.gs.service.IThreadCompleteListener;
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.hui.common.VeriniceContext;
@@ -70,12 +76,19 @@ import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.sync.StreamFactory;
+import sernet.verinice.service.sync.SyncDataWriter;
 import sernet.verinice.service.sync.VeriniceArchive;
 import sernet.verinice.service.sync.VnaSchemaVersion;
 
 /**
  * Creates an VNA or XML representation for the given list of CnATreeElements.
  * 
+ * The elements are written to verinice.xml one by one with a
+ * {@link SyncDataWriter} while the tree is traversed. The archive is written
+ * to the file set by {@link #setFilePath(String)} or to a temporary file if
+ * no path is set. Only the children of the elements on the path from the
+ * current element to the root are held in memory.
+ * 
  * ExportCommand uses multiple threads to load data. Default number of threads
  * is 3. You can configure maximum number of threads in
  * veriniceserver-common.xml:
@@ -96,11 +109,19 @@ import sernet.verinice.service.sync.VnaSchemaVersion;
 public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggingCommand {
     private static final Logger log = Logger.getLogger(ExportCommand.class);
 
-    private static final Object LOCK = new Object();
-
     public static final String PROP_MAX_NUMBER_OF_THREADS = "maxNumberOfThreads";
     public static final int DEFAULT_NUMBER_OF_THREADS = 3;
 
+    /**
+     * Number of children of an element which are loaded in parallel and held
+     * in memory before they are written
+     */
+    private static final int CHILDREN_BATCH_SIZE = 100;
+
+    private static final int TIME_OUT_FACTOR = 40;
+
+    private static final String TEMP_FILE_PREFIX = "verinice-export-"; //$NON-NLS-1$
+
     // Configuration fields set by client
     private final List<CnATreeElement> elements;
     private final String sourceId;
@@ -117,8 +138,6 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
     private final String stationId;
 
     // Fields used on server only
-    private transient byte[] xmlData;
-    private transient byte[] xmlDataRiskAnalysis;
     private transient Set<CnALink> linkSet;
     private transient Set<Attachment> attachmentSet;
     private transient Set<Integer> riskAnalysisIdSet;
@@ -171,10 +190,18 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
      */
     @Override
     public void execute() {
+        File file = null;
         try {
             createFields();
-            xmlData = export();
-            xmlDataRiskAnalysis = exportRiskAnalyses();
+            taskExecutor = Executors.newFixedThreadPool(getMaxNumberOfThreads());
+            file = createFile();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                if (isVeriniceArchive()) {
+                    writeVeriniceArchive(out);
+                } else {
+                    export(out);
+                }
+            }
             if (isReImport()) {
                 if (log.isInfoEnabled()) {
                     log.info("Prepare reimport is enabled. Saving the IDS of "
@@ -182,14 +209,9 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
                 }
                 saveChangedElements();
             }
-
-            if (isVeriniceArchive()) {
-                result = createVeriniceArchive();
+            if (filePath == null) {
+                result = FileUtils.readFileToByteArray(file);
             } else {
-                result = xmlData;
-            }
-            if (filePath != null) {
-                FileUtils.writeByteArrayToFile(new File(filePath), result);
                 result = null;
             }
         } catch (final RuntimeException re) {
@@ -199,49 +221,60 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
             log.error("Exception while exporting", e);
             throw new RuntimeCommandException("Exception while exporting", e);
         } finally {
+            if (taskExecutor != null) {
+                taskExecutor.shutdownNow();
+            }
+            if (filePath == null && file != null) {
+                FileUtils.deleteQuietly(file);
+            }
             getCache().removeAll();
             manager.shutdown();
         }
 
     }
 
+    private File createFile() throws IOException {
+        if (filePath != null) {
+            return new File(filePath);
+        }
+        return File.createTempFile(TEMP_FILE_PREFIX,
+                isVeriniceArchive() ? VeriniceArchive.EXTENSION_VERINICE_ARCHIVE : ".xml");
+    }
+
     /**
      * Export (i.e. "create XML representation of" the given cnATreeElement and
      * its successors. For this, child elements are exported recursively. All
-     * elements that have been processed are returned as a list of
-     * {@code syncObject}s with their respective attributes, represented as
-     * {@code syncAttribute}s.
+     * elements that have been processed are written as {@code syncObject}s
+     * with their respective attributes, represented as {@code syncAttribute}s.
      * 
-     * @return XML representation of elements
+     * @param out
+     *            The stream the XML representation is written to
      * @throws CommandException
      */
-    private byte[] export() throws CommandException {
+    private void export(final OutputStream out) throws CommandException {
         if (log.isInfoEnabled()) {
             log.info("Max number of threads is: " + getMaxNumberOfThreads());
         }
 
         getCache().removeAll();
 
-        final SyncVnaSchemaVersion formatVersion = createVersionData();
-
-        final SyncData syncData = new SyncData();
-        final ExportTransaction exportTransaction = new ExportTransaction();
+        final SyncDataWriter writer = new SyncDataWriter(out);
+        writer.startRequest(sourceId);
 
         if (log.isInfoEnabled()) {
             log.info("Exporting elements...");
         }
 
         for (final CnATreeElement element : elements) {
-            exportTransaction.setElement(element);
-            exportElement(exportTransaction);
-            syncData.getSyncObject().add(exportTransaction.getTarget());
+            exportElement(new ExportTransaction(element), writer);
         }
+        writer.endObjects();
 
         if (log.isInfoEnabled()) {
             log.info("Exporting links...");
         }
 
-        exportLinks(syncData);
+        exportLinks(writer);
 
         if (log.isDebugEnabled()) {
             final Statistics s = getCache().getStatistics();
@@ -251,15 +284,12 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
         final SyncMapping syncMapping = new SyncMapping();
         createMapping(syncMapping.getMapObjectType());
 
-        final SyncRequest syncRequest = new SyncRequest();
-        syncRequest.setSourceId(sourceId);
-        syncRequest.setSyncData(syncData);
-        syncRequest.setSyncMapping(syncMapping);
-        syncRequest.setSyncVnaSchemaVersion(formatVersion);
+        writer.endRequest(syncMapping, createVersionData());
 
-        final ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        ExportFactory.marshal(syncRequest, bos);
-        return bos.toByteArray();
+        if (log.isInfoEnabled()) {
+            log.info("Elements exported: " + writer.getNumberOfObjects() + ", links: "
+                    + writer.getNumberOfLinks());
+        }
     }
 
     private SyncVnaSchemaVersion createVersionData() {
@@ -300,17 +330,38 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
         this.exportRiskAnalysis = exportRiskAnalysis;
     }
 
-    private void exportElement(final ExportTransaction exportTransaction) throws CommandException {
+    private void exportElement(final ExportTransaction exportTransaction,
+            final SyncDataWriter writer) throws CommandException {
         final ExportThread jobThread = new ExportThread(exportTransaction);
         configureThread(jobThread);
-        synchronized(LOCK) {
-            jobThread.export();
-            getValuesFromThread(jobThread);
+        jobThread.export();
+        getValuesFromThread(jobThread);
+        writeElement(exportTransaction, writer, true);
+    }
+
+    /**
+     * Writes the sync object of a transaction and exports the children of
+     * the element of the transaction. Nothing is written if the element is
+     * not exported. The children of a root element are always exported, the
+     * children of other elements only if the type of the element is not
+     * blacklisted.
+     */
+    private void writeElement(final ExportTransaction transaction, final SyncDataWriter writer,
+            final boolean root) throws CommandException {
+        final SyncObject target = transaction.getTarget();
+        if (target == null) {
+            return;
+        }
+        writer.startObject(target);
+        if (root || checkElement(transaction.getElement())) {
+            exportChildren(transaction, writer);
         }
-        exportChildren(exportTransaction);
+        writer.endObject(target);
+        // release the attributes of the element
+        transaction.setTarget(null);
     }
 
-    private void exportLinks(final SyncData syncData) {
+    private void exportLinks(final SyncDataWriter writer) throws CommandException {
         for (final CnALink link : linkSet) {
             CnATreeElement dependant = link.getDependant();
             dependant = getFromCache(dependant);
@@ -326,60 +377,69 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
                 continue;
             }
             link.setDependency(dependency);
-            ExportFactory.transform(link, syncData.getSyncLink());
+            writer.handleLink(ExportFactory.createSyncLink(link));
         }
     }
 
-    private void exportChildren(final ExportTransaction transaction) throws CommandException {
-        log.debug("Call exportChildren in ExportCommand hashcode " + this.hashCode() + "for object " + transaction.getElement().getTitle());
-        final int timeOutFactor = 40;
+    /**
+     * Loads the children of an element in batches with the shared task
+     * executor and writes them in the order of the children. The children of
+     * a batch are written before the next batch is loaded.
+     */
+    private void exportChildren(final ExportTransaction transaction,
+            final SyncDataWriter writer) throws CommandException {
         final CnATreeElement element = transaction.getElement();
-        final Set<CnATreeElement> children = element.getChildren();
+        if (log.isDebugEnabled()) {
+            log.debug("Exporting children of element: " + element.getUuid());
+        }
+        final List<CnATreeElement> children = new ArrayList<>(element.getChildren());
         if (FinishedRiskAnalysis.TYPE_ID.equals(element.getTypeId())) {
             children.addAll(getRiskAnalysisOrphanElements(element));
         }
-
-        final List<ExportTransaction> transactionList = Collections.synchronizedList(new ArrayList<>());
-
-        taskExecutor = Executors.newFixedThreadPool(getMaxNumberOfThreads());
-        if (!children.isEmpty()) {
-            for (final CnATreeElement child : children) {
-                log.debug("Create export job for child " + child.getDbId());
-                final ExportTransaction childTransaction = new ExportTransaction(child);
-                transactionList.add(childTransaction);
-                final ExportThread thread = new ExportThread(childTransaction);
-                configureThread(thread);
-
-                // Multi thread:
-                thread.addListener(new IThreadCompleteListener() {
-                    @Override
-                    public void notifyOfThreadComplete(final Thread thread) {
-                        final ExportThread exportThread = (ExportThread) thread;
-                        synchronized (LOCK) {
-                            if (exportThread.getTransaction().getTarget() != null) {
-                                transaction.getTarget().getChildren().add(
-                                        exportThread.getTransaction().getTarget()
-                                );
-                            }
-                            getValuesFromThread(exportThread);
-                        }
-                    }
-                });
-                taskExecutor.execute(thread);
+        for (final List<CnATreeElement> batch : CollectionUtil.partition(children,
+                CHILDREN_BATCH_SIZE)) {
+            for (final ExportTransaction childTransaction : loadChildren(batch)) {
+                writeElement(childTransaction, writer, false);
             }
         }
+    }
 
-        awaitTermination(transactionList.size() * timeOutFactor);
-
-        if (log.isDebugEnabled() && !transactionList.isEmpty()) {
-            log.debug(transactionList.size() + " export threads finished.");
+    private List<ExportTransaction> loadChildren(final List<CnATreeElement> children) {
+        final List<ExportThread> threads = new ArrayList<>(children.size());
+        final List<Future<?>> futures = new ArrayList<>(children.size());
+        for (final CnATreeElement child : children) {
+            final ExportThread thread = new ExportThread(new ExportTransaction(child));
+            configureThread(thread);
+            threads.add(thread);
+            futures.add(taskExecutor.submit(thread));
         }
-
-        for (final ExportTransaction childTransaction : transactionList) {
-            if (checkElement(childTransaction.getElement())) {
-                exportChildren(childTransaction);
+        final long timeout = TimeUnit.SECONDS.toMillis((long) children.size() * TIME_OUT_FACTOR);
+        final long deadline = System.currentTimeMillis() + timeout;
+        final List<ExportTransaction> transactionList = new ArrayList<>(children.size());
+        for (int i = 0; i < threads.size(); i++) {
+            final ExportThread thread = threads.get(i);
+            try {
+                futures.get(i).get(Math.max(deadline - System.currentTimeMillis(), 0),
+                        TimeUnit.MILLISECONDS);
+                getValuesFromThread(thread);
+                transactionList.add(thread.getTransaction());
+            } catch (final ExecutionException e) {
+                log.error("Error while exporting element, uuid: "
+                        + thread.getTransaction().getElement().getUuid(), e.getCause());
+            } catch (final TimeoutException e) {
+                log.error("Export executer timeout reached: " + timeout / 1000
+                        + "s. Element is not exported, uuid: "
+                        + thread.getTransaction().getElement().getUuid());
+                futures.get(i).cancel(true);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeCommandException("Export was interrupted", e);
             }
         }
+        if (log.isDebugEnabled() && !transactionList.isEmpty()) {
+            log.debug(transactionList.size() + " export threads finished.");
+        }
+        return transactionList;
     }
 
     private boolean checkElement(final CnATreeElement element) {
@@ -401,18 +461,22 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
     }
 
     /**
-     * Creates the verinice archive after createXmlData() was called.
+     * Writes the verinice archive with verinice.xml, the risk analyses, the
+     * schema files and the attachments to a stream.
      * 
-     * @return the verinice archive as byte[]
+     * @param out
+     *            The stream the archive is written to
      * @throws CommandException
      */
-    private byte[] createVeriniceArchive() throws CommandException {
+    private void writeVeriniceArchive(final OutputStream out) throws CommandException {
         try {
-            final ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
-            final ZipOutputStream zipOut = new ZipOutputStream(byteOut);
+            final ZipOutputStream zipOut = new ZipOutputStream(out);
 
-            ExportFactory.createZipEntry(zipOut, VeriniceArchive.VERINICE_XML, xmlData);
-            if (isRiskAnalysis()) {
+            zipOut.putNextEntry(new ZipEntry(VeriniceArchive.VERINICE_XML));
+            export(zipOut);
+            zipOut.closeEntry();
+            final byte[] xmlDataRiskAnalysis = exportRiskAnalyses();
+            if (xmlDataRiskAnalysis != null) {
                 ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XML, xmlDataRiskAnalysis);
             }
             ExportFactory.createZipEntry(zipOut, VeriniceArchive.DATA_XSD,
@@ -438,9 +502,7 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
                 command.setAttachmentFile(null);
             }
 
-            zipOut.close();
-            byteOut.close();
-            return byteOut.toByteArray();
+            zipOut.finish();
         } catch (final IOException e) {
             log.error("Error while creating zip output stream", e);
             throw new RuntimeCommandException(e);
@@ -471,32 +533,6 @@ public class ExportCommand extends ChangeLoggingCommand implements IChangeLoggin
         }
     }
 
-    /**
-     * @param timeout
-     *            in seconds
-     */
-    private void awaitTermination(final int timeout) {
-        final int secondsUntilTimeOut = 60;
-        taskExecutor.shutdown();
-        try {
-            // Wait a while for existing tasks to terminate
-            if (!taskExecutor.awaitTermination(timeout, TimeUnit.SECONDS)) {
-                log.error("Export executer timeout reached: " + timeout
-                        + "s. Terminating execution now.");
-                taskExecutor.shutdownNow(); // Cancel currently executing tasks
-                // Wait a while for tasks to respond to being cancelled
-                if (!taskExecutor.awaitTermination(secondsUntilTimeOut, TimeUnit.SECONDS)) {
-                    log.error("Export executer did not terminate.");
-                }
-            }
-        } catch (final InterruptedException ie) {
-            // (Re-)Cancel if current thread also interrupted
-            taskExecutor.shutdownNow();
-            // Preserve interrupt status
-            Thread.currentThread().interrupt();
-        }
-    }
-
     /**
      * Adds SyncMapping for all EntityTypes that have been exported. This is
      * going to be an identity mapping.
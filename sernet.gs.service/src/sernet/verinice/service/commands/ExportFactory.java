@@ -70,6 +70,16 @@ public final class ExportFactory {
      * @param link
      */
     public static void transform(CnALink link, List<SyncLink> syncLinkXmlList) {
+        syncLinkXmlList.add(createSyncLink(link));
+    }
+
+    /**
+     * Creates a SyncLink instance out of a {@link CnALink} instance.
+     * 
+     * @param link
+     * @return A new SyncLink
+     */
+    public static SyncLink createSyncLink(CnALink link) {
         SyncLink syncLink = new SyncLink();
         syncLink.setDependant(ExportFactory.createExtId(link.getDependant()));
         syncLink.setDependency(ExportFactory.createExtId(link.getDependency()));
@@ -77,7 +87,7 @@ public final class ExportFactory {
         if (link.getComment() != null && !link.getComment().isEmpty()) {
             syncLink.setComment(link.getComment());
         }
-        syncLinkXmlList.add(syncLink);
+        return syncLink;
     }
 
     /**
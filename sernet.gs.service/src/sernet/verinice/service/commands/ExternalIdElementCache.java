@@ -0,0 +1,291 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Criteria;
+import org.hibernate.FetchMode;
+import org.hibernate.Query;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Resolves the ext-ids of an import to elements in the database without
+ * executing a query for every ext-id.
+ * 
+ * {@link #loadIds(Collection)} loads the db-ids of all ext-ids of the import
+ * with a few chunked "in" queries. Ext-ids which are not in the database are
+ * resolved without any query afterwards. Elements are loaded in chunks of
+ * consecutive ext-ids in the order of the import. Children, links and parent
+ * are fetched like {@link LoadCnAElementByExternalID} does, with one query
+ * per collection. Elements inserted by the import are added with
+ * {@link #add(String, CnATreeElement)}.
+ * 
+ * Call {@link #clear()} when the Hibernate session is cleared, loaded elements
+ * are detached afterwards and loaded again on the next request.
+ */
+public class ExternalIdElementCache {
+
+    private static final Logger LOG = Logger.getLogger(ExternalIdElementCache.class);
+
+    private static final String HQL_IDS = "select elmt.extId, elmt.dbId "
+            + "from CnATreeElement elmt "
+            + "where elmt.sourceId = :sourceId and elmt.extId in (:extIds)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private static final String CHILDREN = "children";
+
+    /**
+     * The associations of the loaded elements, like
+     * {@link LoadCnAElementByExternalID} fetches them. Every group is joined
+     * in a separate query, a single query would return the cartesian product
+     * of the children and links of an element.
+     */
+    private static final String[][] FETCHED_ASSOCIATIONS = { { CHILDREN },
+            { "linksDown", "linksDown.dependency" }, { "linksUp", "linksUp.dependant" },
+            { "parent", "parent.permissions" } };
+
+    private final IBaseDao<CnATreeElement, Serializable> dao;
+
+    private final String sourceId;
+
+    private final int chunkSize;
+
+    private final Map<String, Integer> dbIdByExtId = new HashMap<>();
+
+    private final Set<String> duplicateExtIds = new HashSet<>();
+
+    private final List<String> loadOrder = new ArrayList<>();
+
+    private final Map<String, Integer> positionByExtId = new HashMap<>();
+
+    private final Map<String, CnATreeElement> loadedElements = new HashMap<>();
+
+    /**
+     * @param dao
+     *            A DAO for elements
+     * @param sourceId
+     *            The source-id of the import
+     * @param chunkSize
+     *            The number of elements loaded with one query
+     */
+    ExternalIdElementCache(IBaseDao<CnATreeElement, Serializable> dao, String sourceId,
+            int chunkSize) {
+        this.dao = dao;
+        this.sourceId = sourceId;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Loads the db-ids of the elements with the given ext-ids and the
+     * source-id of this cache. Elements are loaded later in the order of the
+     * ext-ids in the collection.
+     * 
+     * @param extIds
+     *            Ext-ids of the import
+     */
+    public void loadIds(Collection<String> extIds) {
+        List<String> newExtIds = new ArrayList<>();
+        for (String extId : new LinkedHashSet<>(extIds)) {
+            if (extId != null && !positionByExtId.containsKey(extId)) {
+                newExtIds.add(extId);
+            }
+        }
+        for (List<String> chunk : CollectionUtil.partition(newExtIds, MAX_IN_CLAUSE_SIZE)) {
+            for (Object[] row : loadIdRows(chunk)) {
+                String extId = (String) row[0];
+                if (dbIdByExtId.put(extId, (Integer) row[1]) != null) {
+                    duplicateExtIds.add(extId);
+                }
+            }
+        }
+        for (String extId : newExtIds) {
+            if (dbIdByExtId.containsKey(extId)) {
+                positionByExtId.put(extId, loadOrder.size());
+                loadOrder.add(extId);
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Ext-ids checked: " + newExtIds.size() + ", found in database: "
+                    + dbIdByExtId.size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> loadIdRows(final List<String> extIds) {
+        return (List<Object[]>) dao.executeCallback(session -> {
+            Query query = session.createQuery(HQL_IDS);
+            query.setParameter("sourceId", sourceId);
+            query.setParameterList("extIds", extIds);
+            return query.list();
+        });
+    }
+
+    /**
+     * Returns the element with an ext-id and the source-id of this cache. If
+     * the element is not loaded yet, the element and the following elements
+     * in the load order are loaded with one query.
+     * 
+     * @param extId
+     *            An ext-id passed to {@link #loadIds(Collection)}
+     * @return The element or null if no element exists
+     * @throws RuntimeCommandException
+     *             if more than one element is found
+     */
+    public CnATreeElement get(String extId) {
+        if (duplicateExtIds.contains(extId)) {
+            final String message = "Found more than one element with source-id: " + sourceId
+                    + " and external ID: " + extId;
+            LOG.error(message);
+            throw new RuntimeCommandException(message);
+        }
+        if (!dbIdByExtId.containsKey(extId)) {
+            return null;
+        }
+        CnATreeElement element = loadedElements.get(extId);
+        if (element == null) {
+            loadChunk(extId);
+            element = loadedElements.get(extId);
+        }
+        return element;
+    }
+
+    /**
+     * Loads all elements of the given ext-ids which are not loaded yet with a
+     * few chunked queries.
+     * 
+     * @param extIds
+     *            Ext-ids passed to {@link #loadIds(Collection)}
+     */
+    public void prefetch(Collection<String> extIds) {
+        List<String> missing = new ArrayList<>();
+        for (String extId : new HashSet<>(extIds)) {
+            if (dbIdByExtId.containsKey(extId) && !duplicateExtIds.contains(extId)
+                    && !loadedElements.containsKey(extId)) {
+                missing.add(extId);
+            }
+        }
+        for (List<String> chunk : CollectionUtil.partition(missing, MAX_IN_CLAUSE_SIZE)) {
+            loadElements(chunk);
+        }
+    }
+
+    private void loadChunk(String extId) {
+        Integer position = positionByExtId.get(extId);
+        List<String> chunk = new ArrayList<>(chunkSize);
+        chunk.add(extId);
+        if (position != null) {
+            int end = Math.min(position + chunkSize, loadOrder.size());
+            for (int i = position + 1; i < end; i++) {
+                String next = loadOrder.get(i);
+                if (!duplicateExtIds.contains(next) && !loadedElements.containsKey(next)) {
+                    chunk.add(next);
+                }
+            }
+        }
+        loadElements(chunk);
+    }
+
+    private void loadElements(List<String> extIds) {
+        final List<Integer> dbIds = new ArrayList<>(extIds.size());
+        for (String extId : extIds) {
+            dbIds.add(dbIdByExtId.get(extId));
+        }
+        List<CnATreeElement> elements = loadElementsById(dbIds);
+        for (CnATreeElement element : elements) {
+            loadedElements.put(element.getExtId(), element);
+        }
+        // the loaded elements are merged by the import
+        dao.prefetchRights(dbIds);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Elements loaded: " + elements.size());
+        }
+    }
+
+    /**
+     * Loads the elements with one query for every entry of
+     * {@link #FETCHED_ASSOCIATIONS} in one session. The later queries return
+     * the elements of the first query and initialize their collections.
+     */
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadElementsById(final List<Integer> dbIds) {
+        return (List<CnATreeElement>) dao.executeCallback(session -> {
+            List<CnATreeElement> elements = null;
+            for (String[] associations : FETCHED_ASSOCIATIONS) {
+                Criteria criteria = session.createCriteria(CnATreeElement.class);
+                criteria.add(Restrictions.in("dbId", dbIds));
+                // children are joined by default, see CnATreeElement.hbm.xml
+                criteria.setFetchMode(CHILDREN, FetchMode.SELECT);
+                for (String association : associations) {
+                    criteria.setFetchMode(association, FetchMode.JOIN);
+                }
+                criteria.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
+                List<CnATreeElement> result = criteria.list();
+                if (elements == null) {
+                    elements = result;
+                }
+            }
+            return elements;
+        });
+    }
+
+    /**
+     * Adds an element inserted by the import. {@link #get(String)} returns
+     * the element like an element which was in the database when the db-ids
+     * were loaded.
+     * 
+     * @param extId
+     *            The ext-id of the element
+     * @param element
+     *            A saved element with the source-id of this cache
+     */
+    public void add(String extId, CnATreeElement element) {
+        Integer previousDbId = dbIdByExtId.put(extId, element.getDbId());
+        if (previousDbId != null && !previousDbId.equals(element.getDbId())) {
+            duplicateExtIds.add(extId);
+        }
+        loadedElements.put(extId, element);
+    }
+
+    /**
+     * Removes all loaded elements from the cache. The db-ids are kept.
+     */
+    public void clear() {
+        loadedElements.clear();
+    }
+}
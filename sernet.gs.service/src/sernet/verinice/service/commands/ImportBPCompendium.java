@@ -19,9 +19,16 @@
  ******************************************************************************/
 package sernet.verinice.service.commands;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.jbpm.pvm.internal.cmd.CommandException;
 
-import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ChangeLoggingCommand;
+import sernet.verinice.interfaces.IAuthAwareCommand;
+import sernet.verinice.interfaces.IAuthService;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.bp.exceptions.CreateBPElementException;
 import sernet.verinice.service.bp.importer.BpImporter;
 
@@ -29,12 +36,19 @@ import sernet.verinice.service.bp.importer.BpImporter;
  * @author Sebastian Hagedorn sh[at]sernet.de
  *
  */
-public class ImportBPCompendium extends GenericCommand {
+public class ImportBPCompendium extends ChangeLoggingCommand implements IAuthAwareCommand {
     
     private String xmlRoot;
+
+    private String stationId;
+
+    private transient IAuthService authService;
+
+    private transient List<CnATreeElement> newElements = Collections.emptyList();
     
     public ImportBPCompendium (String xmlRoot) {
         this.xmlRoot = xmlRoot;
+        this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     /* (non-Javadoc)
@@ -45,12 +59,42 @@ public class ImportBPCompendium extends GenericCommand {
         BpImporter importer = new BpImporter(this.xmlRoot);
         importer.setCommandService(getCommandService());
         importer.setDaoFactory(getDaoFactory());
+        importer.setAuthService(getAuthService());
         try {
             importer.run();
         } catch (CreateBPElementException e) {
             throw new CommandException(e);
         }
+        newElements = importer.getNewElements();
+    }
 
+    /**
+     * @return All elements created by the import, the change log of the
+     *         import is written in one batch
+     */
+    @Override
+    public List<CnATreeElement> getChangedElements() {
+        return newElements;
+    }
+
+    @Override
+    public int getChangeType() {
+        return ChangeLogEntry.TYPE_INSERT;
+    }
+
+    @Override
+    public String getStationId() {
+        return stationId;
+    }
+
+    @Override
+    public IAuthService getAuthService() {
+        return authService;
+    }
+
+    @Override
+    public void setAuthService(IAuthService authService) {
+        this.authService = authService;
     }
 
 }
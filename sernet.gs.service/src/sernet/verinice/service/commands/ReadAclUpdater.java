@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.ReadAcl;
+
+/**
+ * Computes the {@link ReadAcl} of elements and stores its db-id in column
+ * read_acl_id of the elements. The userAccessReadFilter uses this column to
+ * check read access with an indexed lookup instead of a correlated subquery
+ * on the permission table.
+ *
+ * Call {@link #update(Collection)} after the permissions of an element were
+ * changed. Elements without a read ACL are checked against the permission
+ * table by the filter, {@link #updateMissing()} computes the read ACL of
+ * these elements.
+ */
+public class ReadAclUpdater {
+
+    private static final Logger LOG = Logger.getLogger(ReadAclUpdater.class);
+
+    private static final String HQL_ACL_IDS = "select acl.aclKey, acl.dbId from ReadAcl acl "
+            + "where acl.aclKey in (:aclKeys)"; //$NON-NLS-1$
+
+    private static final String HQL_READ_ROLES = "select p.cnaTreeElement.dbId, p.role "
+            + "from Permission p where p.readAllowed = :readAllowed "
+            + "and p.cnaTreeElement.dbId in (:dbIds)"; //$NON-NLS-1$
+
+    private static final String HQL_MISSING = "select elmt.dbId from CnATreeElement elmt "
+            + "where elmt.readAclId is null"; //$NON-NLS-1$
+
+    private static final String HQL_UPDATE = "update CnATreeElement set readAclId = :aclId "
+            + "where dbId in (:dbIds)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private final IBaseDao<CnATreeElement, Serializable> dao;
+
+    private final Map<String, Integer> aclIdByKey = new HashMap<>();
+
+    public ReadAclUpdater(IBaseDao<CnATreeElement, Serializable> dao) {
+        this.dao = dao;
+    }
+
+    /**
+     * Computes the read ACL of elements from the permissions of the elements
+     * in memory. All elements must be persistent.
+     *
+     * @param elements
+     *            Elements with changed permissions
+     */
+    public void update(Collection<? extends CnATreeElement> elements) {
+        Map<Integer, SortedSet<String>> rolesByDbId = new HashMap<>(elements.size());
+        for (CnATreeElement element : elements) {
+            if (element.getDbId() != null) {
+                rolesByDbId.put(element.getDbId(),
+                        ReadAcl.getReadRoles(element.getPermissions()));
+            }
+        }
+        updateAcls(rolesByDbId);
+    }
+
+    /**
+     * Computes the read ACL of all elements without a read ACL from the
+     * permissions in the database.
+     *
+     * @return The number of updated elements
+     */
+    @SuppressWarnings("unchecked")
+    public int updateMissing() {
+        List<Integer> dbIds = dao.findByQuery(HQL_MISSING, new Object[] {});
+        for (List<Integer> partition : CollectionUtil.partition(dbIds, MAX_IN_CLAUSE_SIZE)) {
+            updateAcls(loadReadRoles(partition));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Read ACL computed for " + dbIds.size() + " elements, number of ACLs: "
+                    + aclIdByKey.size());
+        }
+        return dbIds.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, SortedSet<String>> loadReadRoles(final List<Integer> dbIds) {
+        Map<Integer, SortedSet<String>> rolesByDbId = new HashMap<>(dbIds.size());
+        for (Integer dbId : dbIds) {
+            rolesByDbId.put(dbId, new TreeSet<>());
+        }
+        List<Object[]> rows = (List<Object[]>) dao.executeCallback(session -> {
+            Query query = session.createQuery(HQL_READ_ROLES);
+            query.setParameter("readAllowed", Boolean.TRUE);
+            query.setParameterList("dbIds", dbIds);
+            return query.list();
+        });
+        for (Object[] row : rows) {
+            rolesByDbId.get(row[0]).add((String) row[1]);
+        }
+        return rolesByDbId;
+    }
+
+    private void updateAcls(Map<Integer, SortedSet<String>> rolesByDbId) {
+        if (rolesByDbId.isEmpty()) {
+            return;
+        }
+        Map<String, SortedSet<String>> rolesByKey = new HashMap<>();
+        Map<String, List<Integer>> dbIdsByKey = new HashMap<>();
+        for (Map.Entry<Integer, SortedSet<String>> entry : rolesByDbId.entrySet()) {
+            String key = ReadAcl.createKey(entry.getValue());
+            rolesByKey.putIfAbsent(key, entry.getValue());
+            dbIdsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(entry.getKey());
+        }
+        loadAclIds(rolesByKey.keySet());
+        for (Map.Entry<String, List<Integer>> entry : dbIdsByKey.entrySet()) {
+            Integer aclId = aclIdByKey.get(entry.getKey());
+            if (aclId == null) {
+                aclId = createAcl(entry.getKey(), rolesByKey.get(entry.getKey()));
+            }
+            setAclId(aclId, entry.getValue());
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Read ACL updated for " + rolesByDbId.size() + " elements, number of ACLs: "
+                    + dbIdsByKey.size());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void loadAclIds(Set<String> keys) {
+        final List<String> unknownKeys = new ArrayList<>(keys);
+        unknownKeys.removeAll(aclIdByKey.keySet());
+        if (unknownKeys.isEmpty()) {
+            return;
+        }
+        for (final List<String> partition : CollectionUtil.partition(unknownKeys,
+                MAX_IN_CLAUSE_SIZE)) {
+            List<Object[]> rows = (List<Object[]>) dao.executeCallback(session -> {
+                Query query = session.createQuery(HQL_ACL_IDS);
+                query.setParameterList("aclKeys", partition);
+                return query.list();
+            });
+            for (Object[] row : rows) {
+                aclIdByKey.put((String) row[0], (Integer) row[1]);
+            }
+        }
+    }
+
+    private Integer createAcl(String key, Collection<String> roles) {
+        final ReadAcl acl = new ReadAcl(roles);
+        Integer aclId = (Integer) dao.executeCallback(session -> session.save(acl));
+        aclIdByKey.put(key, aclId);
+        return aclId;
+    }
+
+    private void setAclId(final Integer aclId, List<Integer> dbIds) {
+        for (final List<Integer> partition : CollectionUtil.partition(dbIds,
+                MAX_IN_CLAUSE_SIZE)) {
+            dao.executeCallback(session -> {
+                Query query = session.createQuery(HQL_UPDATE);
+                query.setParameter("aclId", aclId);
+                query.setParameterList("dbIds", partition);
+                return query.executeUpdate();
+            });
+        }
+    }
+}
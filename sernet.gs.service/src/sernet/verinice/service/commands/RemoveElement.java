@@ -209,6 +209,7 @@ public class RemoveElement<T extends CnATreeElement> extends ChangeLoggingComman
         @SuppressWarnings("unchecked")
         IBaseDao<? super CnATreeElement, Serializable> dao = getDaoFactory()
                 .getDAOforTypedElement(element);
+        dao.prefetchRights(dbIdsOfSubtree);
         for (Integer dbId : dbIdsOfSubtree) {
             dao.checkRights(dbId, element.getScopeId());
         }
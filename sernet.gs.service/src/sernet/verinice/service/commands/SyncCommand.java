@@ -21,8 +21,12 @@
  ******************************************************************************/
 package sernet.verinice.service.commands;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -81,6 +85,8 @@ public class SyncCommand extends ChangeLoggingCommand
 
     private Set<String> importRootObjectUUIDs;
 
+    private transient Set<String> syncObjectExtIds;
+
     private transient IVeriniceArchive veriniceArchive = null;
 
     private Status status = Status.OK;
@@ -151,8 +157,12 @@ public class SyncCommand extends ChangeLoggingCommand
         try {
             long start = getStartTimestamp();
 
-            if (path != null && fileData == null) {
-                fileData = FileUtils.readFileToByteArray(new File(path));
+            if (path != null && fileData == null && veriniceArchive == null) {
+                if (isVeriniceArchive()) {
+                    loadVeriniceArchive(path);
+                } else {
+                    fileData = FileUtils.readFileToByteArray(new File(path));
+                }
             }
 
             if (veriniceArchive == null) {
@@ -170,6 +180,7 @@ public class SyncCommand extends ChangeLoggingCommand
 
             doInsertAndUpdate();
             doDelete();
+            updateReadAcls();
 
             logRuntime(start);
         } catch (RuntimeException e) {
@@ -187,7 +198,19 @@ public class SyncCommand extends ChangeLoggingCommand
         }
     }
 
-    private void logRuntime(long start) {
+    /**
+     * Computes the read ACL of the imported elements, see
+     * {@link ReadAclUpdater}.
+     */
+    private void updateReadAcls() {
+        int numberOfElements = new ReadAclUpdater(getDaoFactory().getDAO(CnATreeElement.class))
+                .updateMissing();
+        if (log.isDebugEnabled()) {
+            log.debug("Read ACL computed for " + numberOfElements + " elements");
+        }
+    }
+
+        private void logRuntime(long start) {
         if (log.isInfoEnabled()) {
             long time = System.currentTimeMillis() - start;
             log.info("Runtime: " + TimeFormatter.getHumanRedableTime(time));
@@ -195,10 +218,18 @@ public class SyncCommand extends ChangeLoggingCommand
     }
 
     private void doInsertAndUpdate() throws CommandException {
-        SyncInsertUpdateCommand cmdInsertUpdate = new SyncInsertUpdateCommand(
-                veriniceArchive.getSourceId(), veriniceArchive.getSyncData(),
-                veriniceArchive.getSyncMapping(), getAuthService().getUsername(), parameter,
-                errors);
+        SyncInsertUpdateCommand cmdInsertUpdate;
+        if (veriniceArchive instanceof VeriniceArchive) {
+            // objects are read one by one while importing
+            cmdInsertUpdate = new SyncInsertUpdateCommand(veriniceArchive.getSourceId(),
+                    ((VeriniceArchive) veriniceArchive).createSyncDataReader(),
+                    veriniceArchive.getSyncMapping(), getAuthService().getUsername(), parameter,
+                    errors);
+        } else {
+            cmdInsertUpdate = new SyncInsertUpdateCommand(veriniceArchive.getSourceId(),
+                    veriniceArchive.getSyncData(), veriniceArchive.getSyncMapping(),
+                    getAuthService().getUsername(), parameter, errors);
+        }
         cmdInsertUpdate.setRisk(veriniceArchive.getSyncRiskAnalysis());
         cmdInsertUpdate.setTempDirName(veriniceArchive.getTempDirName());
         cmdInsertUpdate = getCommandService().executeCommand(cmdInsertUpdate);
@@ -212,14 +243,21 @@ public class SyncCommand extends ChangeLoggingCommand
                 elementSet.stream().map(CnATreeElement::getUuid).collect(Collectors.toSet()));
         importRootObjectUUIDs = Collections.unmodifiableSet(importRootObjects.stream()
                 .map(CnATreeElement::getUuid).collect(Collectors.toSet()));
+        syncObjectExtIds = cmdInsertUpdate.getSyncObjectExtIds();
         inserted += cmdInsertUpdate.getInserted();
         potentiallyUpdated += cmdInsertUpdate.getUpdated();
     }
 
     private void doDelete() throws CommandException {
         if (parameter.isDelete()) {
-            SyncDeleteCommand cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
-                    veriniceArchive.getSyncData(), errors);
+            SyncDeleteCommand cmdDelete;
+            if (veriniceArchive instanceof VeriniceArchive) {
+                cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
+                        syncObjectExtIds, errors);
+            } else {
+                cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
+                        veriniceArchive.getSyncData(), errors);
+            }
             cmdDelete = getCommandService().executeCommand(cmdDelete);
             deleted += cmdDelete.getDeleted();
         }
@@ -235,6 +273,7 @@ public class SyncCommand extends ChangeLoggingCommand
             veriniceArchive.clear();
         }
         fileData = null;
+        syncObjectExtIds = null;
         elementSet = null;
         importRootObjects = null;
     }
@@ -258,6 +297,17 @@ public class SyncCommand extends ChangeLoggingCommand
         logXml();
     }
 
+    /**
+     * Streams a verinice archive from a file to a temporary directory without
+     * loading the archive into memory.
+     */
+    private void loadVeriniceArchive(String archivePath) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(archivePath))) {
+            veriniceArchive = new VeriniceArchive(in);
+        }
+        logXml();
+    }
+
     public int getInserted() {
         return inserted;
     }
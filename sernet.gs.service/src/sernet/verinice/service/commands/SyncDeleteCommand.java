@@ -23,6 +23,7 @@ package sernet.verinice.service.commands;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -52,6 +53,7 @@ public class SyncDeleteCommand extends GenericCommand {
 
     private String sourceId;
     private SyncData syncData;
+    private Set<String> syncObjectExtIds;
 
     private List<String> errors;
 
@@ -67,6 +69,17 @@ public class SyncDeleteCommand extends GenericCommand {
         this.errors = errorList;
     }
 
+    /**
+     * Creates a command which deletes all elements of <code>sourceId</code>
+     * whose ext-id is not contained in <code>syncObjectExtIds</code>.
+     */
+    public SyncDeleteCommand(String sourceId, Set<String> syncObjectExtIds,
+            List<String> errorList) {
+        this.sourceId = sourceId;
+        this.syncObjectExtIds = syncObjectExtIds;
+        this.errors = errorList;
+    }
+
     /* Search for objects within database, which have previously been synced
      * from the given sourceId, but not listed any more. Delete those objects
      * from the database.
@@ -89,7 +102,11 @@ public class SyncDeleteCommand extends GenericCommand {
         // extId's which are present in the sync Data:
         HashSet<String> currentExtIds = new HashSet<String>();
 
-        collectExtIds(syncData.getSyncObject(), currentExtIds);
+        if (syncObjectExtIds != null) {
+            currentExtIds.addAll(syncObjectExtIds);
+        } else {
+            collectExtIds(syncData.getSyncObject(), currentExtIds);
+        }
 
         // find objects in the db, which have been synched from
         // this sourceId in the past, but are missing in the current list:
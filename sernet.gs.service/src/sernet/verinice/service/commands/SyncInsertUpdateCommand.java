@@ -23,6 +23,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -79,7 +82,9 @@ import sernet.verinice.model.iso27k.Organization;
 import sernet.verinice.service.bp.LoadBpModel;
 import sernet.verinice.service.iso27k.LoadImportObjectsHolder;
 import sernet.verinice.service.model.LoadModel;
+import sernet.verinice.service.sync.ISyncDataHandler;
 import sernet.verinice.service.sync.IVeriniceArchive;
+import sernet.verinice.service.sync.SyncDataReader;
 
 /**
  * This command is used as a sub-command of {@link SyncCommand} to insert and
@@ -103,6 +108,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     private boolean sourceIdExists;
     private transient SyncMapping syncMapping;
     private transient SyncData syncData;
+    private transient SyncDataReader syncDataReader;
     private transient Risk risk;
     private String userName;
     private String tempDirName;
@@ -119,8 +125,14 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
     private Set<CnATreeElement> elementSet = new HashSet<>();
 
+    private transient Set<String> syncObjectExtIds = new HashSet<>();
+
     private transient Map<String, CnATreeElement> idElementMap = new HashMap<>();
 
+    private transient ExternalIdElementCache elementCache;
+
+    private transient List<String> linkExtIds;
+
     private transient Map<String, Attachment> attachmentMap;
 
     private transient IAuthService authService;
@@ -143,6 +155,18 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         attachmentMap = new HashMap<>();
     }
 
+    /**
+     * Creates a command which reads the objects and links to import one by
+     * one from <code>syncDataReader</code> instead of holding the complete
+     * sync data in memory.
+     */
+    public SyncInsertUpdateCommand(String sourceId, SyncDataReader syncDataReader,
+            SyncMapping syncMapping, String userName, SyncParameter parameter,
+            List<String> errorList) {
+        this(sourceId, (SyncData) null, syncMapping, userName, parameter, errorList);
+        this.syncDataReader = syncDataReader;
+    }
+
     /**
      * Processes the given <syncData> and <syncMapping> elements in order to
      * insert and/or update objects in(to) the database, according to the flags
@@ -187,20 +211,23 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                             .add(link.getRelationId()));
                 }
             }
-            List<SyncObject> soList = syncData.getSyncObject();
-
-            for (SyncObject so : soList) {
-                importObject(null, so);
-            } // for <syncObject>
+            if (sourceIdExists || parameter.isImportAsCatalog()) {
+                createElementCache(iBaseDao);
+            }
+            if (syncDataReader != null) {
+                syncDataReader.read(new SyncDataImportHandler());
+            } else {
+                List<SyncObject> soList = syncData.getSyncObject();
 
-            importReferenceTypes.replaceExternalIdsWithDbIds();
+                for (SyncObject so : soList) {
+                    importObject(null, so);
+                } // for <syncObject>
 
-            if (logrt.isDebugEnabled()) {
-                logrt.debug("Elements: " + merged);
-            }
+                finishObjectImport();
 
-            for (SyncLink syncLink : syncData.getSyncLink()) {
-                importLink(syncLink);
+                for (SyncLink syncLink : syncData.getSyncLink()) {
+                    importLink(syncLink);
+                }
             }
 
             importRiskAnalysis();
@@ -215,6 +242,36 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
     }
 
+    /**
+     * Loads the db-ids of all elements in the database with an ext-id of the
+     * import before the import starts. Elements are loaded in chunks
+     * afterwards instead of one query for every sync object and link.
+     */
+    private void createElementCache(IBaseDao<CnATreeElement, Serializable> dao)
+            throws CommandException {
+        elementCache = new ExternalIdElementCache(dao, sourceId, FLUSH_LEVEL);
+        List<String> objectExtIds = new ArrayList<>();
+        linkExtIds = new ArrayList<>();
+        if (syncDataReader != null) {
+            syncDataReader.readExtIds(objectExtIds, linkExtIds);
+        } else {
+            addExtIds(syncData.getSyncObject(), objectExtIds);
+            for (SyncLink syncLink : syncData.getSyncLink()) {
+                linkExtIds.add(syncLink.getDependant());
+                linkExtIds.add(syncLink.getDependency());
+            }
+        }
+        elementCache.loadIds(objectExtIds);
+        elementCache.loadIds(linkExtIds);
+    }
+
+    private static void addExtIds(List<SyncObject> syncObjects, List<String> extIds) {
+        for (SyncObject syncObject : syncObjects) {
+            extIds.add(syncObject.getExtId());
+            addExtIds(syncObject.getChildren(), extIds);
+        }
+    }
+
     private boolean isSourceIdInDatabase(String id) throws CommandException {
         CheckSourceId checkSourceIdCommand = new CheckSourceId(id);
         checkSourceIdCommand = getCommandService().executeCommand(checkSourceIdCommand);
@@ -226,6 +283,70 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     }
 
     private void importObject(CnATreeElement parent, SyncObject so) throws CommandException {
+        MapObjectType mot = getMapObjectType(so);
+        if (mot == null) {
+            return;
+        }
+        CnATreeElement elementInDB = importObjectAttributes(parent, so, mot);
+
+        if (isVeriniceArchive()) {
+            importFileList(elementInDB, so.getFile());
+        }
+
+        // Handle all the child objects.
+        for (SyncObject child : so.getChildren()) {
+            // The object that was created or modified during the course of
+            // this method call is the parent for the import of the
+            // child elements.
+            if (log.isDebugEnabled() && child != null) {
+                log.debug("Child found, type: " + child.getExtObjectType() + ", extId: "
+                        + child.getExtId());
+            }
+            importObject(elementInDB, child);
+        }
+    }
+
+    private MapObjectType getMapObjectType(SyncObject so) {
+        MapObjectType mot = getMap(so.getExtObjectType());
+        if (mot == null) {
+            final String message = "Could not find mapObjectType-Element" + " for XML type: "
+                    + so.getExtObjectType();
+            log.error(message);
+            errorList.add(message);
+        }
+        return mot;
+    }
+
+    private void finishObjectImport() {
+        importReferenceTypes.replaceExternalIdsWithDbIds();
+
+        if (elementCache != null) {
+            // elements of the objects are detached after flushing, load the
+            // link ends which are not imported in one go
+            elementCache.clear();
+            List<String> extIds = new ArrayList<>();
+            for (String extId : linkExtIds) {
+                if (!idElementMap.containsKey(extId)) {
+                    extIds.add(extId);
+                }
+            }
+            elementCache.prefetch(extIds);
+        }
+
+        if (logrt.isDebugEnabled()) {
+            logrt.debug("Elements: " + merged);
+        }
+    }
+
+    /**
+     * Inserts or updates the element of a sync object without its files and
+     * children.
+     * 
+     * @return The element in the database or null if the element was not
+     *         inserted
+     */
+    private CnATreeElement importObjectAttributes(CnATreeElement parent, SyncObject so,
+            MapObjectType mot) throws CommandException {
         String extId = so.getExtId();
         String extObjectType = so.getExtObjectType();
         long start = 0;
@@ -239,26 +360,17 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
         boolean setAttributes = false;
 
-        MapObjectType mot = getMap(extObjectType);
-
-        if (mot == null) {
-            final String message = "Could not find mapObjectType-Element" + " for XML type: "
-                    + extObjectType;
-            log.error(message);
-            errorList.add(message);
-            return;
-        }
-
         // this element "knows", which huientitytype is applicable and
         // how the associated properties have to be mapped!
         String veriniceObjectType = mot.getIntId();
 
         CnATreeElement elementInDB = null;
         if (sourceIdExists && !parameter.isImportAsCatalog()) {
-            elementInDB = findDbElement(sourceId, extId, true, true);
+            elementInDB = elementCache.get(extId);
         }
 
         boolean updatingExistingElement = false;
+        boolean insertingElement = false;
         if (elementInDB != null) {
             if (parameter.isUpdate()) {
                 /*** UPDATE: ***/
@@ -308,6 +420,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 }
 
                 setAttributes = true;
+                insertingElement = true;
                 inserted++;
                 if (log.isDebugEnabled()) {
                     log.debug("Element inserted, uuid: " + elementInDB.getUuid());
@@ -366,6 +479,11 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                         .ifPresent(entity -> entity.trackChange(authService.getUsername()));
             }
             elementInDB = dao.merge(elementInDB);
+            if (insertingElement && elementCache != null && !parameter.isIntegrate()) {
+                // objects with the same ext-id later in the import update the
+                // inserted element
+                elementCache.add(extId, elementInDB);
+            }
             parent.addChild(elementInDB);
             elementInDB.setParentAndScope(parent);
 
@@ -380,10 +498,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
             }
         }
 
-        if (isVeriniceArchive()) {
-            importFileList(elementInDB, so.getFile());
-        }
-
         if (elementInDB != null) {
             idElementMap.put(extId, elementInDB);
         }
@@ -391,17 +505,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         if (logrt.isDebugEnabled()) {
             logRuntime(start);
         }
-        // Handle all the child objects.
-        for (SyncObject child : so.getChildren()) {
-            // The object that was created or modified during the course of
-            // this method call is the parent for the import of the
-            // child elements.
-            if (log.isDebugEnabled() && child != null) {
-                log.debug("Child found, type: " + child.getExtObjectType() + ", extId: "
-                        + child.getExtId());
-            }
-            importObject(elementInDB, child);
-        }
+        return elementInDB;
     }
 
     /**
@@ -617,7 +721,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         String dependencyId = syncLink.getDependency();
         CnATreeElement dependant = idElementMap.get(dependantId);
         if (dependant == null) {
-            dependant = findDbElement(this.sourceId, dependantId, true, true);
+            dependant = findDbElement(dependantId);
             if (dependant == null) {
                 log.warn("Can not import link. dependant not found in "
                         + "xml file and db, dependant ext-id: " + dependantId
@@ -629,7 +733,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
         CnATreeElement dependency = idElementMap.get(dependencyId);
         if (dependency == null) {
-            dependency = findDbElement(this.sourceId, dependencyId, true, true);
+            dependency = findDbElement(dependencyId);
             if (dependency == null) {
                 log.warn("Can not import link. dependency not found in "
                         + "xml file and db, dependency ext-id: " + dependencyId
@@ -798,39 +902,17 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
      * Query element (by externalID) from DB, which has been previously
      * synchronized from the given sourceID.
      * 
-     * @param sourceId
      * @param externalId
      * @return the CnATreeElement from the query or null, if nothing was found
      * @throws RuntimeException
      *             if more than one element is found
      */
-    private CnATreeElement findDbElement(String sourceId, String externalId, boolean fetchLinksDown,
-            boolean fetchLinksUp) {
-        CnATreeElement result = null;
-        // use a new crudCommand (load by external, source id):
-        LoadCnAElementByExternalID command = new LoadCnAElementByExternalID(sourceId, externalId,
-                fetchLinksDown, fetchLinksUp);
-        command.setParent(true);
-        try {
-            command = getCommandService().executeCommand(command);
-        } catch (CommandException e) {
-            final String message = "Error while loading element by source and external ID";
-            log.error(message, e);
-            throw new RuntimeCommandException(message, e);
+    private CnATreeElement findDbElement(String externalId) {
+        if (elementCache == null) {
+            // source-id is not in the database
+            return null;
         }
-        List<CnATreeElement> foundElements = command.getElements();
-        if (foundElements != null) {
-            if (foundElements.size() == 1) {
-                result = foundElements.get(0);
-            }
-            if (foundElements.size() > 1) {
-                final String message = "Found more than one element with source-id: " + sourceId
-                        + " and external ID: " + externalId;
-                log.error(message);
-                throw new RuntimeCommandException(message);
-            }
-        }
-        return result;
+        return elementCache.get(externalId);
     }
 
     /**
@@ -1005,6 +1087,14 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         return elementSet;
     }
 
+    /**
+     * @return The ext-ids of all objects read from the {@link SyncDataReader}
+     *         of this command
+     */
+    public Set<String> getSyncObjectExtIds() {
+        return syncObjectExtIds;
+    }
+
     protected String getUserName() {
         return userName;
     }
@@ -1036,6 +1126,9 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
         dao.flush();
         dao.clear();
+        if (elementCache != null) {
+            elementCache.clear();
+        }
         if (logrt.isDebugEnabled()) {
             long time = System.currentTimeMillis() - flushstart;
             logrt.debug("Flushed, runtime: " + time + " ms");
@@ -1077,4 +1170,68 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         existingLinksForScope = null;
     }
 
+    /**
+     * Imports the objects and links passed by a {@link SyncDataReader}. The
+     * element of every object which is not finished yet is kept on a stack
+     * and used as parent of the children of the object.
+     */
+    private class SyncDataImportHandler implements ISyncDataHandler {
+
+        private final Deque<ImportFrame> frames = new ArrayDeque<>();
+
+        @Override
+        public void startObject(SyncObject syncObject) throws CommandException {
+            syncObjectExtIds.add(syncObject.getExtId());
+            ImportFrame parentFrame = frames.peek();
+            if (parentFrame != null && parentFrame.skipped) {
+                // children of objects without mapping are not imported
+                frames.push(ImportFrame.SKIPPED);
+                return;
+            }
+            MapObjectType mot = getMapObjectType(syncObject);
+            if (mot == null) {
+                frames.push(ImportFrame.SKIPPED);
+                return;
+            }
+            CnATreeElement parent = (parentFrame != null) ? parentFrame.element : null;
+            frames.push(new ImportFrame(importObjectAttributes(parent, syncObject, mot)));
+        }
+
+        @Override
+        public void endObject(SyncObject syncObject) throws CommandException {
+            ImportFrame frame = frames.pop();
+            if (!frame.skipped && isVeriniceArchive()) {
+                importFileList(frame.element, syncObject.getFile());
+            }
+        }
+
+        @Override
+        public void endObjects() {
+            finishObjectImport();
+        }
+
+        @Override
+        public void handleLink(SyncLink syncLink) {
+            importLink(syncLink);
+        }
+    }
+
+    private static final class ImportFrame {
+
+        static final ImportFrame SKIPPED = new ImportFrame(null, true);
+
+        private final CnATreeElement element;
+
+        private final boolean skipped;
+
+        ImportFrame(CnATreeElement element) {
+            this(element, false);
+        }
+
+        private ImportFrame(CnATreeElement element, boolean skipped) {
+            this.element = element;
+            this.skipped = skipped;
+        }
+    }
+
 }
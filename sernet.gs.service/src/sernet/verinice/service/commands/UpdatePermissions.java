@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Set;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.gs.service.WritePermissionCache;
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.ChangeLoggingCommand;
 import sernet.verinice.interfaces.IBaseDao;
@@ -41,6 +42,11 @@ import sernet.verinice.model.common.Permission;
  * Optionally all child elements inherit the permissions as well.
  * </p>
  * 
+ * <p>
+ * The read ACLs of the updated elements are recomputed by
+ * {@link ReadAclUpdater}.
+ * </p>
+ * 
  * @author Robert Schuster <r.schuster@tarent.de>
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
@@ -57,6 +63,7 @@ public class UpdatePermissions extends ChangeLoggingCommand implements IChangeLo
     private boolean overridePermission;
 
     private List<CnATreeElement> changedElements = new ArrayList<CnATreeElement>();
+    private transient List<CnATreeElement> updatedElements;
     private transient IBaseDao<CnATreeElement, Serializable> dao;
     private transient IBaseDao<Permission, Serializable> permissionDao;
     private String stationId;
@@ -102,11 +109,15 @@ public class UpdatePermissions extends ChangeLoggingCommand implements IChangeLo
     @Override
     public void execute() {
         CnATreeElement cte = loadElement();
+        updatedElements = new ArrayList<>();
         if (getConfigurationService().isWriteAllowed(cte)) {
             updateElement(cte);
             if (updateChildren) {
                 updateChildren(cte.getChildren());
             }
+            getDao().flush();
+            new ReadAclUpdater(getDao()).update(updatedElements);
+            WritePermissionCache.invalidate();
         }
 
         // Since the result of a change to permissions is that the model is
@@ -129,6 +140,7 @@ public class UpdatePermissions extends ChangeLoggingCommand implements IChangeLo
             removePermission(element, permission);
         }
         getDao().saveOrUpdate(element);
+        updatedElements.add(element);
     }
 
     private void initializePermissions(CnATreeElement element) {
@@ -20,6 +20,8 @@
 package sernet.verinice.service.commands.bp;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -30,11 +32,14 @@ import org.hibernate.criterion.Restrictions;
 
 import sernet.gs.service.RetrieveInfo;
 import sernet.verinice.interfaces.ChangeLoggingCommand;
+import sernet.verinice.interfaces.IAuthAwareCommand;
+import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.bp.elements.ItNetwork;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.bp.exceptions.BpModelingException;
+import sernet.verinice.service.commands.ReadAclUpdater;
 
 /**
  * This command models modules from the compendium with target objects from an
@@ -73,9 +78,16 @@ import sernet.verinice.service.bp.exceptions.BpModelingException;
  * compendium. Two links are created: Requirement to safeguard and requirement
  * to elemental threat if the relevant objects exist.
  *
+ * Copies
+ *
+ * All copies are created by one {@link ModelingCopier} in the session of this
+ * command. The read ACLs of the copies are computed once at the end and the
+ * copies are returned by {@link #getChangedElements()} to create the change
+ * log in one batch.
+ *
  * @author Daniel Murygin <dm{a}sernet{dot}de>
  */
-public class ModelCommand extends ChangeLoggingCommand {
+public class ModelCommand extends ChangeLoggingCommand implements IAuthAwareCommand {
 
     private static final long serialVersionUID = -7021777504561600179L;
 
@@ -90,6 +102,10 @@ public class ModelCommand extends ChangeLoggingCommand {
 
     private String stationId;
 
+    private transient IAuthService authService;
+
+    private transient List<CnATreeElement> newElements = Collections.emptyList();
+
     public ModelCommand(Set<String> compendiumUuids, List<String> targetUuids) {
         super();
         this.stationId = ChangeLogEntry.STATION_ID;
@@ -114,12 +130,17 @@ public class ModelCommand extends ChangeLoggingCommand {
         ItNetwork itNetwork = loadItNetwork(targetElements);
         ModelingData modelingData = new ModelingData(requirementGroups, targetElements,
                 handleSafeguards, handleDummySafeguards);
+        ModelingCopier copier = new ModelingCopier(getDao(), getAuthService());
 
-        handleModules(modelingData);
+        handleModules(copier, modelingData);
         if (isHandleSafeguards()) {
-            handleSafeguards(modelingData);
+            handleSafeguards(copier, modelingData);
+        }
+        handleThreats(copier, modelingData);
+        if (getAuthService().isPermissionHandlingNeeded()) {
+            new ReadAclUpdater(getDao()).update(copier.getNewElements());
         }
-        handleThreats(modelingData);
+        newElements = new ArrayList<>(copier.getNewElements());
         if (isHandleSafeguards() && isHandleDummySafeguards()) {
             createDummySafeguards(modelingData);
         }
@@ -127,21 +148,21 @@ public class ModelCommand extends ChangeLoggingCommand {
 
     }
 
-    private void handleModules(ModelingData modelingData) {
-        ModelCopyTask modelModulesTask = new ModelModulesTask(getCommandService(), getDaoFactory(),
+    private void handleModules(ModelingCopier copier, ModelingData modelingData) {
+        ModelCopyTask modelModulesTask = new ModelModulesTask(copier, getDaoFactory(),
                 modelingData);
         modelModulesTask.run();
     }
 
-    private void handleSafeguards(ModelingData modelingData) {
-        ModelSafeguardGroupTask modelSafeguardsTask = new ModelSafeguardGroupTask(
-                getCommandService(), getDaoFactory(), modelingData);
+    private void handleSafeguards(ModelingCopier copier, ModelingData modelingData) {
+        ModelSafeguardGroupTask modelSafeguardsTask = new ModelSafeguardGroupTask(copier,
+                getDaoFactory(), modelingData);
         modelSafeguardsTask.run();
     }
 
-    private void handleThreats(ModelingData modelingData) {
-        ModelThreatGroupTask modelThreatsTask = new ModelThreatGroupTask(getCommandService(),
-                getDaoFactory(), modelingData);
+    private void handleThreats(ModelingCopier copier, ModelingData modelingData) {
+        ModelThreatGroupTask modelThreatsTask = new ModelThreatGroupTask(copier, getDaoFactory(),
+                modelingData);
         modelThreatsTask.run();
     }
 
@@ -237,4 +258,23 @@ public class ModelCommand extends ChangeLoggingCommand {
         return ChangeLogEntry.TYPE_INSERT;
     }
 
+    /**
+     * @return All elements copied from the compendium. Dummy safeguards are
+     *         created and logged by their own commands.
+     */
+    @Override
+    public List<CnATreeElement> getChangedElements() {
+        return newElements;
+    }
+
+    @Override
+    public IAuthService getAuthService() {
+        return authService;
+    }
+
+    @Override
+    public void setAuthService(IAuthService authService) {
+        this.authService = authService;
+    }
+
 }
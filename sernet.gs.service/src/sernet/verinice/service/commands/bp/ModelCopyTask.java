@@ -18,7 +18,6 @@
 package sernet.verinice.service.commands.bp;
 
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -27,24 +26,21 @@ import java.util.Set;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
-import sernet.gs.service.RuntimeCommandException;
 import sernet.hui.common.connect.Property;
 import sernet.hui.common.connect.PropertyList;
-import sernet.verinice.interfaces.CommandException;
-import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.commands.CnATypeMapper;
-import sernet.verinice.service.commands.CopyCommand;
 
 /**
  * Abstract base class for modeling modules and safeguard groups. The modules
  * and safeguard groups are copied and pasted as children of the elements.
+ * The copies are created by a {@link ModelingCopier} which is shared by all
+ * tasks of a {@link ModelCommand}.
  */
 public abstract class ModelCopyTask implements Runnable {
 
@@ -52,7 +48,7 @@ public abstract class ModelCopyTask implements Runnable {
     private static final Pattern RELEASE_PATTERN = Pattern.compile("(\\d{4})-(\\d+)");
     private static final String TITLE_REMOVED = "ENTFALLEN";
 
-    protected final ICommandService commandService;
+    protected final ModelingCopier copier;
     protected final IDAOFactory daoFactory;
 
     protected final ModelingData modelingData;
@@ -67,11 +63,11 @@ public abstract class ModelCopyTask implements Runnable {
     // key: element from compendium, value: element from scope
     private Map<CnATreeElement, CnATreeElement> existingGroupsByCompendiumGroup;
 
-    public ModelCopyTask(ICommandService commandService, IDAOFactory daoFactory,
+    public ModelCopyTask(ModelingCopier copier, IDAOFactory daoFactory,
             ModelingData modelingData, String handledGroupTypeId,
             Predicate<CnATreeElement> elementFilter, String elementReleaseProperty,
             String groupReleaseProperty) {
-        this.commandService = commandService;
+        this.copier = copier;
         this.daoFactory = daoFactory;
         this.modelingData = modelingData;
         this.handledGroupTypeId = handledGroupTypeId;
@@ -85,18 +81,13 @@ public abstract class ModelCopyTask implements Runnable {
 
     @Override
     public void run() {
-        try {
-            for (CnATreeElement target : targetElements) {
-                copyMissingGroups(target);
-                for (Map.Entry<CnATreeElement, CnATreeElement> entry : existingGroupsByCompendiumGroup
-                        .entrySet()) {
-                    handleExistingGroup(entry.getKey(), entry.getValue());
-                    modelingData.addMappingForExistingElement(entry.getKey(), entry.getValue());
-                }
+        for (CnATreeElement target : targetElements) {
+            copyMissingGroups(target);
+            for (Map.Entry<CnATreeElement, CnATreeElement> entry : existingGroupsByCompendiumGroup
+                    .entrySet()) {
+                handleExistingGroup(entry.getKey(), entry.getValue());
+                modelingData.addMappingForExistingElement(entry.getKey(), entry.getValue());
             }
-        } catch (CommandException e) {
-            LOG.error("Error while modeling.", e);
-            throw new RuntimeCommandException("Error while modeling.", e);
         }
     }
 
@@ -123,7 +114,7 @@ public abstract class ModelCopyTask implements Runnable {
             boolean elementRemoved);
 
     protected void handleExistingGroup(CnATreeElement groupFromCompendium,
-            CnATreeElement groupFromScope) throws CommandException {
+            CnATreeElement groupFromScope) {
         String scopeGroupRelease = groupFromScope.getEntity()
                 .getRawPropertyValue(groupReleaseProperty);
         String compendiumGroupRelease = groupFromCompendium.getEntity()
@@ -163,11 +154,7 @@ public abstract class ModelCopyTask implements Runnable {
             }
         }
         if (!missingElements.isEmpty()) {
-            CopyCommand copyCommand = new ModelingCopyCommand(
-                    groupFromScope.getParent(), groupFromScope.getUuid(), missingElements.stream()
-                            .map(CnATreeElement::getUuid).collect(Collectors.toList()),
-                    modelingData);
-            commandService.executeCommand(copyCommand);
+            copy(groupFromScope.getParent(), groupFromScope, missingElements);
         }
     }
 
@@ -229,17 +216,26 @@ public abstract class ModelCopyTask implements Runnable {
         return idMap;
     }
 
-    private void copyMissingGroups(CnATreeElement target) throws CommandException {
+    private void copyMissingGroups(CnATreeElement target) {
         List<CnATreeElement> missingGroups = getMissingGroups(target);
         if (!missingGroups.isEmpty()) {
-            List<String> missingGroupUuids = missingGroups.stream().map(CnATreeElement::getUuid)
-                    .collect(Collectors.toList());
-            CopyCommand copyCommand = new ModelingCopyCommand(target, target.getUuid(),
-                    missingGroupUuids, modelingData);
-            commandService.executeCommand(copyCommand);
+            copy(target, target, missingGroups);
         }
     }
 
+    private void copy(CnATreeElement targetElement, CnATreeElement group,
+            List<CnATreeElement> compendiumElements) {
+        copier.copy(group, compendiumElements,
+                descendant -> !isElementRemoved(descendant)
+                        && (elementFilter == null || elementFilter.test(descendant)),
+                (original, copy) -> {
+                    modelingData.addMappingForNewElement(original, copy);
+                    if (elementTypeId.equals(copy.getTypeId())) {
+                        afterCopyElement(targetElement, copy, original);
+                    }
+                });
+    }
+
     private List<CnATreeElement> getMissingGroups(CnATreeElement targetWithChildren) {
         List<CnATreeElement> missingGroups = new LinkedList<>();
         Set<CnATreeElement> targetChildren = targetWithChildren.getChildren();
@@ -315,33 +311,4 @@ public abstract class ModelCopyTask implements Runnable {
         }
     }
 
-    private final class ModelingCopyCommand extends CopyCommand {
-        private static final long serialVersionUID = 6836616806403844422L;
-
-        private transient ModelingData modelingData;
-
-        private transient CnATreeElement targetElement;
-
-        private ModelingCopyCommand(CnATreeElement targetElement, String uuidGroup,
-                List<String> uuidList, ModelingData modelingData) {
-            super(uuidGroup, uuidList, Collections.emptyList(), -1);
-            this.targetElement = targetElement;
-            this.modelingData = modelingData;
-        }
-
-        @Override
-        protected void afterCopy(CnATreeElement original, CnATreeElement copy) {
-            modelingData.addMappingForNewElement(original, copy);
-            if (elementTypeId.equals(copy.getTypeId())) {
-                afterCopyElement(targetElement, copy, original);
-            }
-        }
-
-        @Override
-        protected boolean copyDescendant(CnATreeElement descendant, CnATreeElement groupToCopyTo) {
-            return !isElementRemoved(descendant)
-                    && (elementFilter == null || elementFilter.test(descendant));
-        }
-    }
-
 }
@@ -21,7 +21,6 @@ package sernet.verinice.service.commands.bp;
 
 import java.util.Set;
 
-import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.model.bp.elements.BpRequirement;
 import sernet.verinice.model.bp.groups.BpRequirementGroup;
@@ -40,9 +39,9 @@ public class ModelModulesTask extends ModelCopyTask {
 
     private final Set<CnATreeElement> modulesCompendium;
 
-    public ModelModulesTask(ICommandService commandService, IDAOFactory daoFactory,
+    public ModelModulesTask(ModelingCopier copier, IDAOFactory daoFactory,
             ModelingData modelingData) {
-        super(commandService, daoFactory, modelingData, BpRequirementGroup.TYPE_ID, null,
+        super(copier, daoFactory, modelingData, BpRequirementGroup.TYPE_ID, null,
                 BpRequirement.PROP_RELEASE, BpRequirementGroup.PROP_RELEASE);
         this.modulesCompendium = modelingData.getRequirementGroups();
     }
@@ -27,7 +27,6 @@ import org.apache.log4j.Logger;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 
-import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.model.bp.elements.BpRequirement;
 import sernet.verinice.model.bp.elements.Safeguard;
@@ -49,9 +48,9 @@ public class ModelSafeguardGroupTask extends ModelCopyTask {
 
     private final Set<CnATreeElement> requirementGroups;
 
-    public ModelSafeguardGroupTask(ICommandService commandService, IDAOFactory daoFactory,
+    public ModelSafeguardGroupTask(ModelingCopier copier, IDAOFactory daoFactory,
             ModelingData modelingData) {
-        super(commandService, daoFactory, modelingData, SafeguardGroup.TYPE_ID, null,
+        super(copier, daoFactory, modelingData, SafeguardGroup.TYPE_ID, null,
                 Safeguard.PROP_RELEASE, SafeguardGroup.PROP_RELEASE);
         this.requirementGroups = modelingData.getRequirementGroups();
     }
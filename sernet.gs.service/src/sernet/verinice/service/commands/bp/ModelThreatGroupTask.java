@@ -28,7 +28,6 @@ import org.apache.log4j.Logger;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 
-import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IDAOFactory;
 import sernet.verinice.model.bp.elements.BpRequirement;
 import sernet.verinice.model.bp.elements.BpThreat;
@@ -50,9 +49,9 @@ public class ModelThreatGroupTask extends ModelCopyTask {
 
     private final Set<CnATreeElement> requirementGroups;
 
-    public ModelThreatGroupTask(ICommandService commandService, IDAOFactory daoFactory,
+    public ModelThreatGroupTask(ModelingCopier copier, IDAOFactory daoFactory,
             ModelingData modelingData) {
-        super(commandService, daoFactory, modelingData, BpThreatGroup.TYPE_ID,
+        super(copier, daoFactory, modelingData, BpThreatGroup.TYPE_ID,
                 element -> element.getLinksUp().stream().map(CnALink::getDependant)
                         .map(modelingData::getScopeElementByCompendiumElement)
                         .anyMatch(Objects::nonNull),
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.bp;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IAuthService;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.Permission;
+
+/**
+ * Copies elements from the compendium with all children to groups of an IT
+ * network during modeling.
+ *
+ * The copies are created in memory in the Hibernate session of the
+ * {@link ModelCommand}: UUID, parent, scope id and permissions are set and the
+ * copies are saved without executing a CreateElement and SaveElement command
+ * for every element. The inserts are sent to the database with JDBC batching
+ * when the session is flushed. Read ACLs and the change log of all copies are
+ * created once by the ModelCommand, see {@link #getNewElements()}.
+ */
+public class ModelingCopier {
+
+    private static final Logger LOG = Logger.getLogger(ModelingCopier.class);
+
+    private final IBaseDao<CnATreeElement, Serializable> dao;
+    private final IAuthService authService;
+    private final List<CnATreeElement> newElements = new ArrayList<>();
+
+    public ModelingCopier(IBaseDao<CnATreeElement, Serializable> dao, IAuthService authService) {
+        this.dao = dao;
+        this.authService = authService;
+    }
+
+    /**
+     * Copies elements with all children to a group.
+     *
+     * @param group
+     *            The group the copies are added to
+     * @param elements
+     *            The elements to copy
+     * @param descendantFilter
+     *            Decides which children of the elements are copied
+     * @param afterCopy
+     *            Called with the original and the copy after an element was
+     *            copied and before its children are copied
+     */
+    public void copy(CnATreeElement group, Collection<CnATreeElement> elements,
+            Predicate<CnATreeElement> descendantFilter,
+            BiConsumer<CnATreeElement, CnATreeElement> afterCopy) {
+        for (CnATreeElement element : elements) {
+            copy(group, element, descendantFilter, afterCopy);
+        }
+    }
+
+    private void copy(CnATreeElement group, CnATreeElement element,
+            Predicate<CnATreeElement> descendantFilter,
+            BiConsumer<CnATreeElement, CnATreeElement> afterCopy) {
+        if (element.getTypeId() == null || !group.canContain(element)) {
+            LOG.warn("Can not copy element with pk: " + element.getDbId() //$NON-NLS-1$
+                    + " to group with pk: " + group.getDbId()); //$NON-NLS-1$
+            return;
+        }
+        CnATreeElement original = dao.initializeAndUnproxy(element);
+        CnATreeElement copy = createCopy(group, original);
+        afterCopy.accept(original, copy);
+        for (CnATreeElement child : original.getChildren()) {
+            if (descendantFilter.test(child)) {
+                copy(copy, child, descendantFilter, afterCopy);
+            }
+        }
+    }
+
+    private CnATreeElement createCopy(CnATreeElement group, CnATreeElement original) {
+        CnATreeElement copy = newInstance(original, group);
+        copy.setChildren(new HashSet<CnATreeElement>());
+        if (authService.isPermissionHandlingNeeded()) {
+            copy.setPermissions(Permission.clonePermissionSet(copy, group.getPermissions()));
+        }
+        copy.getEntity().trackCreation(authService.getUsername());
+        copy.getEntity().copyEntity(original.getEntity());
+        if (original.getIconPath() != null) {
+            copy.setIconPath(original.getIconPath());
+        }
+        copy.setTitel(getUniqueTitle(group, copy));
+        group.addChild(copy);
+        copy.setParentAndScope(group);
+        dao.saveOrUpdate(copy);
+        newElements.add(copy);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Copy created: " + copy.getTitle()); //$NON-NLS-1$
+        }
+        return copy;
+    }
+
+    private static CnATreeElement newInstance(CnATreeElement original, CnATreeElement group) {
+        try {
+            return original.getClass().getConstructor(CnATreeElement.class).newInstance(group);
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeCommandException(
+                    "Can not create copy of element with type: " + original.getTypeId(), e); //$NON-NLS-1$
+        }
+    }
+
+    private static String getUniqueTitle(CnATreeElement group, CnATreeElement copy) {
+        String title = copy.getTitle();
+        Set<String> siblingTitles = new HashSet<>();
+        for (CnATreeElement sibling : group.getChildren()) {
+            if (copy.getTypeId().equals(sibling.getTypeId())) {
+                siblingTitles.add(sibling.getTitle());
+            }
+        }
+        String uniqueTitle = title;
+        int n = 0;
+        while (siblingTitles.contains(uniqueTitle)) {
+            n++;
+            uniqueTitle = Messages.getString("ModelingCopier.0", title, n); //$NON-NLS-1$
+        }
+        return uniqueTitle;
+    }
+
+    /**
+     * @return All elements created by this copier in the order of creation,
+     *         parents are created before their children
+     */
+    public List<CnATreeElement> getNewElements() {
+        return Collections.unmodifiableList(newElements);
+    }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -59,6 +60,7 @@ public class LoadReportElements extends GenericCommand implements ICachedCommand
     private String typeId;
     private Integer rootElement;
     private List<CnATreeElement> elements;
+    private Integer scopeId;
 
     private String[] specialGSClasses = new String[] { FinishedRiskAnalysis.TYPE_ID,
             BausteinUmsetzung.TYPE_ID, Datenverarbeitung.TYPE_ID, Personengruppen.TYPE_ID,
@@ -96,6 +98,7 @@ public class LoadReportElements extends GenericCommand implements ICachedCommand
                 return;
             }
             CnATreeElement root = command.getElements().get(0);
+            scopeId = root.getScopeId();
             if (log.isDebugEnabled()) {
                 log.debug("Loading children(" + this.typeId + ") of " + root.getTitle());
             }
@@ -223,6 +226,14 @@ public class LoadReportElements extends GenericCommand implements ICachedCommand
         return elements;
     }
 
+    /*
+     * @see sernet.verinice.interfaces.ICachedCommand#getCacheScopeIds()
+     */
+    @Override
+    public Set<Integer> getCacheScopeIds() {
+        return (scopeId != null) ? Collections.singleton(scopeId) : null;
+    }
+
     private boolean isGSElementAndCanContain(IBSIStrukturElement element, String typeId) {
         Class[] gsClasses = new Class[] { FinishedRiskAnalysis.class, BausteinUmsetzung.class,
                 LinkKategorie.class, Datenverarbeitung.class, Personengruppen.class,
@@ -50,6 +50,7 @@ public class UpdateMultipleElements<T extends ITypedElement> extends ChangeLoggi
 		if (elements.size()>0) {
 			IBaseDao<T, Serializable> dao = (IBaseDao<T, Serializable>) getDaoFactory()
 				.getDAO(elements.get(0).getTypeId());
+			dao.prefetchRights(getDbIds());
 			for (T element : elements) {
 				T mergedElement = dao.merge(element, true);
 				mergedElements.add(mergedElement);
@@ -57,6 +58,16 @@ public class UpdateMultipleElements<T extends ITypedElement> extends ChangeLoggi
 		}
 	}
 
+	private List<Integer> getDbIds() {
+		List<Integer> dbIds = new ArrayList<Integer>(elements.size());
+		for (T element : elements) {
+			if (element instanceof CnATreeElement) {
+				dbIds.add(((CnATreeElement) element).getDbId());
+			}
+		}
+		return dbIds;
+	}
+
 	/* (non-Javadoc)
 	 * @see sernet.gs.ui.rcp.main.service.commands.IClientNotifyingCommand#getChangeType()
 	 */
@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.migration;
+
+import java.io.Serializable;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.commands.ReadAclUpdater;
+
+/**
+ * Migration class to compute the read ACL of all elements. Table read_acl and
+ * column read_acl_id are created by Hibernate.
+ */
+public class MigrateDbTo1_07D extends DbMigration {
+
+    private static final long serialVersionUID = -1934783357616094152L;
+
+    private static final Logger logger = Logger.getLogger(MigrateDbTo1_07D.class);
+
+    @Override
+    public void execute() {
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory()
+                .getDAO(CnATreeElement.class);
+        int numberOfUpdatedElements = new ReadAclUpdater(dao).updateMissing();
+        logger.info("Read ACL computed for " + numberOfUpdatedElements + " elements");
+        updateVersion();
+    }
+
+    @Override
+    public double getVersion() {
+        return 1.07D;
+    }
+
+}
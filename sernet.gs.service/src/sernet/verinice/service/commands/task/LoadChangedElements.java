@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.task;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RetrieveInfo;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads the elements of changes pushed by the change event service with the
+ * same retrieve options as {@link GetChangesSince}. The elements are loaded
+ * with a few chunked queries. Elements which no longer exist or which the
+ * user is not allowed to read are not contained in the result.
+ */
+@SuppressWarnings("serial")
+public class LoadChangedElements extends GenericCommand {
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private List<Integer> dbIds;
+
+    private Map<Integer, CnATreeElement> changedElements;
+
+    public LoadChangedElements(Collection<Integer> dbIds) {
+        this.dbIds = new ArrayList<>(dbIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void execute() {
+        changedElements = new HashMap<>(dbIds.size());
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory().getDAO(CnATreeElement.class);
+        RetrieveInfo ri = RetrieveInfo.getPropertyChildrenInstance().setParent(true);
+        for (List<Integer> partition : CollectionUtil.partition(dbIds, MAX_IN_CLAUSE_SIZE)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+            criteria.add(Restrictions.in("dbId", partition));
+            ri.configureCriteria(criteria);
+            for (CnATreeElement element : (List<CnATreeElement>) dao.findByCriteria(criteria)) {
+                changedElements.put(element.getDbId(), element);
+            }
+        }
+    }
+
+    public Map<Integer, CnATreeElement> getChangedElements() {
+        return changedElements;
+    }
+}
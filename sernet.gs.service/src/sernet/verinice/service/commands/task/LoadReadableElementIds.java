@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.task;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Returns the db-ids of the given elements which the user is allowed to
+ * read. The command is executed with the read filter of the command service,
+ * elements which are not readable or do not exist are not returned.
+ */
+@SuppressWarnings("serial")
+public class LoadReadableElementIds extends GenericCommand {
+
+    private static final String HQL = "select elmt.dbId from CnATreeElement elmt "
+            + "where elmt.dbId in (:dbIds)"; //$NON-NLS-1$
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
+    private List<Integer> dbIds;
+
+    private HashSet<Integer> readableIds;
+
+    public LoadReadableElementIds(Collection<Integer> dbIds) {
+        this.dbIds = new ArrayList<>(dbIds);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void execute() {
+        readableIds = new HashSet<>(dbIds.size());
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory().getDAO(CnATreeElement.class);
+        for (final List<Integer> partition : CollectionUtil.partition(dbIds,
+                MAX_IN_CLAUSE_SIZE)) {
+            readableIds.addAll((List<Integer>) dao.executeCallback(session -> {
+                Query query = session.createQuery(HQL);
+                query.setParameterList("dbIds", partition);
+                return query.list();
+            }));
+        }
+    }
+
+    public Set<Integer> getReadableIds() {
+        return readableIds;
+    }
+}
@@ -19,14 +19,13 @@
  ******************************************************************************/
 package sernet.verinice.service.csv;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.nio.file.Paths;
 import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 
 import com.opencsv.CSVWriter;
@@ -59,8 +58,22 @@ public class CsvExport implements ICsvExport {
      */
     @Override
     public void exportToFile(List<String[]> table) throws CsvExportException {
+        try (CsvRowWriter writer = createRowWriter()) {
+            for (String[] row : table) {
+                writer.writeRow(row);
+            }
+        } catch (IOException e) {
+            throw new CsvExportException(ERROR_MESSAGE, e);
+        }
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.service.csv.ICsvExport#createRowWriter()
+     */
+    @Override
+    public CsvRowWriter createRowWriter() throws CsvExportException {
         try {
-            FileUtils.writeByteArrayToFile(new File(filePath), export(table));
+            return new CsvRowWriter(Paths.get(filePath), getSeperator(), getCharset());
         } catch (IOException e) {
             throw new CsvExportException(ERROR_MESSAGE, e);
         }
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.csv;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import com.opencsv.CSVWriter;
+
+/**
+ * Writes a CSV table row by row to a file. Rows are written to a buffered
+ * file channel as soon as they are passed to the writer, the table is never
+ * held in memory. Characters which can not be encoded in the charset are
+ * replaced.
+ *
+ * Create a writer with {@link ICsvExport#createRowWriter()} and close it after
+ * the last row.
+ */
+public class CsvRowWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final CSVWriter csvWriter;
+
+    private long numberOfRows = 0;
+
+    /**
+     * Opens a file for writing. An existing file is overwritten.
+     *
+     * @param path
+     *            Path of the CSV file
+     * @param seperator
+     *            The seperator for the values
+     * @param charset
+     *            The charset of the file
+     * @throws IOException
+     *             If the file can not be opened
+     */
+    public CsvRowWriter(Path path, char seperator, Charset charset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        Writer writer = new BufferedWriter(Channels.newWriter(channel, encoder, -1),
+                BUFFER_SIZE);
+        this.csvWriter = new CSVWriter(writer, seperator);
+    }
+
+    public void writeRow(String[] row) {
+        csvWriter.writeNext(row);
+        numberOfRows++;
+    }
+
+    public void writeRow(List<String> row) {
+        writeRow(row.toArray(new String[row.size()]));
+    }
+
+    /**
+     * @return The number of rows written by this writer
+     */
+    public long getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * Flushes all rows to the file and closes it.
+     *
+     * @throws IOException
+     *             If one of the rows could not be written
+     */
+    @Override
+    public void close() throws IOException {
+        boolean error = csvWriter.checkError();
+        csvWriter.close();
+        if (error) {
+            throw new IOException("Error while writing CSV file"); //$NON-NLS-1$
+        }
+    }
+}
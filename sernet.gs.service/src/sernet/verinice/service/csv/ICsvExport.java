@@ -64,6 +64,16 @@ public interface ICsvExport {
      */
     void exportToFile(List<String[]> table)  throws CsvExportException;
 
+    /**
+     * Opens the CSV file for writing the table row by row. Set file path with
+     * <code>setFilePath(path)</code> before. Close the writer after the last
+     * row.
+     *
+     * @return A writer for the rows of the table
+     * @throws CsvExportException
+     */
+    CsvRowWriter createRowWriter() throws CsvExportException;
+
     List<String[]> convert(List<List<String>> table);
 
     /**
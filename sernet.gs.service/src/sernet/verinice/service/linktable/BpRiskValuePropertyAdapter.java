@@ -110,6 +110,7 @@ public class BpRiskValuePropertyAdapter implements IPropertyAdapter {
     }
 
     private RiskConfiguration getRiskConfiguration(CnATreeElement element) {
+        validateScopeId(element);
         RiskConfiguration riskConfigurationFromCache = riskConfigurationCache
                 .findRiskConfiguration(element.getScopeId());
         if (riskConfigurationFromCache != null) {
@@ -118,9 +119,30 @@ public class BpRiskValuePropertyAdapter implements IPropertyAdapter {
             }
             return riskConfigurationFromCache;
         }
-        RiskConfiguration riskConfiguration = loadRiskConfiguration(element);
-        riskConfigurationCache.putRiskConfiguration(element.getScopeId(), riskConfiguration);
-        return riskConfiguration;
+        return riskConfigurationCache.getRiskConfiguration(element.getScopeId(),
+                scopeId -> loadRiskConfiguration(element));
+    }
+
+    /**
+     * Loads the risk configurations of the scopes of all threats into a
+     * cache. Call this method before the cache is used by several threads to
+     * load the configurations in the calling thread.
+     *
+     * @param elements
+     *            Elements of a link table, only threats are considered
+     * @param riskConfigurationCache
+     *            The cache for the risk configurations
+     */
+    public static void loadRiskConfigurations(Collection<CnATreeElement> elements,
+            RiskConfigurationCache riskConfigurationCache) {
+        for (CnATreeElement element : elements) {
+            if (element instanceof BpThreat && element.getScopeId() != null
+                    && riskConfigurationCache
+                            .findRiskConfiguration(element.getScopeId()) == null) {
+                new BpRiskValuePropertyAdapter((BpThreat) element, riskConfigurationCache)
+                        .getRiskConfiguration(element);
+            }
+        }
     }
 
     private RiskConfiguration loadRiskConfiguration(CnATreeElement element) {
@@ -0,0 +1,312 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Sorts the rows of a link table with the {@link RowComparator} without
+ * keeping all rows in memory.
+ *
+ * Rows are stored as String arrays with one value per column. Equal values in
+ * the buffer share one String instance. If the estimated size of the buffered
+ * rows exceeds the memory budget, the buffer is sorted and written to a
+ * temporary file (a sorted run). {@link #writeSortedRows(Consumer)} merges the
+ * runs and the rest of the buffer and passes the rows in sorted order to a
+ * consumer. If no run was written the rows are sorted in memory.
+ *
+ * Close the sorter to delete the temporary files.
+ */
+public class ExternalRowSorter implements Closeable {
+
+    private static final Logger LOG = Logger.getLogger(ExternalRowSorter.class);
+
+    /**
+     * Default memory budget for the buffered rows: 64 MB
+     */
+    public static final long MEMORY_BUDGET_DEFAULT = 64L * 1024 * 1024;
+
+    private static final String TEMP_FILE_PREFIX = "verinice-link-table-"; //$NON-NLS-1$
+    private static final String TEMP_FILE_SUFFIX = ".run"; //$NON-NLS-1$
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NULL_VALUE = -1;
+
+    // Estimated sizes of a row array, a reference and a new String in bytes
+    private static final int ROW_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int STRING_OVERHEAD = 96;
+
+    private static final RowComparator ROW_COMPARATOR = new RowComparator();
+
+    private final int numberOfColumns;
+    private final long memoryBudget;
+
+    private List<String[]> buffer = new ArrayList<>();
+    private Map<String, String> valuePool = new HashMap<>();
+    private long bufferSize = 0;
+
+    private final List<Run> runs = new ArrayList<>();
+    private long numberOfRows = 0;
+
+    /**
+     * @param numberOfColumns
+     *            The number of columns of the table
+     * @param memoryBudget
+     *            The maximum estimated size of the buffered rows in bytes
+     */
+    public ExternalRowSorter(int numberOfColumns, long memoryBudget) {
+        this.numberOfColumns = numberOfColumns;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Adds a row. The values of the row array are replaced by shared
+     * instances of equal values.
+     *
+     * @param row
+     *            A row with one value for every column
+     */
+    public void add(String[] row) {
+        if (row.length != numberOfColumns) {
+            throw new IllegalArgumentException("Row has " + row.length + " columns, expected: " //$NON-NLS-1$ //$NON-NLS-2$
+                    + numberOfColumns);
+        }
+        bufferSize += ROW_OVERHEAD + (long) REFERENCE_SIZE * numberOfColumns;
+        for (int i = 0; i < row.length; i++) {
+            row[i] = intern(row[i]);
+        }
+        buffer.add(row);
+        numberOfRows++;
+        if (bufferSize > memoryBudget) {
+            spill();
+        }
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = valuePool.putIfAbsent(value, value);
+        if (pooled != null) {
+            return pooled;
+        }
+        bufferSize += STRING_OVERHEAD + 2L * value.length();
+        return value;
+    }
+
+    /**
+     * Passes all rows sorted by the {@link RowComparator} to a consumer. Rows
+     * with equal values keep the order in which they were added.
+     *
+     * @param rowConsumer
+     *            Receives the sorted rows
+     */
+    public void writeSortedRows(Consumer<List<String>> rowConsumer) {
+        if (runs.isEmpty()) {
+            buffer.sort(ExternalRowSorter::compare);
+            for (String[] row : buffer) {
+                rowConsumer.accept(Arrays.asList(row));
+            }
+        } else {
+            spill();
+            merge(rowConsumer);
+        }
+        clearBuffer();
+    }
+
+    private void spill() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        buffer.sort(ExternalRowSorter::compare);
+        Run run = new Run(runs.size());
+        try {
+            run.file = File.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            runs.add(run);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new FileOutputStream(run.file), BUFFER_SIZE))) {
+                for (String[] row : buffer) {
+                    writeRow(out, row);
+                }
+            }
+            run.numberOfRows = buffer.size();
+        } catch (IOException e) {
+            throw new LinkTableRuntimeException("Error while writing sorted rows to file", e); //$NON-NLS-1$
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(buffer.size() + " rows written to file: " + run.file.getPath()); //$NON-NLS-1$
+        }
+        clearBuffer();
+    }
+
+    private void clearBuffer() {
+        buffer = new ArrayList<>();
+        valuePool = new HashMap<>();
+        bufferSize = 0;
+    }
+
+    private void merge(Consumer<List<String>> rowConsumer) {
+        Comparator<Run> byCurrentRow = (r1, r2) -> {
+            int value = compare(r1.current, r2.current);
+            return (value != 0) ? value : Integer.compare(r1.index, r2.index);
+        };
+        PriorityQueue<Run> queue = new PriorityQueue<>(runs.size(), byCurrentRow);
+        try {
+            for (Run run : runs) {
+                run.open();
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+            while (!queue.isEmpty()) {
+                Run run = queue.poll();
+                rowConsumer.accept(Arrays.asList(run.current));
+                if (run.next()) {
+                    queue.add(run);
+                }
+            }
+        } catch (IOException e) {
+            throw new LinkTableRuntimeException("Error while reading sorted rows from file", e); //$NON-NLS-1$
+        } finally {
+            for (Run run : runs) {
+                run.closeInput();
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(numberOfRows + " rows merged from " + runs.size() + " files"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+    }
+
+    private static int compare(String[] row1, String[] row2) {
+        return ROW_COMPARATOR.compare(Arrays.asList(row1), Arrays.asList(row2));
+    }
+
+    private static void writeRow(DataOutputStream out, String[] row) throws IOException {
+        for (String value : row) {
+            if (value == null) {
+                out.writeInt(NULL_VALUE);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return The number of rows added to this sorter
+     */
+    public long getNumberOfRows() {
+        return numberOfRows;
+    }
+
+    /**
+     * @return The number of sorted runs written to temporary files
+     */
+    public int getNumberOfRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Deletes the temporary files of this sorter.
+     */
+    @Override
+    public void close() {
+        for (Run run : runs) {
+            run.closeInput();
+            if (run.file != null && !run.file.delete() && LOG.isDebugEnabled()) {
+                LOG.debug("Can not delete file: " + run.file.getPath()); //$NON-NLS-1$
+            }
+        }
+        runs.clear();
+        clearBuffer();
+    }
+
+    /**
+     * A sorted run in a temporary file and the cursor to read it.
+     */
+    private final class Run {
+        private final int index;
+        private File file;
+        private long numberOfRows;
+        private DataInputStream in;
+        private long rowsRead;
+        private String[] current;
+
+        private Run(int index) {
+            this.index = index;
+        }
+
+        private void open() throws IOException {
+            in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE));
+        }
+
+        private boolean next() throws IOException {
+            if (rowsRead == numberOfRows) {
+                current = null;
+                return false;
+            }
+            String[] row = new String[numberOfColumns];
+            for (int i = 0; i < numberOfColumns; i++) {
+                int length = in.readInt();
+                if (length != NULL_VALUE) {
+                    byte[] bytes = new byte[length];
+                    in.readFully(bytes);
+                    row[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            current = row;
+            rowsRead++;
+            return true;
+        }
+
+        private void closeInput() {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    LOG.warn("Error while closing file: " + file.getPath(), e); //$NON-NLS-1$
+                }
+                in = null;
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@
 package sernet.verinice.service.linktable;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * <p>
@@ -87,6 +88,17 @@ public interface ILinkTableService {
      */
     List<List<String>> createTable(ILinkTableConfiguration configuration);
 
+    /**
+     * Creates a Link Table with the configuration defined in a configuration
+     * and passes the rows one by one to a consumer. The header row is passed
+     * first. Use this method to write large tables to a file without keeping
+     * a second copy of the table in memory.
+     *
+     * @param configuration A Link Table configuration
+     * @param rowConsumer Receives the rows of the Link Table
+     */
+    void createTable(ILinkTableConfiguration configuration, Consumer<List<String>> rowConsumer);
+
     /**
      * Creates a Link Table with the configuration defined in VLT file
      * with path vltFilePath.
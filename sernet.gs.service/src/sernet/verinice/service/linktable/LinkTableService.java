@@ -19,8 +19,10 @@
  ******************************************************************************/
 package sernet.verinice.service.linktable;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.log4j.Logger;
@@ -32,6 +34,7 @@ import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.graph.FirstLinkedElementsLoader;
 import sernet.verinice.interfaces.graph.GraphElementLoader;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
 
@@ -61,6 +64,13 @@ public class LinkTableService implements ILinkTableService {
         return linkedTableCreator.createTable(graph, configuration);
     }
 
+    @Override
+    public void createTable(ILinkTableConfiguration configuration,
+            Consumer<List<String>> rowConsumer) {
+        VeriniceGraph graph = getVeriniceGraph(configuration);
+        linkedTableCreator.createTable(graph, configuration, rowConsumer);
+    }
+
     private VeriniceGraph getVeriniceGraph(ILinkTableConfiguration configuration) {
 
         GraphCommand graphCommand = createCommand(configuration);
@@ -82,15 +92,20 @@ public class LinkTableService implements ILinkTableService {
 
     protected GraphCommand createCommand(ILinkTableConfiguration configuration) {
         GraphCommand command = new GraphCommand();
+        // Only the properties of the columns are needed to create the table,
+        // elements are loaded by a projection without the full entities
+        String[] propertyTypeIds = getPropertyTypeIds(configuration);
         GraphElementLoader loader = new GraphElementLoader();
         loader.setScopeIds(configuration.getScopeIdArray());
         Set<String> objectTypeIds = configuration.getObjectTypeIds();
         loader.setTypeIds(objectTypeIds.toArray(new String[objectTypeIds.size()]));
+        loader.setPropertyTypeIds(propertyTypeIds);
         command.addLoader(loader);
         if (configuration.followLinksOutsideOfScope()
                 && !ArrayUtils.isEmpty(configuration.getScopeIdArray())) {
             FirstLinkedElementsLoader firstLinkedElementsLoader = new FirstLinkedElementsLoader();
             firstLinkedElementsLoader.setScopeIds(configuration.getScopeIdArray());
+            firstLinkedElementsLoader.setPropertyTypeIds(propertyTypeIds);
             command.addLoader(firstLinkedElementsLoader);
         }
         for (String relation : configuration.getLinkTypeIds()) {
@@ -99,6 +114,12 @@ public class LinkTableService implements ILinkTableService {
         return command;
     }
 
+    private static String[] getPropertyTypeIds(ILinkTableConfiguration configuration) {
+        Set<String> propertyTypeIds = new HashSet<>(configuration.getPropertyTypeIds());
+        propertyTypeIds.removeAll(CnATreeElement.getStaticProperties());
+        return propertyTypeIds.toArray(new String[propertyTypeIds.size()]);
+    }
+
     protected ICommandService getCommandService() {
         if (commandService == null) {
             commandService = createCommandService();
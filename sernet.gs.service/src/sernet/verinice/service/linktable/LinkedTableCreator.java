@@ -19,7 +19,9 @@
  ******************************************************************************/
 package sernet.verinice.service.linktable;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import sernet.gs.service.NumericStringComparator;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
@@ -96,5 +98,26 @@ public interface LinkedTableCreator {
      * @return The table is represented as a list of rows. Every row is a list
      *         of strings.
      */
-    List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf);
+    default List<List<String>> createTable(VeriniceGraph veriniceGraph,
+            ILinkTableConfiguration conf) {
+        List<List<String>> table = new ArrayList<>();
+        createTable(veriniceGraph, conf, table::add);
+        return table;
+    }
+
+    /**
+     * Creates the table like {@link #createTable(VeriniceGraph, ILinkTableConfiguration)}
+     * and passes the rows one by one to a consumer instead of returning them.
+     * The header row is passed first, followed by the sorted rows.
+     *
+     * @param veriniceGraph
+     *            The graph the table is created for.
+     * @param conf
+     *            The configuration. Contains the column pathes, which are the
+     *            header of the table.
+     * @param rowConsumer
+     *            Receives the rows of the table
+     */
+    void createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf,
+            Consumer<List<String>> rowConsumer);
 }
@@ -21,28 +21,39 @@ package sernet.verinice.service.linktable.generator;
 
 import static sernet.verinice.interfaces.graph.DepthFirstConditionalSearchPathes.traverse;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 
+import sernet.gs.service.CollectionUtil;
+import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.graph.DepthFirstConditionalSearchPathes;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.interfaces.graph.VeriniceGraphFilter;
 import sernet.verinice.model.bp.risk.configuration.RiskConfigurationCache;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.linktable.BpRiskValuePropertyAdapter;
 import sernet.verinice.service.linktable.ColumnPathParser;
+import sernet.verinice.service.linktable.ExternalRowSorter;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
+import sernet.verinice.service.linktable.LinkTableRuntimeException;
 import sernet.verinice.service.linktable.LinkedTableCreator;
-import sernet.verinice.service.linktable.RowComparator;
 import sernet.verinice.service.linktable.generator.mergepath.VqlAst;
 import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
 
@@ -60,6 +71,8 @@ import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
  * <li>3. Iterate over potential starting points and filter all matching paths
  * with the help of {@link VqlContext}, which walks through a {@link VqlAst}
  * data structure.</li>
+ * <li>4. Sort the rows with an {@link ExternalRowSorter}, which writes sorted
+ * runs to temporary files if the rows exceed the memory budget.</li>
  * </ul>
  *
  * <p>
@@ -83,6 +96,14 @@ import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
  * verinice graph are valid.
  * </p>
  *
+ * <p>
+ * The traversals of the starting points are independent of each other and run
+ * in parallel on a fork-join pool. The rows of the traversals are passed to
+ * the sorter in the order of the starting points. Only a few chunks of
+ * starting points are scanned at the same time, so the rows which are not
+ * passed to the sorter yet are limited independently of the table size.
+ * </p>
+ *
  * 
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  *
@@ -95,11 +116,30 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
     private Map<String, Integer> columnPath2TablePosition;
 
     private static final Logger LOG = Logger.getLogger(GraphLinkedTableCreator.class);
-    private LtrPrintRowsTraversalListener traversalListener;
-    private LtrTraversalFilter filter;
+
+    /**
+     * Number of work units per thread of the pool, more units than threads
+     * balance the load if the traversals have different sizes
+     */
+    private static final int UNITS_PER_THREAD = 4;
+
+    /**
+     * Maximum number of starting points in one work unit
+     */
+    private static final int MAX_ROOTS_PER_UNIT = 50;
+
+    /**
+     * Number of work units per thread which are scanned or wait for the sorter
+     * at the same time, the rows of these units are held in memory
+     */
+    private static final int UNITS_IN_FLIGHT_PER_THREAD = 2;
+
+    private long sortMemoryBudget = ExternalRowSorter.MEMORY_BUDGET_DEFAULT;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
 
     @Override
-    public List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf) {
+    public void createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf,
+            Consumer<List<String>> rowConsumer) {
 
         this.veriniceDataGraph = veriniceGraph;
         this.vqlAst = new VqlAst(conf);
@@ -108,11 +148,26 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         String typeId = root.getPath();
 
         storeColumnHeaderOrderAndAlias(conf);
-        Set<CnATreeElement> roots = getRootNodes(typeId);
+        List<CnATreeElement> roots = new ArrayList<>(getRootNodes(typeId));
 
-        List<Map<String, String>> table = doCreateTable(roots);
+        RiskConfigurationCache riskConfigurationCache = new RiskConfigurationCache();
+        if (!Collections.disjoint(conf.getPropertyTypeIds(),
+                BpRiskValuePropertyAdapter.riskPropertiesThreat)) {
+            // risk configurations are loaded with commands in this thread
+            BpRiskValuePropertyAdapter.loadRiskConfigurations(veriniceGraph.getElements(),
+                    riskConfigurationCache);
+        }
 
-        return convertToTable(table);
+        try (ExternalRowSorter sorter = new ExternalRowSorter(
+                columnPath2TablePosition.size(), sortMemoryBudget)) {
+            doCreateTable(roots, riskConfigurationCache, sorter);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Link table rows: " + sorter.getNumberOfRows() + ", sorted runs: "
+                        + sorter.getNumberOfRuns());
+            }
+            rowConsumer.accept(getAliasHeader());
+            sorter.writeSortedRows(rowConsumer);
+        }
     }
 
     private Set<CnATreeElement> getRootNodes(final String typeId) {
@@ -124,52 +179,104 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         });
     }
 
-    private List<Map<String, String>> doCreateTable(Set<CnATreeElement> roots) {
-        List<Map<String, String>> table = new ArrayList<>();
-        RiskConfigurationCache riskConfigurationCache = new RiskConfigurationCache();
+    /**
+     * Scans the graph for every root and passes the rows to the sorter. The
+     * roots are split into chunks which are scanned in parallel. The rows of
+     * the chunks are passed to the sorter in the order of the chunks as soon
+     * as a chunk is finished. A new chunk is submitted when the rows of a
+     * chunk were passed to the sorter, so the number of chunks in memory is
+     * bounded.
+     */
+    private void doCreateTable(List<CnATreeElement> roots,
+            RiskConfigurationCache riskConfigurationCache, ExternalRowSorter sorter) {
+        if (parallelism < 2 || roots.size() < 2) {
+            for (String[] row : scanRoots(roots, riskConfigurationCache)) {
+                sorter.add(row);
+            }
+            return;
+        }
+        int numberOfTasks = parallelism * UNITS_PER_THREAD;
+        int chunkSize = Math.min(MAX_ROOTS_PER_UNIT,
+                Math.max(1, (roots.size() + numberOfTasks - 1) / numberOfTasks));
+        int maxChunksInFlight = parallelism * UNITS_IN_FLIGHT_PER_THREAD;
+        final VeriniceContext.State state = VeriniceContext.getState();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            Iterator<List<CnATreeElement>> chunks = CollectionUtil
+                    .partition(roots, chunkSize).iterator();
+            Deque<Future<List<String[]>>> futures = new ArrayDeque<>(maxChunksInFlight);
+            while (futures.size() < maxChunksInFlight && chunks.hasNext()) {
+                futures.add(submit(pool, chunks.next(), riskConfigurationCache, state));
+            }
+            while (!futures.isEmpty()) {
+                for (String[] row : futures.poll().get()) {
+                    sorter.add(row);
+                }
+                if (chunks.hasNext()) {
+                    futures.add(submit(pool, chunks.next(), riskConfigurationCache, state));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LinkTableRuntimeException("Link table creation interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new LinkTableRuntimeException("Error while creating link table", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Future<List<String[]>> submit(ForkJoinPool pool, final List<CnATreeElement> chunk,
+            RiskConfigurationCache riskConfigurationCache, final VeriniceContext.State state) {
+        Callable<List<String[]>> task = () -> {
+            VeriniceContext.setState(state);
+            return scanRoots(chunk, riskConfigurationCache);
+        };
+        return pool.submit(task);
+    }
+
+    private List<String[]> scanRoots(List<CnATreeElement> roots,
+            RiskConfigurationCache riskConfigurationCache) {
+        List<String[]> rows = new ArrayList<>();
         for (CnATreeElement potentialRoot : roots) {
             VeriniceGraphResult scanVeriniceGraph = scanVeriniceGraph(potentialRoot,
                     riskConfigurationCache);
-            table.addAll(scanVeriniceGraph.getResult());
+            for (Map<String, String> map : scanVeriniceGraph.getResult()) {
+                rows.add(convertToRow(map));
+            }
         }
-        return table;
+        return rows;
     }
 
     private VeriniceGraphResult scanVeriniceGraph(CnATreeElement potentialRoot,
             RiskConfigurationCache riskConfigurationCache) {
 
         VqlContext vqlNavigator = new VqlContext(vqlAst);
-        filter = new LtrTraversalFilter(vqlNavigator);
+        LtrTraversalFilter filter = new LtrTraversalFilter(vqlNavigator);
         VeriniceGraphResult result = new VeriniceGraphResult(riskConfigurationCache);
-        traversalListener = new LtrPrintRowsTraversalListener(vqlNavigator, filter, veriniceDataGraph, result);
+        LtrPrintRowsTraversalListener traversalListener = new LtrPrintRowsTraversalListener(
+                vqlNavigator, filter, veriniceDataGraph, result);
 
         traverse(veriniceDataGraph, potentialRoot, filter, traversalListener);
         return traversalListener.getResult();
     }
 
-    private List<List<String>> convertToTable(List<Map<String, String>> table) {
-
-        List<List<String>> stringTable = new LinkedList<>();
-
-        for (Map<String, String> map : table) {
+    private String[] convertToRow(Map<String, String> map) {
 
-            String[] row = new String[columnPath2TablePosition.size()];
+        String[] row = new String[columnPath2TablePosition.size()];
 
-            for(Entry<String, Integer> pos : columnPath2TablePosition.entrySet()){
-                row[pos.getValue()] = map.containsKey(pos.getKey()) ? map.get(pos.getKey()) : "";
-            }
-
-
-            stringTable.add(Arrays.asList(row));
+        for(Entry<String, Integer> pos : columnPath2TablePosition.entrySet()){
+            row[pos.getValue()] = map.containsKey(pos.getKey()) ? map.get(pos.getKey()) : "";
+        }
 
-            if(LOG.isDebugEnabled()) {
-                LOG.debug("Add row to link table: [" + StringUtils.join(row, ", ") + "]");
-            }
+        if(LOG.isDebugEnabled()) {
+            LOG.debug("Add row to link table: [" + StringUtils.join(row, ", ") + "]");
         }
 
-        Collections.sort(stringTable, new RowComparator());
-        stringTable.add(0, getAliasHeader());
-        return stringTable;
+        return row;
     }
 
     private void storeColumnHeaderOrderAndAlias(ILinkTableConfiguration conf) {
@@ -198,4 +305,21 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         return Arrays.asList(aliasHeader);
     }
 
+    /**
+     * Sets the maximum estimated size in bytes of the rows which are sorted in
+     * memory. If the rows of a table exceed the budget, sorted runs are
+     * written to temporary files and merged.
+     */
+    public void setSortMemoryBudget(long sortMemoryBudget) {
+        this.sortMemoryBudget = sortMemoryBudget;
+    }
+
+    /**
+     * Sets the number of threads which scan the graph. Default is the number
+     * of available processors, 1 scans the graph in the calling thread.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
 }
@@ -20,11 +20,30 @@
 package sernet.verinice.service.risk;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 import org.apache.log4j.Logger;
-
-import sernet.verinice.interfaces.CommandException;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RuntimeCommandException;
+import sernet.hui.common.connect.EntityReadView;
+import sernet.hui.common.connect.HUITypeFactory;
+import sernet.hui.common.connect.PropertySlotLayout;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.graph.Edge;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
@@ -53,6 +72,17 @@ public class RiskAnalysisJob {
 
     private static final RiskCalculator RISK_CALCULATOR_DEFAULT = new RiskAdder();
 
+    /**
+     * Number of work units per thread of the pool, more units than threads
+     * balance the load if the units have different sizes
+     */
+    private static final int UNITS_PER_THREAD = 4;
+
+    /**
+     * Maximum number of values in one "in" clause of a query
+     */
+    private static final int MAX_IN_CLAUSE_SIZE = 1000;
+
     /**
      * A verinice graph with all elements which are analyzed
      */
@@ -62,6 +92,18 @@ public class RiskAnalysisJob {
 
     private IBaseDao<CnALink, Serializable> cnaLinkDao;
 
+    /**
+     * Number of threads which are used to run the analysis
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private ForkJoinPool pool;
+
+    /**
+     * Runtime in milliseconds of every phase of the analysis
+     */
+    private final Map<String, Long> phaseRuntimes = new LinkedHashMap<>();
+
     public RiskAnalysisJob(VeriniceGraph graph, IBaseDao<CnALink, Serializable> cnaLinkDao) {
         super();
         this.graph = graph;
@@ -70,135 +112,333 @@ public class RiskAnalysisJob {
 
     /**
      * Runs a risk analysis by analyzing the risk of scenarios and assets.
+     * 
+     * The values of the elements are read in the calling thread. The risk
+     * values of scenarios and assets are calculated in parallel on a
+     * fork-join pool from these plain values. The pool never touches the
+     * elements, which are bound to the Hibernate session of the calling
+     * thread. The results are set in the elements and saved in the calling
+     * thread.
      */
     public void runRiskAnalysis() {
-        resetRiskValuesOfAssets();
-        setProbabilityOfScenarios();
-        reduceRiskOfScenarios();
-        analyseRiskOfAssets();
+        phaseRuntimes.clear();
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            long time = System.currentTimeMillis();
+            Map<CnATreeElement, ControlValues> controlValues = readControlValues();
+            List<ScenarioInput> scenarioInputs = readScenarios(controlValues);
+            phaseRuntimes.put("read scenarios", System.currentTimeMillis() - time);
+
+            List<ScenarioValues> scenarioValues = runPhase("scenario probability",
+                    scenarioInputs, this::analyseScenario);
+
+            time = System.currentTimeMillis();
+            Map<CnATreeElement, ScenarioValues> valuesByScenario = new HashMap<>();
+            for (ScenarioValues values : scenarioValues) {
+                applyScenarioValues(values);
+                valuesByScenario.put(values.scenario, values);
+            }
+            List<AssetInput> assetInputs = readAssets(controlValues, valuesByScenario);
+            phaseRuntimes.put("read assets", System.currentTimeMillis() - time);
+
+            List<AssetValues> assetValues = runPhase("asset risk", assetInputs,
+                    this::analyseAsset);
+
+            time = System.currentTimeMillis();
+            List<Edge> changedEdges = new ArrayList<>();
+            for (AssetValues values : assetValues) {
+                applyAssetValues(values);
+                changedEdges.addAll(values.edgeRisks.keySet());
+            }
+            phaseRuntimes.put("apply asset risk", System.currentTimeMillis() - time);
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Number of links from scenarios to assets: " + changedEdges.size());
+            }
+            saveLinks(changedEdges);
+        } finally {
+            pool.shutdown();
+            pool = null;
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Risk analysis finished, runtime of phases in ms: " + phaseRuntimes);
+        }
     }
 
     /**
-     * Resets the risk values of all assets.
+     * Reads the values of all controls which are used by the analysis.
      */
-    private void resetRiskValuesOfAssets() {
-        Set<CnATreeElement> assets = graph.getElements(Asset.TYPE_ID);
-        if (LOG.isInfoEnabled()) {
-            LOG.info("Number of assets: " + assets.size());
-        }
-        for (CnATreeElement asset : assets) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Resetting Risk for Asset: " + asset.getTitle());
-            }
-            resetRisks((Asset) asset);
+    private Map<CnATreeElement, ControlValues> readControlValues() {
+        PropertySlotLayout layout = HUITypeFactory.getInstance().getEntityType(Control.TYPE_ID)
+                .getSlotLayout();
+        int slotEffectP = layout.getSlot(Control.PROP_CONTROL_EFFECT_P);
+        int slotEffectC = layout.getSlot(Control.PROP_EFFECTIVENESS_CONFIDENTIALITY);
+        int slotEffectI = layout.getSlot(Control.PROP_EFFECTIVENESS_INTEGRITY);
+        int slotEffectA = layout.getSlot(Control.PROP_EFFECTIVENESS_AVAILABILITY);
+        Set<CnATreeElement> controls = graph.getElements(Control.TYPE_ID);
+        Map<CnATreeElement, ControlValues> valuesByControl = new HashMap<>(controls.size());
+        for (CnATreeElement control : controls) {
+            EntityReadView view = control.getEntity().createReadView(layout);
+            valuesByControl.put(control,
+                    new ControlValues(view.getNumericPropertyValue(slotEffectP),
+                            new int[] { view.getNumericPropertyValue(slotEffectC),
+                                    view.getNumericPropertyValue(slotEffectI),
+                                    view.getNumericPropertyValue(slotEffectA) },
+                            Control.isImplemented(view), Control.isPlanned(view)));
         }
+        return valuesByControl;
     }
 
     /**
-     * Sets the probability of all incident scenarios.
+     * Reads the values of all incident scenarios and the values of the linked
+     * threats, vulnerabilities and controls.
      */
-    private void setProbabilityOfScenarios() {
+    private List<ScenarioInput> readScenarios(
+            Map<CnATreeElement, ControlValues> controlValues) {
         Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
         if (LOG.isInfoEnabled()) {
             LOG.info("Number of scenarios: " + scenarios.size());
         }
-        for (CnATreeElement scenario : scenarios) {
-            setProbabilityOfScenario((IncidentScenario) scenario);
+        List<ScenarioInput> inputs = new ArrayList<>(scenarios.size());
+        for (CnATreeElement element : scenarios) {
+            IncidentScenario scenario = (IncidentScenario) element;
+            ScenarioInput input = new ScenarioInput(scenario);
+            input.threatProbability = scenario
+                    .getNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY);
+            input.vulnerabilityProbability = scenario
+                    .getNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY);
+            // get values from linked threat & vulnerabilities, only if
+            // automatic mode is activated:
+            if (scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_METHOD) == 1) {
+                readProbabilityFromThreatAndVulnerability(input);
+            }
+            for (CnATreeElement control : graph.getLinkTargetsByElementType(scenario,
+                    Control.TYPE_ID)) {
+                input.controls.add(controlValues.get(control));
+            }
+            input.affects = new boolean[] { scenarioAffectsConfidentiality(scenario),
+                    scenarioAffectsIntegrity(scenario), scenarioAffectsAvailability(scenario) };
+            inputs.add(input);
+        }
+        return inputs;
+    }
+
+    private void readProbabilityFromThreatAndVulnerability(ScenarioInput input) {
+        // only calculate if threat AND vulnerability is linked to scenario:
+        Set<CnATreeElement> threatSet = graph.getLinkTargetsByElementType(input.scenario,
+                Threat.TYPE_ID);
+        Set<CnATreeElement> vulnerabilitySet = graph
+                .getLinkTargetsByElementType(input.scenario, Vulnerability.TYPE_ID);
+
+        if (!threatSet.isEmpty() && !vulnerabilitySet.isEmpty()) {
+            int threatImpact = 0;
+            for (CnATreeElement threat : threatSet) {
+                // use higher value of likelihood or impact:
+                int level1 = threat.getNumericProperty(Threat.PROP_THREAT_LIKELIHOOD);
+                int level2 = threat.getNumericProperty(Threat.PROP_THREAT_IMPACT);
+                int level = (level1 > level2) ? level1 : level2;
+                threatImpact = (level > threatImpact) ? level : threatImpact;
+            }
+
+            int exploitability = 0;
+            for (CnATreeElement vuln : vulnerabilitySet) {
+                int level = vuln
+                        .getNumericProperty(Vulnerability.PROP_VULNERABILITY_EXPLOITABILITY);
+                exploitability = (level > exploitability) ? level : exploitability;
+            }
+
+            // set values to highest found:
+            input.threatProbability = threatImpact;
+            input.vulnerabilityProbability = exploitability;
+            input.probabilitiesFromLinks = true;
         }
     }
 
     /**
-     * Sets the probability of an incident scenario.
+     * Calculates the probability of an incident scenario and reduces it by
+     * subtracting the effect of all linked controls. Runs in the pool.
      * 
      * The probability of the scenario is set by addition of the probability of
      * the threat and the vulnerability which are linked to the scenario.
-     * 
-     * @param scenario
-     *            A single incident scenario which is analyzed
      */
-    private void setProbabilityOfScenario(IncidentScenario scenario) {
-        // get values from linked threat & vulnerabilities, only if automatic
-        // mode is activated:
-        if (scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_METHOD) == 1) {
-            getProbabilityFromThreatAndVulnerability(graph, scenario);
-        }
-
-        // calculate probability:
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY, 0);
-        int myThreat = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY);
-        int myVuln = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY);
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY, myThreat + myVuln);
+    private ScenarioValues analyseScenario(ScenarioInput input) {
+        ScenarioValues values = new ScenarioValues(input);
+        values.probability = input.threatProbability + input.vulnerabilityProbability;
+        // init probability values to value without controls:
+        values.probabilityWithControls = values.probability;
+        values.probabilityWithPlannedControls = values.probability;
+        values.probabilityWithoutNaControls = values.probability;
+        // deduct controls from probability:
+        for (ControlValues control : input.controls) {
+            // Risk with all controls
+            values.probabilityWithPlannedControls = positiveOrZero(
+                    values.probabilityWithPlannedControls - control.effectP);
+            // Risk with implemented controls
+            if (control.implemented) {
+                values.probabilityWithControls = positiveOrZero(
+                        values.probabilityWithControls - control.effectP);
+            }
+            // Risk with planned implemented controls
+            if (control.planned) {
+                values.probabilityWithoutNaControls = positiveOrZero(
+                        values.probabilityWithoutNaControls - control.effectP);
+            }
+        }
+        return values;
+    }
+
+    private static void applyScenarioValues(ScenarioValues values) {
+        IncidentScenario scenario = values.scenario;
+        if (values.probabilitiesFromLinks) {
+            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY,
+                    values.threatProbability);
+            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY,
+                    values.vulnerabilityProbability);
+        }
+        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY,
+                values.probability);
+        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
+                values.probabilityWithControls);
+        scenario.setNumericProperty(
+                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
+                values.probabilityWithPlannedControls);
+        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
+                values.probabilityWithoutNaControls);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Scenario: " + scenario.getTitle() + ", probability set: "
-                    + scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
+                    + values.probability);
         }
     }
 
     /**
-     * Reduces the probability of all incident scenarios by subtracting the
-     * effect of all linked and implemented controls.
+     * Reads the CIA values of all assets, the values of their controls and
+     * the edges from incident scenarios to the assets.
      */
-    private void reduceRiskOfScenarios() {
-        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
-        for (CnATreeElement scenario : scenarios) {
-            reduceRiskOfSzenario((IncidentScenario) scenario);
+    private List<AssetInput> readAssets(Map<CnATreeElement, ControlValues> controlValues,
+            Map<CnATreeElement, ScenarioValues> valuesByScenario) {
+        Set<CnATreeElement> assets = graph.getElements(Asset.TYPE_ID);
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Number of assets: " + assets.size());
+        }
+        Map<CnATreeElement, AssetInput> inputByAsset = new LinkedHashMap<>(assets.size());
+        for (CnATreeElement asset : assets) {
+            inputByAsset.put(asset, new AssetInput((Asset) asset));
+        }
+        for (ScenarioValues scenarioValues : valuesByScenario.values()) {
+            for (Edge edge : graph.getEdgesByElementType(scenarioValues.scenario,
+                    Asset.TYPE_ID)) {
+                inputByAsset.computeIfAbsent(edge.getTarget(),
+                        asset -> new AssetInput((Asset) asset)).edges
+                        .add(new ScenarioEdge(scenarioValues, edge));
+            }
         }
+        for (AssetInput input : inputByAsset.values()) {
+            Asset asset = input.asset;
+            input.businessImpact = new int[] {
+                    asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY),
+                    asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY),
+                    asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY) };
+            if (!input.edges.isEmpty()) {
+                for (CnATreeElement control : graph.getLinkTargetsByElementType(asset,
+                        Control.TYPE_ID)) {
+                    input.controls.add(controlValues.get(control));
+                }
+            }
+        }
+        return new ArrayList<>(inputByAsset.values());
     }
 
     /**
-     * Reduces the probability of a scenario by subtracting the effect of all
-     * linked and implemented controls.
-     *
-     * @param scenario
-     *            A single incident scenario
+     * Analyses the risk of an asset for all linked incident scenarios. Runs in
+     * the pool. All risk values of the asset are reset before the risk of
+     * the scenarios is aggregated.
      */
-    private void reduceRiskOfSzenario(IncidentScenario scenario) {
-        // init probability values to value without controls:
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-        scenario.setNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-        scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
-                scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY));
-
-        Set<CnATreeElement> controlSet = graph.getLinkTargetsByElementType(scenario,
-                Control.TYPE_ID);
-        // deduct controls from probability:
-        for (CnATreeElement control : controlSet) {
-            reduceRiskOfSzenarioWithControl(scenario, control);
+    private AssetValues analyseAsset(AssetInput input) {
+        AssetValues values = new AssetValues(input);
+        for (RiskProperties properties : RiskProperties.CIA) {
+            properties.reset(values.properties);
+        }
+        if (input.edges.isEmpty()) {
+            return values;
+        }
+        // the reduced CIA values only depend on the asset and its controls
+        int[] reducedByAllControls = input.businessImpact.clone();
+        int[] reducedByPlannedControls = input.businessImpact.clone();
+        int[] reducedByImplementedControls = input.businessImpact.clone();
+        for (ControlValues control : input.controls) {
+            for (int i = 0; i < RiskProperties.CIA.length; i++) {
+                // Reduce regardless of implementation status
+                reducedByAllControls[i] -= control.effectCIA[i];
+                // Reduce if implementation status is "planned"
+                if (control.planned) {
+                    reducedByPlannedControls[i] -= control.effectCIA[i];
+                }
+                // Reduce if implementation status is "implemented"
+                if (control.implemented) {
+                    reducedByImplementedControls[i] -= control.effectCIA[i];
+                }
+            }
+        }
+        for (ScenarioEdge scenarioEdge : input.edges) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Determine Risk for Scenario: " + scenarioEdge.scenario.title
+                        + " and Asset: " + values.title);
+            }
+            ScenarioValues scenario = scenarioEdge.scenario;
+            EdgeRisk edgeRisk = new EdgeRisk();
+            for (int i = 0; i < RiskProperties.CIA.length; i++) {
+                if (!scenario.affects[i]) {
+                    continue;
+                }
+                RiskProperties properties = RiskProperties.CIA[i];
+                Map<String, Integer> assetValues = values.properties;
+
+                // Without controls:
+                int risk = calculateRisk(input.businessImpact[i], scenario.probability);
+                add(assetValues, properties.risk, risk);
+                edgeRisk.risk[i] = positiveOrZero(risk);
+
+                // With implemented controls
+                int riskWithImplementedControls = calculateRisk(
+                        reducedByImplementedControls[i], scenario.probabilityWithControls);
+                assetValues.put(properties.withImplementedControls,
+                        reducedByImplementedControls[i]);
+                add(assetValues, properties.controlRisk, riskWithImplementedControls);
+                edgeRisk.riskWithControls[i] = positiveOrZero(riskWithImplementedControls);
+
+                // With all controls
+                int riskWithAllControls = calculateRisk(reducedByAllControls[i],
+                        scenario.probabilityWithPlannedControls);
+                assetValues.put(properties.withControls, reducedByAllControls[i]);
+                add(assetValues, properties.planControlRisk, riskWithAllControls);
+
+                // With planned controls
+                int riskWithPlannedControls = calculateRisk(reducedByPlannedControls[i],
+                        scenario.probabilityWithoutNaControls);
+                assetValues.put(properties.withPlannedControls, reducedByPlannedControls[i]);
+                add(assetValues, properties.withoutNaPlanControlRisk, riskWithPlannedControls);
+            }
+            values.edgeRisks.put(scenarioEdge.edge, edgeRisk);
         }
+        return values;
     }
 
-    private void reduceRiskOfSzenarioWithControl(IncidentScenario scenario,
-            CnATreeElement control) {
-        int controlEffect = control.getNumericProperty(Control.PROP_CONTROL_EFFECT_P);
-        int probAfterControl;
-
-        // Risk with all controls
-        probAfterControl = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS) - controlEffect;
-        scenario.setNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS,
-                positiveOrZero(probAfterControl));
-
-        // Risk with implemented controls
-        if (Control.isImplemented(control.getEntity())) {
+    private static void add(Map<String, Integer> values, String propertyId, int risk) {
+        values.put(propertyId, positiveOrZero(values.get(propertyId) + risk));
+    }
 
-            probAfterControl = scenario.getNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS) - controlEffect;
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS,
-                    positiveOrZero(probAfterControl));
+    private static void applyAssetValues(AssetValues values) {
+        for (Map.Entry<String, Integer> entry : values.properties.entrySet()) {
+            values.asset.setNumericProperty(entry.getKey(), entry.getValue());
         }
-
-        // Risk with planned implemented controls
-        if (Control.isPlanned(control.getEntity())) {
-            probAfterControl = scenario.getNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS) - controlEffect;
-            scenario.setNumericProperty(
-                    IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS,
-                    positiveOrZero(probAfterControl));
+        for (Map.Entry<Edge, EdgeRisk> entry : values.edgeRisks.entrySet()) {
+            Edge edge = entry.getKey();
+            EdgeRisk risk = entry.getValue();
+            edge.setRiskConfidentiality(risk.risk[0]);
+            edge.setRiskConfidentialityWithControls(risk.riskWithControls[0]);
+            edge.setRiskIntegrity(risk.risk[1]);
+            edge.setRiskIntegrityWithControls(risk.riskWithControls[1]);
+            edge.setRiskAvailability(risk.risk[2]);
+            edge.setRiskAvailabilityWithControls(risk.riskWithControls[2]);
         }
     }
 
@@ -217,471 +457,362 @@ public class RiskAnalysisJob {
                 probability);
     }
 
+    private boolean scenarioAffectsConfidentiality(IncidentScenario scenario) {
+        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_C) == 1;
+    }
+
+    private boolean scenarioAffectsIntegrity(IncidentScenario scenario) {
+        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_I) == 1;
+    }
+
+    private boolean scenarioAffectsAvailability(IncidentScenario scenario) {
+        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_A) == 1;
+    }
+
     /**
-     * Analyses the risk of all assets which are linked to incident scenarios in
-     * a given verinice graph.
-     * 
-     * @throws CommandException
+     * @param n
+     *            A positive or negative number
+     * @return The given number if n is positive or 0 if n is 0 or negative
      */
-    private void analyseRiskOfAssets() {
-        Set<CnATreeElement> scenarios = graph.getElements(IncidentScenario.TYPE_ID);
-        // determine risk originating from scenarios for all linked assets:
-        for (CnATreeElement scenario : scenarios) {
-            if (LOG.isDebugEnabled()) {
-                LOG.debug("Determine Risk for Scenario: " + scenario.getTitle());
+    private static int positiveOrZero(int n) {
+        return n < 0 ? 0 : n;
+    }
+
+    /**
+     * Calculates the results of all units of a phase in the pool and logs the
+     * runtime of the phase. The units are split into chunks, every chunk is
+     * processed by one task. The function must only read the plain values of
+     * the units, the results are returned in the order of the units.
+     */
+    private <T, R> List<R> runPhase(String phase, List<T> units, Function<T, R> function) {
+        long time = System.currentTimeMillis();
+        int numberOfTasks = Math.max(1, pool.getParallelism() * UNITS_PER_THREAD);
+        int chunkSize = Math.max(1, (units.size() + numberOfTasks - 1) / numberOfTasks);
+        List<Callable<List<R>>> tasks = new ArrayList<>(numberOfTasks);
+        for (final List<T> chunk : CollectionUtil.partition(units, chunkSize)) {
+            tasks.add(() -> {
+                List<R> results = new ArrayList<>(chunk.size());
+                for (T unit : chunk) {
+                    results.add(function.apply(unit));
+                }
+                return results;
+            });
+        }
+        List<R> results = new ArrayList<>(units.size());
+        try {
+            for (Future<List<R>> future : pool.invokeAll(tasks)) {
+                results.addAll(future.get());
             }
-            analyseRiskOfAssets((IncidentScenario) scenario);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeCommandException("Risk analysis interrupted in phase: " + phase, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeCommandException("Error in risk analysis phase: " + phase,
+                    e.getCause());
+        }
+        long runtime = System.currentTimeMillis() - time;
+        phaseRuntimes.put(phase, runtime);
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Phase '" + phase + "' finished, units: " + units.size() + ", tasks: "
+                    + tasks.size() + ", runtime: " + runtime + " ms");
         }
+        return results;
     }
 
     /**
-     * Analyses the risk of all assets which are linked to a given incident
-     * scenario.
-     *
-     * @param graph
-     *            A verinice graph with all elements which are analyzed
-     * @param scenario
-     *            A single incident scenario
-     * @throws CommandException
+     * Saves the risk values of the edges in the links of the database.
+     * 
+     * The links are loaded with a few queries and changed in the Hibernate
+     * session. The changes are written by one flush, Hibernate sends the
+     * updates in JDBC batches (see hibernate.jdbc.batch_size). Links which
+     * are not found are saved one by one.
+     * 
+     * @param edges
+     *            Edges from scenarios to assets with changed risk values
      */
-    private void analyseRiskOfAssets(IncidentScenario scenario) {
-        Set<Edge> edgesToAsset = graph.getEdgesByElementType(scenario, Asset.TYPE_ID);
-
-        for (Edge edge : edgesToAsset) {
-            analyseRiskOfAsset(graph, scenario, edge);
+    private void saveLinks(Collection<Edge> edges) {
+        long time = System.currentTimeMillis();
+        Map<CnALink.Id, Edge> edgesByLinkId = new LinkedHashMap<>(edges.size());
+        for (Edge edge : edges) {
+            CnALink.Id id = new CnALink.Id(edge.getSource().getDbId(),
+                    edge.getTarget().getDbId(), edge.getType());
+            edgesByLinkId.put(id, edge);
         }
-        if (LOG.isInfoEnabled()) {
-            LOG.info("Number of links from scenario to assets: " + edgesToAsset.size());
+        for (List<CnALink.Id> partition : CollectionUtil
+                .partition(new ArrayList<>(edgesByLinkId.keySet()), MAX_IN_CLAUSE_SIZE)) {
+            for (CnALink link : loadLinks(partition)) {
+                Edge edge = edgesByLinkId.remove(link.getId());
+                if (edge != null) {
+                    setRiskValues(link, edge);
+                }
+            }
         }
-        long time = RiskAnalysisServiceImpl.initRuntime();
-        // Update cnalinks
-        for (Edge edge : edgesToAsset) {
+        for (Edge edge : edgesByLinkId.values()) {
             saveLink(edge);
         }
-        RiskAnalysisServiceImpl.logRuntime("Updating links from scenarios to assets runtime : ",
-                time);
+        cnaLinkDao.flush();
+        long runtime = System.currentTimeMillis() - time;
+        phaseRuntimes.put("save links", runtime);
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Phase 'save links' finished, links: " + edges.size()
+                    + ", saved one by one: " + edgesByLinkId.size() + ", runtime: " + runtime
+                    + " ms");
+        }
     }
 
     /**
-     * Analyses the risk of a single asset which is linked to an incident
-     * scenario.
-     * 
-     * @param scenario
-     *            An incident scenario
-     * @param edgeToAsset
-     *            An edge that connects an incident scenario with an asset
+     * Loads the links with the given ids. The query is restricted by the
+     * dependants, the dependencies and the types of the links, only links
+     * between the elements of the partition are loaded.
      */
-    private void analyseRiskOfAsset(VeriniceGraph graph, IncidentScenario scenario,
-            Edge edgeToAsset) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-        Asset assetWithReducedCIAValues = reduceCIAValues(graph, asset);
+    @SuppressWarnings("unchecked")
+    private List<CnALink> loadLinks(List<CnALink.Id> linkIds) {
+        if (linkIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Integer> dependantIds = new HashSet<>();
+        Set<Integer> dependencyIds = new HashSet<>();
+        Set<String> typeIds = new HashSet<>();
+        for (CnALink.Id id : linkIds) {
+            dependantIds.add(id.getDependantId());
+            dependencyIds.add(id.getDependencyId());
+            typeIds.add(id.getTypeId());
+        }
+        DetachedCriteria criteria = DetachedCriteria.forClass(CnALink.class);
+        criteria.add(Restrictions.in("id.dependantId", dependantIds));
+        criteria.add(Restrictions.in("id.dependencyId", dependencyIds));
+        criteria.add(Restrictions.in("id.typeId", typeIds));
+        return cnaLinkDao.findByCriteria(criteria);
+    }
 
-        resetRisks(edgeToAsset);
+    private static void setRiskValues(CnALink link, Edge edge) {
+        link.setRiskConfidentiality(edge.getRiskConfidentiality());
+        link.setRiskIntegrity(edge.getRiskIntegrity());
+        link.setRiskAvailability(edge.getRiskAvailability());
+        link.setRiskConfidentialityWithControls(edge.getRiskConfidentialityWithControls());
+        link.setRiskIntegrityWithControls(edge.getRiskIntegrityWithControls());
+        link.setRiskAvailabilityWithControls(edge.getRiskAvailabilityWithControls());
+        link.setRiskTreatment(edge.getRiskTreatment());
+    }
 
-        if (scenarioAffectsConfidentiality(scenario)) {
-            analyseRiskCOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
-        }
+    private void saveLink(Edge edge) {
+        CnALink link = new CnALink(edge.getSource(), edge.getTarget(), edge.getType(),
+                edge.getDescription());
+        setRiskValues(link, edge);
+        cnaLinkDao.merge(link);
 
-        if (scenarioAffectsIntegrity(scenario)) {
-            analyseRiskIOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
-        }
+    }
 
-        if (scenarioAffectsAvailability(scenario)) {
-            analyseRiskAOfAsset(scenario, edgeToAsset, assetWithReducedCIAValues);
+    public RiskCalculator getRiskCalculator() {
+        if (riskCalculator == null) {
+            riskCalculator = RISK_CALCULATOR_DEFAULT;
         }
+        return riskCalculator;
     }
 
-    /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * business impact: bi - confidentiality: C
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
-     */
-    private void analyseRiskCOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
-        // Without controls:
-        int biC = asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskC = calculateRisk(biC, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_C) + riskC));
-        edgeToAsset.setRiskConfidentiality(positiveOrZero(riskC));
-
-        // With implemented controls
-        int biWithImplementedControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_C);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsC = calculateRisk(biWithImplementedControlsC,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsC);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_C)
-                        + riskWithImplementedControlsC));
-        edgeToAsset
-                .setRiskConfidentialityWithControls(positiveOrZero(riskWithImplementedControlsC));
-
-        // With all controls
-        int biWithAllControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsC = calculateRisk(biWithAllControlsC, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS, biWithAllControlsC);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C) + riskWithAllControlsC));
-
-        // With planned controls
-        int biWithPlannedControlsC = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsC = calculateRisk(biWithPlannedControlsC,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsC);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C)
-                        + riskWithPlannedControlsC));
+    public void setRiskCalculator(RiskCalculator riskCalculator) {
+        this.riskCalculator = riskCalculator;
     }
 
-    /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * Business impact: bi - Integrity: I
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
-     */
-    private void analyseRiskIOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
-        // Without controls:
-        int biI = asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskI = calculateRisk(biI, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_I) + riskI));
-        edgeToAsset.setRiskIntegrity(positiveOrZero(riskI));
-
-        // With implemented controls
-        int biWithImplementedControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_I);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsI = calculateRisk(biWithImplementedControlsI,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsI);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_I)
-                        + riskWithImplementedControlsI));
-        edgeToAsset.setRiskIntegrityWithControls(positiveOrZero(riskWithImplementedControlsI));
-
-        // With all controls
-        int biWithAllControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsI = calculateRisk(biWithAllControlsI, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_CONTROLS, biWithAllControlsI);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I) + riskWithAllControlsI));
-
-        // With planned controls
-        int biWithPlannedControlsI = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsI = calculateRisk(biWithPlannedControlsI,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsI);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I)
-                        + riskWithPlannedControlsI));
+    public int getParallelism() {
+        return parallelism;
     }
 
     /**
-     * Abbreviations used in this method to shorten in names of variables: -
-     * Business impact: bi - Availability: A
-     * 
-     * @param scenario
-     * @param edgeToAsset
-     * @param assetWithReducedCIAValues
+     * @param parallelism
+     *            Number of threads which are used to run the analysis, default
+     *            is the number of available processors
      */
-    private void analyseRiskAOfAsset(IncidentScenario scenario, Edge edgeToAsset,
-            Asset assetWithReducedCIAValues) {
-        Asset asset = (Asset) edgeToAsset.getTarget();
-
-        // Without controls:
-        int biA = asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY);
-        int probability = scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY);
-        int riskA = calculateRisk(biA, probability);
-        asset.setNumericProperty(Asset.ASSET_RISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_RISK_A) + riskA));
-        edgeToAsset.setRiskAvailability(positiveOrZero(riskA));
-
-        // With implemented controls
-        int biWithImplementedControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_CONTROLRISK_A);
-        int probabilityWithImplementedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_CONTROLS);
-        int riskWithImplementedControlsA = calculateRisk(biWithImplementedControlsA,
-                probabilityWithImplementedControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS,
-                biWithImplementedControlsA);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_CONTROLRISK_A)
-                        + riskWithImplementedControlsA));
-        edgeToAsset.setRiskAvailabilityWithControls(positiveOrZero(riskWithImplementedControlsA));
-
-        // With all controls
-        int biWithAllControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A);
-        int probabilityWithAllControls = scenario.getNumericProperty(
-                IncidentScenario.PROP_SCENARIO_PROBABILITY_WITH_PLANNED_CONTROLS);
-        int riskWithAllControlsA = calculateRisk(biWithAllControlsA, probabilityWithAllControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_CONTROLS, biWithAllControlsA);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A, positiveOrZero(
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A) + riskWithAllControlsA));
-
-        // With planned controls
-        int biWithPlannedControlsA = assetWithReducedCIAValues
-                .getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A);
-        int probabilityWithPlannedControls = scenario
-                .getNumericProperty(IncidentScenario.PROP_SCENARIO_PROBABILITY_WITHOUT_NA_CONTROLS);
-        int riskWithPlannedControlsA = calculateRisk(biWithPlannedControlsA,
-                probabilityWithPlannedControls);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS,
-                biWithPlannedControlsA);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                positiveOrZero(asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A)
-                        + riskWithPlannedControlsA));
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
     }
 
     /**
-     * Reduce the CIA values of an given asset with the effect of all controls
-     * which are linked to this asset. Returns a copy of the given asset with
-     * reduced values.
-     * 
-     * @param graph
-     *            A verinice graph with all elements which are analyzed
-     * @param asset
-     *            An asset with CIA values
-     * @return A copy of the given asset with reduced CIA values.
+     * @return The runtime in milliseconds of every phase of the last run
      */
-    private Asset reduceCIAValues(VeriniceGraph graph, Asset asset) {
-        Asset assetWithReducedCIAValues = new Asset();
-        assetWithReducedCIAValues.getEntity().copyEntity(asset.getEntity());
-
-        // Reset risk values to prevent summation when running risk analysis
-        // multiple times
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_VALUE_CONFIDENTIALITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_VALUE_INTEGRITY));
-        assetWithReducedCIAValues.setNumericProperty(Asset.ASSET_CONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_VALUE_AVAILABILITY));
-
-        Set<CnATreeElement> linkedControls = graph.getLinkTargetsByElementType(asset,
-                Control.TYPE_ID);
-        for (CnATreeElement control : linkedControls) {
-            reduceCIAValues(assetWithReducedCIAValues, control);
-        }
-        return assetWithReducedCIAValues;
+    public Map<String, Long> getPhaseRuntimes() {
+        return Collections.unmodifiableMap(phaseRuntimes);
     }
 
-    /**
-     * Reduce the CIA values of a given asset with the effect of a given
-     * control.
-     * 
-     * @param asset
-     *            An asset with CIA values
-     * @param control
-     *            A control which reduces the CIA values
-     */
-    private void reduceCIAValues(Asset asset, CnATreeElement control) {
-        int controlEffectC = control.getNumericProperty(Control.PROP_EFFECTIVENESS_CONFIDENTIALITY);
-        int controlEffectI = control.getNumericProperty(Control.PROP_EFFECTIVENESS_INTEGRITY);
-        int controlEffectA = control.getNumericProperty(Control.PROP_EFFECTIVENESS_AVAILABILITY);
-
-        // Reduce regardless of implementation status
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C,
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_C) - controlEffectC);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I,
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_I) - controlEffectI);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A,
-                asset.getNumericProperty(Asset.ASSET_PLANCONTROLRISK_A) - controlEffectA);
-
-        // Reduce if implementation status is "planned"
-        if (Control.isPlanned(control.getEntity())) {
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
-                    asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C)
-                            - controlEffectC);
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
-                    asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I)
-                            - controlEffectI);
-            asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
-                    asset.getNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A)
-                            - controlEffectA);
-        }
-
-        // Reduce if implementation status is "implemented"
-        if (Control.isImplemented(control.getEntity())) {
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C,
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_C) - controlEffectC);
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I,
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_I) - controlEffectI);
-            asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A,
-                    asset.getNumericProperty(Asset.ASSET_CONTROLRISK_A) - controlEffectA);
-        }
+    public IBaseDao<CnALink, Serializable> getCnaLinkDao() {
+        return cnaLinkDao;
+    }
 
+    public void setCnaLinkDao(IBaseDao<CnALink, Serializable> cnaLinkDao) {
+        this.cnaLinkDao = cnaLinkDao;
     }
 
     /**
-     * Reset risk calculation, remove all calculated risk values in an asset.
-     * 
-     * @param asset
+     * The ids of the risk properties of an asset for confidentiality,
+     * integrity or availability
      */
-    private void resetRisks(Asset asset) {
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_RISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_CONTROLRISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_PLANCONTROLRISK_A, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I, 0);
-        asset.setNumericProperty(Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A, 0);
-    }
-
-    private void resetRisks(Edge edgeToAsset) {
-        edgeToAsset.setRiskConfidentiality(0);
-        edgeToAsset.setRiskConfidentialityWithControls(0);
-
-        edgeToAsset.setRiskIntegrity(0);
-        edgeToAsset.setRiskIntegrityWithControls(0);
-
-        edgeToAsset.setRiskAvailability(0);
-        edgeToAsset.setRiskAvailabilityWithControls(0);
-    }
-
-    private void getProbabilityFromThreatAndVulnerability(VeriniceGraph graph,
-            IncidentScenario scenario) {
-        // only calculate if threat AND vulnerability is linked to scenario:
-        Set<CnATreeElement> threatSet = graph.getLinkTargetsByElementType(scenario, Threat.TYPE_ID);
-        Set<CnATreeElement> vulnerabilitySet = graph.getLinkTargetsByElementType(scenario,
-                Vulnerability.TYPE_ID);
-
-        if (!threatSet.isEmpty() && !vulnerabilitySet.isEmpty()) {
-            int threatImpact = 0;
-            for (CnATreeElement threat : threatSet) {
-                // use higher value of likelihood or impact:
-                int level1 = threat.getNumericProperty(Threat.PROP_THREAT_LIKELIHOOD);
-                int level2 = threat.getNumericProperty(Threat.PROP_THREAT_IMPACT);
-                int level = (level1 > level2) ? level1 : level2;
-                threatImpact = (level > threatImpact) ? level : threatImpact;
-            }
-
-            int exploitability = 0;
-            for (CnATreeElement vuln : vulnerabilitySet) {
-                int level = vuln
-                        .getNumericProperty(Vulnerability.PROP_VULNERABILITY_EXPLOITABILITY);
-                exploitability = (level > exploitability) ? level : exploitability;
-            }
-
-            // set values to highest found:
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_THREAT_PROBABILITY,
-                    threatImpact);
-            scenario.setNumericProperty(IncidentScenario.PROP_SCENARIO_VULN_PROBABILITY,
-                    exploitability);
+    private static final class RiskProperties {
+
+        private static final RiskProperties[] CIA = new RiskProperties[] {
+                new RiskProperties(Asset.ASSET_RISK_C, Asset.ASSET_CONTROLRISK_C,
+                        Asset.ASSET_PLANCONTROLRISK_C, Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_C,
+                        Asset.ASSET_CONFIDENTIALITY_WITH_IMPLEMENTED_CONTROLS,
+                        Asset.ASSET_CONFIDENTIALITY_WITH_CONTROLS,
+                        Asset.ASSET_CONFIDENTIALITY_WITH_PLANNED_CONTROLS),
+                new RiskProperties(Asset.ASSET_RISK_I, Asset.ASSET_CONTROLRISK_I,
+                        Asset.ASSET_PLANCONTROLRISK_I, Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_I,
+                        Asset.ASSET_INTEGRITY_WITH_IMPLEMENTED_CONTROLS,
+                        Asset.ASSET_INTEGRITY_WITH_CONTROLS,
+                        Asset.ASSET_INTEGRITY_WITH_PLANNED_CONTROLS),
+                new RiskProperties(Asset.ASSET_RISK_A, Asset.ASSET_CONTROLRISK_A,
+                        Asset.ASSET_PLANCONTROLRISK_A, Asset.ASSET_WITHOUT_NA_PLANCONTROLRISK_A,
+                        Asset.ASSET_AVAILABILITY_WITH_IMPLEMENTED_CONTROLS,
+                        Asset.ASSET_AVAILABILITY_WITH_CONTROLS,
+                        Asset.ASSET_AVAILABILITY_WITH_PLANNED_CONTROLS) };
+
+        private final String risk;
+        private final String controlRisk;
+        private final String planControlRisk;
+        private final String withoutNaPlanControlRisk;
+        private final String withImplementedControls;
+        private final String withControls;
+        private final String withPlannedControls;
+
+        private RiskProperties(String risk, String controlRisk, String planControlRisk,
+                String withoutNaPlanControlRisk, String withImplementedControls,
+                String withControls, String withPlannedControls) {
+            this.risk = risk;
+            this.controlRisk = controlRisk;
+            this.planControlRisk = planControlRisk;
+            this.withoutNaPlanControlRisk = withoutNaPlanControlRisk;
+            this.withImplementedControls = withImplementedControls;
+            this.withControls = withControls;
+            this.withPlannedControls = withPlannedControls;
         }
-    }
 
-    private boolean scenarioAffectsConfidentiality(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_C) == 1;
+        /**
+         * Remove all calculated risk values
+         */
+        private void reset(Map<String, Integer> values) {
+            values.put(withControls, 0);
+            values.put(withPlannedControls, 0);
+            values.put(withImplementedControls, 0);
+            values.put(risk, 0);
+            values.put(controlRisk, 0);
+            values.put(planControlRisk, 0);
+            values.put(withoutNaPlanControlRisk, 0);
+        }
     }
 
-    private boolean scenarioAffectsIntegrity(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_I) == 1;
+    /**
+     * The values of a control which reduce the risk
+     */
+    private static final class ControlValues {
+        private final int effectP;
+        private final int[] effectCIA;
+        private final boolean implemented;
+        private final boolean planned;
+
+        private ControlValues(int effectP, int[] effectCIA, boolean implemented,
+                boolean planned) {
+            this.effectP = effectP;
+            this.effectCIA = effectCIA;
+            this.implemented = implemented;
+            this.planned = planned;
+        }
     }
 
-    private boolean scenarioAffectsAvailability(IncidentScenario scenario) {
-        return scenario.getNumericProperty(IncidentScenario.PROP_SCENARIO_AFFECTS_A) == 1;
+    /**
+     * The values of an incident scenario and its linked elements which are
+     * read before the probability is calculated
+     */
+    private static final class ScenarioInput {
+        private final IncidentScenario scenario;
+        private final String title;
+        private int threatProbability;
+        private int vulnerabilityProbability;
+        private boolean probabilitiesFromLinks = false;
+        private boolean[] affects;
+        private final List<ControlValues> controls = new ArrayList<>();
+
+        private ScenarioInput(IncidentScenario scenario) {
+            this.scenario = scenario;
+            this.title = scenario.getTitle();
+        }
     }
 
     /**
-     * @param n
-     *            A positive or negative number
-     * @return The given number if n is positive or 0 if n is 0 or negative
+     * The calculated probabilities of an incident scenario
      */
-    private int positiveOrZero(int n) {
-        return n < 0 ? 0 : n;
+    private static final class ScenarioValues {
+        private final IncidentScenario scenario;
+        private final String title;
+        private final int threatProbability;
+        private final int vulnerabilityProbability;
+        private final boolean probabilitiesFromLinks;
+        private final boolean[] affects;
+        private int probability;
+        private int probabilityWithControls;
+        private int probabilityWithPlannedControls;
+        private int probabilityWithoutNaControls;
+
+        private ScenarioValues(ScenarioInput input) {
+            this.scenario = input.scenario;
+            this.title = input.title;
+            this.threatProbability = input.threatProbability;
+            this.vulnerabilityProbability = input.vulnerabilityProbability;
+            this.probabilitiesFromLinks = input.probabilitiesFromLinks;
+            this.affects = input.affects;
+        }
     }
 
-    private void saveLink(Edge edge) {
-        CnALink link = new CnALink(edge.getSource(), edge.getTarget(), edge.getType(),
-                edge.getDescription());
-        link.setRiskConfidentiality(edge.getRiskConfidentiality());
-        link.setRiskIntegrity(edge.getRiskIntegrity());
-        link.setRiskAvailability(edge.getRiskAvailability());
-        link.setRiskConfidentialityWithControls(edge.getRiskConfidentialityWithControls());
-        link.setRiskIntegrityWithControls(edge.getRiskIntegrityWithControls());
-        link.setRiskAvailabilityWithControls(edge.getRiskAvailabilityWithControls());
-        link.setRiskTreatment(edge.getRiskTreatment());
-        cnaLinkDao.merge(link);
-
+    /**
+     * The CIA values of an asset, the values of its controls and the edges
+     * from incident scenarios to the asset
+     */
+    private static final class AssetInput {
+        private final Asset asset;
+        private final String title;
+        private int[] businessImpact;
+        private final List<ControlValues> controls = new ArrayList<>();
+        private final List<ScenarioEdge> edges = new ArrayList<>();
+
+        private AssetInput(Asset asset) {
+            this.asset = asset;
+            this.title = asset.getTitle();
+        }
     }
 
-    public RiskCalculator getRiskCalculator() {
-        if (riskCalculator == null) {
-            riskCalculator = RISK_CALCULATOR_DEFAULT;
+    /**
+     * The calculated risk values of an asset and of the edges from incident
+     * scenarios to the asset
+     */
+    private static final class AssetValues {
+        private final Asset asset;
+        private final String title;
+        private final Map<String, Integer> properties = new LinkedHashMap<>();
+        private final Map<Edge, EdgeRisk> edgeRisks = new LinkedHashMap<>();
+
+        private AssetValues(AssetInput input) {
+            this.asset = input.asset;
+            this.title = input.title;
         }
-        return riskCalculator;
     }
 
-    public void setRiskCalculator(RiskCalculator riskCalculator) {
-        this.riskCalculator = riskCalculator;
+    /**
+     * The risk values of an edge from an incident scenario to an asset for
+     * confidentiality, integrity and availability
+     */
+    private static final class EdgeRisk {
+        private final int[] risk = new int[RiskProperties.CIA.length];
+        private final int[] riskWithControls = new int[RiskProperties.CIA.length];
     }
 
-    public IBaseDao<CnALink, Serializable> getCnaLinkDao() {
-        return cnaLinkDao;
-    }
+    /**
+     * An edge from an incident scenario to an asset
+     */
+    private static final class ScenarioEdge {
+        private final ScenarioValues scenario;
+        private final Edge edge;
 
-    public void setCnaLinkDao(IBaseDao<CnALink, Serializable> cnaLinkDao) {
-        this.cnaLinkDao = cnaLinkDao;
+        private ScenarioEdge(ScenarioValues scenario, Edge edge) {
+            this.scenario = scenario;
+            this.edge = edge;
+        }
     }
 }
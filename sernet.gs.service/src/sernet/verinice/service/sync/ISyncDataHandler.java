@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.sync;
+
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import sernet.verinice.interfaces.CommandException;
+
+/**
+ * Receives the objects and links of a sync request from a
+ * {@link SyncDataReader} one by one while verinice.xml is read.
+ */
+public interface ISyncDataHandler {
+
+    /**
+     * Called when the attributes of an object are read. The children and
+     * files of the object are empty at this point. Children of the object are
+     * passed to this handler after this call.
+     * 
+     * @param syncObject
+     *            An object with attributes, ext-id, type and icon
+     */
+    void startObject(SyncObject syncObject) throws CommandException;
+
+    /**
+     * Called after all children of an object were passed to this handler.
+     * The files of the object are set at this point, the children are still
+     * empty.
+     * 
+     * @param syncObject
+     *            The object passed to {@link #startObject(SyncObject)}
+     */
+    void endObject(SyncObject syncObject) throws CommandException;
+
+    /**
+     * Called after all objects and before the first link is passed to this
+     * handler.
+     */
+    void endObjects() throws CommandException;
+
+    void handleLink(SyncLink syncLink) throws CommandException;
+}
@@ -96,7 +96,7 @@ public class PureXml implements IVeriniceArchive {
     @Override
     public SyncData getSyncData() {
         if (syncData == null) {
-            unmarshal();
+            unmarshalSyncData();
         }
         return syncData;
     }
@@ -119,8 +119,24 @@ public class PureXml implements IVeriniceArchive {
         this.syncMapping = syncMapping;
     }
 
-    private void unmarshal() {
-        syncRequest = JAXB.unmarshal(new ByteArrayInputStream(getVeriniceXml()), SyncRequest.class);
+    /**
+     * Reads the sync request and sets source-id, sync data and mapping.
+     */
+    protected void unmarshal() {
+        setSyncRequestContent(
+                JAXB.unmarshal(new ByteArrayInputStream(getVeriniceXml()), SyncRequest.class));
+    }
+
+    /**
+     * Reads the sync data. Subclasses which read the sync request without the
+     * data in {@link #unmarshal()} must override this method.
+     */
+    protected void unmarshalSyncData() {
+        unmarshal();
+    }
+
+    protected void setSyncRequestContent(SyncRequest syncRequest) {
+        this.syncRequest = syncRequest;
         sourceId = syncRequest.getSourceId();
         syncData = syncRequest.getSyncData();
         syncMapping = syncRequest.getSyncMapping();
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.sync;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.log4j.Logger;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.verinice.interfaces.CommandException;
+
+/**
+ * Reads a sync request (verinice.xml) with StAX without creating the complete
+ * JAXB tree of the request in memory.
+ * 
+ * {@link #readHeader()} reads the source-id, the mapping and the schema
+ * version. {@link #read(ISyncDataHandler)} passes the objects and links of
+ * the sync data to a handler one by one. Only the attributes of the objects
+ * on the path from the current object to the root are held in memory. Since
+ * the mapping follows the data in verinice.xml the file is read twice.
+ */
+public class SyncDataReader {
+
+    private static final Logger LOG = Logger.getLogger(SyncDataReader.class);
+
+    private static final String SYNC_DATA = "syncData"; //$NON-NLS-1$
+    private static final String SYNC_MAPPING = "syncMapping"; //$NON-NLS-1$
+    private static final String SYNC_VNA_SCHEMA_VERSION = "syncVnaSchemaVersion"; //$NON-NLS-1$
+    private static final String SYNC_OBJECT = "syncObject"; //$NON-NLS-1$
+    private static final String SYNC_LINK = "syncLink"; //$NON-NLS-1$
+    private static final String SYNC_ATTRIBUTE = "syncAttribute"; //$NON-NLS-1$
+    private static final String EXT_ID = "extId"; //$NON-NLS-1$
+    private static final String EXT_OBJECT_TYPE = "extObjectType"; //$NON-NLS-1$
+    private static final String ICON = "icon"; //$NON-NLS-1$
+    private static final String CHILDREN = "children"; //$NON-NLS-1$
+    private static final String FILE = "file"; //$NON-NLS-1$
+    private static final String DEPENDANT = "dependant"; //$NON-NLS-1$
+    private static final String DEPENDENCY = "dependency"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_SOURCE_ID = "sourceId"; //$NON-NLS-1$
+
+    private static JAXBContext context;
+
+    private final File xmlFile;
+
+    private Unmarshaller unmarshaller;
+
+    private int numberOfObjects;
+
+    private int numberOfLinks;
+
+    /**
+     * @param xmlFile
+     *            A sync request file (verinice.xml)
+     */
+    public SyncDataReader(File xmlFile) {
+        this.xmlFile = xmlFile;
+    }
+
+    /**
+     * Reads the source-id, the mapping and the schema version of the sync
+     * request. The sync data is skipped.
+     * 
+     * @return A sync request without sync data
+     */
+    public SyncRequest readHeader() {
+        SyncRequest syncRequest = new SyncRequest();
+        try (InputStream in = openFile()) {
+            XMLStreamReader reader = createReader(in);
+            try {
+                reader.nextTag();
+                syncRequest.setSourceId(reader.getAttributeValue(null, ATTRIBUTE_SOURCE_ID));
+                reader.nextTag();
+                while (reader.isStartElement()) {
+                    String name = reader.getLocalName();
+                    if (SYNC_MAPPING.equals(name)) {
+                        syncRequest.setSyncMapping(unmarshal(reader, SyncMapping.class));
+                        nextTagAfterUnmarshal(reader);
+                    } else if (SYNC_VNA_SCHEMA_VERSION.equals(name)) {
+                        syncRequest.setSyncVnaSchemaVersion(
+                                unmarshal(reader, SyncVnaSchemaVersion.class));
+                        nextTagAfterUnmarshal(reader);
+                    } else {
+                        skipElement(reader);
+                        reader.nextTag();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException | JAXBException e) {
+            LOG.error("Error while reading header of sync request: " + xmlFile, e);
+            throw new VeriniceArchiveNotValidException(e);
+        }
+        return syncRequest;
+    }
+
+    /**
+     * Reads the sync data and passes all objects and links to a handler. See
+     * {@link ISyncDataHandler} for the order of the calls.
+     * 
+     * @param handler
+     *            A handler for the objects and links
+     */
+    public void read(ISyncDataHandler handler) throws CommandException {
+        numberOfObjects = 0;
+        numberOfLinks = 0;
+        try (InputStream in = openFile()) {
+            XMLStreamReader reader = createReader(in);
+            try {
+                reader.nextTag();
+                reader.nextTag();
+                while (reader.isStartElement()) {
+                    if (SYNC_DATA.equals(reader.getLocalName())) {
+                        readSyncData(reader, handler);
+                    } else {
+                        skipElement(reader);
+                    }
+                    reader.nextTag();
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException | JAXBException e) {
+            LOG.error("Error while reading sync data: " + xmlFile, e);
+            throw new VeriniceArchiveNotValidException(e);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Sync data read, objects: " + numberOfObjects + ", links: "
+                    + numberOfLinks);
+        }
+    }
+
+    /**
+     * Reads only the ext-ids of all objects and the ext-ids of the elements
+     * of all links. The objects are not unmarshalled. Use this method to
+     * prefetch data before the objects are read with
+     * {@link #read(ISyncDataHandler)}.
+     * 
+     * @param objectExtIds
+     *            The ext-ids of the objects are added to this collection in
+     *            document order
+     * @param linkExtIds
+     *            The ext-ids of the dependants and dependencies of the links
+     *            are added to this collection
+     */
+    public void readExtIds(Collection<String> objectExtIds, Collection<String> linkExtIds) {
+        try (InputStream in = openFile()) {
+            XMLStreamReader reader = createReader(in);
+            try {
+                Deque<String> path = new ArrayDeque<>();
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamReader.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        String parent = path.peek();
+                        if (EXT_ID.equals(name)
+                                && (SYNC_OBJECT.equals(parent) || CHILDREN.equals(parent))) {
+                            objectExtIds.add(reader.getElementText());
+                        } else if ((DEPENDANT.equals(name) || DEPENDENCY.equals(name))
+                                && SYNC_LINK.equals(parent)) {
+                            linkExtIds.add(reader.getElementText());
+                        } else {
+                            path.push(name);
+                        }
+                    } else if (event == XMLStreamReader.END_ELEMENT) {
+                        path.pop();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            LOG.error("Error while reading ext-ids of sync request: " + xmlFile, e);
+            throw new VeriniceArchiveNotValidException(e);
+        }
+    }
+
+    private void readSyncData(XMLStreamReader reader, ISyncDataHandler handler)
+            throws XMLStreamException, JAXBException, CommandException {
+        boolean objectsFinished = false;
+        reader.nextTag();
+        while (reader.isStartElement()) {
+            String name = reader.getLocalName();
+            if (SYNC_OBJECT.equals(name)) {
+                readObject(reader, handler);
+                reader.nextTag();
+            } else if (SYNC_LINK.equals(name)) {
+                if (!objectsFinished) {
+                    handler.endObjects();
+                    objectsFinished = true;
+                }
+                handler.handleLink(unmarshal(reader, SyncLink.class));
+                numberOfLinks++;
+                nextTagAfterUnmarshal(reader);
+            } else {
+                skipElement(reader);
+                reader.nextTag();
+            }
+        }
+        if (!objectsFinished) {
+            handler.endObjects();
+        }
+    }
+
+    /**
+     * Reads an object element (syncObject or children). The reader is
+     * positioned at the start element of the object when this method is
+     * called and at the end element when it returns.
+     */
+    private void readObject(XMLStreamReader reader, ISyncDataHandler handler)
+            throws XMLStreamException, JAXBException, CommandException {
+        SyncObject syncObject = new SyncObject();
+        boolean started = false;
+        reader.nextTag();
+        while (reader.isStartElement()) {
+            String name = reader.getLocalName();
+            if (SYNC_ATTRIBUTE.equals(name)) {
+                syncObject.getSyncAttribute().add(unmarshal(reader, SyncAttribute.class));
+                nextTagAfterUnmarshal(reader);
+            } else if (FILE.equals(name)) {
+                syncObject.getFile().add(unmarshal(reader, SyncFile.class));
+                nextTagAfterUnmarshal(reader);
+            } else if (CHILDREN.equals(name)) {
+                if (!started) {
+                    startObject(syncObject, handler);
+                    started = true;
+                }
+                readObject(reader, handler);
+                reader.nextTag();
+            } else {
+                if (EXT_ID.equals(name)) {
+                    syncObject.setExtId(reader.getElementText());
+                } else if (EXT_OBJECT_TYPE.equals(name)) {
+                    syncObject.setExtObjectType(reader.getElementText());
+                } else if (ICON.equals(name)) {
+                    syncObject.setIcon(reader.getElementText());
+                } else {
+                    skipElement(reader);
+                }
+                reader.nextTag();
+            }
+        }
+        if (!started) {
+            startObject(syncObject, handler);
+        }
+        handler.endObject(syncObject);
+    }
+
+    private void startObject(SyncObject syncObject, ISyncDataHandler handler)
+            throws CommandException {
+        numberOfObjects++;
+        handler.startObject(syncObject);
+    }
+
+    private <T> T unmarshal(XMLStreamReader reader, Class<T> type) throws JAXBException {
+        return getUnmarshaller().unmarshal(reader, type).getValue();
+    }
+
+    /**
+     * After unmarshalling an element the reader is positioned at the event
+     * following the end element. Moves the reader to the next start or end
+     * element.
+     */
+    private static void nextTagAfterUnmarshal(XMLStreamReader reader) throws XMLStreamException {
+        while (!reader.isStartElement() && !reader.isEndElement()) {
+            reader.next();
+        }
+    }
+
+    /**
+     * Skips an element with all its content. The reader is positioned at the
+     * start element when this method is called and at the end element when
+     * it returns.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamReader.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamReader.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private InputStream openFile() throws IOException {
+        return new BufferedInputStream(new FileInputStream(xmlFile));
+    }
+
+    private static XMLStreamReader createReader(InputStream in) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory.createXMLStreamReader(in);
+    }
+
+    private Unmarshaller getUnmarshaller() throws JAXBException {
+        if (unmarshaller == null) {
+            unmarshaller = getContext().createUnmarshaller();
+        }
+        return unmarshaller;
+    }
+
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (context == null) {
+            context = JAXBContext.newInstance(SyncRequest.class);
+        }
+        return context;
+    }
+
+    public File getXmlFile() {
+        return xmlFile;
+    }
+
+    /**
+     * @return The number of objects read by the last call of
+     *         {@link #read(ISyncDataHandler)}
+     */
+    public int getNumberOfObjects() {
+        return numberOfObjects;
+    }
+
+    /**
+     * @return The number of links read by the last call of
+     *         {@link #read(ISyncDataHandler)}
+     */
+    public int getNumberOfLinks() {
+        return numberOfLinks;
+    }
+}
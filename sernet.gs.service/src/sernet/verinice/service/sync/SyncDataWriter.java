@@ -0,0 +1,342 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.sync;
+
+import java.io.OutputStream;
+import java.util.List;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.mapping.SyncMapping.MapObjectType;
+import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.gs.service.VeriniceCharset;
+import sernet.verinice.interfaces.CommandException;
+
+/**
+ * Writes a sync request (verinice.xml) with StAX without creating the
+ * complete JAXB tree of the request in memory. This is the counterpart of
+ * {@link SyncDataReader}.
+ * 
+ * Call {@link #startRequest(String)} first. Pass the objects to
+ * {@link #startObject(SyncObject)} and {@link #endObject(SyncObject)} in
+ * document order, children of an object are passed between these calls. Pass
+ * the links to {@link #handleLink(SyncLink)} after {@link #endObjects()} and
+ * finish the request with
+ * {@link #endRequest(SyncMapping, SyncVnaSchemaVersion)}. The children of the
+ * objects passed to this writer are ignored.
+ * 
+ * The output stream is not closed by this writer.
+ */
+public class SyncDataWriter implements ISyncDataHandler {
+
+    private static final String NS_DATA = "http://www.sernet.de/sync/data"; //$NON-NLS-1$
+    private static final String NS_MAPPING = "http://www.sernet.de/sync/mapping"; //$NON-NLS-1$
+    private static final String NS_SYNC = "http://www.sernet.de/sync/sync"; //$NON-NLS-1$
+    private static final String PREFIX_MAPPING = "ns2"; //$NON-NLS-1$
+    private static final String PREFIX_SYNC = "ns3"; //$NON-NLS-1$
+
+    private static final String SYNC_REQUEST = "syncRequest"; //$NON-NLS-1$
+    private static final String SYNC_DATA = "syncData"; //$NON-NLS-1$
+    private static final String SYNC_MAPPING = "syncMapping"; //$NON-NLS-1$
+    private static final String SYNC_VNA_SCHEMA_VERSION = "syncVnaSchemaVersion"; //$NON-NLS-1$
+    private static final String COMPATIBLE_VERSIONS = "compatibleVersions"; //$NON-NLS-1$
+    private static final String MAP_OBJECT_TYPE = "mapObjectType"; //$NON-NLS-1$
+    private static final String MAP_ATTRIBUTE_TYPE = "mapAttributeType"; //$NON-NLS-1$
+    private static final String SYNC_OBJECT = "syncObject"; //$NON-NLS-1$
+    private static final String SYNC_LINK = "syncLink"; //$NON-NLS-1$
+    private static final String SYNC_ATTRIBUTE = "syncAttribute"; //$NON-NLS-1$
+    private static final String NAME = "name"; //$NON-NLS-1$
+    private static final String VALUE = "value"; //$NON-NLS-1$
+    private static final String LIMITED_LICENSE = "limitedLicense"; //$NON-NLS-1$
+    private static final String LICENSE_CONTENT_ID = "licenseContentId"; //$NON-NLS-1$
+    private static final String EXT_ID = "extId"; //$NON-NLS-1$
+    private static final String INT_ID = "intId"; //$NON-NLS-1$
+    private static final String EXT_OBJECT_TYPE = "extObjectType"; //$NON-NLS-1$
+    private static final String ICON = "icon"; //$NON-NLS-1$
+    private static final String CHILDREN = "children"; //$NON-NLS-1$
+    private static final String FILE = "file"; //$NON-NLS-1$
+    private static final String DEPENDANT = "dependant"; //$NON-NLS-1$
+    private static final String DEPENDENCY = "dependency"; //$NON-NLS-1$
+    private static final String RELATION_ID = "relationId"; //$NON-NLS-1$
+    private static final String COMMENT = "comment"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_SOURCE_ID = "sourceId"; //$NON-NLS-1$
+    private static final String ATTRIBUTE_VNA_SCHEMA_VERSION = "vnaSchemaVersion"; //$NON-NLS-1$
+
+    private static final String INDENT = "    "; //$NON-NLS-1$
+
+    private final XMLStreamWriter writer;
+
+    private int depth = 0;
+
+    private int objectDepth = 0;
+
+    private int numberOfObjects = 0;
+
+    private int numberOfLinks = 0;
+
+    /**
+     * @param out
+     *            The stream verinice.xml is written to, the stream is not
+     *            closed by this writer
+     */
+    public SyncDataWriter(OutputStream out) throws CommandException {
+        try {
+            this.writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+                    VeriniceCharset.CHARSET_UTF_8.name());
+        } catch (XMLStreamException e) {
+            throw new CommandException("Error while creating XML writer", e);
+        }
+    }
+
+    /**
+     * Writes the start of the request and of the sync data.
+     * 
+     * @param sourceId
+     *            The source-id of the request
+     */
+    public void startRequest(String sourceId) throws CommandException {
+        try {
+            writer.writeStartDocument(VeriniceCharset.CHARSET_UTF_8.name(), "1.0"); //$NON-NLS-1$
+            newLine();
+            writer.writeStartElement(PREFIX_SYNC, SYNC_REQUEST, NS_SYNC);
+            writer.writeDefaultNamespace(NS_DATA);
+            writer.writeNamespace(PREFIX_MAPPING, NS_MAPPING);
+            writer.writeNamespace(PREFIX_SYNC, NS_SYNC);
+            writer.writeAttribute(ATTRIBUTE_SOURCE_ID, sourceId);
+            depth++;
+            startElement(SYNC_DATA);
+        } catch (XMLStreamException e) {
+            throw new CommandException("Error while writing start of sync request", e);
+        }
+    }
+
+    /**
+     * Writes the start of an object with attributes, ext-id, type and icon.
+     * Children of the object are ignored, pass them to this writer after this
+     * call.
+     */
+    @Override
+    public void startObject(SyncObject syncObject) throws CommandException {
+        try {
+            startElement((objectDepth == 0) ? SYNC_OBJECT : CHILDREN);
+            objectDepth++;
+            writeAttributes(syncObject.getSyncAttribute());
+            writeElement(EXT_ID, syncObject.getExtId());
+            writeElement(EXT_OBJECT_TYPE, syncObject.getExtObjectType());
+            if (syncObject.getIcon() != null) {
+                writeElement(ICON, syncObject.getIcon());
+            }
+            numberOfObjects++;
+        } catch (XMLStreamException e) {
+            throw new CommandException(
+                    "Error while writing object, ext-id: " + syncObject.getExtId(), e);
+        }
+    }
+
+    /**
+     * Writes the files and the end of an object.
+     */
+    @Override
+    public void endObject(SyncObject syncObject) throws CommandException {
+        try {
+            for (SyncFile syncFile : syncObject.getFile()) {
+                startElement(FILE);
+                writeAttributes(syncFile.getSyncAttribute());
+                writeElement(EXT_ID, syncFile.getExtId());
+                writeElement(FILE, syncFile.getFile());
+                endElement();
+            }
+            objectDepth--;
+            endElement();
+        } catch (XMLStreamException e) {
+            throw new CommandException(
+                    "Error while writing files of object, ext-id: " + syncObject.getExtId(), e);
+        }
+    }
+
+    @Override
+    public void endObjects() {
+        // links are written to the sync data after the objects
+    }
+
+    @Override
+    public void handleLink(SyncLink syncLink) throws CommandException {
+        try {
+            startElement(SYNC_LINK);
+            writeElement(DEPENDANT, syncLink.getDependant());
+            writeElement(DEPENDENCY, syncLink.getDependency());
+            writeElement(RELATION_ID, syncLink.getRelationId());
+            if (syncLink.getComment() != null) {
+                writeElement(COMMENT, syncLink.getComment());
+            }
+            endElement();
+            numberOfLinks++;
+        } catch (XMLStreamException e) {
+            throw new CommandException("Error while writing link, dependant: "
+                    + syncLink.getDependant() + ", dependency: " + syncLink.getDependency(), e);
+        }
+    }
+
+    /**
+     * Writes the end of the sync data, the mapping, the schema version and
+     * the end of the request and flushes the output stream.
+     * 
+     * @param syncMapping
+     *            The mapping of the request
+     * @param version
+     *            The schema version of the request or null
+     */
+    public void endRequest(SyncMapping syncMapping, SyncVnaSchemaVersion version)
+            throws CommandException {
+        try {
+            endElement();
+            writeMapping(syncMapping);
+            if (version != null) {
+                writeVersion(version);
+            }
+            endElement();
+            writer.writeEndDocument();
+            writer.flush();
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new CommandException("Error while writing end of sync request", e);
+        }
+    }
+
+    private void writeMapping(SyncMapping syncMapping) throws XMLStreamException {
+        startElement(NS_MAPPING, PREFIX_MAPPING, SYNC_MAPPING);
+        for (MapObjectType mapObjectType : syncMapping.getMapObjectType()) {
+            List<MapAttributeType> attributeTypes = mapObjectType.getMapAttributeType();
+            newLine();
+            if (attributeTypes.isEmpty()) {
+                writer.writeEmptyElement(PREFIX_MAPPING, MAP_OBJECT_TYPE, NS_MAPPING);
+            } else {
+                writer.writeStartElement(PREFIX_MAPPING, MAP_OBJECT_TYPE, NS_MAPPING);
+            }
+            writer.writeAttribute(EXT_ID, mapObjectType.getExtId());
+            writer.writeAttribute(INT_ID, mapObjectType.getIntId());
+            if (!attributeTypes.isEmpty()) {
+                depth++;
+                for (MapAttributeType attributeType : attributeTypes) {
+                    newLine();
+                    writer.writeEmptyElement(PREFIX_MAPPING, MAP_ATTRIBUTE_TYPE, NS_MAPPING);
+                    writeAttribute(EXT_ID, attributeType.getExtId());
+                    writeAttribute(INT_ID, attributeType.getIntId());
+                }
+                endElement();
+            }
+        }
+        endElement();
+    }
+
+    private void writeVersion(SyncVnaSchemaVersion version) throws XMLStreamException {
+        newLine();
+        writer.writeStartElement(PREFIX_SYNC, SYNC_VNA_SCHEMA_VERSION, NS_SYNC);
+        writer.writeAttribute(ATTRIBUTE_VNA_SCHEMA_VERSION, version.getVnaSchemaVersion());
+        depth++;
+        for (String compatibleVersion : version.getCompatibleVersions()) {
+            newLine();
+            writer.writeStartElement(PREFIX_SYNC, COMPATIBLE_VERSIONS, NS_SYNC);
+            writer.writeCharacters(compatibleVersion);
+            writer.writeEndElement();
+        }
+        endElement();
+    }
+
+    private void writeAttributes(List<SyncAttribute> attributes) throws XMLStreamException {
+        for (SyncAttribute attribute : attributes) {
+            startElement(SYNC_ATTRIBUTE);
+            writeElement(NAME, attribute.getName());
+            for (String value : attribute.getValue()) {
+                writeElement(VALUE, value);
+            }
+            for (Boolean limitedLicense : attribute.getLimitedLicense()) {
+                writeElement(LIMITED_LICENSE,
+                        (limitedLicense != null) ? limitedLicense.toString() : null);
+            }
+            for (String licenseContentId : attribute.getLicenseContentId()) {
+                writeElement(LICENSE_CONTENT_ID, licenseContentId);
+            }
+            endElement();
+        }
+    }
+
+    private void writeElement(String localName, String text) throws XMLStreamException {
+        if (text == null) {
+            return;
+        }
+        newLine();
+        writer.writeStartElement(localName);
+        writer.writeCharacters(text);
+        writer.writeEndElement();
+    }
+
+    private void writeAttribute(String localName, String value) throws XMLStreamException {
+        if (value != null) {
+            writer.writeAttribute(localName, value);
+        }
+    }
+
+    private void startElement(String localName) throws XMLStreamException {
+        newLine();
+        writer.writeStartElement(localName);
+        depth++;
+    }
+
+    private void startElement(String namespace, String prefix, String localName)
+            throws XMLStreamException {
+        newLine();
+        writer.writeStartElement(prefix, localName, namespace);
+        depth++;
+    }
+
+    private void endElement() throws XMLStreamException {
+        depth--;
+        newLine();
+        writer.writeEndElement();
+    }
+
+    private void newLine() throws XMLStreamException {
+        writer.writeCharacters("\n"); //$NON-NLS-1$
+        for (int i = 0; i < depth; i++) {
+            writer.writeCharacters(INDENT);
+        }
+    }
+
+    /**
+     * @return The number of objects written by this writer including all
+     *         children
+     */
+    public int getNumberOfObjects() {
+        return numberOfObjects;
+    }
+
+    public int getNumberOfLinks() {
+        return numberOfLinks;
+    }
+}
@@ -19,11 +19,16 @@
  ******************************************************************************/
 package sernet.verinice.service.sync;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -33,9 +38,14 @@ import java.util.zip.ZipInputStream;
 import javax.xml.bind.JAXB;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.risk.Risk;
+import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IVeriniceConstants;
 
 /**
@@ -85,13 +95,28 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
      *             In case of a missing entry
      */
     public VeriniceArchive(byte[] data) throws VeriniceArchiveNotValidException {
+        this(new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Creates a verinice archive instance by reading a zip archive from
+     * <code>in</code>. The entries of the archive are streamed to a temporary
+     * directory, the archive is not loaded into memory. The stream is not
+     * closed by this constructor.
+     * 
+     * @param in
+     *            A stream of a verinice archive (zip archive)
+     * @throws VeriniceArchiveNotValidException
+     *             In case of a missing entry
+     */
+    public VeriniceArchive(InputStream in) throws VeriniceArchiveNotValidException {
         super();
         uuid = UUID.randomUUID().toString();
         if (LOG.isDebugEnabled()) {
             LOG.debug("Creating new VeriniceArchive...");
         }
         try {
-            extractZipEntries(data);
+            extractZipEntries(in);
         } catch (VeriniceArchiveNotValidException e) {
             LOG.error("Error while reading verinice archive", e);
             throw e;
@@ -127,11 +152,21 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
      * @throws IOException
      */
     public void extractZipEntries(byte[] zipFileData) throws IOException {
-        byte[] buffer = new byte[1024];
-        ;
+        extractZipEntries(new ByteArrayInputStream(zipFileData));
+    }
+
+    /**
+     * Extracts all entries of a Zip-Archive from a stream. The stream is not
+     * closed by this method.
+     * 
+     * @param in
+     *            A stream of a zip archive
+     * @throws IOException
+     */
+    public void extractZipEntries(InputStream in) throws IOException {
         new File(getTempDirName()).mkdirs();
         // get the zip file content
-        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipFileData));
+        ZipInputStream zis = new ZipInputStream(in);
         // get the zipped file list entry
         ZipEntry ze = zis.getNextEntry();
 
@@ -148,15 +183,11 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
                             "Path Traversal in VNA detected! Stopping import.");
                 }
 
-                FileOutputStream fos = new FileOutputStream(newFile);
-
-                int len;
-                while ((len = zis.read(buffer)) > 0) {
-                    fos.write(buffer, 0, len);
+                try (OutputStream out = new BufferedOutputStream(
+                        new FileOutputStream(newFile))) {
+                    IOUtils.copy(zis, out);
                 }
 
-                fos.close();
-
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("File unzipped: " + newFile.getAbsoluteFile());
                 }
@@ -164,7 +195,46 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
             ze = zis.getNextEntry();
         }
         zis.closeEntry();
-        zis.close();
+    }
+
+    /**
+     * Reads source-id, mapping and schema version from verinice.xml. The
+     * sync data is not read, use {@link #createSyncDataReader()} to read it.
+     */
+    @Override
+    protected void unmarshal() {
+        setSyncRequestContent(createSyncDataReader().readHeader());
+    }
+
+    /**
+     * Reads the complete sync data of verinice.xml into memory with a
+     * {@link SyncDataReader}. Use {@link #createSyncDataReader()} to read the
+     * objects of large archives one by one.
+     */
+    @Override
+    protected void unmarshalSyncData() {
+        SyncDataBuilder builder = new SyncDataBuilder();
+        try {
+            createSyncDataReader().read(builder);
+        } catch (CommandException e) {
+            throw new VeriniceArchiveNotValidException(e);
+        }
+        setSyncData(builder.syncData);
+    }
+
+    /**
+     * @return A reader which reads verinice.xml of this archive object by
+     *         object
+     */
+    public SyncDataReader createSyncDataReader() {
+        return new SyncDataReader(getVeriniceXmlFile());
+    }
+
+    /**
+     * @return The extracted file verinice.xml of this archive
+     */
+    public File getVeriniceXmlFile() {
+        return new File(getFullPath(VERINICE_XML));
     }
 
     /*
@@ -262,4 +332,39 @@ public class VeriniceArchive extends PureXml implements IVeriniceArchive {
         return sb.append(uuid).toString();
     }
 
+    /**
+     * Builds the object tree of the sync data from the objects passed by a
+     * {@link SyncDataReader}.
+     */
+    private static final class SyncDataBuilder implements ISyncDataHandler {
+
+        private final SyncData syncData = new SyncData();
+
+        private final Deque<SyncObject> path = new ArrayDeque<>();
+
+        @Override
+        public void startObject(SyncObject syncObject) {
+            if (path.isEmpty()) {
+                syncData.getSyncObject().add(syncObject);
+            } else {
+                path.peek().getChildren().add(syncObject);
+            }
+            path.push(syncObject);
+        }
+
+        @Override
+        public void endObject(SyncObject syncObject) {
+            path.pop();
+        }
+
+        @Override
+        public void endObjects() {
+            // nothing to do
+        }
+
+        @Override
+        public void handleLink(SyncLink syncLink) {
+            syncData.getSyncLink().add(syncLink);
+        }
+    }
 }
@@ -18,39 +18,89 @@
  ******************************************************************************/
 package sernet.gs.ui.rcp.main.service;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.springframework.remoting.RemoteAccessException;
 
 import sernet.gs.ui.rcp.main.Activator;
 import sernet.gs.ui.rcp.main.common.model.CnAElementFactory;
+import sernet.verinice.interfaces.ChangeEvents;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IChangeEventService;
+import sernet.verinice.interfaces.ICommandCacheClient;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.rcp.Preferences;
 import sernet.verinice.service.commands.task.GetChangesSince;
+import sernet.verinice.service.commands.task.LoadChangedElements;
 
 /**
  * Check transaction log on server for changes and notify listeners. Should be
  * called by a timer or by an event pushed from server.
  * 
+ * If a change event service is available the watcher waits on the server
+ * for pushed changes (long polling) and reads the transaction log only to
+ * catch up after a reconnect. Without the service the transaction log is
+ * read on every call. If the service is not reachable the transaction log
+ * is read and the long polling is tried again after a growing delay.
+ * 
+ * Cached command results of the client are invalidated by all changes
+ * including the changes made by this client.
+ * 
  * @author koderman[at]sernet[dot]de
  * @version $Rev$ $LastChangedDate$ $LastChangedBy$
  * 
  */
-// TODO server: implement server-side push of events (beacon service)
 public class TransactionLogWatcher {
 
     private final Logger log = Logger.getLogger(TransactionLogWatcher.class);
 
+    /**
+     * Time in milliseconds between two reads of the transaction log if the
+     * change event service is not available or busy
+     */
+    private static final long POLL_INTERVAL = 15000;
+
+    /**
+     * Time in milliseconds before the first retry of the long polling if the
+     * change event service was not available. The delay is doubled after
+     * every failed retry up to {@link #MAX_RETRY_DELAY}.
+     */
+    private static final long INITIAL_RETRY_DELAY = 60000;
+
+    private static final long MAX_RETRY_DELAY = 30 * 60000;
+
     private Date lastChecked = null;
 
+    private long nextPoll = 0;
+
+    private String serverId = null;
+
+    private long lastSequence = IChangeEventService.NO_SEQUENCE;
+
     /** ICommandService instance is injected by Spring. */
     private ICommandService commandService;
 
+    /** IChangeEventService instance is injected by Spring (optional). */
+    private IChangeEventService changeEventService;
+
+    /** ICommandCacheClient instance is injected by Spring (optional). */
+    private ICommandCacheClient commandCacheClient;
+
+    private long retryDelay = INITIAL_RETRY_DELAY;
+
+    private long nextLongPollRetry = 0;
+
     public void checkLog() {
         Activator.inheritVeriniceContextState();
 
@@ -64,6 +114,126 @@ public class TransactionLogWatcher {
             return;
         }
 
+        if (System.currentTimeMillis() < nextPoll) {
+            return;
+        }
+
+        if (changeEventService != null && System.currentTimeMillis() >= nextLongPollRetry) {
+            try {
+                waitForChangeEvents();
+                retryDelay = INITIAL_RETRY_DELAY;
+                return;
+            } catch (RemoteAccessException e) {
+                log.warn("Change event service is not available, reading transaction log. "
+                        + "Next try in " + (retryDelay / 1000) + " s.");
+                if (log.isDebugEnabled()) {
+                    log.debug("stacktrace: ", e);
+                }
+                nextLongPollRetry = System.currentTimeMillis() + retryDelay;
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY);
+            } catch (CommandException e) {
+                log.error("Fehler beim Laden der geänderten Elemente.", e);
+                return;
+            }
+        }
+        readLog();
+        nextPoll = System.currentTimeMillis() + POLL_INTERVAL;
+    }
+
+    private void waitForChangeEvents() throws CommandException {
+        // changes of this client are requested to invalidate cached results
+        ChangeEvents changeEvents = changeEventService.getChangeEvents(serverId, lastSequence,
+                null);
+        if (!changeEvents.isComplete()) {
+            // first call, server restarted or too many changes missed:
+            // catch up by reading the transaction log
+            if (log.isDebugEnabled()) {
+                log.debug("Change events are not complete, reading transaction log.");
+            }
+            invalidateCachedResults(null);
+            readLog();
+        } else {
+            List<ChangeLogEntry> entries = changeEvents.getEntries();
+            invalidateCachedResults(entries);
+            processChangeEvents(removeOwnChanges(entries));
+            lastChecked = changeEvents.getServerTime();
+        }
+        serverId = changeEvents.getServerId();
+        lastSequence = changeEvents.getLastSequence();
+        if (changeEvents.isBusy()) {
+            nextPoll = System.currentTimeMillis() + POLL_INTERVAL;
+        }
+    }
+
+    private void processChangeEvents(List<ChangeLogEntry> entries) throws CommandException {
+        if (entries.isEmpty()) {
+            if (log.isDebugEnabled()) {
+                log.debug("No changes");
+            }
+            return;
+        }
+        removeDuplicatePermissionChanges(entries);
+        Set<Integer> dbIds = new LinkedHashSet<Integer>();
+        for (ChangeLogEntry changeLogEntry : entries) {
+            if (changeLogEntry.getElementId() != null) {
+                dbIds.add(changeLogEntry.getElementId());
+            }
+        }
+        LoadChangedElements command = new LoadChangedElements(dbIds);
+        command = commandService.executeCommand(command);
+        Map<Integer, CnATreeElement> changedElements = command.getChangedElements();
+        for (ChangeLogEntry changeLogEntry : entries) {
+            process(changeLogEntry, changedElements.get(changeLogEntry.getElementId()));
+        }
+    }
+
+    /**
+     * @param entries
+     *            Changes or null if the changes are not known
+     */
+    private void invalidateCachedResults(List<ChangeLogEntry> entries) {
+        if (commandCacheClient == null || (entries != null && entries.isEmpty())) {
+            return;
+        }
+        Set<Integer> scopeIds = null;
+        if (entries != null) {
+            scopeIds = new HashSet<Integer>();
+            for (ChangeLogEntry entry : entries) {
+                scopeIds.add(entry.getScopeId());
+            }
+        }
+        commandCacheClient.invalidate(scopeIds);
+    }
+
+    private static List<ChangeLogEntry> removeOwnChanges(List<ChangeLogEntry> entries) {
+        List<ChangeLogEntry> foreignEntries = new ArrayList<ChangeLogEntry>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            if (!ChangeLogEntry.STATION_ID.equals(entry.getStationId())) {
+                foreignEntries.add(entry);
+            }
+        }
+        return foreignEntries;
+    }
+
+    /**
+     * Reduces the number of permission change events to one, each of them
+     * causes a complete reload of the models.
+     */
+    private static void removeDuplicatePermissionChanges(List<ChangeLogEntry> entries) {
+        boolean permissionChange = false;
+        Iterator<ChangeLogEntry> iterator = entries.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getChange() == ChangeLogEntry.TYPE_PERMISSION) {
+                if (permissionChange) {
+                    iterator.remove();
+                } else {
+                    permissionChange = true;
+                }
+            }
+        }
+    }
+
+    private void readLog() {
         try {
             GetChangesSince command = new GetChangesSince(lastChecked, ChangeLogEntry.STATION_ID);
             command = commandService.executeCommand(command);
@@ -75,6 +245,8 @@ public class TransactionLogWatcher {
                     log.debug("No changes");
                 }
             } else {
+                // entries read from the database have no scope
+                invalidateCachedResults(entries);
                 Collections.sort(entries);
                 for (ChangeLogEntry changeLogEntry : entries) {
                     Integer elementId = changeLogEntry.getElementId();
@@ -150,4 +322,20 @@ public class TransactionLogWatcher {
         return commandService;
     }
 
+    public void setChangeEventService(IChangeEventService changeEventService) {
+        this.changeEventService = changeEventService;
+    }
+
+    public IChangeEventService getChangeEventService() {
+        return changeEventService;
+    }
+
+    public void setCommandCacheClient(ICommandCacheClient commandCacheClient) {
+        this.commandCacheClient = commandCacheClient;
+    }
+
+    public ICommandCacheClient getCommandCacheClient() {
+        return commandCacheClient;
+    }
+
 }
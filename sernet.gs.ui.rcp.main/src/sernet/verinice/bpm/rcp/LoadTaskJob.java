@@ -20,8 +20,10 @@
 package sernet.verinice.bpm.rcp;
 
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.apache.log4j.Logger;
 
@@ -43,9 +45,15 @@ import sernet.verinice.interfaces.bpm.ITaskParameter;
 final class LoadTaskJob extends NotifyingThread { 
     
     private static final Logger LOG = Logger.getLogger(LoadTaskJob.class);
+
+    /**
+     * Number of tasks loaded by one call of the task service
+     */
+    private static final int PAGE_SIZE = 500;
     
     private ITaskParameter param;       
     private List<ITask> taskList;
+    private Consumer<List<ITask>> firstPageListener;
 
     public LoadTaskJob() {
         super();
@@ -73,11 +81,26 @@ final class LoadTaskJob extends NotifyingThread {
         }
 
 
-        if(listAllUserEnabled()){
-            taskList = ServiceFactory.lookupTaskService().getTaskList(param);
-        } else {
-            taskList = ServiceFactory.lookupTaskService().getCurrentUserTaskList(param);
+        boolean listAllUser = listAllUserEnabled();
+        List<ITask> tasks = new ArrayList<>();
+        // pages may be empty if the user can not read the elements of the
+        // tasks, the number of pages is determined by the unfiltered count
+        int taskCount = loadTaskCount(listAllUser);
+        for (int firstResult = 0; firstResult < taskCount; firstResult += PAGE_SIZE) {
+            param.setFirstResult(firstResult);
+            param.setMaxResults(PAGE_SIZE);
+            List<ITask> page = loadPage(listAllUser);
+            tasks.addAll(page);
+            if (firstResult == 0 && firstPageListener != null && !page.isEmpty()) {
+                // show the first page while the other pages are loaded
+                List<ITask> firstPage = new ArrayList<>(page);
+                Collections.sort(firstPage);
+                firstPageListener.accept(firstPage);
+            }
         }
+        param.setFirstResult(null);
+        param.setMaxResults(null);
+        taskList = tasks;
 
         Collections.sort(taskList);  
         if (LOG.isDebugEnabled()) {
@@ -85,6 +108,22 @@ final class LoadTaskJob extends NotifyingThread {
         }
     }
 
+    private int loadTaskCount(boolean listAllUser) {
+        if (listAllUser) {
+            return ServiceFactory.lookupTaskService().getTaskCount(param);
+        } else {
+            return ServiceFactory.lookupTaskService().getCurrentUserTaskCount(param);
+        }
+    }
+
+    private List<ITask> loadPage(boolean listAllUser) {
+        if (listAllUser) {
+            return ServiceFactory.lookupTaskService().getTaskList(param);
+        } else {
+            return ServiceFactory.lookupTaskService().getCurrentUserTaskList(param);
+        }
+    }
+
 	private boolean listAllUserEnabled() {
 		return ServiceFactory.lookupRightsServiceClient().isEnabled(ActionRightIDs.TASKSHOWALL);
 	}
@@ -100,4 +139,13 @@ final class LoadTaskJob extends NotifyingThread {
     public List<ITask> getTaskList() {
         return taskList;
     }
+
+    /**
+     * @param firstPageListener
+     *            Is called with the first page of tasks before all tasks are
+     *            loaded
+     */
+    public void setFirstPageListener(Consumer<List<ITask>> firstPageListener) {
+        this.firstPageListener = firstPageListener;
+    }
 }
\ No newline at end of file
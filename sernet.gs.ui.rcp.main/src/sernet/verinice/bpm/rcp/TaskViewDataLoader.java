@@ -81,6 +81,10 @@ public class TaskViewDataLoader {
         job = new LoadTaskJob();
         IThreadCompleteListener listener = new RefreshListener(job);
         job.addListener(listener);
+        job.setFirstPageListener(firstPage -> {
+            final RefreshTaskView refresh = new RefreshTaskView(firstPage, taskView.getViewer());
+            Display.getDefault().asyncExec(refresh::refresh);
+        });
     }
 
     void initData() {
@@ -163,9 +163,15 @@ public abstract class StartupImporter {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Starting import of file: " + archive.getAbsolutePath()); //$NON-NLS-1$
             }
-            byte[] fileData = FileUtils.readFileToByteArray(archive);
             Activator.inheritVeriniceContextState();
-            SyncCommand command = new SyncCommand(new SyncParameter(true, true, false, false, SyncParameter.EXPORT_FORMAT_VERINICE_ARCHIV), fileData);
+            SyncParameter parameter = new SyncParameter(true, true, false, false, SyncParameter.EXPORT_FORMAT_VERINICE_ARCHIV);
+            SyncCommand command;
+            if (Activator.getDefault().isStandalone()) {
+                // the internal server reads the archive from the file
+                command = new SyncCommand(parameter, archive.getAbsolutePath());
+            } else {
+                command = new SyncCommand(parameter, FileUtils.readFileToByteArray(archive));
+            }
             getCommandService().executeCommand(command);
         } catch (Exception e) {
             LOG.error("Error while importing.", e); //$NON-NLS-1$
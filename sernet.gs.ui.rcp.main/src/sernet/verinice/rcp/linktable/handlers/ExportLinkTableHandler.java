@@ -22,7 +22,7 @@ package sernet.verinice.rcp.linktable.handlers;
 import static sernet.verinice.rcp.linktable.LinkTableUtil.createCsvFilePath;
 import static sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO.createLinkTableConfiguration;
 
-import java.util.List;
+import java.io.IOException;
 
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
@@ -42,6 +42,8 @@ import sernet.verinice.rcp.jobs.VeriniceWorkspaceJob;
 import sernet.verinice.rcp.linktable.LinkTableUtil;
 import sernet.verinice.rcp.linktable.Messages;
 import sernet.verinice.service.csv.CsvExport;
+import sernet.verinice.service.csv.CsvExportException;
+import sernet.verinice.service.csv.CsvRowWriter;
 import sernet.verinice.service.csv.ICsvExport;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
 import sernet.verinice.service.linktable.LinkTableService;
@@ -145,10 +147,8 @@ public class ExportLinkTableHandler extends RightsEnabledHandler {
 
                         ILinkTableConfiguration conf = createLinkTableConfiguration(
                                 veriniceLinkTable);
-                        List<List<String>> table = linkTableService.createTable(conf);
-
                         csvExportHandler.setFilePath(csvFilePath);
-                        csvExportHandler.exportToFile(csvExportHandler.convert(table));
+                        writeCsvFile(conf);
                     }
                 }
             };
@@ -157,4 +157,14 @@ public class ExportLinkTableHandler extends RightsEnabledHandler {
 
     }
 
+    private void writeCsvFile(ILinkTableConfiguration conf) {
+        // rows are written to the file while the table is created
+        try (CsvRowWriter writer = csvExportHandler.createRowWriter()) {
+            linkTableService.createTable(conf, writer::writeRow);
+        } catch (IOException e) {
+            throw new CsvExportException("Error while writing link table to CSV file: " //$NON-NLS-1$
+                    + csvFilePath, e);
+        }
+    }
+
 }
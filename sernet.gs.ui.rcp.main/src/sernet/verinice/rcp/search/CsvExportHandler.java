@@ -20,8 +20,8 @@
 package sernet.verinice.rcp.search;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.charset.Charset;
-import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -43,6 +43,7 @@ import sernet.verinice.rcp.search.column.ColumnStoreFactory;
 import sernet.verinice.rcp.search.column.IColumnStore;
 import sernet.verinice.service.csv.CsvExport;
 import sernet.verinice.service.csv.CsvExportException;
+import sernet.verinice.service.csv.CsvRowWriter;
 import sernet.verinice.service.csv.ICsvExport;
 
 /**
@@ -83,13 +84,15 @@ public class CsvExportHandler {
         // Selected columns
         IColumnStore columnStore = ColumnStoreFactory.getColumnStore(result.getEntityTypeId());
 
-        List<String[]> simpleTable = SearchResultTableConverter.convertTable(result, columnStore);
-
         ICsvExport exporter = new CsvExport();
         exporter.setFilePath(filePath);
         exporter.setSeperator(getSeperator());
         exporter.setCharset(getCharset());
-        exporter.exportToFile(simpleTable);
+        try (CsvRowWriter writer = exporter.createRowWriter()) {
+            SearchResultTableConverter.convertTable(result, columnStore, writer::writeRow);
+        } catch (IOException e) {
+            throw new CsvExportException("Error while writing CSV file: " + filePath, e);
+        }
     }
     
     private Charset getCharset() {
@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
@@ -53,24 +54,34 @@ public abstract class SearchResultTableConverter  {
     }
 
     public static List<String[]> convertTable(VeriniceSearchResultTable result, IColumnStore columnStore) {
+        List<String[]> table = new LinkedList<>();
+        convertTable(result, columnStore, table::add);
+        return table;
+    }
+
+    /**
+     * Converts the table like {@link #convertTable(VeriniceSearchResultTable, IColumnStore)}
+     * and passes the rows one by one to a consumer instead of collecting them
+     * in a list.
+     */
+    public static void convertTable(VeriniceSearchResultTable result, IColumnStore columnStore,
+            Consumer<String[]> rowConsumer) {
         IColumnStore converterColumnStore = columnStore;
         if(converterColumnStore==null) {
             converterColumnStore = ColumnStore.createColumnStore(result);
         }
-        List<String[]> table = new LinkedList<>();
         disableBlacklistedColumns(converterColumnStore);
-        table.add(exportHeaderRow(converterColumnStore));
+        rowConsumer.accept(exportHeaderRow(converterColumnStore));
         Set<VeriniceSearchResultRow> rows = result.getAllResults();
         if(rows==null || rows.isEmpty()) {
-            return table;
+            return;
         }
         for (VeriniceSearchResultRow row : rows) {
-            table.add(exportRow(row, converterColumnStore));
+            rowConsumer.accept(exportRow(row, converterColumnStore));
         }
         if(result.getHits()>=result.getLimit()) {
-            table.add(exportLimitHintRow(result.getLimit()));
+            rowConsumer.accept(exportLimitHintRow(result.getLimit()));
         }
-        return table;
     }
 
     private static String[] exportHeaderRow(IColumnStore columnStore) {
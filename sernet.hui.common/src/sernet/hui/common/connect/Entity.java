@@ -183,15 +183,7 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
                 if (!firstProperty) {
                     sb.append(", ");
                 }
-                String value;
-                if (propertyType.isSingleSelect() || propertyType.isMultiselect()) {
-                    value = getValueOfOptionProperty(propertyType, property);
-                } else if (propertyType.isDate()) {
-                    value = getValueOfDateProperty(property);
-                } else {
-                    value = property.getPropertyValue();
-                }
-
+                String value = getDisplayValue(propertyType, property.getPropertyValue());
                 if (value != null) {
                     sb.append(value);
                 }
@@ -283,8 +275,24 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         return sb.toString();
     }
 
-    private String getValueOfOptionProperty(PropertyType type, Property property) {
-        PropertyOption option = type.getOption(property.getPropertyValue());
+    /**
+     * Returns the formatted value of a single property like it is returned by
+     * {@link #getPropertyValue(String)}: The name of the option for select
+     * properties, a formatted date for date properties and the raw value for
+     * all other properties. Reference properties are not handled here.
+     */
+    static String getDisplayValue(PropertyType propertyType, String propertyValue) {
+        if (propertyType.isSingleSelect() || propertyType.isMultiselect()) {
+            return getValueOfOptionProperty(propertyType, propertyValue);
+        } else if (propertyType.isDate()) {
+            return getValueOfDateProperty(propertyValue);
+        } else {
+            return propertyValue;
+        }
+    }
+
+    private static String getValueOfOptionProperty(PropertyType type, String propertyValue) {
+        PropertyOption option = type.getOption(propertyValue);
         return (option != null) ? option.getName() : "";
     }
 
@@ -311,9 +319,8 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         }
     }
 
-    private String getValueOfDateProperty(Property property) {
+    private static String getValueOfDateProperty(String propertyValue) {
         String date = null;
-        String propertyValue = property.getPropertyValue();
         if (propertyValue == null) {
             return date;
         }
@@ -997,6 +1004,32 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         this.typedPropertyLists = typedPropertyLists;
     }
 
+    /**
+     * Creates an immutable snapshot of the property values of this entity. Use
+     * the snapshot to read many values of an entity which is not changed
+     * while reading.
+     *
+     * @return A read view with the current property values of this entity
+     */
+    public EntityReadView createReadView() {
+        EntityType type = HUITypeFactory.getInstance().getEntityType(this.entityType);
+        if (type == null) {
+            throw new HuiRuntimeException("Entity type not found: " + this.entityType);
+        }
+        return createReadView(type.getSlotLayout());
+    }
+
+    /**
+     * Creates an immutable snapshot of the property values of this entity.
+     *
+     * @param layout
+     *            The slot layout of the entity type of this entity
+     * @return A read view with the current property values of this entity
+     */
+    public EntityReadView createReadView(PropertySlotLayout layout) {
+        return new EntityReadView(this, layout);
+    }
+
     /**
      * Returns all properties with the given property type id. Returns an empty
      * PropertyList if there are no properties with the given property type id.
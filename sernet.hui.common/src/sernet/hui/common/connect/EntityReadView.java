@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable snapshot of the property values of an {@link Entity}. The
+ * values are stored in arrays indexed by the slots of a
+ * {@link PropertySlotLayout}.
+ *
+ * Numeric values are decoded when the view is created. Formatted values (names
+ * of options, dates) are decoded on first access and cached. Changes of the
+ * entity after the creation of the view are not visible in the view. Only
+ * property types defined in SNCA.xml for the entity type are part of the view.
+ *
+ * A view can be read by several threads. Cached formatted values may be
+ * decoded more than once in this case.
+ *
+ * Create a view with {@link Entity#createReadView()}.
+ */
+public final class EntityReadView {
+
+    private static final String[] NO_VALUES = new String[0];
+
+    private final Entity entity;
+
+    private final PropertySlotLayout layout;
+
+    private final String[][] rawValues;
+
+    private final int[] numericValues;
+
+    private final String[] formattedValues;
+
+    EntityReadView(Entity entity, PropertySlotLayout layout) {
+        this.entity = entity;
+        this.layout = layout;
+        int size = layout.size();
+        this.rawValues = new String[size][];
+        this.numericValues = new int[size];
+        this.formattedValues = new String[size];
+        for (int slot = 0; slot < size; slot++) {
+            PropertyList propertyList = entity.getTypedPropertyLists()
+                    .get(layout.getPropertyType(slot).getId());
+            List<Property> properties = (propertyList != null) ? propertyList.getProperties()
+                    : null;
+            if (properties == null || properties.isEmpty()) {
+                rawValues[slot] = NO_VALUES;
+            } else {
+                String[] values = new String[properties.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = properties.get(i).getPropertyValue();
+                }
+                rawValues[slot] = values;
+                numericValues[slot] = parseInt(values[0]);
+            }
+        }
+    }
+
+    private static int parseInt(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return Property.UNDEF;
+        }
+    }
+
+    public PropertySlotLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param slot
+     *            A slot of the layout of this view
+     * @return true if at least one property exists for the slot
+     */
+    public boolean hasValue(int slot) {
+        return slot != PropertySlotLayout.NO_SLOT && rawValues[slot].length > 0;
+    }
+
+    /**
+     * Returns the numeric value of the first property of a slot like
+     * CnATreeElement.getNumericProperty(String) does.
+     *
+     * @param slot
+     *            A slot of the layout of this view
+     * @return The numeric value, 0 if there is no property and
+     *         {@link Property#UNDEF} if the value is not a number
+     */
+    public int getNumericPropertyValue(int slot) {
+        if (slot == PropertySlotLayout.NO_SLOT) {
+            return 0;
+        }
+        return numericValues[slot];
+    }
+
+    /**
+     * @param slot
+     *            A slot of the layout of this view
+     * @return The raw value of the first property of a slot or null if there
+     *         is no property
+     */
+    public String getFirstRawValue(int slot) {
+        if (!hasValue(slot)) {
+            return null;
+        }
+        return rawValues[slot][0];
+    }
+
+    /**
+     * @param slot
+     *            A slot of the layout of this view
+     * @return The raw values of all properties of a slot or an empty list if
+     *         there is no property
+     */
+    public List<String> getRawValues(int slot) {
+        if (!hasValue(slot)) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(rawValues[slot]));
+    }
+
+    /**
+     * Returns the raw values of a slot joined by "," like
+     * {@link Entity#getRawPropertyValue(String)} does.
+     *
+     * @param slot
+     *            A slot of the layout of this view
+     * @return The raw value or null if there is no property
+     */
+    public String getRawPropertyValue(int slot) {
+        if (!hasValue(slot)) {
+            return null;
+        }
+        String[] values = rawValues[slot];
+        if (values.length == 1) {
+            return (values[0] != null) ? values[0] : "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(",");
+            }
+            if (values[i] != null) {
+                sb.append(values[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the formatted value of a slot like
+     * {@link Entity#getPropertyValue(String)} does. The value is decoded on
+     * first access and cached.
+     *
+     * @param slot
+     *            A slot of the layout of this view
+     * @return The formatted value or an empty String if there is no value
+     */
+    public String getPropertyValue(int slot) {
+        if (slot == PropertySlotLayout.NO_SLOT) {
+            return "";
+        }
+        String value = formattedValues[slot];
+        if (value == null) {
+            value = formatValue(slot);
+            formattedValues[slot] = value;
+        }
+        return value;
+    }
+
+    private String formatValue(int slot) {
+        PropertyType propertyType = layout.getPropertyType(slot);
+        if (propertyType.isReference()) {
+            return entity.getPropertyValue(propertyType.getId());
+        }
+        String[] values = rawValues[slot];
+        if (values.length == 1) {
+            String value = Entity.getDisplayValue(propertyType, values[0]);
+            return (value != null) ? value : "";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            String value = Entity.getDisplayValue(propertyType, values[i]);
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @see #getNumericPropertyValue(int)
+     */
+    public int getNumericPropertyValue(String propertyTypeId) {
+        return getNumericPropertyValue(layout.getSlot(propertyTypeId));
+    }
+
+    /**
+     * @see #getRawPropertyValue(int)
+     */
+    public String getRawPropertyValue(String propertyTypeId) {
+        return getRawPropertyValue(layout.getSlot(propertyTypeId));
+    }
+
+    /**
+     * @see #getPropertyValue(int)
+     */
+    public String getPropertyValue(String propertyTypeId) {
+        return getPropertyValue(layout.getSlot(propertyTypeId));
+    }
+}
@@ -18,6 +18,7 @@
 package sernet.hui.common.connect;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -49,6 +50,14 @@ public class EntityType {
     // map of target EntityType ID : set of HuiRelations (links to EntityTypes)
     private Map<String, Set<HuiRelation>> relations = new HashMap<>();
 
+    // slot layout of all property types, created on first use
+    private volatile PropertySlotLayout slotLayout;
+
+    // lookup tables created by buildLookupTables(), null if not built yet or
+    // if this entity type was changed afterwards
+    private volatile Map<String, PropertyType> allPropertyTypesById;
+    private volatile Map<String, HuiRelation> relationsById;
+
     /**
      * A list with all property types of this entity type.
      *
@@ -97,7 +106,7 @@ public class EntityType {
     }
 
     public boolean hasPropertyType(String id) {
-        return getAllPropertyTypes().stream().anyMatch(p -> p.getId().equals(id));
+        return getPropertyType(id) != null;
     }
 
     /**
@@ -130,6 +139,10 @@ public class EntityType {
      * @return The property type with the given ID or null
      */
     public PropertyType getPropertyType(String id) {
+        Map<String, PropertyType> typesById = allPropertyTypesById;
+        if (typesById != null) {
+            return typesById.get(id);
+        }
         PropertyType type = this.propertyTypes.get(id);
         if (type != null) {
             return type;
@@ -217,6 +230,7 @@ public class EntityType {
             this.relations.put(relation.getTo(), new HashSet<HuiRelation>());
         }
         this.relations.get(relation.getTo()).add(relation);
+        relationsById = null;
     }
 
     /**
@@ -244,6 +258,10 @@ public class EntityType {
      * @return The HuiRelation with the given ID or null
      */
     public HuiRelation getPossibleRelation(String relationTypeId) {
+        Map<String, HuiRelation> relationMap = relationsById;
+        if (relationMap != null) {
+            return relationMap.get(relationTypeId);
+        }
         Set<Entry<String, Set<HuiRelation>>> entrySet = relations.entrySet();
         for (Entry<String, Set<HuiRelation>> entry : entrySet) {
             Set<HuiRelation> value = entry.getValue();
@@ -270,11 +288,63 @@ public class EntityType {
     public void addPropertyType(PropertyType prop) {
         propertyTypes.put(prop.getId(), prop);
         elements.add(prop);
+        resetLookupTables();
     }
 
     public void addPropertyGroup(PropertyGroup group) {
         propertyGroups.add(group);
         elements.add(group);
+        resetLookupTables();
+    }
+
+    /**
+     * Creates immutable lookup tables for the property types (including the
+     * types in property groups) and the relations of this entity type. After
+     * this method was called {@link #getPropertyType(String)} and
+     * {@link #getPossibleRelation(String)} do not scan the groups and
+     * relations anymore. The tables are dropped if this entity type is
+     * changed afterwards.
+     *
+     * This method is called by the {@link HUITypeFactory} after SNCA.xml is
+     * read.
+     */
+    void buildLookupTables() {
+        Map<String, PropertyType> typesById = new HashMap<>(propertyTypes);
+        for (PropertyGroup group : propertyGroups) {
+            for (PropertyType type : group.getPropertyTypes()) {
+                typesById.putIfAbsent(type.getId(), type);
+            }
+        }
+        Map<String, HuiRelation> relationMap = new HashMap<>();
+        for (Set<HuiRelation> relationsToOneOtherType : relations.values()) {
+            for (HuiRelation relation : relationsToOneOtherType) {
+                relationMap.putIfAbsent(relation.getId(), relation);
+            }
+        }
+        slotLayout = new PropertySlotLayout(this);
+        allPropertyTypesById = Collections.unmodifiableMap(typesById);
+        relationsById = Collections.unmodifiableMap(relationMap);
+    }
+
+    private void resetLookupTables() {
+        slotLayout = null;
+        allPropertyTypesById = null;
+    }
+
+    /**
+     * Returns the slot layout of this entity type. The layout assigns an
+     * array index to every property type including the types which are
+     * contained in property groups.
+     *
+     * @return The slot layout of this entity type
+     */
+    public PropertySlotLayout getSlotLayout() {
+        PropertySlotLayout layout = slotLayout;
+        if (layout == null) {
+            layout = new PropertySlotLayout(this);
+            slotLayout = layout;
+        }
+        return layout;
     }
 
     public List<IEntityElement> getElements() {
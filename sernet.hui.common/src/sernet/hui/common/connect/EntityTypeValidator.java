@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sernet.hui.common.rules.IValidationRule;
+
+/**
+ * The validation rules of an {@link EntityType} compiled into arrays which
+ * are indexed like the slots of the {@link PropertySlotLayout} of the entity
+ * type.
+ *
+ * {@link #validate(EntityReadView)} evaluates the rules against a read view
+ * without looking up property types by id. The rules of a property type are
+ * evaluated for every property value or once with null if there is no
+ * property like {@link PropertyType#validate(String, String[])} does. A hint
+ * fails if its rule fails for at least one value.
+ *
+ * A validator can be used by several threads if its rules are thread safe,
+ * which is true for the rules in package sernet.hui.common.rules.
+ */
+public final class EntityTypeValidator {
+
+    private final PropertySlotLayout layout;
+
+    private final int[] slots;
+
+    private final IValidationRule[][] rules;
+
+    public EntityTypeValidator(EntityType entityType) {
+        this.layout = entityType.getSlotLayout();
+        List<Integer> slotList = new ArrayList<>();
+        List<IValidationRule[]> ruleList = new ArrayList<>();
+        for (int slot = 0; slot < layout.size(); slot++) {
+            List<IValidationRule> validators = layout.getPropertyType(slot).getValidators();
+            if (validators != null && !validators.isEmpty()) {
+                slotList.add(slot);
+                ruleList.add(validators.toArray(new IValidationRule[validators.size()]));
+            }
+        }
+        this.slots = new int[slotList.size()];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = slotList.get(i);
+        }
+        this.rules = ruleList.toArray(new IValidationRule[ruleList.size()][]);
+    }
+
+    /**
+     * @return The slot layout of the entity type, create the read views with
+     *         this layout
+     */
+    public PropertySlotLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @param propertyTypeId
+     *            The id of a property type
+     * @return true if the property type is defined for the entity type
+     */
+    public boolean isDefined(String propertyTypeId) {
+        return layout.getSlot(propertyTypeId) != PropertySlotLayout.NO_SLOT;
+    }
+
+    /**
+     * @param view
+     *            A read view created with the layout of this validator
+     * @return The hints of the failed rules by property type id or an empty
+     *         map if all rules are fulfilled
+     */
+    public Map<String, Set<String>> validate(EntityReadView view) {
+        if (slots.length == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, Set<String>> failedHints = new HashMap<>();
+        for (int i = 0; i < slots.length; i++) {
+            List<String> values = view.getRawValues(slots[i]);
+            Set<String> hints = null;
+            if (values.isEmpty()) {
+                hints = addFailedHints(rules[i], null, hints);
+            }
+            for (String value : values) {
+                hints = addFailedHints(rules[i], value, hints);
+            }
+            if (hints != null) {
+                failedHints.put(layout.getPropertyType(slots[i]).getId(), hints);
+            }
+        }
+        return failedHints;
+    }
+
+    private static Set<String> addFailedHints(IValidationRule[] rules, String value,
+            Set<String> hints) {
+        Set<String> failedHints = hints;
+        for (IValidationRule rule : rules) {
+            if (!rule.validate(value, null)) {
+                if (failedHints == null) {
+                    failedHints = new LinkedHashSet<>();
+                }
+                failedHints.add(rule.getHint());
+            }
+        }
+        return failedHints;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityTypeValidator [entityTypeId=" + layout.getEntityTypeId()
+                + ", validatedSlots=" + slots.length + "]";
+    }
+}
@@ -25,6 +25,7 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -81,6 +82,11 @@ public class HUITypeFactory {
 
     private Map<String, EntityType> allEntities = null;
 
+    // immutable lookup tables, created after SNCA.xml is read
+    private Map<String, HuiRelation> relationsById = Collections.emptyMap();
+
+    private Map<String, Set<HuiRelation>> relationsByTarget = Collections.emptyMap();
+
     private Map<String, String> defaultMessages = new HashMap<>();
 
     // loads translated messages for HUI entities from resource bundles
@@ -172,6 +178,7 @@ public class HUITypeFactory {
                 doc = parser.parse(is);
             }
             readAllEntities();
+            buildLookupTables();
 
         } catch (IOException ie) {
             LOG.error(ie);
@@ -215,6 +222,33 @@ public class HUITypeFactory {
 
     }
 
+    /**
+     * Creates immutable lookup tables for relations and property types. The
+     * tables are created once after SNCA.xml is read and never changed
+     * afterwards. They can be read by concurrent threads without locking.
+     */
+    private void buildLookupTables() {
+        Map<String, HuiRelation> relationMap = new HashMap<>();
+        Map<String, Set<HuiRelation>> targetMap = new HashMap<>();
+        for (EntityType entityType : allEntities.values()) {
+            entityType.buildLookupTables();
+            for (HuiRelation relation : entityType.getPossibleRelations()) {
+                relationMap.putIfAbsent(relation.getId(), relation);
+                targetMap.computeIfAbsent(relation.getTo(), to -> new HashSet<>())
+                        .add(relation);
+            }
+        }
+        for (Entry<String, Set<HuiRelation>> entry : targetMap.entrySet()) {
+            entry.setValue(Collections.unmodifiableSet(entry.getValue()));
+        }
+        this.relationsById = Collections.unmodifiableMap(relationMap);
+        this.relationsByTarget = Collections.unmodifiableMap(targetMap);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Lookup tables created, relations: " + relationMap.size()
+                    + ", target types: " + targetMap.size());
+        }
+    }
+
     public Set<String> getAllTypeIds() {
         return allEntities.keySet();
     }
@@ -573,22 +607,14 @@ public class HUITypeFactory {
      * entity type. I.e. to "requirement" - from document: contract - from
      * person: responsible - from control: implementation
      * 
+     * The returned set is read from a lookup table and can not be changed.
+     * 
      * @param toEntityTypeID
      * @return
      */
     public Set<HuiRelation> getPossibleRelationsTo(String toEntityTypeID) {
-        // for this reverse request we have to iterate through all entitytypes
-        // and search:
-        Set<HuiRelation> allRelations = new HashSet<>();
-        Set<Entry<String, EntityType>> entrySet = allEntities.entrySet();
-        for (Entry<String, EntityType> entry : entrySet) {
-            EntityType entityType = entry.getValue();
-            Set<HuiRelation> theseRelations = entityType.getPossibleRelations(toEntityTypeID);
-            if (theseRelations != null && !theseRelations.isEmpty()) {
-                allRelations.addAll(theseRelations);
-            }
-        }
-        return allRelations;
+        Set<HuiRelation> relations = relationsByTarget.get(toEntityTypeID);
+        return (relations != null) ? relations : Collections.<HuiRelation> emptySet();
     }
 
     /**
@@ -603,16 +629,7 @@ public class HUITypeFactory {
             LOG.debug("No entities in HUITypeFactory!! Instance: " + this);
             return null;
         }
-
-        Set<Entry<String, EntityType>> entrySet = allEntities.entrySet();
-        for (Entry<String, EntityType> entry : entrySet) {
-            EntityType entityType = entry.getValue();
-            HuiRelation possibleRelation = entityType.getPossibleRelation(huiRelationId);
-            if (possibleRelation != null) {
-                return possibleRelation;
-            }
-        }
-        return null;
+        return relationsById.get(huiRelationId);
     }
 
     /**
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (c) 2026 SerNet Service Network GmbH.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     SerNet Service Network GmbH - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable layout which assigns an array index (slot) to every property
+ * type of an entity type including the types in property groups.
+ *
+ * Resolve the slot of a property type once with {@link #getSlot(String)} and
+ * use it to read values from an {@link EntityReadView} without hashing the
+ * property type id on every read. Get the layout of an entity type with
+ * {@link EntityType#getSlotLayout()}.
+ */
+public final class PropertySlotLayout {
+
+    /**
+     * Slot of a property type which is not defined for the entity type
+     */
+    public static final int NO_SLOT = -1;
+
+    private final String entityTypeId;
+
+    private final PropertyType[] propertyTypes;
+
+    private final Map<String, Integer> slotById;
+
+    PropertySlotLayout(EntityType entityType) {
+        this.entityTypeId = entityType.getId();
+        List<PropertyType> typeList = new ArrayList<>();
+        Map<String, Integer> slots = new HashMap<>();
+        for (PropertyType propertyType : entityType.getAllPropertyTypesSorted()) {
+            if (!slots.containsKey(propertyType.getId())) {
+                slots.put(propertyType.getId(), typeList.size());
+                typeList.add(propertyType);
+            }
+        }
+        this.propertyTypes = typeList.toArray(new PropertyType[typeList.size()]);
+        this.slotById = Collections.unmodifiableMap(slots);
+    }
+
+    /**
+     * @param propertyTypeId
+     *            The id of a property type
+     * @return The slot of the property type or {@link #NO_SLOT} if the
+     *         property type is not defined for the entity type
+     */
+    public int getSlot(String propertyTypeId) {
+        Integer slot = slotById.get(propertyTypeId);
+        return (slot != null) ? slot : NO_SLOT;
+    }
+
+    /**
+     * @param slot
+     *            A slot of this layout
+     * @return The property type of the slot
+     */
+    public PropertyType getPropertyType(int slot) {
+        return propertyTypes[slot];
+    }
+
+    /**
+     * @return The number of slots of this layout
+     */
+    public int size() {
+        return propertyTypes.length;
+    }
+
+    public String getEntityTypeId() {
+        return entityTypeId;
+    }
+
+    @Override
+    public String toString() {
+        return "PropertySlotLayout [entityTypeId=" + entityTypeId + ", slots="
+                + propertyTypes.length + "]";
+    }
+}
@@ -17,21 +17,34 @@
  ******************************************************************************/
 package sernet.hui.common.rules;
 
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.apache.log4j.Logger;
+
 /**
  * parameter 0 is always the hint, parameter 1 needs to be the regex
+ * 
+ * The regex is compiled once in {@link #init(String[], String)}, a rule can
+ * be used by several threads.
  */
 public class RegExRule implements IValidationRule {
     
+    private static final Logger log = Logger.getLogger(RegExRule.class);
+
     private String hint = Messages.RegExDefaultHint;
     
-    private String regEx;
+    private Pattern pattern;
     
     /* (non-Javadoc)
      * @see sernet.hui.common.rules.IValidationRule#validate(java.lang.String, java.lang.String[])
      */
     @Override
     public boolean validate(String userInput, String[] params) {
-        return userInput.matches(regEx);
+        if (pattern == null) {
+            return true;
+        }
+        return pattern.matcher((userInput != null) ? userInput : "").matches();
     }
 
     /* (non-Javadoc)
@@ -47,8 +60,13 @@ public class RegExRule implements IValidationRule {
      */
     @Override
     public void init(String[] params, String hint) {
-        if( params != null && params.length == 1){
-            regEx = params[0];
+        if( params != null && params.length == 1 && params[0] != null){
+            try {
+                pattern = Pattern.compile(params[0]);
+            } catch (PatternSyntaxException e) {
+                log.error("Regular expression specified by parameter not valid", e);
+                pattern = null;
+            }
         }
         if(hint != null && !hint.equals("")){
             this.hint = hint;
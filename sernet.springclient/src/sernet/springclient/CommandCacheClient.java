@@ -18,76 +18,124 @@
 package sernet.springclient;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Properties;
-import java.util.UUID;
-
-import net.sf.ehcache.Cache;
-import net.sf.ehcache.CacheManager;
-import net.sf.ehcache.Element;
-import net.sf.ehcache.Statistics;
-import net.sf.ehcache.Status;
 
 import org.apache.log4j.Logger;
 
 import sernet.verinice.interfaces.CommandException;
-import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.ICachedCommand;
 import sernet.verinice.interfaces.ICommand;
 import sernet.verinice.interfaces.ICommandCacheClient;
 import sernet.verinice.interfaces.ICommandService;
+import sernet.verinice.service.commands.CommandResultCache;
+import sernet.verinice.service.commands.ExecuteCommandBatch;
 import sernet.verinice.service.sync.VnaSchemaVersion;
 
 /**
- *
+ * Client side cache for the results of {@link ICachedCommand}s. The results
+ * are held in a {@link CommandResultCache}, cached results are removed by
+ * {@link #invalidate(Collection)} when elements are changed.
  */
 public class CommandCacheClient implements ICommandCacheClient {
     
+    private static final Logger log = Logger.getLogger(CommandCacheClient.class);
+
+    /**
+     * The client is used by one user only, the context of all keys is the
+     * same
+     */
+    private static final String CONTEXT = "client"; //$NON-NLS-1$
+
     private ICommandService commandService;
     
-    
-    private transient CacheManager manager = null;
-    private String globalCacheId = null;
-    private transient Cache globalCache = null;
-    private static final Logger log = Logger.getLogger(CommandCacheClient.class);
+    private CommandResultCache resultCache = new CommandResultCache();
+
+    private boolean useCache = true;
     
     /* (non-Javadoc)
      * @see sernet.verinice.interfaces.ICommandCacheClient#executeCachableCommand(sernet.verinice.interfaces.GenericCommand)
      */
     @Override
     public ICommand executeCachableCommand(ICommand command) throws CommandException {
-        if(command instanceof ICachedCommand){
-            ICachedCommand cacheCommand = (ICachedCommand)command;
-            if(log.isDebugEnabled()){
-                logCacheStatistics();
+        if (!useCache || !(command instanceof ICachedCommand)) {
+            return getCommandService().executeCommand(command);
+        }
+        ICachedCommand cacheCommand = (ICachedCommand) command;
+        String key = CommandResultCache.createKey(CONTEXT, cacheCommand);
+        Object cachedValue = resultCache.get(key);
+        if (cachedValue != null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Injecting cached result into: " + cacheCommand.getCacheID());
             }
-            
-            if(getGlobalCache().isKeyInCache(cacheCommand.getCacheID()) 
-                    && getGlobalCache().get(cacheCommand.getCacheID()) != null 
-                    && getGlobalCache().get(cacheCommand.getCacheID()).getValue() != null){
-                Object cachedValue = getGlobalCache().get(cacheCommand.getCacheID()).getValue();
-                if(log.isDebugEnabled() && cachedValue instanceof ArrayList<?>){
-                    ArrayList<?> list = (ArrayList<?>)cachedValue;
-                    log.debug("injecting List with " + list.size() + " elements into:\t" + cacheCommand.getCacheID());
-                }
-                cacheCommand.injectCacheResult(cachedValue);
-                return cacheCommand;
+            cacheCommand.injectCacheResult(cachedValue);
+            return cacheCommand;
+        }
+        long version = resultCache.getVersion();
+        cacheCommand = getCommandService().executeCommand(cacheCommand);
+        putResult(cacheCommand, version);
+        if (log.isDebugEnabled()) {
+            logCacheStatistics();
+        }
+        return cacheCommand;
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.interfaces.ICommandCacheClient#executeCommands(java.util.List, boolean)
+     */
+    @Override
+    public <T extends ICommand> List<T> executeCommands(List<T> commands, boolean parallel)
+            throws CommandException {
+        List<T> executedCommands = new ArrayList<>(commands);
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<T> missingCommands = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            T command = commands.get(i);
+            Object cachedValue = getCachedValue(command);
+            if (cachedValue != null) {
+                ((ICachedCommand) command).injectCacheResult(cachedValue);
             } else {
-                command = getCommandService().executeCommand((GenericCommand)command);
-                cacheCommand = (ICachedCommand)command;
-
-                Object cachedValue = cacheCommand.getCacheableResult();
-                if(log.isDebugEnabled() && cachedValue instanceof ArrayList<?>){
-                    ArrayList<?> list = (ArrayList<?>)cachedValue;
-                    log.debug("putting List with " + list.size() + " elements from "  + cacheCommand.getCacheID() + " to Cache");
-                }
-                getGlobalCache().put(new Element(cacheCommand.getCacheID(), cacheCommand.getCacheableResult()));
-                return command;
+                missingIndexes.add(i);
+                missingCommands.add(command);
             }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Commands: " + commands.size() + ", cached: "
+                    + (commands.size() - missingCommands.size()));
+        }
+        long version = resultCache.getVersion();
+        List<T> results = ExecuteCommandBatch.execute(getCommandService(), missingCommands,
+                parallel);
+        for (int i = 0; i < results.size(); i++) {
+            T command = results.get(i);
+            if (useCache && command instanceof ICachedCommand) {
+                putResult((ICachedCommand) command, version);
+            }
+            executedCommands.set(missingIndexes.get(i), command);
+        }
+        return executedCommands;
+    }
 
-        } else {
-            return getCommandService().executeCommand((GenericCommand)command);
+    private Object getCachedValue(ICommand command) {
+        if (!useCache || !(command instanceof ICachedCommand)) {
+            return null;
         }
+        return resultCache.get(CommandResultCache.createKey(CONTEXT, (ICachedCommand) command));
+    }
+
+    private void putResult(ICachedCommand command, long version) {
+        resultCache.put(CommandResultCache.createKey(CONTEXT, command),
+                command.getCacheableResult(), command.getCacheScopeIds(), version);
+    }
+
+    /* (non-Javadoc)
+     * @see sernet.verinice.interfaces.ICommandCacheClient#invalidate(java.util.Collection)
+     */
+    @Override
+    public void invalidate(Collection<Integer> scopeIds) {
+        resultCache.invalidate(scopeIds);
     }
 
     /* (non-Javadoc)
@@ -95,7 +143,7 @@ public class CommandCacheClient implements ICommandCacheClient {
      */
     @Override
     public boolean isEnabled() {
-        return false;
+        return useCache;
     }
 
     public ICommandService getCommandService() {
@@ -105,29 +153,13 @@ public class CommandCacheClient implements ICommandCacheClient {
     public void setCommandService(ICommandService commandService) {
         this.commandService = commandService;
     }
-    
-    private Cache getGlobalCache() {
-        if (manager == null || Status.STATUS_SHUTDOWN.equals(manager.getStatus()) || globalCache == null || !Status.STATUS_ALIVE.equals(globalCache.getStatus())) {
-            globalCache = createCache();
-        } else {
-            globalCache = manager.getCache(globalCacheId);
-        }
-        return globalCache;
+
+    public CommandResultCache getResultCache() {
+        return resultCache;
     }
-    
-    private Cache createCache() {
-        final int maxElementsInMemory = 20000;
-        final int timeToLiveSeconds = 600;
-        final int timeToIdleSeconds = 500;
-        globalCacheId = UUID.randomUUID().toString();
-        manager = CacheManager.create();
-        globalCache = new Cache(globalCacheId, maxElementsInMemory, false, false, timeToLiveSeconds, timeToIdleSeconds);
-        manager.addCache(globalCache);
-        if(log.isDebugEnabled()){
-            log.debug("Global Report Cache created! Storing cache in:\t" + manager.getDiskStorePath());
-        }
-        
-        return globalCache;
+
+    public void setResultCache(CommandResultCache resultCache) {
+        this.resultCache = resultCache;
     }
 
     /* (non-Javadoc)
@@ -156,24 +188,11 @@ public class CommandCacheClient implements ICommandCacheClient {
     
     @Override
     public void resetCache(){
-        getGlobalCache().removeAll();
+        resultCache.invalidateAll();
     }
     
     private void logCacheStatistics(){
-        Statistics stats = getGlobalCache().getStatistics();
-        log.debug("################start Cache Stats###################");
-        log.debug("AvgGetTime:\t" + stats.getAverageGetTime());
-        log.debug("CacheHits:\t" + stats.getCacheHits());
-        log.debug("CacheMisses:\t" + stats.getCacheMisses());
-        log.debug("DiskStoreObjectCount:\t" + stats.getDiskStoreObjectCount());
-        log.debug("EvictionCount:\t" + stats.getEvictionCount());
-        log.debug("InMemoryHits:\t" + stats.getInMemoryHits());
-        log.debug("MemoryStoreObjectCount:\t" + stats.getMemoryStoreObjectCount());
-        log.debug("ObjectCount:\t" + stats.getObjectCount());
-        log.debug("OnDiskHits:\t" + stats.getOnDiskHits());
-        log.debug("StatisticAccuracy:\t" + stats.getStatisticsAccuracy());
-        log.debug("StatisticAccuracyDescription:\t" + stats.getStatisticsAccuracyDescription());
-        log.debug("################end Cache Stats###################");
+        log.debug(resultCache.toString() + ", hit ratio: " + resultCache.getHitRatio());
     }
 
     /* (non-Javadoc)
@@ -181,7 +200,10 @@ public class CommandCacheClient implements ICommandCacheClient {
      */
     @Override
     public void setUseCache(boolean useCache) {
-        
+        this.useCache = useCache;
+        if (!useCache) {
+            resetCache();
+        }
     }
 
     /* (non-Javadoc)
@@ -50,10 +50,13 @@ import sernet.hui.common.connect.Entity;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.ICommand;
+import sernet.verinice.interfaces.ICommandCacheClient;
+import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.oda.IVeriniceOdaDriver;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.oda.driver.Activator;
 import sernet.verinice.security.report.ReportClassLoader;
+import sernet.verinice.service.commands.ExecuteCommandBatch;
 
 
 
@@ -162,6 +165,8 @@ public class Query implements IQuery
      *
      */
     public class Helper {
+
+		private final List<ICommand> queuedCommands = new ArrayList<>();
         
     	public ICommand execute(ICommand c)
     	{
@@ -174,6 +179,55 @@ public class Query implements IQuery
     			throw new IllegalStateException("Running the command failed.", e);
     		}
     	}
+
+		/**
+		 * Queues a command which is executed by the next call of
+		 * {@link #flush()}. Queue independent commands and flush them to
+		 * execute them with one request to the server.
+		 * 
+		 * @param c
+		 *            A command
+		 * @return The index of the command in the list returned by flush()
+		 */
+		public int queue(ICommand c) {
+			queuedCommands.add(c);
+			return queuedCommands.size() - 1;
+		}
+
+		/**
+		 * Executes all queued commands one after another.
+		 * 
+		 * @return The executed commands in the order they were queued
+		 */
+		public List<ICommand> flush() {
+			return flush(false);
+		}
+
+		/**
+		 * Executes all queued commands and clears the queue.
+		 * 
+		 * @param parallel
+		 *            If true the server executes the commands in parallel
+		 * @return The executed commands in the order they were queued
+		 */
+		public List<ICommand> flush(boolean parallel) {
+			if (queuedCommands.isEmpty()) {
+				return Collections.emptyList();
+			}
+			List<ICommand> commands = new ArrayList<>(queuedCommands);
+			queuedCommands.clear();
+			try {
+				ICommandService commandService = Activator.getDefault().getCommandService();
+				if (commandService instanceof ICommandCacheClient) {
+					return ((ICommandCacheClient) commandService).executeCommands(commands,
+							parallel);
+				}
+				return ExecuteCommandBatch.execute(commandService, commands, parallel);
+			} catch (CommandException e) {
+				log.error("Query Helper: running a command batch failed.", e);
+				throw new IllegalStateException("Running the command batch failed.", e);
+			}
+		}
     	
         /**
          * A variant of 'retrieveEntityValues' which does not specify the type of the properties. (Defaults